@@ -0,0 +1,35 @@
+package com.qubo;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * デーモンスレッドを生成する{@link ThreadFactory}。<br />
+ * 画面の裏で先に計算しておくような、プログラムの終了を妨げるべきではない処理のために使う。
+ * スレッド名は「名前-連番」となる。
+ * @author Qubo
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+	private final String name;
+	/** 生成したスレッドの数 */
+	private final AtomicInteger count = new AtomicInteger();
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param name スレッド名
+	 */
+	public DaemonThreadFactory(String name) {
+		this.name = name;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+	 */
+	@Override
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+}
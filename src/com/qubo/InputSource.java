@@ -0,0 +1,17 @@
+package com.qubo;
+
+import java.io.IOException;
+
+/**
+ * ユーザー入力を一行ずつ読み込むための入力元を表したインタフェース。<br />
+ * 標準入力の代わりに、記録済みの入力などを与えるために使う。
+ * @author Qubo
+ */
+public interface InputSource {
+	/**
+	 * 入力を一行読み込む
+	 * @return 読み込んだ一行（改行文字は含まない）。入力の終端に達した場合は{@code null}
+	 * @throws IOException 入力の読み込みに失敗した場合に発生
+	 */
+	String readLine() throws IOException;
+}
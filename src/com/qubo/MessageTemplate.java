@@ -0,0 +1,195 @@
+package com.qubo;
+
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link MessageFormat}形式の文字列フォーマットを、事前に解析しておいたもの。<br />
+ * 一度解析したフォーマットはキャッシュされるので、同じフォーマットを何度使っても解析は一回で済む。
+ * ただし、引数指定（{@code {}）を含まないフォーマットは、組み立てた文字列をそのまま渡されることが多く、
+ * キャッシュを使い切ってしまうのでキャッシュしない。組み立てた文字列は、フォーマットではなく引数として渡すこと。
+ * インスタンスは不変なので、複数のスレッドから同時に利用できる。<br />
+ * {@code {0}}のような単純な引数指定だけを高速に処理し、
+ * {@code {0,number,#.##}}のような書式指定を含むフォーマットは、内部で{@link MessageFormat}に処理を委ねる。
+ * @author Qubo
+ */
+public final class MessageTemplate {
+	/** キャッシュするフォーマットの最大数 */
+	public static final int CACHE_LIMIT = 1024;
+	/** 解析済みのフォーマットのキャッシュ */
+	private static final ConcurrentMap<String, MessageTemplate> cache = new ConcurrentHashMap<String, MessageTemplate>();
+	/** 数値の書式化に使う、スレッドごとの{@link NumberFormat} */
+	private static final ThreadLocal<NumberFormat> numberFormat = new ThreadLocal<NumberFormat>() {
+		@Override protected NumberFormat initialValue() { return NumberFormat.getInstance(); }
+	};
+	/** 日付の書式化に使う、スレッドごとの{@link DateFormat} */
+	private static final ThreadLocal<DateFormat> dateFormat = new ThreadLocal<DateFormat>() {
+		@Override protected DateFormat initialValue() { return DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT); }
+	};
+
+	/** 引数の間にある固定文字列（引数の数＋1個） */
+	private final String[] literals;
+	/** 引数のインデックス */
+	private final int[] indices;
+	/** 単純な引数指定以外を含む場合に、処理を委ねる{@link MessageFormat}（単純な場合は{@code null}） */
+	private final MessageFormat fallback;
+
+	private MessageTemplate(String[] literals, int[] indices, MessageFormat fallback) {
+		this.literals = literals;
+		this.indices = indices;
+		this.fallback = fallback;
+	}
+
+	/**
+	 * フォーマットを解析して{@link MessageTemplate}インスタンスを取得する。
+	 * 既に解析済みのフォーマットであれば、キャッシュされたインスタンスを返す。
+	 * 引数指定を含まないフォーマットは、キャッシュせずに毎回解析する。
+	 * @param pattern 文字列フォーマット
+	 * @return {@link MessageTemplate}インスタンス
+	 * @throws IllegalArgumentException フォーマットがおかしい場合に発生
+	 */
+	public static MessageTemplate compile(String pattern) {
+		MessageTemplate template = cache.get(pattern);
+		if (template == null) {
+			template = parse(pattern);
+			if (pattern.indexOf('{') >= 0 && cache.size() < CACHE_LIMIT) {
+				cache.putIfAbsent(pattern, template);
+			}
+		}
+		return template;
+	}
+	/**
+	 * {@link MessageFormat#format(String, Object...)}と同じ結果を、解析済みのフォーマットを使って取得する。
+	 * @param pattern 文字列フォーマット
+	 * @param arguments フォーマットの引数
+	 * @return フォーマットされた文字列
+	 */
+	public static String format(String pattern, Object... arguments) {
+		return compile(pattern).format(arguments);
+	}
+
+	/**
+	 * 引数を埋め込んだ文字列を取得する
+	 * @param arguments フォーマットの引数
+	 * @return フォーマットされた文字列
+	 */
+	public String format(Object... arguments) {
+		if (fallback == null && indices.length == 0) {
+			return literals[0];
+		}
+		return format(new StringBuilder(), arguments).toString();
+	}
+	/**
+	 * 引数を埋め込んだ文字列を、{@code out}に追記する
+	 * @param out 出力先
+	 * @param arguments フォーマットの引数
+	 * @return {@code out}
+	 */
+	public StringBuilder format(StringBuilder out, Object... arguments) {
+		if (fallback != null) {
+			StringBuffer buffer = new StringBuffer();
+			((MessageFormat) fallback.clone()).format(arguments, buffer, null);
+			return out.append(buffer);
+		}
+		out.append(literals[0]);
+		for (int i = 0; i < indices.length; i++) {
+			int index = indices[i];
+			if (arguments == null || index >= arguments.length) {
+				out.append('{').append(index).append('}');
+			} else {
+				appendArgument(out, arguments[index]);
+			}
+			out.append(literals[i + 1]);
+		}
+		return out;
+	}
+
+	/**
+	 * 引数を{@link MessageFormat}と同じ規則で文字列にして追記する
+	 * @param out 出力先
+	 * @param argument 引数
+	 */
+	private static void appendArgument(StringBuilder out, Object argument) {
+		if (argument instanceof String) {
+			out.append((String) argument);
+		} else if (argument instanceof Integer || argument instanceof Short || argument instanceof Byte) {
+			int value = ((Number) argument).intValue();
+			if (value > -1000 && value < 1000) {
+				out.append(value);
+			} else {
+				out.append(numberFormat.get().format(value));
+			}
+		} else if (argument instanceof Number) {
+			out.append(numberFormat.get().format(argument));
+		} else if (argument instanceof Date) {
+			out.append(dateFormat.get().format(argument));
+		} else {
+			out.append(argument);
+		}
+	}
+	/**
+	 * フォーマットを解析する
+	 * @param pattern 文字列フォーマット
+	 * @return {@link MessageTemplate}インスタンス
+	 */
+	private static MessageTemplate parse(String pattern) {
+		List<String> literals = new ArrayList<String>();
+		List<Integer> indices = new ArrayList<Integer>();
+		StringBuilder literal = new StringBuilder();
+		boolean inQuote = false;
+		for (int i = 0; i < pattern.length(); i++) {
+			char ch = pattern.charAt(i);
+			if (ch == '\'') {
+				if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+					literal.append('\'');
+					i++;
+				} else {
+					inQuote = !inQuote;
+				}
+			} else if (ch == '{' && !inQuote) {
+				int end = pattern.indexOf('}', i);
+				int index = (end < 0) ? -1 : parseIndex(pattern, i + 1, end);
+				if (index < 0) {
+					// 書式指定付きの引数や、おかしなフォーマットは MessageFormat に任せる
+					return new MessageTemplate(null, null, new MessageFormat(pattern));
+				}
+				literals.add(literal.toString());
+				literal.setLength(0);
+				indices.add(index);
+				i = end;
+			} else {
+				literal.append(ch);
+			}
+		}
+		literals.add(literal.toString());
+
+		int[] indexArray = new int[indices.size()];
+		for (int i = 0; i < indexArray.length; i++) {
+			indexArray[i] = indices.get(i);
+		}
+		return new MessageTemplate(literals.toArray(new String[literals.size()]), indexArray, null);
+	}
+	/**
+	 * 引数指定の中身が数字だけで構成されていれば、その値を返す
+	 * @param pattern 文字列フォーマット
+	 * @param start 引数指定の開始位置
+	 * @param end 引数指定の終了位置
+	 * @return 引数のインデックス（数字以外を含む場合は-1）
+	 */
+	private static int parseIndex(String pattern, int start, int end) {
+		if (start == end || end - start > 9) return -1;
+		int index = 0;
+		for (int i = start; i < end; i++) {
+			char ch = pattern.charAt(i);
+			if (ch < '0' || ch > '9') return -1;
+			index = index * 10 + (ch - '0');
+		}
+		return index;
+	}
+}
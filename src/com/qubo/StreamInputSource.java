@@ -0,0 +1,38 @@
+package com.qubo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+/**
+ * {@link InputStream}から一行ずつ読み込む入力元。<br />
+ * 読み込みには一つの{@link BufferedReader}を使い回すので、
+ * パイプなどで一度に渡された入力も、バッファに読み込まれた分を取りこぼすことなく順番に読み込める。
+ * 複数のスレッドから同時に読み込んでも、一行が途中で分断されることはない。
+ * @author Qubo
+ */
+public class StreamInputSource implements InputSource {
+	private final BufferedReader reader;
+
+	/**
+	 * 標準のコンストラクタ。プラットフォームのデフォルトのエンコーディングで読み込む。
+	 * @param in 入力ストリーム
+	 */
+	public StreamInputSource(InputStream in) {
+		this(new InputStreamReader(in));
+	}
+	/**
+	 * {@link Reader}から読み込むコンストラクタ
+	 * @param reader 読み込み元
+	 */
+	public StreamInputSource(Reader reader) {
+		this.reader = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	@Override
+	public synchronized String readLine() throws IOException {
+		return reader.readLine();
+	}
+}
@@ -0,0 +1,115 @@
+package com.qubo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 多数のスレッドから同時に加算される、{@code long}の配列。<br />
+ * 配列全体を複数の縞（ストライプ）として持ち、スレッドごとに異なる縞に加算することで、
+ * 同じ要素への加算が一つのキャッシュラインに集中するのを避ける（Java 8の{@code LongAdder}と同じ考え方）。
+ * 縞どうしはキャッシュラインを共有しないように間隔を空けて配置する。<br />
+ * 値の取得は全ての縞の合計になるので、加算中に読んでも各要素は途中までの正しい合計になるが、
+ * 要素間で同時点の値であることは保証しない。
+ * @author Qubo
+ */
+public final class StripedLongArray {
+	/** 縞の間隔の最小単位（{@code long}の数。128バイト分） */
+	private static final int PADDING = 16;
+	/** スレッドに縞を割り当てるための通し番号 */
+	private static final AtomicInteger nextProbe = new AtomicInteger();
+	/** スレッドごとの縞の番号の元になる値 */
+	private static final ThreadLocal<Integer> probe = new ThreadLocal<Integer>() {
+		@Override protected Integer initialValue() { return nextProbe.getAndIncrement(); }
+	};
+
+	private final int length;
+	private final int stride;
+	private final int stripeMask;
+	private final AtomicLongArray cells;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param length 配列の長さ
+	 * @param stripes 縞の数（2のべき乗に切り上げる）
+	 * @throws IllegalArgumentException 長さや縞の数がおかしい場合に発生
+	 */
+	public StripedLongArray(int length, int stripes) {
+		if (length < 0 || stripes <= 0) throw new IllegalArgumentException("配列の長さと縞の数の指定がおかしいです！");
+		int size = Integer.highestOneBit(stripes);
+		if (size < stripes) size <<= 1;
+		this.length = length;
+		this.stride = (length + PADDING - 1) / PADDING * PADDING + PADDING;
+		this.stripeMask = size - 1;
+		this.cells = new AtomicLongArray(stride * size);
+	}
+	/**
+	 * 利用できるプロセッサの数の2倍の縞を持つ配列を作るコンストラクタ
+	 * @param length 配列の長さ
+	 */
+	public StripedLongArray(int length) { this(length, Runtime.getRuntime().availableProcessors() * 2); }
+
+	/**
+	 * 配列の長さを取得する
+	 * @return 配列の長さ
+	 */
+	public int length() { return length; }
+	/**
+	 * 要素に値を加える
+	 * @param index 要素の位置
+	 * @param delta 加える値
+	 */
+	public void add(int index, long delta) {
+		if (index < 0 || index >= length) throw new ArrayIndexOutOfBoundsException(index);
+		cells.getAndAdd(base() + index, delta);
+	}
+	/**
+	 * 要素に1を加える
+	 * @param index 要素の位置
+	 */
+	public void increment(int index) { add(index, 1); }
+	/**
+	 * スレッドごとに数えておいた値を、まとめて加える
+	 * @param deltas 要素ごとの加える値（長さはこの配列以下）
+	 */
+	public void addAll(long[] deltas) {
+		if (deltas.length > length) throw new ArrayIndexOutOfBoundsException(deltas.length);
+		int base = base();
+		for (int i = 0; i < deltas.length; i++) {
+			if (deltas[i] != 0) cells.getAndAdd(base + i, deltas[i]);
+		}
+	}
+	/**
+	 * 要素の値（全ての縞の合計）を取得する
+	 * @param index 要素の位置
+	 * @return 要素の値
+	 */
+	public long get(int index) {
+		if (index < 0 || index >= length) throw new ArrayIndexOutOfBoundsException(index);
+		long sum = 0;
+		for (int offset = index; offset < cells.length(); offset += stride) {
+			sum += cells.get(offset);
+		}
+		return sum;
+	}
+	/**
+	 * 全ての要素の値を取得する
+	 * @return 要素の値の配列
+	 */
+	public long[] snapshot() {
+		long[] values = new long[length];
+		for (int base = 0; base < cells.length(); base += stride) {
+			for (int i = 0; i < length; i++) {
+				values[i] += cells.get(base + i);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * 現在のスレッドが加算する縞の先頭の位置を取得する
+	 * @return 縞の先頭の位置
+	 */
+	private int base() {
+		return (probe.get() & stripeMask) * stride;
+	}
+}
@@ -1,16 +1,23 @@
 package com.qubo;
 
-import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
-import java.text.MessageFormat;
 
 /**
  * 便利関数を集めたクラス
  * @author Qubo
  */
 public class Utils {
+	/** 入力の読み込みに失敗した場合のエラーメッセージ */
+	public static final String ERROR_INPUT = "入力を読み込めませんでした！";
+	/** 入力が終端に達した場合のエラーメッセージ */
+	public static final String ERROR_END_OF_INPUT = "入力が終端に達しました！";
+	/** 文字の入力が候補に無い場合のエラーメッセージ */
+	public static final String ERROR_INVALID_CHARACTER = "正しい値を入力してください！";
+	/** 全てのプロンプトで共有する、標準の入力元 */
+	private static volatile InputSource standardInput = new StreamInputSource(System.in);
 	/** 全角文字検出のためのエンコーディング */
 	private static final String WINDOWS31J = "Windows-31J";
 	/** {@link #pad(String, int, boolean)}で内部的に使う省略記号 */
@@ -40,6 +47,20 @@ public class Utils {
 	private static final int SMALL_LETTER_END = 0x7A;
 	/** 文字コード上での、任意の半角英数字とそれに対応する全角英数字までの差 */
 	private static final int OFFSET_TO_FULL_WIDTH = 'Ａ' - 'A';
+	/** ASCIIの文字ごとの、対応する全角文字（変換しない文字はそのまま） */
+	private static final char[] FULL_WIDTH = new char[128];
+
+	static {
+		for (char c = 0; c < FULL_WIDTH.length; c++) {
+			if (isNumber((int) c) || isCapitalLetter((int) c) || isSmallLetter((int) c) || isSign(c)) {
+				FULL_WIDTH[c] = (char) ((int) c + OFFSET_TO_FULL_WIDTH);
+			} else if (c == ' ') { // 半角スペースの場合
+				FULL_WIDTH[c] = '　';
+			} else {
+				FULL_WIDTH[c] = c;
+			}
+		}
+	}
 
 	/**
 	 * 半角の英数記号を全角に変換する。半角英数記号以外のものが与えられた場合、そのまま引数の値を返す。
@@ -47,13 +68,78 @@ public class Utils {
 	 * @return {@code value}に対応する全角英数記号
 	 */
 	public static char toFullWidth(char value) {
-		if (isNumber((int) value) || isCapitalLetter((int) value) || isSmallLetter((int) value) || isSign(value)) {
-			return (char) ((int) value + OFFSET_TO_FULL_WIDTH);
-		} else if (value == ' ') { // 半角スペースの場合
-			return '　';
-		} else {
-			return value;
+		return (value < FULL_WIDTH.length) ? FULL_WIDTH[value] : value;
+	}
+	/**
+	 * 文字列中の半角英数記号を全て全角に変換する
+	 * @param text 文字列
+	 * @return 変換した文字列
+	 */
+	public static String toFullWidth(String text) {
+		return toFullWidth(text, new StringBuilder(text.length())).toString();
+	}
+	/**
+	 * 文字列中の半角英数記号を全て全角に変換して、{@code out}に追記する
+	 * @param text 文字列
+	 * @param out 出力先
+	 * @return {@code out}
+	 */
+	public static StringBuilder toFullWidth(CharSequence text, StringBuilder out) {
+		for (int i = 0; i < text.length(); i++) {
+			out.append(toFullWidth(text.charAt(i)));
+		}
+		return out;
+	}
+	/**
+	 * 文字配列の範囲内の半角英数記号を全て全角に変換して、{@code out}に追記する
+	 * @param chars 文字配列
+	 * @param offset 変換を開始する位置
+	 * @param length 変換する文字数
+	 * @param out 出力先
+	 * @return {@code out}
+	 */
+	public static StringBuilder toFullWidth(char[] chars, int offset, int length, StringBuilder out) {
+		for (int i = offset; i < offset + length; i++) {
+			out.append(toFullWidth(chars[i]));
+		}
+		return out;
+	}
+	/**
+	 * {@link #toFullWidth(char)}で変換される全角文字を、元の半角文字に戻す。それ以外の文字はそのまま返す。
+	 * @param value 全角英数記号
+	 * @return {@code value}に対応する半角英数記号
+	 */
+	public static char toHalfWidth(char value) {
+		if (value == '　') return ' ';
+		int half = value - OFFSET_TO_FULL_WIDTH;
+		return (half >= 0 && half < FULL_WIDTH.length && FULL_WIDTH[half] == value) ? (char) half : value;
+	}
+	/**
+	 * 文字列中の全角英数記号を全て半角に戻す。全角で入力されたユーザー入力を解析する場合などに使う。
+	 * @param text 文字列
+	 * @return 変換した文字列（変換する文字が無ければ{@code text}そのもの）
+	 */
+	public static String toHalfWidth(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (toHalfWidth(c) != c) {
+				StringBuilder builder = new StringBuilder(text.length()).append(text, 0, i);
+				return toHalfWidth(text.subSequence(i, text.length()), builder).toString();
+			}
+		}
+		return text;
+	}
+	/**
+	 * 文字列中の全角英数記号を全て半角に戻して、{@code out}に追記する
+	 * @param text 文字列
+	 * @param out 出力先
+	 * @return {@code out}
+	 */
+	public static StringBuilder toHalfWidth(CharSequence text, StringBuilder out) {
+		for (int i = 0; i < text.length(); i++) {
+			out.append(toHalfWidth(text.charAt(i)));
 		}
+		return out;
 	}
 	/**
 	 * 与えられた文字が、半角小文字アルファベットかどうかを取得する
@@ -135,7 +221,21 @@ public class Utils {
 		return result;
 	}
 	/**
-	 * コンソールでユーザーに対して文字の入力を求める。
+	 * 全てのプロンプトで共有する、標準の入力元を取得する。
+	 * 特に設定しなければ、標準入力から読み込む{@link StreamInputSource}が使われる。
+	 * @return 標準の入力元
+	 */
+	public static InputSource getStandardInput() { return standardInput; }
+	/**
+	 * 全てのプロンプトで共有する、標準の入力元を設定する
+	 * @param input 標準の入力元
+	 */
+	public static void setStandardInput(InputSource input) {
+		if (input == null) throw new IllegalArgumentException("入力元にはnullを指定できません！");
+		standardInput = input;
+	}
+	/**
+	 * 標準の入力元から、ユーザーに対して文字の入力を求める。
 	 * 入力文字が{@code candidates}に指定された文字配列の中に存在しない場合、再度入力を求める。
 	 * また、ユーザーが何も入力せずにEnterキーを押した場合、{@code defaultChar}が入力として適用される。
 	 * @param candidates 文字候補配列
@@ -143,28 +243,42 @@ public class Utils {
 	 * @return ユーザーの入力文字
 	 */
 	public static char promptChar(char[] candidates, char defaultChar) {
-		String candidatesStr = String.copyValueOf(candidates).toLowerCase();
-
-		BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+		return promptChar(standardInput, System.out, candidates, defaultChar);
+	}
+	/**
+	 * 指定した入力元から、ユーザーに対して文字の入力を求める。
+	 * 入力文字が{@code candidates}に指定された文字配列の中に存在しない場合、{@code out}にエラーを表示して再度入力を求める。
+	 * 全角の英数記号で入力された場合は、半角に戻してから判定する。
+	 * また、ユーザーが何も入力せずにEnterキーを押した場合、{@code defaultChar}が入力として適用される。
+	 * @param input 入力元
+	 * @param out エラーメッセージの出力先
+	 * @param candidates 文字候補配列
+	 * @param defaultChar デフォルトの文字
+	 * @return ユーザーの入力文字
+	 * @throws IllegalStateException 入力の読み込みに失敗した場合、および入力が終端に達した場合に発生
+	 */
+	public static char promptChar(InputSource input, PrintStream out, char[] candidates, char defaultChar) {
 		try {
 			while (true) {
-				String line = reader.readLine().toLowerCase();
+				String line = toHalfWidth(readLine(input));
 				if (line.length() == 1) {
-					if (candidatesStr.contains(line.substring(0, 1))) {
-						return line.charAt(0);
+					char selected = Character.toLowerCase(line.charAt(0));
+					for (char candidate : candidates) {
+						if (Character.toLowerCase(candidate) == selected) {
+							return selected;
+						}
 					}
 				} else if (line.length() == 0) {
 					return defaultChar;
 				}
-				System.out.println("正しい値を入力してください！");
+				out.println(ERROR_INVALID_CHARACTER);
 			}
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new IllegalStateException(ERROR_INPUT, e);
 		}
-		throw new RuntimeException("到達不能なコードに達しました！");
 	}
 	/**
-	 * コンソールでユーザーに対して整数値の入力を求める。
+	 * 標準の入力元から、ユーザーに対して整数値の入力を求める。
 	 * 数値が{@code min}～{@code max}の範囲外だった場合、および整数値以外が入力された場合、再度入力を求める。
 	 * また、ユーザーが何も入力せずにEnterキーを押した場合、{@code null}を返す。
 	 * @param min 求める整数の最小値
@@ -172,11 +286,25 @@ public class Utils {
 	 * @return ユーザーの入力数値
 	 */
 	public static Integer promptInteger(int min, int max) {
-		BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+		return promptInteger(standardInput, System.out, min, max);
+	}
+	/**
+	 * 指定した入力元から、ユーザーに対して整数値の入力を求める。
+	 * 数値が{@code min}～{@code max}の範囲外だった場合、および整数値以外が入力された場合、{@code out}にエラーを表示して再度入力を求める。
+	 * 全角の英数記号で入力された場合は、半角に戻してから判定する。
+	 * また、ユーザーが何も入力せずにEnterキーを押した場合、{@code null}を返す。
+	 * @param input 入力元
+	 * @param out エラーメッセージの出力先
+	 * @param min 求める整数の最小値
+	 * @param max 求める整数の最大値
+	 * @return ユーザーの入力数値
+	 * @throws IllegalStateException 入力の読み込みに失敗した場合、および入力が終端に達した場合に発生
+	 */
+	public static Integer promptInteger(InputSource input, PrintStream out, int min, int max) {
 		try {
 			while (true) {
 				try {
-					String line = reader.readLine();
+					String line = toHalfWidth(readLine(input));
 					if (Utils.isBlank(line)) {
 						return null;
 					}
@@ -185,17 +313,27 @@ public class Utils {
 					if (value >= min && value <= max) {
 						return value;
 					} else {
-						System.out.println(MessageFormat.format("{0}~{1}の範囲で数値を入力してください！", min, max));
+						out.println(MessageTemplate.format("{0}~{1}の範囲で数値を入力してください！", min, max));
 					}
 
 				} catch (NumberFormatException e) {
-					System.out.println("正しい数値を入力してください！");
+					out.println("正しい数値を入力してください！");
 				}
 			}
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new IllegalStateException(ERROR_INPUT, e);
 		}
-		throw new RuntimeException("到達不能なコードに達しました！");
+	}
+	/**
+	 * 入力元から一行読み込む。入力が終端に達していた場合は例外を発生させる。
+	 * @param input 入力元
+	 * @return 読み込んだ一行
+	 * @throws IOException 入力の読み込みに失敗した場合、および入力が終端に達した場合に発生
+	 */
+	public static String readLine(InputSource input) throws IOException {
+		String line = input.readLine();
+		if (line == null) throw new EOFException(ERROR_END_OF_INPUT);
+		return line;
 	}
 	/**
 	 * 文字列が空かどうかを取得する
@@ -0,0 +1,90 @@
+package com.qubo.challenge.poker;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.views.AbstractView;
+
+/**
+ * 手札の枠を表示するための、組み立て済みの行と部品。<br />
+ * 枠の上下と番号の行は固定なので、枠線レイアウト内の行として事前に組み立てておく。
+ * マークと数字の行は、カードコードごとに事前に作った「┃Ｈ┃」のような部品を5つ並べるだけで組み立てる。
+ * 部品の表示幅はどのカードでも同じなので、右側の余白も固定である。
+ * @author Qubo
+ */
+final class CardFrames {
+	private CardFrames() { }
+
+	/** 枠の上端の行 */
+	static final String TOP = AbstractView.toFramedLine("┏━┓┏━┓┏━┓┏━┓┏━┓");
+	/** 枠の下端の行 */
+	static final String BOTTOM = AbstractView.toFramedLine("┗━┛┗━┛┗━┛┗━┛┗━┛");
+	/** カードの番号の行 */
+	static final String POSITIONS = AbstractView.toFramedLine("  １    ２    ３    ４    ５  ");
+
+	/** マークと数字の行の左端 */
+	private static final String ROW_HEAD = "┃ ";
+	/** マークと数字の行の、カードより右の部分（余白と右端） */
+	private static final String ROW_TAIL;
+	/** カードコードごとの、マークの部品 */
+	private static final String[] SUIT_CELLS = new String[Card.CODE_COUNT];
+	/** カードコードごとの、数字の部品 */
+	private static final String[] NUMBER_CELLS = new String[Card.CODE_COUNT];
+
+	static {
+		for (int code = 0; code < Card.CODE_COUNT; code++) {
+			Card card = toCard(code);
+			SUIT_CELLS[code] = "┃" + card.getSuitSymbol2Bytes() + "┃";
+			NUMBER_CELLS[code] = "┃" + card.getNumberSymbol2Bytes() + "┃";
+		}
+		StringBuilder cells = new StringBuilder();
+		for (int i = 0; i < Hand.SIZE; i++) {
+			cells.append(SUIT_CELLS[0]);
+		}
+		String line = AbstractView.toFramedLine(cells.toString());
+		ROW_TAIL = line.substring(ROW_HEAD.length() + cells.length());
+	}
+
+	/**
+	 * 手札のマークの行を組み立てる
+	 * @param out 出力先（内容は置き換える）
+	 * @param hand 手札
+	 * @return {@code out}
+	 */
+	static StringBuilder suitRow(StringBuilder out, Hand hand) { return row(out, hand, SUIT_CELLS); }
+	/**
+	 * 手札の数字の行を組み立てる
+	 * @param out 出力先（内容は置き換える）
+	 * @param hand 手札
+	 * @return {@code out}
+	 */
+	static StringBuilder numberRow(StringBuilder out, Hand hand) { return row(out, hand, NUMBER_CELLS); }
+
+	/**
+	 * 手札の先頭5枚の部品を並べた行を組み立てる
+	 * @param out 出力先（内容は置き換える）
+	 * @param hand 手札
+	 * @param cells カードコードごとの部品
+	 * @return {@code out}
+	 */
+	private static StringBuilder row(StringBuilder out, Hand hand, String[] cells) {
+		out.setLength(0);
+		out.append(ROW_HEAD);
+		for (int i = 0; i < Hand.SIZE; i++) {
+			out.append(cells[hand.get(i).getCode()]);
+		}
+		return out.append(ROW_TAIL);
+	}
+	/**
+	 * 範囲内であることが分かっているカードコードを{@link Card}インスタンスにする
+	 * @param code カードコード
+	 * @return {@link Card}インスタンス
+	 */
+	private static Card toCard(int code) {
+		try {
+			return Card.valueOf(code);
+		} catch (CardException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+}
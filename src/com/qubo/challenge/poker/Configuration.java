@@ -1,5 +1,7 @@
 package com.qubo.challenge.poker;
 
+import com.qubo.challenge.poker.history.HandHistoryWriter;
+
 /**
  * ゲームの設定を保存するクラス
  * @author Qubo
@@ -15,4 +17,6 @@ public abstract class Configuration {
 	public static int jokerCount = DEFAULT_JOKERCOUNT;
 	/** カードの交換回数 */
 	public static int changeCount = DEFAULT_CHANGECOUNT;
+	/** ゲームの経過の記録先（{@code null}の場合は記録しない） */
+	public static HandHistoryWriter handHistoryWriter = null;
 }
@@ -4,6 +4,7 @@ import com.qubo.challenge.poker.models.CardException;
 import com.qubo.views.AbstractYesNoView;
 import com.qubo.views.IntegerInputView;
 import com.qubo.views.MenuView;
+import com.qubo.views.PreparedView;
 import com.qubo.views.View;
 import com.qubo.views.ViewApplication;
 
@@ -27,10 +28,10 @@ public class ConsoleGame {
 	public View buildMenu() {
 		final MenuView menu = new MenuView("メインメニュー");
 
-		View gameStart = new View() {
-			@Override public View view() { return new GameView(menu); }
-			@Override public String getName() { return "ゲーム開始"; }
-		};
+		// 配る処理は、メニューで入力を待つ間に済ませておく
+		View gameStart = new PreparedView("ゲーム開始", new PreparedView.Factory() {
+			@Override public View create() { return new GameView(menu); }
+		});
 		View changeJokerCount = new IntegerInputView(menu, "ジョーカーの枚数", 0, 2) {
 			@Override protected void setValue(int value) { Configuration.jokerCount = value; }
 			@Override protected int getValue() { return Configuration.jokerCount; }
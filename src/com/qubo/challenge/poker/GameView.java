@@ -1,13 +1,25 @@
 package com.qubo.challenge.poker;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import com.qubo.DaemonThreadFactory;
+import com.qubo.Utils;
+import com.qubo.challenge.poker.history.HandHistory;
+import com.qubo.challenge.poker.history.HandHistoryWriter;
 import com.qubo.challenge.poker.models.CardException;
 import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.DeckComposition;
+import com.qubo.challenge.poker.models.DrawOdds;
 import com.qubo.challenge.poker.models.Hand;
 import com.qubo.challenge.poker.models.TypeOfHand;
+import com.qubo.metrics.EventType;
+import com.qubo.metrics.Events;
 import com.qubo.views.AbstractView;
 import com.qubo.views.View;
 
@@ -16,10 +28,30 @@ import com.qubo.views.View;
  * @author Qubo
  */
 public class GameView extends AbstractView<int[]> {
+	/** 手札を表示してから役が確定するまでのイベント */
+	private static final EventType ROUND_EVENT = Events.type("poker.round");
+	/** 画面に表示する、役が上がる確率の高い交換の仕方の数 */
+	private static final int ODDS_CANDIDATES = 3;
+	/** 交換の仕方ごとの確率の詳細を表示する入力 */
+	private static final String ODDS_DETAIL_INPUT = "?";
+	/** 交換の仕方ごとの確率を計算するスレッド。ゲームの終了を妨げないようにデーモンスレッドとする。 */
+	private static final ExecutorService ODDS_EXECUTOR = Executors.newSingleThreadExecutor(new DaemonThreadFactory("draw-odds"));
 	private Deck deck;
 	private Hand hand;
 	private int changeCount;
 	private final View parent;
+	private final HandHistoryWriter historyWriter;
+	private HandHistory.Recorder recorder;
+	/** ラウンドのイベントの開始時刻（手札を初めて表示した時刻） */
+	private long roundEvent;
+	/** 手札を表示したことがあるかどうか（表示するまではラウンドのイベントも確率の計算も始めない） */
+	private boolean shown;
+	/** このラウンドで交換した回数 */
+	private int exchanges;
+	/** 現在の手札での交換の仕方ごとの確率（交換できない場合は{@code null}）。計算が終われば再表示の際にもそのまま使う。 */
+	private Future<DrawOdds> odds;
+	/** 手札の行を組み立てるためのバッファ */
+	private final StringBuilder rowBuffer = new StringBuilder(AbstractView.LAYOUT_WIDTH);
 
 	/**
 	 * コンストラクタ
@@ -28,10 +60,13 @@ public class GameView extends AbstractView<int[]> {
 	GameView(View parent) {
 		super("ポーカー");
 		this.parent = parent;
+		this.historyWriter = Configuration.handHistoryWriter;
 		try {
 			changeCount = Configuration.changeCount;
 			deck = new Deck(Configuration.jokerCount);
 			hand = deck.deal();
+			if (historyWriter != null)
+				recorder = new HandHistory.Recorder(deck.getJokerCount(), changeCount, hand);
 		} catch (CardException e) {
 			e.printStackTrace();
 		}
@@ -39,26 +74,23 @@ public class GameView extends AbstractView<int[]> {
 
 	@Override
 	protected void renderBody() {
+		// 配る処理はメニューで入力を待つ間に済んでいることがあるので、計測は表示から始める。
+		// 準備されたまま選ばれずに捨てられるビューもあるので、確率の計算も表示するまで始めない
+		if (!shown) {
+			shown = true;
+			roundEvent = Events.begin(ROUND_EVENT);
+			startOdds();
+		}
 		TypeOfHand typeOfHand = TypeOfHand.getTypeOfHand(hand);
 
 		if (changeCount == Configuration.changeCount)
 			printLine("初期手札は次のとおりです。");
 
-		printLine("┏━┓┏━┓┏━┓┏━┓┏━┓");
-		printLine("┃{0}┃┃{1}┃┃{2}┃┃{3}┃┃{4}┃",
-				hand.get(0).getSuitSymbol2Bytes(),
-				hand.get(1).getSuitSymbol2Bytes(),
-				hand.get(2).getSuitSymbol2Bytes(),
-				hand.get(3).getSuitSymbol2Bytes(),
-				hand.get(4).getSuitSymbol2Bytes());
-		printLine("┃{0}┃┃{1}┃┃{2}┃┃{3}┃┃{4}┃",
-				hand.get(0).getNumberSymbol2Bytes(),
-				hand.get(1).getNumberSymbol2Bytes(),
-				hand.get(2).getNumberSymbol2Bytes(),
-				hand.get(3).getNumberSymbol2Bytes(),
-				hand.get(4).getNumberSymbol2Bytes());
-		printLine("┗━┛┗━┛┗━┛┗━┛┗━┛");
-		printLine("  １    ２    ３    ４    ５  ");
+		printFramedLine(CardFrames.TOP);
+		printFramedLine(CardFrames.suitRow(rowBuffer, hand));
+		printFramedLine(CardFrames.numberRow(rowBuffer, hand));
+		printFramedLine(CardFrames.BOTTOM);
+		printFramedLine(CardFrames.POSITIONS);
 
 		if (changeCount == 0) {
 			printLine("役は[{0}]です。Enterキーを押すとメニューに戻ります", typeOfHand.getName());
@@ -70,17 +102,168 @@ public class GameView extends AbstractView<int[]> {
 			printLine("現在の役は[{0}]です。あと{1}回カードを交換できます。", typeOfHand.getName(), changeCount);
 			printLine("変更したいカードの番号を入力してください(1～5)。");
 			printLine("何も入力せずにEnterキーを押すと、現在の役を確定させます。");
+			renderOdds(typeOfHand);
 		}
 	}
 
+	/**
+	 * 役が上がる確率の高い交換の仕方を表示する。計算が終わっていない場合は待たずにその旨を表示する。
+	 * @param typeOfHand 現在の役
+	 */
+	private void renderOdds(TypeOfHand typeOfHand) {
+		// 最も強い役からは上がりようがない
+		if (odds == null || typeOfHand.ordinal() == 0) return;
+		DrawOdds result = getOddsIfDone();
+		printThinSeparator();
+		if (result == null) {
+			printLine("交換したときの確率を計算中です。（{0}を入力すると再表示します）", ODDS_DETAIL_INPUT);
+			return;
+		}
+		int[] masks = rankByImprovement(result, typeOfHand);
+		for (int i = 0; i < ODDS_CANDIDATES && i < masks.length; i++) {
+			int mask = masks[i];
+			TypeOfHand likeliest = null;
+			for (TypeOfHand candidate : TypeOfHand.values()) {
+				if (candidate.ordinal() < typeOfHand.ordinal()
+						&& (likeliest == null || result.getWays(mask, candidate) > result.getWays(mask, likeliest)))
+					likeliest = candidate;
+			}
+			printLine("[{0}]を交換 役が上がる確率 {1} 最多[{2} {3}]", getPositionLabel(mask),
+					formatPercent(getImprovement(result, mask, typeOfHand)),
+					likeliest.getName(), formatPercent(result.getProbability(mask, likeliest)));
+		}
+		printLine("{0}を入力すると、全ての交換の仕方の確率を表示します。", ODDS_DETAIL_INPUT);
+	}
+	/**
+	 * 全ての交換の仕方について、現在より強い役ごとの確率を表示する。計算が終わっていない場合は待たずにその旨を表示する。
+	 */
+	private void printOddsDetail() {
+		DrawOdds result = getOddsIfDone();
+		if (result == null) {
+			print((odds == null) ? "これ以上交換できません。" : "交換したときの確率を計算中です。");
+			return;
+		}
+		TypeOfHand typeOfHand = TypeOfHand.getTypeOfHand(hand);
+		for (int mask : rankByImprovement(result, typeOfHand)) {
+			StringBuilder builder = new StringBuilder();
+			builder.append('[').append(getPositionLabel(mask)).append("] 役が上がる確率 ")
+					.append(formatPercent(getImprovement(result, mask, typeOfHand)));
+			for (TypeOfHand candidate : TypeOfHand.values()) {
+				if (candidate.ordinal() < typeOfHand.ordinal() && result.getWays(mask, candidate) > 0)
+					builder.append(' ').append(candidate.getName()).append(' ').append(formatPercent(result.getProbability(mask, candidate)));
+			}
+			print("{0}", builder);
+		}
+	}
+	/**
+	 * 現在の手札とデッキの状態を写し、交換の仕方ごとの確率の計算を開始する。
+	 * 交換できない場合は何もしない。
+	 */
+	private void startOdds() {
+		odds = null;
+		if (changeCount <= 0 || deck.getRemainings() == 0) return;
+		final Hand current = new Hand(hand.get(0), hand.get(1), hand.get(2), hand.get(3), hand.get(4));
+		final DeckComposition composition = deck.getComposition().copy();
+		odds = ODDS_EXECUTOR.submit(new Callable<DrawOdds>() {
+			@Override
+			public DrawOdds call() { return DrawOdds.of(current, composition); }
+		});
+	}
+	/**
+	 * 計算中の確率を取り消す。まだ計算が始まっていなければ、計算されることはない。
+	 */
+	private void cancelOdds() {
+		if (odds != null) {
+			odds.cancel(true);
+			odds = null;
+		}
+	}
+	/**
+	 * 計算が終わっていれば、交換の仕方ごとの確率を取得する。計算が終わるのを待つことはない。
+	 * @return 交換の仕方ごとの確率（計算中か、交換できない場合は{@code null}）
+	 */
+	private DrawOdds getOddsIfDone() {
+		if (odds == null || !odds.isDone() || odds.isCancelled()) return null;
+		try {
+			return odds.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	/**
+	 * 交換できる交換の仕方を、役が上がる確率の高い順に並べる
+	 * @param result 交換の仕方ごとの確率
+	 * @param typeOfHand 現在の役
+	 * @return 交換する位置のビットマスク
+	 */
+	private static int[] rankByImprovement(DrawOdds result, TypeOfHand typeOfHand) {
+		int count = 0;
+		int[] masks = new int[DrawOdds.PATTERN_COUNT - 1];
+		double[] improvements = new double[DrawOdds.PATTERN_COUNT];
+		for (int mask = 1; mask < DrawOdds.PATTERN_COUNT; mask++) {
+			if (result.getTotal(mask) == 0) continue;
+			improvements[mask] = getImprovement(result, mask, typeOfHand);
+			// 挿入ソート（同じ確率なら交換する枚数が少ない方を先にするため、マスクの小さい順を保つ）
+			int i = count++;
+			for (; i > 0 && improvements[masks[i - 1]] < improvements[mask]; i--) {
+				masks[i] = masks[i - 1];
+			}
+			masks[i] = mask;
+		}
+		int[] ranked = new int[count];
+		System.arraycopy(masks, 0, ranked, 0, count);
+		return ranked;
+	}
+	/**
+	 * 現在より強い役になる確率を取得する
+	 * @param result 交換の仕方ごとの確率
+	 * @param mask 交換する位置のビットマスク
+	 * @param typeOfHand 現在の役
+	 * @return 確率
+	 */
+	private static double getImprovement(DrawOdds result, int mask, TypeOfHand typeOfHand) {
+		long ways = 0;
+		for (TypeOfHand candidate : TypeOfHand.values()) {
+			if (candidate.ordinal() < typeOfHand.ordinal())
+				ways += result.getWays(mask, candidate);
+		}
+		return (double) ways / result.getTotal(mask);
+	}
+	/**
+	 * 交換する位置を、画面の番号（全角数字）で表す
+	 * @param mask 交換する位置のビットマスク
+	 * @return 交換する位置の番号を並べた文字列
+	 */
+	private static String getPositionLabel(int mask) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 5; i++) {
+			if ((mask & (1 << i)) != 0)
+				builder.append(Utils.toFullWidth((char) ('1' + i)));
+		}
+		return builder.toString();
+	}
+	/**
+	 * 確率を百分率で表す
+	 * @param probability 確率
+	 * @return 小数第1位までの百分率
+	 */
+	private static String formatPercent(double probability) {
+		return String.format(Locale.ROOT, "%.1f%%", probability * 100);
+	}
+
 	@Override
 	protected int[] requestUserInput() {
-		BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
 		while (true) {
 			outer:
 			try {
-				String line = reader.readLine();
-				if (changeCount > 0) {
+				// 全角で入力された数字や記号も受け付ける
+				String line = Utils.toHalfWidth(Utils.readLine(getInput()));
+				if (changeCount > 0 && line.equals(ODDS_DETAIL_INPUT)) {
+					printOddsDetail();
+				} else if (changeCount > 0) {
 					int available = Math.min(5, deck.getRemainings());
 					if (line.length() <= available) {
 						int[] change = new int[line.length()];
@@ -102,7 +285,7 @@ public class GameView extends AbstractView<int[]> {
 					return new int[0];
 				}
 			} catch (IOException e) {
-				e.printStackTrace();
+				throw new IllegalStateException(Utils.ERROR_INPUT, e);
 			} catch (NumberFormatException e) {
 				print("入力フォーマットがおかしいです！");
 			}
@@ -111,13 +294,26 @@ public class GameView extends AbstractView<int[]> {
 
 	@Override
 	protected View view(int[] input) {
+		cancelOdds();
 		changeCount--;
 		if (changeCount == -1) {
+			Events.commit(ROUND_EVENT, roundEvent, deck.getJokerCount(), exchanges, TypeOfHand.getTypeOfHand(hand));
+			if (recorder != null) {
+				try {
+					historyWriter.append(recorder.finish(TypeOfHand.getTypeOfHand(hand)));
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
 			return parent;
 		} else {
 			if (input.length > 0) {
 				try {
 					deck.change(hand, input);
+					exchanges++;
+					if (recorder != null)
+						recorder.exchange(hand, input);
+					startOdds();
 					StringBuilder builder = new StringBuilder();
 					for (int i : input) {
 						if (builder.length() > 0)
@@ -125,7 +321,7 @@ public class GameView extends AbstractView<int[]> {
 						builder.append((i + 1) + "枚目");
 					}
 					builder.append("を交換しました。");
-					print(builder.toString());
+					print("{0}", builder);
 				} catch (CardException e) {
 					e.printStackTrace();
 				}
@@ -1,22 +1,77 @@
 package com.qubo.challenge.poker;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import com.qubo.challenge.poker.history.HandHistoryWriter;
 import com.qubo.challenge.poker.models.CardException;
+import com.qubo.metrics.EventLog;
+import com.qubo.metrics.Events;
+import com.qubo.metrics.Metrics;
+import com.sun.net.httpserver.HttpServer;
 
 /**
  * コンソールプログラムのエントリポイントが定義されたクラス
  * @author Qubo
  */
 public class Main {
+	/** 計測値を公開するHTTPサーバーのポート番号を指定するシステムプロパティ */
+	public static final String PROPERTY_METRICS_PORT = "com.qubo.metrics.port";
+	/** 終了時に計測値を書き出すファイルを指定するシステムプロパティ（拡張子が.jsonならJSON形式） */
+	public static final String PROPERTY_METRICS_FILE = "com.qubo.metrics.file";
+	/** イベントを書き出すファイルを指定するシステムプロパティ */
+	public static final String PROPERTY_EVENTS_FILE = "com.qubo.events.file";
+
 	/**
-	 * エントリポイント。
-	 * @param args
+	 * エントリポイント。<br />
+	 * システムプロパティ{@value #PROPERTY_METRICS_PORT}か{@value #PROPERTY_METRICS_FILE}を指定した場合は、計測を有効にする。
+	 * {@value #PROPERTY_EVENTS_FILE}を指定した場合は、閾値を超えたイベントをそのファイルに書き出す。
+	 * @param args 1番目の引数にファイル名を指定した場合、そのファイルにゲームの経過を記録する
 	 */
 	public static void main(String[] args) {
 		ConsoleGame game = new ConsoleGame();
+		String metricsPort = System.getProperty(PROPERTY_METRICS_PORT);
+		String metricsFile = System.getProperty(PROPERTY_METRICS_FILE);
+		String eventsFile = System.getProperty(PROPERTY_EVENTS_FILE);
+		HttpServer metricsServer = null;
+		PrintStream eventsOut = null;
 		try {
+			if (eventsFile != null) {
+				eventsOut = new PrintStream(new FileOutputStream(eventsFile, true), true, "UTF-8");
+				Events.setSink(new EventLog(eventsOut));
+			}
+			if (metricsPort != null || metricsFile != null)
+				Metrics.setEnabled(true);
+			if (metricsPort != null)
+				metricsServer = Metrics.startServer(Integer.parseInt(metricsPort));
+			if (args.length > 0)
+				Configuration.handHistoryWriter = new HandHistoryWriter(new File(args[0]));
 			game.play();
 		} catch (CardException e) {
 			System.err.println(e.getMessage());
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+		} finally {
+			try {
+				if (Configuration.handHistoryWriter != null)
+					Configuration.handHistoryWriter.close();
+			} catch (IOException e) {
+				System.err.println(e.getMessage());
+			}
+			try {
+				if (metricsFile != null)
+					Metrics.writeTo(new File(metricsFile), metricsFile.endsWith(".json"));
+			} catch (IOException e) {
+				System.err.println(e.getMessage());
+			}
+			if (metricsServer != null)
+				metricsServer.stop(0);
+			if (eventsOut != null) {
+				Events.setSink(null);
+				eventsOut.close();
+			}
 		}
 	}
 }
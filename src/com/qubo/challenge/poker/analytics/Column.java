@@ -0,0 +1,67 @@
+package com.qubo.challenge.poker.analytics;
+
+import com.qubo.challenge.poker.history.HandHistory;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * 列指向ストア（{@link ColumnStore}）に保存する列を表したクラス。<br />
+ * 全ての列の値は0～{@link #MAX_VALUE}の整数で、一行につき1バイトで保存される。
+ * @author Qubo
+ */
+public enum Column {
+	/** デッキに含まれていたジョーカーの枚数 */
+	JokerCount {
+		@Override int valueOf(HandHistory history, TypeOfHand initialType) { return history.getJokerCount(); }
+	},
+	/** 交換できた回数 */
+	ChangeCount {
+		@Override int valueOf(HandHistory history, TypeOfHand initialType) { return history.getChangeCount(); }
+	},
+	/** 実際に交換を行った回数 */
+	ExchangeCount {
+		@Override int valueOf(HandHistory history, TypeOfHand initialType) { return history.getExchangeCount(); }
+	},
+	/** 交換したカードの総枚数 */
+	DiscardCount {
+		@Override int valueOf(HandHistory history, TypeOfHand initialType) { return history.getDiscardCount(); }
+	},
+	/** 配られた手札の役の序数 */
+	InitialType {
+		@Override int valueOf(HandHistory history, TypeOfHand initialType) { return typeValue(initialType); }
+	},
+	/** 最終的な役の序数 */
+	FinalType {
+		@Override int valueOf(HandHistory history, TypeOfHand initialType) { return typeValue(history.getTypeOfHand()); }
+	},
+	/** 配られた手札よりも強い役で終わった場合は1、そうでない場合は0 */
+	Improved {
+		@Override int valueOf(HandHistory history, TypeOfHand initialType) {
+			return typeValue(history.getTypeOfHand()) < typeValue(initialType) ? 1 : 0;
+		}
+	},
+	;
+	/** 列の値の最大値 */
+	public static final int MAX_VALUE = 0xFF;
+
+	/**
+	 * ゲームの経過から、列の値を取り出す
+	 * @param history ゲームの経過
+	 * @param initialType 配られた手札の役
+	 * @return 列の値
+	 */
+	abstract int valueOf(HandHistory history, TypeOfHand initialType);
+	/**
+	 * ゲームの経過から、列の値を取り出す。値が{@link #MAX_VALUE}を超える場合は{@link #MAX_VALUE}に丸める。
+	 * @param history ゲームの経過
+	 * @return 列の値
+	 */
+	public int valueOf(HandHistory history) {
+		return Math.min(MAX_VALUE, valueOf(history, TypeOfHand.getTypeOfHand(history.getInitialHand())));
+	}
+	/**
+	 * 役の序数を取得する
+	 * @param typeOfHand 役
+	 * @return 役の序数（役が無い場合は{@link #MAX_VALUE}）
+	 */
+	private static int typeValue(TypeOfHand typeOfHand) { return (typeOfHand != null) ? typeOfHand.ordinal() : MAX_VALUE; }
+}
@@ -0,0 +1,274 @@
+package com.qubo.challenge.poker.analytics;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 記録したゲームの経過を、列ごとのファイルに分けて保存した列指向ストア。<br />
+ * 各列のファイルは{@link #MAGIC}と{@link #VERSION}から始まり、その後にブロックが並ぶ。
+ * 一つのブロックは、行数（4バイト）、最小値（1バイト）、最大値（1バイト）、
+ * 圧縮後のサイズ（4バイト）、Deflateで圧縮した値（1行1バイト）から成る。
+ * 全ての列は同じ行数のブロックに分かれているので、同じ番号のブロックは同じ行の集まりを表す。
+ * 書き込みの途中で中断され、列によってブロック数が異なる場合は、全ての列に揃っているブロックまでを読み込む。<br />
+ * 開いた時点でブロックの位置と最小値・最大値だけを読み込んでおき、
+ * 集計（{@link Scan}）の際には条件に合う可能性のあるブロックだけを展開する。
+ * このクラスのメソッドは、複数のスレッドから同時に呼び出すことができる。
+ * @author Qubo
+ */
+public class ColumnStore implements Closeable {
+	/** ファイルの先頭に書き込む識別子 */
+	static final byte[] MAGIC = { 'Q', 'P', 'C', 'S' };
+	/** フォーマットのバージョン */
+	static final byte VERSION = 1;
+	/** ファイルヘッダのサイズ */
+	static final int HEADER_SIZE = MAGIC.length + 1;
+	/** ブロックヘッダのサイズ */
+	static final int BLOCK_HEADER_SIZE = 4 + 1 + 1 + 4;
+	/** 一つのブロックに含める行数のデフォルト値 */
+	public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+	/** ファイルのフォーマットがおかしい場合に発生する例外のメッセージ */
+	public static final String ERROR_FORMAT = "列指向ストアのフォーマットが正しくありません！";
+
+	private final FileChannel[] channels;
+	private final long[][] offsets;
+	private final int[][] lengths;
+	private final int[][] mins;
+	private final int[][] maxs;
+	private final int[] rowCounts;
+	private final int maxBlockRows;
+	private final long rowTotal;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param directory ストアのディレクトリ
+	 * @throws IOException ファイルを開けなかった場合、およびファイルのフォーマットが正しくない場合に発生
+	 */
+	public ColumnStore(File directory) throws IOException {
+		Column[] columns = Column.values();
+		this.channels = new FileChannel[columns.length];
+		this.offsets = new long[columns.length][];
+		this.lengths = new int[columns.length][];
+		this.mins = new int[columns.length][];
+		this.maxs = new int[columns.length][];
+		int[] blockRows = null;
+		try {
+			for (Column column : columns) {
+				int c = column.ordinal();
+				channels[c] = FileChannel.open(getFile(directory, column).toPath(), StandardOpenOption.READ);
+				int[] rows = readIndex(c);
+				// 列によってブロック数が異なる場合は、少ない方に揃える
+				int common = (blockRows != null) ? Math.min(blockRows.length, rows.length) : rows.length;
+				if (blockRows != null && !Arrays.equals(Arrays.copyOf(blockRows, common), Arrays.copyOf(rows, common)))
+					throw new IOException(ERROR_FORMAT);
+				blockRows = Arrays.copyOf(rows, common);
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+		for (int c = 0; c < columns.length; c++) {
+			offsets[c] = Arrays.copyOf(offsets[c], blockRows.length);
+			lengths[c] = Arrays.copyOf(lengths[c], blockRows.length);
+			mins[c] = Arrays.copyOf(mins[c], blockRows.length);
+			maxs[c] = Arrays.copyOf(maxs[c], blockRows.length);
+		}
+		this.rowCounts = blockRows;
+		int maxRows = 0;
+		long total = 0;
+		for (int rows : rowCounts) {
+			maxRows = Math.max(maxRows, rows);
+			total += rows;
+		}
+		this.maxBlockRows = maxRows;
+		this.rowTotal = total;
+	}
+
+	/**
+	 * 列のファイルを取得する
+	 * @param directory ストアのディレクトリ
+	 * @param column 列
+	 * @return 列のファイル
+	 */
+	static File getFile(File directory, Column column) { return new File(directory, column.name() + ".col"); }
+
+	/**
+	 * ブロック数を取得する
+	 * @return ブロック数
+	 */
+	public int getBlockCount() { return rowCounts.length; }
+	/**
+	 * 全体の行数を取得する
+	 * @return 行数
+	 */
+	public long getRowCount() { return rowTotal; }
+	/**
+	 * ブロックに含まれる列の値の最小値を取得する
+	 * @param column 列
+	 * @param block ブロック番号
+	 * @return 最小値
+	 */
+	public int getMin(Column column, int block) { return mins[column.ordinal()][block]; }
+	/**
+	 * ブロックに含まれる列の値の最大値を取得する
+	 * @param column 列
+	 * @param block ブロック番号
+	 * @return 最大値
+	 */
+	public int getMax(Column column, int block) { return maxs[column.ordinal()][block]; }
+	/**
+	 * ストア全体での列の値の最大値を取得する
+	 * @param column 列
+	 * @return 最大値（ストアが空の場合は0）
+	 */
+	public int getMax(Column column) {
+		int max = 0;
+		for (int value : maxs[column.ordinal()]) {
+			max = Math.max(max, value);
+		}
+		return max;
+	}
+	/**
+	 * 集計を開始する
+	 * @return 集計条件を組み立てるための{@link Scan}インスタンス
+	 */
+	public Scan scan() { return new Scan(this); }
+
+	@Override
+	public void close() throws IOException {
+		for (FileChannel channel : channels) {
+			if (channel != null) channel.close();
+		}
+	}
+
+	/**
+	 * 列のファイルのうち、全ての列に揃っているブロックの終わりの位置を取得する
+	 * @param column 列
+	 * @return ファイルの先頭からのバイト数
+	 */
+	long getEnd(Column column) {
+		int c = column.ordinal();
+		int count = rowCounts.length;
+		return (count == 0) ? HEADER_SIZE : offsets[c][count - 1] + lengths[c][count - 1];
+	}
+	/**
+	 * 一つのブロックの行数を取得する
+	 * @param block ブロック番号
+	 * @return 行数
+	 */
+	int getRowCount(int block) { return rowCounts[block]; }
+	/**
+	 * ブロックの行数の最大値を取得する
+	 * @return 行数の最大値
+	 */
+	int getMaxBlockRows() { return maxBlockRows; }
+	/**
+	 * ブロックを展開して読み込む
+	 * @param column 列
+	 * @param block ブロック番号
+	 * @param inflater 展開に使う{@link Inflater}
+	 * @param compressed 圧縮されたデータを読み込むためのバッファ（足りない場合は新たに確保する）
+	 * @param out 展開先
+	 * @return {@code compressed}、もしくは新たに確保したバッファ
+	 * @throws IOException 読み込みに失敗した場合に発生
+	 */
+	ByteBuffer readBlock(Column column, int block, Inflater inflater, ByteBuffer compressed, byte[] out) throws IOException {
+		int c = column.ordinal();
+		int length = lengths[c][block];
+		if (compressed.capacity() < length) {
+			compressed = ByteBuffer.allocate(length);
+		}
+		compressed.clear();
+		compressed.limit(length);
+		long position = offsets[c][block];
+		while (compressed.hasRemaining()) {
+			if (channels[c].read(compressed, position + compressed.position()) < 0) throw new IOException(ERROR_FORMAT);
+		}
+		inflater.reset();
+		inflater.setInput(compressed.array(), 0, length);
+		try {
+			int rows = rowCounts[block];
+			int read = 0;
+			while (read < rows) {
+				int n = inflater.inflate(out, read, rows - read);
+				if (n == 0 && (inflater.finished() || inflater.needsInput())) throw new IOException(ERROR_FORMAT);
+				read += n;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(ERROR_FORMAT, e);
+		}
+		return compressed;
+	}
+
+	/**
+	 * 列のファイルからブロックの位置と最小値・最大値を読み込む
+	 * @param c 列の序数
+	 * @return ブロックごとの行数
+	 * @throws IOException 読み込みに失敗した場合に発生
+	 */
+	private int[] readIndex(int c) throws IOException {
+		FileChannel channel = channels[c];
+		ByteBuffer header = ByteBuffer.allocate(Math.max(HEADER_SIZE, BLOCK_HEADER_SIZE));
+		header.limit(HEADER_SIZE);
+		readFully(channel, header, 0);
+		for (byte b : MAGIC) {
+			if (header.get() != b) throw new IOException(ERROR_FORMAT);
+		}
+		if (header.get() != VERSION) throw new IOException(ERROR_FORMAT);
+
+		int capacity = 16, count = 0;
+		long[] blockOffsets = new long[capacity];
+		int[] blockLengths = new int[capacity], blockMins = new int[capacity], blockMaxs = new int[capacity], blockRows = new int[capacity];
+		long position = HEADER_SIZE;
+		long size = channel.size();
+		while (position + BLOCK_HEADER_SIZE <= size) {
+			header.clear();
+			header.limit(BLOCK_HEADER_SIZE);
+			readFully(channel, header, position);
+			int rows = header.getInt();
+			int min = header.get() & 0xFF;
+			int max = header.get() & 0xFF;
+			int length = header.getInt();
+			if (position + BLOCK_HEADER_SIZE + length > size) break; // 書き込み途中のブロックは無視する
+			if (count == capacity) {
+				capacity *= 2;
+				blockOffsets = Arrays.copyOf(blockOffsets, capacity);
+				blockLengths = Arrays.copyOf(blockLengths, capacity);
+				blockMins = Arrays.copyOf(blockMins, capacity);
+				blockMaxs = Arrays.copyOf(blockMaxs, capacity);
+				blockRows = Arrays.copyOf(blockRows, capacity);
+			}
+			blockOffsets[count] = position + BLOCK_HEADER_SIZE;
+			blockLengths[count] = length;
+			blockMins[count] = min;
+			blockMaxs[count] = max;
+			blockRows[count] = rows;
+			count++;
+			position += BLOCK_HEADER_SIZE + length;
+		}
+		offsets[c] = Arrays.copyOf(blockOffsets, count);
+		lengths[c] = Arrays.copyOf(blockLengths, count);
+		mins[c] = Arrays.copyOf(blockMins, count);
+		maxs[c] = Arrays.copyOf(blockMaxs, count);
+		return Arrays.copyOf(blockRows, count);
+	}
+	/**
+	 * バッファが一杯になるまで読み込む
+	 * @param channel 読み込み元
+	 * @param buffer 読み込み先
+	 * @param position 読み込み開始位置
+	 * @throws IOException 読み込みに失敗した場合に発生
+	 */
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException(ERROR_FORMAT);
+		}
+		buffer.flip();
+	}
+}
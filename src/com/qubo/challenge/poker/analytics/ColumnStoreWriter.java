@@ -0,0 +1,176 @@
+package com.qubo.challenge.poker.analytics;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+import com.qubo.challenge.poker.history.HandHistory;
+import com.qubo.challenge.poker.history.HandHistoryReader;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * {@link HandHistory}を列ごとに分解して、列指向ストアに追記するクラス。
+ * フォーマットは{@link ColumnStore}を参照。<br />
+ * このクラスはスレッドセーフではない。
+ * @author Qubo
+ */
+public class ColumnStoreWriter implements Closeable {
+	private final FileChannel[] channels;
+	private final byte[][] values;
+	private final int blockSize;
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+	private byte[] compressed;
+	private int rows = 0;
+
+	/**
+	 * 標準のコンストラクタ。ディレクトリにストアが既に存在する場合は、その末尾に追記する。
+	 * 書き込みの途中で中断されたストアの場合、全ての列に揃っているブロックまでを残して切り詰めてから追記する。
+	 * @param directory ストアのディレクトリ（存在しない場合は作成する）
+	 * @throws IOException ファイルを開けなかった場合に発生
+	 */
+	public ColumnStoreWriter(File directory) throws IOException {
+		this(directory, ColumnStore.DEFAULT_BLOCK_SIZE);
+	}
+	/**
+	 * ブロックの行数を指定するコンストラクタ
+	 * @param directory ストアのディレクトリ（存在しない場合は作成する）
+	 * @param blockSize 一つのブロックに含める行数
+	 * @throws IOException ファイルを開けなかった場合、および既存のストアのフォーマットが正しくない場合に発生
+	 */
+	public ColumnStoreWriter(File directory, int blockSize) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException(directory + "を作成できません！");
+		Column[] columns = Column.values();
+		this.channels = new FileChannel[columns.length];
+		this.values = new byte[columns.length][blockSize];
+		this.blockSize = blockSize;
+		this.compressed = new byte[blockSize + 64];
+		try {
+			for (Column column : columns) {
+				FileChannel channel = FileChannel.open(ColumnStore.getFile(directory, column).toPath(),
+						StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+				channels[column.ordinal()] = channel;
+				if (channel.size() < ColumnStore.HEADER_SIZE) {
+					// ファイルヘッダが途中で切れている場合は、ヘッダから書き直す
+					channel.truncate(0);
+					ByteBuffer header = ByteBuffer.allocate(ColumnStore.HEADER_SIZE);
+					header.put(ColumnStore.MAGIC).put(ColumnStore.VERSION).flip();
+					write(channel, header);
+				}
+			}
+			// 書き込み途中のブロックや、一部の列にしか書き込まれていないブロックを切り詰める
+			ColumnStore store = new ColumnStore(directory);
+			try {
+				for (Column column : columns) {
+					FileChannel channel = channels[column.ordinal()];
+					long end = store.getEnd(column);
+					if (end < channel.size()) {
+						channel.truncate(end);
+					}
+				}
+			} finally {
+				store.close();
+			}
+		} catch (IOException e) {
+			closeChannels();
+			throw e;
+		}
+	}
+
+	/**
+	 * 一ゲームの経過を一行として追記する
+	 * @param history 一ゲームの経過
+	 * @throws IOException 書き込みに失敗した場合に発生
+	 */
+	public void append(HandHistory history) throws IOException {
+		TypeOfHand initialType = TypeOfHand.getTypeOfHand(history.getInitialHand());
+		for (Column column : Column.values()) {
+			values[column.ordinal()][rows] = (byte) Math.min(Column.MAX_VALUE, column.valueOf(history, initialType));
+		}
+		if (++rows == blockSize) {
+			writeBlocks();
+		}
+	}
+	/**
+	 * {@link HandHistoryReader}から読み込める全てのレコードを追記する
+	 * @param reader 読み込み元
+	 * @return 追記した行数
+	 * @throws IOException 読み込み、もしくは書き込みに失敗した場合に発生
+	 */
+	public long appendAll(HandHistoryReader reader) throws IOException {
+		long count = 0;
+		for (HandHistory history = reader.next(); history != null; history = reader.next()) {
+			append(history);
+			count++;
+		}
+		return count;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (rows > 0) {
+				writeBlocks();
+			}
+		} finally {
+			deflater.end();
+			closeChannels();
+		}
+	}
+	/**
+	 * 開いている全てのチャネルを閉じる
+	 * @throws IOException 閉じるのに失敗した場合に発生
+	 */
+	private void closeChannels() throws IOException {
+		for (FileChannel channel : channels) {
+			if (channel != null) channel.close();
+		}
+	}
+
+	/**
+	 * 溜まっている行を、列ごとに一つのブロックとして書き込む
+	 * @throws IOException 書き込みに失敗した場合に発生
+	 */
+	private void writeBlocks() throws IOException {
+		for (int c = 0; c < channels.length; c++) {
+			byte[] column = values[c];
+			int min = Column.MAX_VALUE, max = 0;
+			for (int i = 0; i < rows; i++) {
+				int value = column[i] & 0xFF;
+				if (value < min) min = value;
+				if (value > max) max = value;
+			}
+			deflater.reset();
+			deflater.setInput(column, 0, rows);
+			deflater.finish();
+			int length = 0;
+			while (!deflater.finished()) {
+				if (length == compressed.length) {
+					byte[] larger = new byte[compressed.length * 2];
+					System.arraycopy(compressed, 0, larger, 0, length);
+					compressed = larger;
+				}
+				length += deflater.deflate(compressed, length, compressed.length - length);
+			}
+			ByteBuffer header = ByteBuffer.allocate(ColumnStore.BLOCK_HEADER_SIZE);
+			header.putInt(rows).put((byte) min).put((byte) max).putInt(length).flip();
+			write(channels[c], header);
+			write(channels[c], ByteBuffer.wrap(compressed, 0, length));
+		}
+		rows = 0;
+	}
+	/**
+	 * バッファの内容を全てチャネルに書き込む
+	 * @param channel 書き込み先
+	 * @param buffer 書き込む内容
+	 * @throws IOException 書き込みに失敗した場合に発生
+	 */
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.qubo.challenge.poker.analytics;
+
+import java.io.IOException;
+
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * {@link ColumnStore}に対するよく使う集計をまとめたクラス
+ * @author Qubo
+ */
+public abstract class HandHistoryQueries {
+	private HandHistoryQueries() { }
+
+	/**
+	 * ジョーカーの枚数と交換回数の組み合わせに対する、最終的な役の分布を取得する
+	 * @param store 集計対象のストア
+	 * @param jokerCount ジョーカーの枚数
+	 * @param changeCount 交換できた回数
+	 * @param threads 集計に使うスレッド数
+	 * @return 役の序数ごとの行数
+	 * @throws IOException 読み込みに失敗した場合に発生
+	 */
+	public static long[] getTypeOfHandDistribution(ColumnStore store, int jokerCount, int changeCount, int threads) throws IOException {
+		ScanResult result = store.scan()
+				.where(Column.JokerCount, jokerCount)
+				.where(Column.ChangeCount, changeCount)
+				.groupBy(Column.FinalType)
+				.count(threads);
+		long[] distribution = new long[TypeOfHand.values().length];
+		for (TypeOfHand typeOfHand : TypeOfHand.values()) {
+			distribution[typeOfHand.ordinal()] = result.getCount(typeOfHand.ordinal());
+		}
+		return distribution;
+	}
+	/**
+	 * 交換したカードの総枚数ごとに、配られた手札よりも強い役で終わった割合を取得する
+	 * @param store 集計対象のストア
+	 * @param threads 集計に使うスレッド数
+	 * @return 交換枚数ごとの割合（該当する行が無い場合は{@link Double#NaN}）
+	 * @throws IOException 読み込みに失敗した場合に発生
+	 */
+	public static double[] getImprovementRates(ColumnStore store, int threads) throws IOException {
+		ScanResult result = store.scan().groupBy(Column.DiscardCount, Column.Improved).count(threads);
+		double[] rates = new double[store.getMax(Column.DiscardCount) + 1];
+		for (int discards = 0; discards < rates.length; discards++) {
+			long improved = result.getCount(discards, 1);
+			long total = result.getCount(discards, 0) + improved;
+			rates[discards] = (total > 0) ? (double) improved / total : Double.NaN;
+		}
+		return rates;
+	}
+}
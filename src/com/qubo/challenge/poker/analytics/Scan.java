@@ -0,0 +1,183 @@
+package com.qubo.challenge.poker.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Inflater;
+
+/**
+ * {@link ColumnStore}に対する集計条件を組み立て、集計を実行するクラス。<br />
+ * {@link #where(Column, int, int)}で絞り込み条件を、{@link #groupBy(Column...)}でグループ化する列を指定して、
+ * {@link #count(int)}で行数を数える。
+ * 最小値・最大値から見て絞り込み条件に合う行が含まれないことが分かるブロックは、展開せずに読み飛ばす。
+ * @author Qubo
+ */
+public class Scan {
+	/** グループの組み合わせ数の上限 */
+	public static final int MAX_GROUPS = 1 << 24;
+
+	private final ColumnStore store;
+	private final List<Column> filterColumns = new ArrayList<Column>();
+	private final List<int[]> filterRanges = new ArrayList<int[]>();
+	private Column[] groupColumns = new Column[0];
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param store 集計対象のストア
+	 */
+	Scan(ColumnStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * 列の値が{@code min}以上{@code max}以下の行だけに絞り込む
+	 * @param column 列
+	 * @param min 最小値
+	 * @param max 最大値
+	 * @return このインスタンス
+	 */
+	public Scan where(Column column, int min, int max) {
+		filterColumns.add(column);
+		filterRanges.add(new int[] { min, max });
+		return this;
+	}
+	/**
+	 * 列の値が{@code value}に等しい行だけに絞り込む
+	 * @param column 列
+	 * @param value 値
+	 * @return このインスタンス
+	 */
+	public Scan where(Column column, int value) { return where(column, value, value); }
+	/**
+	 * グループ化する列を指定する
+	 * @param columns グループ化する列
+	 * @return このインスタンス
+	 */
+	public Scan groupBy(Column... columns) {
+		this.groupColumns = columns.clone();
+		return this;
+	}
+
+	/**
+	 * 条件に合う行の数を、グループごとに数える
+	 * @param threads 集計に使うスレッド数
+	 * @return 集計結果
+	 * @throws IOException 読み込みに失敗した場合に発生
+	 */
+	public ScanResult count(int threads) throws IOException {
+		final int[] radices = new int[groupColumns.length];
+		long groups = 1;
+		for (int i = 0; i < groupColumns.length; i++) {
+			radices[i] = store.getMax(groupColumns[i]) + 1;
+			groups *= radices[i];
+		}
+		if (groups > MAX_GROUPS) throw new IllegalArgumentException("グループの組み合わせが多すぎます！");
+		final int groupCount = (int) groups;
+
+		final AtomicInteger nextBlock = new AtomicInteger();
+		final AtomicInteger skipped = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(new Callable<long[]>() {
+					@Override public long[] call() throws IOException {
+						return scanBlocks(nextBlock, skipped, radices, groupCount);
+					}
+				}));
+			}
+			long[] counts = new long[groupCount];
+			for (Future<long[]> future : futures) {
+				long[] partial = future.get();
+				for (int i = 0; i < counts.length; i++) {
+					counts[i] += partial[i];
+				}
+			}
+			return new ScanResult(groupColumns, radices, counts, store.getBlockCount() - skipped.get(), skipped.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * 未処理のブロックを一つずつ取り出して集計する
+	 * @param nextBlock 次に処理するブロック番号
+	 * @param skipped 読み飛ばしたブロック数
+	 * @param radices グループ化する列ごとの値の種類数
+	 * @param groupCount グループの組み合わせ数
+	 * @return グループごとの行数
+	 * @throws IOException 読み込みに失敗した場合に発生
+	 */
+	private long[] scanBlocks(AtomicInteger nextBlock, AtomicInteger skipped, int[] radices, int groupCount) throws IOException {
+		int filters = filterColumns.size();
+		int[] mins = new int[filters], maxs = new int[filters];
+		for (int f = 0; f < filters; f++) {
+			mins[f] = filterRanges.get(f)[0];
+			maxs[f] = filterRanges.get(f)[1];
+		}
+		long[] counts = new long[groupCount];
+		byte[][] filterValues = new byte[filters][store.getMaxBlockRows()];
+		byte[][] groupValues = new byte[groupColumns.length][store.getMaxBlockRows()];
+		Inflater inflater = new Inflater();
+		ByteBuffer compressed = ByteBuffer.allocate(store.getMaxBlockRows() + 64);
+		try {
+			for (int block = nextBlock.getAndIncrement(); block < store.getBlockCount(); block = nextBlock.getAndIncrement()) {
+				if (!mayMatch(block, mins, maxs)) {
+					skipped.incrementAndGet();
+					continue;
+				}
+				for (int f = 0; f < filters; f++) {
+					compressed = store.readBlock(filterColumns.get(f), block, inflater, compressed, filterValues[f]);
+				}
+				for (int g = 0; g < groupColumns.length; g++) {
+					compressed = store.readBlock(groupColumns[g], block, inflater, compressed, groupValues[g]);
+				}
+				int rows = store.getRowCount(block);
+				rows:
+				for (int row = 0; row < rows; row++) {
+					for (int f = 0; f < filters; f++) {
+						int value = filterValues[f][row] & 0xFF;
+						if (value < mins[f] || value > maxs[f]) continue rows;
+					}
+					int key = 0;
+					for (int g = 0; g < groupColumns.length; g++) {
+						key = key * radices[g] + (groupValues[g][row] & 0xFF);
+					}
+					counts[key]++;
+				}
+			}
+		} finally {
+			inflater.end();
+		}
+		return counts;
+	}
+	/**
+	 * ブロックの最小値・最大値から、条件に合う行が含まれる可能性があるかどうかを取得する
+	 * @param block ブロック番号
+	 * @param mins 条件ごとの最小値
+	 * @param maxs 条件ごとの最大値
+	 * @return 条件に合う行が含まれる可能性があるかどうか
+	 */
+	private boolean mayMatch(int block, int[] mins, int[] maxs) {
+		for (int f = 0; f < mins.length; f++) {
+			Column column = filterColumns.get(f);
+			if (store.getMax(column, block) < mins[f] || store.getMin(column, block) > maxs[f]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
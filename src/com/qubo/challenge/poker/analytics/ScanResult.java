@@ -0,0 +1,85 @@
+package com.qubo.challenge.poker.analytics;
+
+/**
+ * {@link Scan}による集計結果を表したクラス
+ * @author Qubo
+ */
+public class ScanResult {
+	private final Column[] groupColumns;
+	private final int[] radices;
+	private final long[] counts;
+	private final int scannedBlocks;
+	private final int skippedBlocks;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param groupColumns グループ化した列
+	 * @param radices グループ化した列ごとの値の種類数
+	 * @param counts グループごとの行数
+	 * @param scannedBlocks 展開したブロック数
+	 * @param skippedBlocks 読み飛ばしたブロック数
+	 */
+	ScanResult(Column[] groupColumns, int[] radices, long[] counts, int scannedBlocks, int skippedBlocks) {
+		this.groupColumns = groupColumns;
+		this.radices = radices;
+		this.counts = counts;
+		this.scannedBlocks = scannedBlocks;
+		this.skippedBlocks = skippedBlocks;
+	}
+
+	/**
+	 * グループ化した列の値の組み合わせに対する行数を取得する
+	 * @param values グループ化した列の値（{@link Scan#groupBy(Column...)}で指定した順）
+	 * @return 行数
+	 */
+	public long getCount(int... values) {
+		if (values.length != groupColumns.length) throw new IllegalArgumentException("値の数がグループ化した列の数と一致しません！");
+		int key = 0;
+		for (int g = 0; g < values.length; g++) {
+			if (values[g] < 0 || values[g] >= radices[g]) return 0;
+			key = key * radices[g] + values[g];
+		}
+		return counts[key];
+	}
+	/**
+	 * 条件に合った全ての行数を取得する
+	 * @return 行数
+	 */
+	public long getTotal() {
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		return total;
+	}
+	/**
+	 * 展開したブロック数を取得する
+	 * @return 展開したブロック数
+	 */
+	public int getScannedBlocks() { return scannedBlocks; }
+	/**
+	 * 最小値・最大値から判断して読み飛ばしたブロック数を取得する
+	 * @return 読み飛ばしたブロック数
+	 */
+	public int getSkippedBlocks() { return skippedBlocks; }
+
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int key = 0; key < counts.length; key++) {
+			if (counts[key] == 0) continue;
+			int rest = key;
+			StringBuilder group = new StringBuilder();
+			for (int g = groupColumns.length - 1; g >= 0; g--) {
+				group.insert(0, groupColumns[g] + "=" + (rest % radices[g]) + (group.length() > 0 ? ", " : ""));
+				rest /= radices[g];
+			}
+			builder.append('[').append(group).append("] ").append(counts[key]).append('\n');
+		}
+		return builder.toString();
+	}
+}
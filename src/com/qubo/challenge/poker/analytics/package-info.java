@@ -0,0 +1,2 @@
+/** 記録したゲームの経過を列指向の形式で保存し、集計を行うためのパッケージ */
+package com.qubo.challenge.poker.analytics;
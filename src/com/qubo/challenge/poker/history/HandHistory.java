@@ -0,0 +1,251 @@
+package com.qubo.challenge.poker.history;
+
+import java.util.Arrays;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * ポーカーの一ゲームの経過を表したクラス。<br />
+ * 配られた手札、交換ごとの交換位置とその位置に配られたカード、最終的な役を保持する。
+ * 交換位置は、{@code n}枚目のカードを交換した場合に{@code n-1}ビット目が立つビットマスクで表す。
+ * @author Qubo
+ */
+public class HandHistory {
+	/** 手札の枚数 */
+	public static final int HAND_SIZE = 5;
+
+	private final int jokerCount;
+	private final int changeCount;
+	private final int[] initialCodes;
+	private final int[] exchangeMasks;
+	private final int[] drawnCodes;
+	private final TypeOfHand typeOfHand;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param jokerCount デッキに含まれるジョーカーの枚数
+	 * @param changeCount 交換できる回数
+	 * @param initialCodes 配られた手札のカードコード
+	 * @param exchangeMasks 交換ごとの交換位置のビットマスク
+	 * @param drawnCodes 交換で配られたカードのカードコードを、交換順・位置順に並べたもの
+	 * @param typeOfHand 最終的な役
+	 */
+	HandHistory(int jokerCount, int changeCount, int[] initialCodes, int[] exchangeMasks, int[] drawnCodes, TypeOfHand typeOfHand) {
+		this.jokerCount = jokerCount;
+		this.changeCount = changeCount;
+		this.initialCodes = initialCodes;
+		this.exchangeMasks = exchangeMasks;
+		this.drawnCodes = drawnCodes;
+		this.typeOfHand = typeOfHand;
+	}
+
+	/**
+	 * デッキに含まれていたジョーカーの枚数を取得する
+	 * @return ジョーカーの枚数
+	 */
+	public int getJokerCount() { return jokerCount; }
+	/**
+	 * ゲーム開始時点で交換できた回数を取得する
+	 * @return 交換できた回数
+	 */
+	public int getChangeCount() { return changeCount; }
+	/**
+	 * 実際に交換を行った回数を取得する
+	 * @return 交換を行った回数
+	 */
+	public int getExchangeCount() { return exchangeMasks.length; }
+	/**
+	 * {@code index}回目の交換で交換した位置を、ビットマスクで取得する
+	 * @param index 交換の順番（0から始まる）
+	 * @return 交換位置のビットマスク
+	 */
+	public int getExchangeMask(int index) { return exchangeMasks[index]; }
+	/**
+	 * 全ての交換で交換したカードの総枚数を取得する
+	 * @return 交換したカードの総枚数
+	 */
+	public int getDiscardCount() { return drawnCodes.length; }
+	/**
+	 * 最終的な役を取得する
+	 * @return 最終的な役
+	 */
+	public TypeOfHand getTypeOfHand() { return typeOfHand; }
+	/**
+	 * 配られた手札を取得する
+	 * @return 配られた手札
+	 */
+	public Hand getInitialHand() { return toHand(initialCodes); }
+	/**
+	 * 全ての交換を終えた後の手札を取得する
+	 * @return 最終的な手札
+	 */
+	public Hand getFinalHand() { return toHand(getFinalCodes()); }
+	/**
+	 * {@code index}回目の交換で配られたカードを、手札の位置順に取得する
+	 * @param index 交換の順番（0から始まる）
+	 * @return 配られたカード
+	 */
+	public Card[] getDrawnCards(int index) {
+		int offset = 0;
+		for (int i = 0; i < index; i++) {
+			offset += Integer.bitCount(exchangeMasks[i]);
+		}
+		Card[] cards = new Card[Integer.bitCount(exchangeMasks[index])];
+		for (int i = 0; i < cards.length; i++) {
+			cards[i] = toCard(drawnCodes[offset + i]);
+		}
+		return cards;
+	}
+
+	/**
+	 * 配られた手札のカードコードを取得する
+	 * @return カードコードの配列
+	 */
+	int[] getInitialCodes() { return initialCodes; }
+	/**
+	 * 交換で配られたカードのカードコードを取得する
+	 * @return カードコードの配列
+	 */
+	int[] getDrawnCodes() { return drawnCodes; }
+	/**
+	 * 全ての交換を終えた後の手札のカードコードを取得する
+	 * @return カードコードの配列
+	 */
+	int[] getFinalCodes() {
+		int[] codes = initialCodes.clone();
+		int offset = 0;
+		for (int mask : exchangeMasks) {
+			for (int position = 0; position < HAND_SIZE; position++) {
+				if ((mask & (1 << position)) != 0) {
+					codes[position] = drawnCodes[offset++];
+				}
+			}
+		}
+		return codes;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof HandHistory) {
+			HandHistory other = (HandHistory) obj;
+			return jokerCount == other.jokerCount && changeCount == other.changeCount
+					&& Arrays.equals(initialCodes, other.initialCodes)
+					&& Arrays.equals(exchangeMasks, other.exchangeMasks)
+					&& Arrays.equals(drawnCodes, other.drawnCodes)
+					&& typeOfHand == other.typeOfHand;
+		}
+		return false;
+	}
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(initialCodes) * 31 + Arrays.hashCode(drawnCodes);
+	}
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(getInitialHand());
+		for (int i = 0; i < exchangeMasks.length; i++) {
+			builder.append(" -").append(Integer.toBinaryString(exchangeMasks[i])).append("->");
+			builder.append(Arrays.toString(getDrawnCards(i)));
+		}
+		return builder.append(' ').append(typeOfHand).toString();
+	}
+
+	/**
+	 * カードコードの配列から手札を生成する
+	 * @param codes カードコードの配列
+	 * @return 手札
+	 */
+	private static Hand toHand(int[] codes) {
+		return new Hand(toCard(codes[0]), toCard(codes[1]), toCard(codes[2]), toCard(codes[3]), toCard(codes[4]));
+	}
+	/**
+	 * カードコードから{@link Card}インスタンスを取得する
+	 * @param code カードコード
+	 * @return {@link Card}インスタンス
+	 */
+	private static Card toCard(int code) {
+		try {
+			return Card.valueOf(code);
+		} catch (CardException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 一ゲームの経過を順番に記録して、{@link HandHistory}インスタンスを生成するクラス
+	 * @author Qubo
+	 */
+	public static class Recorder {
+		private final int jokerCount;
+		private final int changeCount;
+		private final int[] initialCodes;
+		private int[] exchangeMasks = new int[4];
+		private int exchangeCount = 0;
+		private int[] drawnCodes = new int[16];
+		private int drawnCount = 0;
+
+		/**
+		 * 配られた手札から記録を開始する
+		 * @param jokerCount デッキに含まれるジョーカーの枚数
+		 * @param changeCount 交換できる回数
+		 * @param hand 配られた手札
+		 */
+		public Recorder(int jokerCount, int changeCount, Hand hand) {
+			this.jokerCount = jokerCount;
+			this.changeCount = changeCount;
+			this.initialCodes = new int[HAND_SIZE];
+			for (int i = 0; i < HAND_SIZE; i++) {
+				initialCodes[i] = hand.get(i).getCode();
+			}
+		}
+		/**
+		 * 交換を記録する。{@link com.qubo.challenge.poker.models.Deck#change(Hand, int...)}の後に呼び出すこと。<br />
+		 * 同じ位置が複数回指定された場合は、最終的にその位置に配られたカードだけを記録する。
+		 * @param hand 交換後の手札
+		 * @param indices 交換したカードの位置
+		 */
+		public void exchange(Hand hand, int... indices) {
+			int mask = 0;
+			for (int index : indices) {
+				mask |= 1 << index;
+			}
+			if (exchangeCount == exchangeMasks.length) {
+				exchangeMasks = Arrays.copyOf(exchangeMasks, exchangeCount * 2);
+			}
+			exchangeMasks[exchangeCount++] = mask;
+			for (int position = 0; position < HAND_SIZE; position++) {
+				if ((mask & (1 << position)) != 0) {
+					if (drawnCount == drawnCodes.length) {
+						drawnCodes = Arrays.copyOf(drawnCodes, drawnCount * 2);
+					}
+					drawnCodes[drawnCount++] = hand.get(position).getCode();
+				}
+			}
+		}
+		/**
+		 * 最終的な役を記録して、{@link HandHistory}インスタンスを生成する
+		 * @param typeOfHand 最終的な役
+		 * @return 一ゲームの経過
+		 */
+		public HandHistory finish(TypeOfHand typeOfHand) {
+			return new HandHistory(jokerCount, changeCount, initialCodes.clone(),
+					Arrays.copyOf(exchangeMasks, exchangeCount), Arrays.copyOf(drawnCodes, drawnCount), typeOfHand);
+		}
+	}
+}
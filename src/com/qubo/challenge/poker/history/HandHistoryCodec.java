@@ -0,0 +1,183 @@
+package com.qubo.challenge.poker.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * {@link HandHistory}のバイナリ形式への変換を行う内部クラス。<br />
+ * ファイルの先頭には{@link #MAGIC}と{@link #VERSION}を書き込み、その後にレコードを並べる。
+ * 一つのレコードは、ペイロード長（varint）とペイロードから成る。ペイロードの構成は次のとおり：
+ * <ol>
+ * <li>ジョーカーの枚数（1バイト）</li>
+ * <li>交換できる回数（varint）</li>
+ * <li>配られた手札のカードコード（1バイト×5）</li>
+ * <li>交換を行った回数（varint）</li>
+ * <li>交換ごとに、交換位置のビットマスク（1バイト）と、配られたカードのカードコード（1バイト×交換枚数）</li>
+ * <li>最終的な役の序数（1バイト、役が無い場合は{@code 0xFF}）</li>
+ * </ol>
+ * @author Qubo
+ */
+final class HandHistoryCodec {
+	private HandHistoryCodec() { }
+
+	/** ファイルの先頭に書き込む識別子 */
+	static final byte[] MAGIC = { 'Q', 'P', 'H', 'H' };
+	/** フォーマットのバージョン */
+	static final byte VERSION = 1;
+	/** ファイルヘッダのサイズ */
+	static final int HEADER_SIZE = MAGIC.length + 1;
+	/** 役が無いことを表す値 */
+	private static final int NO_TYPE = 0xFF;
+	/** ファイルのフォーマットがおかしい場合に発生する例外のメッセージ */
+	static final String ERROR_FORMAT = "ハンド履歴のフォーマットが正しくありません！";
+
+	/**
+	 * ファイルヘッダを書き込む
+	 * @param out 書き込み先
+	 */
+	static void writeHeader(ByteBuffer out) {
+		out.put(MAGIC).put(VERSION);
+	}
+	/**
+	 * ファイルヘッダを検証する
+	 * @param in 読み込み元
+	 * @throws IOException ファイルヘッダが正しくない場合に発生
+	 */
+	static void readHeader(ByteBuffer in) throws IOException {
+		for (byte b : MAGIC) {
+			if (in.get() != b) throw new IOException(ERROR_FORMAT);
+		}
+		if (in.get() != VERSION) throw new IOException(ERROR_FORMAT);
+	}
+
+	/**
+	 * ペイロード長を含めた、レコードのサイズを取得する
+	 * @param history 一ゲームの経過
+	 * @return レコードのサイズ
+	 */
+	static int recordSize(HandHistory history) {
+		int payload = payloadSize(history);
+		return varintSize(payload) + payload;
+	}
+	/**
+	 * レコードを書き込む。{@code out}には{@link #recordSize(HandHistory)}以上の空きが必要。
+	 * @param history 一ゲームの経過
+	 * @param out 書き込み先
+	 */
+	static void encode(HandHistory history, ByteBuffer out) {
+		writeVarint(out, payloadSize(history));
+		out.put((byte) history.getJokerCount());
+		writeVarint(out, history.getChangeCount());
+		for (int code : history.getInitialCodes()) {
+			out.put((byte) code);
+		}
+		writeVarint(out, history.getExchangeCount());
+		int[] drawnCodes = history.getDrawnCodes();
+		int offset = 0;
+		for (int i = 0; i < history.getExchangeCount(); i++) {
+			int mask = history.getExchangeMask(i);
+			out.put((byte) mask);
+			for (int j = Integer.bitCount(mask); j > 0; j--) {
+				out.put((byte) drawnCodes[offset++]);
+			}
+		}
+		TypeOfHand typeOfHand = history.getTypeOfHand();
+		out.put((byte) (typeOfHand != null ? typeOfHand.ordinal() : NO_TYPE));
+	}
+	/**
+	 * レコードを一件読み込む。
+	 * {@code in}にレコード全体が含まれていない場合は何も読み込まずに{@code null}を返す。
+	 * @param in 読み込み元
+	 * @return 一ゲームの経過（レコードが途中までしか無い場合は{@code null}）
+	 * @throws IOException レコードのフォーマットが正しくない場合に発生
+	 */
+	static HandHistory decode(ByteBuffer in) throws IOException {
+		int start = in.position();
+		int length = readVarint(in);
+		if (length < 0 || in.remaining() < length) {
+			in.position(start);
+			return null;
+		}
+		int end = in.position() + length;
+		try {
+			int jokerCount = in.get();
+			int changeCount = readVarint(in);
+			int[] initialCodes = new int[HandHistory.HAND_SIZE];
+			for (int i = 0; i < initialCodes.length; i++) {
+				initialCodes[i] = in.get();
+			}
+			int exchangeCount = readVarint(in);
+			if (exchangeCount < 0 || exchangeCount > length) throw new IOException(ERROR_FORMAT);
+			int[] exchangeMasks = new int[exchangeCount];
+			int[] drawnCodes = new int[exchangeCount * HandHistory.HAND_SIZE];
+			int drawnCount = 0;
+			for (int i = 0; i < exchangeCount; i++) {
+				int mask = in.get() & 0x1F;
+				exchangeMasks[i] = mask;
+				for (int j = Integer.bitCount(mask); j > 0; j--) {
+					drawnCodes[drawnCount++] = in.get();
+				}
+			}
+			int type = in.get() & 0xFF;
+			if (in.position() != end) throw new IOException(ERROR_FORMAT);
+			TypeOfHand typeOfHand = (type != NO_TYPE) ? TypeOfHand.values()[type] : null;
+			int[] drawn = new int[drawnCount];
+			System.arraycopy(drawnCodes, 0, drawn, 0, drawnCount);
+			return new HandHistory(jokerCount, changeCount, initialCodes, exchangeMasks, drawn, typeOfHand);
+		} catch (RuntimeException e) {
+			throw new IOException(ERROR_FORMAT, e);
+		}
+	}
+
+	/**
+	 * ペイロードのサイズを取得する
+	 * @param history 一ゲームの経過
+	 * @return ペイロードのサイズ
+	 */
+	private static int payloadSize(HandHistory history) {
+		return 1 + varintSize(history.getChangeCount()) + HandHistory.HAND_SIZE
+				+ varintSize(history.getExchangeCount()) + history.getExchangeCount() + history.getDiscardCount() + 1;
+	}
+	/**
+	 * 0以上の整数をvarint（下位から7ビットずつ、続きがある場合は最上位ビットを立てる形式）で書き込む
+	 * @param out 書き込み先
+	 * @param value 値
+	 */
+	static void writeVarint(ByteBuffer out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+	/**
+	 * varintを読み込む
+	 * @param in 読み込み元
+	 * @return 値（{@code in}の残りが足りない場合は-1）
+	 */
+	static int readVarint(ByteBuffer in) {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			if (!in.hasRemaining()) return -1;
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+		return -1;
+	}
+	/**
+	 * varintで書き込んだ場合のバイト数を取得する
+	 * @param value 値
+	 * @return バイト数
+	 */
+	static int varintSize(int value) {
+		int size = 1;
+		while ((value & ~0x7F) != 0) {
+			size++;
+			value >>>= 7;
+		}
+		return size;
+	}
+}
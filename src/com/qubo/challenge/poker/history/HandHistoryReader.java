@@ -0,0 +1,99 @@
+package com.qubo.challenge.poker.history;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link HandHistoryWriter}で書き込んだファイルから、{@link HandHistory}を先頭から順番に読み込むクラス。<br />
+ * ファイル全体をメモリに読み込むことはなく、固定サイズのバッファを使い回して読み進める。
+ * 書き込みの途中で中断されたファイルの場合、最後の不完全なレコードは無視される。
+ * @author Qubo
+ */
+public class HandHistoryReader implements Closeable {
+	private final FileChannel channel;
+	private ByteBuffer buffer;
+	private boolean endOfFile = false;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param file 読み込むファイル
+	 * @throws IOException ファイルを開けなかった場合、およびファイルのフォーマットが正しくない場合に発生
+	 */
+	public HandHistoryReader(File file) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.buffer = ByteBuffer.allocate(HandHistoryWriter.DEFAULT_BUFFER_SIZE);
+		try {
+			buffer.flip();
+			fill();
+			if (buffer.remaining() < HandHistoryCodec.HEADER_SIZE) {
+				throw new IOException(HandHistoryCodec.ERROR_FORMAT);
+			}
+			HandHistoryCodec.readHeader(buffer);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 次のレコードを読み込む
+	 * @return 一ゲームの経過（ファイルの終端に達した場合は{@code null}）
+	 * @throws IOException 読み込みに失敗した場合、およびファイルのフォーマットが正しくない場合に発生
+	 */
+	public HandHistory next() throws IOException {
+		while (true) {
+			HandHistory history = HandHistoryCodec.decode(buffer);
+			if (history != null) {
+				return history;
+			}
+			if (endOfFile) {
+				return null;
+			}
+			if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+				// バッファより大きなレコードは、バッファを広げて読み込む
+				ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+				larger.put(buffer);
+				larger.flip();
+				buffer = larger;
+			}
+			fill();
+		}
+	}
+
+	/**
+	 * 読み込んだレコードの終わりの位置を取得する。
+	 * {@link #next()}が{@code null}を返した後であれば、最後の完全なレコードの終わりの位置となる。
+	 * @return ファイルの先頭からのバイト数
+	 * @throws IOException 位置を取得できなかった場合に発生
+	 */
+	long getPosition() throws IOException {
+		return channel.position() - buffer.remaining();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * 読み込み済みのデータを詰めて、バッファの空きにファイルの続きを読み込む
+	 * @throws IOException 読み込みに失敗した場合に発生
+	 */
+	private void fill() throws IOException {
+		buffer.compact();
+		try {
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					endOfFile = true;
+					break;
+				}
+			}
+		} finally {
+			buffer.flip();
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package com.qubo.challenge.poker.history;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link HandHistory}をファイルの末尾に追記していくクラス。フォーマットは{@link HandHistoryCodec}を参照。<br />
+ * 追記されたレコードはまずメモリ上のバッファに溜められ、バッファが一杯になった時点、
+ * もしくは{@link #flush()}、{@link #sync()}が呼ばれた時点で、まとめて{@link FileChannel}に書き込まれる（グループコミット）。
+ * 複数のスレッドが同時に{@link #sync()}を呼び出した場合、ディスクへの同期はまとめて一度だけ行われる。<br />
+ * 既存のファイルを開いた場合、書き込みの途中で中断された最後の不完全なレコードは切り詰めてから追記する。<br />
+ * このクラスのメソッドは、複数のスレッドから同時に呼び出すことができる。
+ * @author Qubo
+ */
+public class HandHistoryWriter implements Closeable {
+	/** バッファサイズのデフォルト値 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final FileChannel channel;
+	/** I/Oを直列化するためのロック */
+	private final Object ioLock = new Object();
+	/** レコードを追記中のバッファ */
+	private ByteBuffer active;
+	/** 書き込み中のバッファ */
+	private ByteBuffer spare;
+	/** 追記されたレコードの通し番号 */
+	private long appended = 0;
+	/** チャネルに書き込み済みのレコードの通し番号 */
+	private long written = 0;
+	/** ディスクに同期済みのレコードの通し番号 */
+	private long synced = 0;
+	private boolean closed = false;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param file 書き込み先のファイル（存在しない場合は作成する）
+	 * @throws IOException ファイルを開けなかった場合に発生
+	 */
+	public HandHistoryWriter(File file) throws IOException {
+		this(file, DEFAULT_BUFFER_SIZE);
+	}
+	/**
+	 * バッファサイズを指定するコンストラクタ
+	 * @param file 書き込み先のファイル（存在しない場合は作成する）
+	 * @param bufferSize バッファサイズ
+	 * @throws IOException ファイルを開けなかった場合、および既存のファイルのフォーマットが正しくない場合に発生
+	 */
+	public HandHistoryWriter(File file, int bufferSize) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		this.active = ByteBuffer.allocate(bufferSize);
+		this.spare = ByteBuffer.allocate(bufferSize);
+		try {
+			long valid = getValidLength(file, channel.size());
+			if (valid < channel.size()) {
+				channel.truncate(valid);
+			}
+			if (valid == 0) {
+				// レコードを追記せずに閉じても読み込めるように、ファイルヘッダはすぐに書き込む
+				ByteBuffer header = ByteBuffer.allocate(HandHistoryCodec.HEADER_SIZE);
+				HandHistoryCodec.writeHeader(header);
+				header.flip();
+				while (header.hasRemaining()) {
+					channel.write(header);
+				}
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * レコードを追記する。バッファが一杯になった場合を除き、ファイルへの書き込みは行わない。
+	 * @param history 一ゲームの経過
+	 * @return 追記したレコードの通し番号
+	 * @throws IOException 書き込みに失敗した場合に発生
+	 */
+	public long append(HandHistory history) throws IOException {
+		int size = HandHistoryCodec.recordSize(history);
+		while (true) {
+			long pending;
+			synchronized (this) {
+				if (closed) throw new IOException("ハンド履歴は既に閉じられています！");
+				if (active.remaining() >= size) {
+					HandHistoryCodec.encode(history, active);
+					return ++appended;
+				}
+				if (active.position() == 0) {
+					// バッファより大きなレコードは、バッファを広げて書き込む
+					active = ByteBuffer.allocate(size);
+					spare = ByteBuffer.allocate(size);
+					continue;
+				}
+				pending = appended;
+			}
+			commit(pending, false);
+		}
+	}
+	/**
+	 * これまでに追記された全てのレコードを、ファイルに書き込む
+	 * @throws IOException 書き込みに失敗した場合に発生
+	 */
+	public void flush() throws IOException {
+		commit(getAppended(), false);
+	}
+	/**
+	 * これまでに追記された全てのレコードを、ファイルに書き込んでディスクに同期する
+	 * @throws IOException 書き込みに失敗した場合に発生
+	 */
+	public void sync() throws IOException {
+		commit(getAppended(), true);
+	}
+	/**
+	 * これまでに追記されたレコードの数を取得する
+	 * @return レコードの数
+	 */
+	public synchronized long getAppended() { return appended; }
+
+	@Override
+	public void close() throws IOException {
+		synchronized (ioLock) {
+			if (channel.isOpen()) {
+				// 閉じた後は追記できないので、ここで取得した通し番号が最後のレコードになる
+				long last;
+				synchronized (this) {
+					closed = true;
+					last = appended;
+				}
+				commit(last, true);
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * 既存のファイルのうち、完全なレコードで終わる部分の長さを取得する
+	 * @param file ファイル
+	 * @param size ファイルのサイズ
+	 * @return 完全なレコードで終わる部分の長さ（ファイルヘッダが途中で切れている場合は0）
+	 * @throws IOException 読み込みに失敗した場合、およびファイルのフォーマットが正しくない場合に発生
+	 */
+	private static long getValidLength(File file, long size) throws IOException {
+		if (size < HandHistoryCodec.HEADER_SIZE) {
+			return 0;
+		}
+		HandHistoryReader reader = new HandHistoryReader(file);
+		try {
+			while (reader.next() != null) {
+				// 最後の完全なレコードまで読み進める
+			}
+			return reader.getPosition();
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * 通し番号{@code sequence}までのレコードを、ファイルに書き込む。
+	 * 既に他のスレッドによって書き込まれていた場合は、何もしない。
+	 * @param sequence 書き込みが必要なレコードの通し番号
+	 * @param force ディスクへの同期も行うかどうか
+	 * @throws IOException 書き込みに失敗した場合に発生
+	 */
+	private void commit(long sequence, boolean force) throws IOException {
+		synchronized (ioLock) {
+			if (sequence <= written && (!force || sequence <= synced)) {
+				return;
+			}
+			ByteBuffer batch;
+			long batchSequence;
+			synchronized (this) {
+				batch = active;
+				active = spare;
+				spare = batch;
+				batchSequence = appended;
+			}
+			batch.flip();
+			while (batch.hasRemaining()) {
+				channel.write(batch);
+			}
+			batch.clear();
+			written = batchSequence;
+			if (force) {
+				channel.force(false);
+				synced = batchSequence;
+			}
+		}
+	}
+}
@@ -0,0 +1,2 @@
+/** ポーカーの一ゲームごとの経過を、コンパクトなバイナリ形式で記録・読み込みするためのパッケージ */
+package com.qubo.challenge.poker.history;
@@ -3,6 +3,8 @@ package com.qubo.challenge.poker.models;
 import java.text.MessageFormat;
 
 import com.qubo.Utils;
+import com.qubo.metrics.LatencyRecorder;
+import com.qubo.metrics.Metrics;
 
 /**
  * トランプのカードを表したクラス。
@@ -28,6 +30,40 @@ public class Card {
 	public static final char SYMBOL_JOKER = ' ';
 	/** ジョーカーの数字 */
 	public static final int RAW_VALUE_JOKER = -1;
+	/** ジョーカーのカードコード */
+	public static final int CODE_JOKER = 52;
+	/** カードコードの種類数 */
+	public static final int CODE_COUNT = 53;
+	/** カードコードを範囲外で指定した場合に発生 */
+	public static final String ERROR_CODE_OUT_OF_RANGE = "カードコード[{0}]は範囲外です！";
+	/** {@link #parse(String)}の処理時間 */
+	private static final LatencyRecorder PARSE_LATENCY = Metrics.latency("card.parse");
+	/** カードコードに対応する{@link Card}インスタンス */
+	private static final Card[] CODES = new Card[CODE_COUNT];
+	/** カードコードに対応する、マークの全角文字列（表示のたびに変換しないよう、事前に作っておく） */
+	private static final String[] SUIT_SYMBOLS_2BYTES = new String[CODE_COUNT];
+	/** カードコードに対応する、数字の2バイト文字列（表示のたびに変換しないよう、事前に作っておく） */
+	private static final String[] NUMBER_SYMBOLS_2BYTES = new String[CODE_COUNT];
+
+	static {
+		try {
+			for (Suit suit : Suit.values()) {
+				if (suit != Suit.Joker) {
+					for (int number = 2; number <= 14; number++) {
+						Card card = new Card(suit, number);
+						CODES[card.getCode()] = card;
+					}
+				}
+			}
+			CODES[CODE_JOKER] = new Card(Suit.Joker, RAW_VALUE_JOKER);
+			for (Card card : CODES) {
+				SUIT_SYMBOLS_2BYTES[card.getCode()] = "" + Utils.toFullWidth(card.suit.getSymbol());
+				NUMBER_SYMBOLS_2BYTES[card.getCode()] = toNumberSymbol2Bytes(card.number);
+			}
+		} catch (CardException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
 
 	private final Suit suit;
 	private final int number;
@@ -57,6 +93,7 @@ public class Card {
 	 * @throws CardException 文字列のフォーマットがおかしい場合に発生
 	 */
 	public static Card parse(String format) throws CardException {
+		long start = Metrics.start();
 		Suit suit;
 		int number;
 
@@ -112,9 +149,36 @@ public class Card {
 			throw new CardException(MessageFormat.format(ERROR_PARSE, format, format.substring(1)));
 		}
 
-		return new Card(suit, number);
+		Card card = new Card(suit, number);
+		PARSE_LATENCY.recordSince(start);
+		return card;
 	}
 
+	/**
+	 * カードコードに対応する{@link Card}インスタンスを取得する。
+	 * 同じカードコードに対しては、常に同じインスタンスを返す。
+	 * @param code カードコード（{@link #getCode()}を参照）
+	 * @return {@link Card}インスタンス
+	 * @throws CardException カードコードが範囲外の場合に発生
+	 */
+	public static Card valueOf(int code) throws CardException {
+		if (code < 0 || code >= CODE_COUNT) throw new CardException(MessageFormat.format(ERROR_CODE_OUT_OF_RANGE, code));
+		return CODES[code];
+	}
+	/**
+	 * 範囲内であることが分かっているカードコードに対応する{@link Card}インスタンスを、検査せずに取得する
+	 * @param code カードコード
+	 * @return {@link Card}インスタンス
+	 */
+	static Card ofCode(int code) { return CODES[code]; }
+
+	/**
+	 * カードを0～52の整数で表したカードコードを取得する。<br />
+	 * ジョーカー以外のカードは{@code マークの序数 * 13 + (数字 - 2)}、
+	 * ジョーカーは{@link #CODE_JOKER}となる。
+	 * @return カードコード
+	 */
+	public int getCode() { return (suit != Suit.Joker) ? suit.ordinal() * 13 + (number - 2) : CODE_JOKER; }
 	/**
 	 * カードのマークを取得する
 	 * @return カードのマーク
@@ -143,7 +207,7 @@ public class Card {
 	 * を文字列として返す。
 	 * @return マークの2バイト文字列表現
 	 */
-	public String getSuitSymbol2Bytes() { return "" + Utils.toFullWidth(suit.getSymbol()); }
+	public String getSuitSymbol2Bytes() { return SUIT_SYMBOLS_2BYTES[getCode()]; }
 	/**
 	 * カードの数字を取得する。<br />
 	 * <b>※エースは14で表現する</b>。
@@ -185,7 +249,13 @@ public class Card {
 	 * それ以外の場合は数字を全角文字にして返す。
 	 * @return 数値の2バイト文字列表現
 	 */
-	public String getNumberSymbol2Bytes() {
+	public String getNumberSymbol2Bytes() { return NUMBER_SYMBOLS_2BYTES[getCode()]; }
+	/**
+	 * {@link #getNumberSymbol2Bytes()}の文字列を作る
+	 * @param number 数字
+	 * @return 数値の2バイト文字列表現
+	 */
+	private static String toNumberSymbol2Bytes(int number) {
 		switch (number) {
 		case 10: return "10";
 		case 11: return "" + Utils.toFullWidth(SYMBOL_JACK);
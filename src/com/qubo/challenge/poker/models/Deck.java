@@ -1,52 +1,121 @@
 package com.qubo.challenge.poker.models;
 
 import java.text.MessageFormat;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Random;
+import java.util.RandomAccess;
+
+import com.qubo.metrics.EventType;
+import com.qubo.metrics.Events;
+import com.qubo.metrics.LatencyRecorder;
+import com.qubo.metrics.Metrics;
 
 /**
  * トランプの１セット（＝デッキ）を表現するクラス。
+ * 複数組のトランプを混ぜたもの（シュー）も表現できる。<br />
+ * 残ったカードと捨てたカードは、カードコードの配列で持つ。
+ * {@link #save(Snapshot, Hand)}と{@link #restore(Snapshot, Hand)}で、デッキと手札の状態を配列の複写だけで保存・復元できる。
  * @author Qubo
  */
 public class Deck {
 	/** デッキ内に含むことのできるジョーカーの最大枚数 */
 	public static final int JOKER_COUNT_MAX = 2;
+	/** シューに混ぜることのできるトランプの最大の組数 */
+	public static final int DECK_COUNT_MAX = 8;
 	/** デッキ内に交換できるカードが足りない場合に発生 */
 	public static final String ERROR_DECK_CARD_DEFICIT = "デッキにカードが{0}枚足りません！";
 	/** ジョーカーの枚数指定がおかしい場合に発生する例外のメッセージ */
 	public static final String ERROR_JOKER_COUNT_RANGE = "ジョーカーの数は0枚～2枚の間で設定してください！";
-	private static final Random random = new Random();
-	private final List<Card> cards;
-	private final List<Card> discardPile;
+	/** トランプの組数の指定がおかしい場合に発生する例外のメッセージ */
+	public static final String ERROR_DECK_COUNT_RANGE = "トランプの組数は1組～8組の間で設定してください！";
+	/** 他のデッキのスナップショットを復元しようとした場合に発生する例外のメッセージ */
+	public static final String ERROR_SNAPSHOT_OWNER = "他のデッキのスナップショットは復元できません！";
+	/** スナップショットと手札の枚数が違う場合に発生する例外のメッセージ */
+	public static final String ERROR_SNAPSHOT_HAND_SIZE = "スナップショットの手札は{0}枚ですが、復元先の手札は{1}枚です！";
+	/** {@link #deal()}の処理時間 */
+	private static final LatencyRecorder DEAL_LATENCY = Metrics.latency("deck.deal");
+	/** {@link #change(Hand, int...)}の処理時間 */
+	private static final LatencyRecorder CHANGE_LATENCY = Metrics.latency("deck.change");
+	/** {@link #deal()}のイベント */
+	private static final EventType DEAL_EVENT = Events.type("poker.deal");
+	/** {@link #change(Hand, int...)}のイベント */
+	private static final EventType EXCHANGE_EVENT = Events.type("poker.exchange");
+	/** 乱数を指定しなかった場合に、全てのデッキで共有する乱数 */
+	private static final Random sharedRandom = new Random();
+	private final Random random;
+	/** 残ったカードのカードコード（先頭から{@link #remainings}枚） */
+	private final int[] cards;
+	/** 残ったカードの枚数 */
+	private int remainings;
+	/** 捨てたカードのカードコード（先頭から{@link #discards}枚） */
+	private final int[] discardPile;
+	/** 捨てたカードの枚数 */
+	private int discards;
+	/** 残ったカードの、変更できないリストとしてのビュー */
+	private final List<Card> remainingCards = new RemainingCards();
+	/** 残ったカードの構成 */
+	private final DeckComposition composition = new DeckComposition();
 	private final int jokerCount;
+	private final int deckCount;
 
 	/**
 	 * デッキの中に含まれるジョーカーの数を取得する
 	 * @return ジョーカーの数
 	 */
 	public int getJokerCount() { return jokerCount; }
+	/**
+	 * デッキを構成するトランプの組数を取得する
+	 * @return トランプの組数
+	 */
+	public int getDeckCount() { return deckCount; }
 
 	/**
 	 * コンストラクタ。
 	 * @param jokerCount ジョーカーの枚数
 	 * @throws CardException ジョーカーの枚数指定がおかしい場合に表示
 	 */
-	public Deck(int jokerCount) throws CardException {
+	public Deck(int jokerCount) throws CardException { this(jokerCount, sharedRandom); }
+	/**
+	 * カードを引く際の乱数を指定するコンストラクタ。
+	 * 同じシードの乱数を与えたデッキからは、交換の仕方に関わらず同じ順番でカードが引かれる。
+	 * @param jokerCount ジョーカーの枚数
+	 * @param random カードを引く際に使う乱数
+	 * @throws CardException ジョーカーの枚数指定がおかしい場合に表示
+	 */
+	public Deck(int jokerCount, Random random) throws CardException { this(1, jokerCount, random); }
+	/**
+	 * 複数組のトランプを混ぜたシューを作成するコンストラクタ。
+	 * @param deckCount トランプの組数
+	 * @param jokerCount シュー全体に含めるジョーカーの枚数
+	 * @throws CardException 組数やジョーカーの枚数指定がおかしい場合に発生
+	 */
+	public Deck(int deckCount, int jokerCount) throws CardException { this(deckCount, jokerCount, sharedRandom); }
+	/**
+	 * 複数組のトランプを混ぜたシューを、カードを引く際の乱数を指定して作成するコンストラクタ。
+	 * @param deckCount トランプの組数
+	 * @param jokerCount シュー全体に含めるジョーカーの枚数
+	 * @param random カードを引く際に使う乱数
+	 * @throws CardException 組数やジョーカーの枚数指定がおかしい場合に発生
+	 */
+	public Deck(int deckCount, int jokerCount, Random random) throws CardException {
+		if (deckCount < 1 || deckCount > DECK_COUNT_MAX) throw new CardException(ERROR_DECK_COUNT_RANGE);
 		if (jokerCount < 0 || jokerCount > JOKER_COUNT_MAX) throw new CardException(ERROR_JOKER_COUNT_RANGE);
-		this.cards = new ArrayList<Card>();
-		this.discardPile = new ArrayList<Card>();
+		this.random = random;
+		this.cards = new int[Card.CODE_JOKER * deckCount + jokerCount];
+		this.discardPile = new int[cards.length];
 		this.jokerCount = jokerCount;
-		for (Suit suit : Suit.values()) {
-			if (suit != Suit.Joker) {
-				for (int i = 2; i <= 14; i++) {
-					Card card = new Card(suit, i);
-					cards.add(card);
-				}
+		this.deckCount = deckCount;
+		for (int deck = 0; deck < deckCount; deck++) {
+			for (int code = 0; code < Card.CODE_JOKER; code++) {
+				cards[remainings++] = code;
 			}
 		}
 		for (int i = 0; i < jokerCount; i++) {
-			cards.add(new Card(Suit.Joker, Card.RAW_VALUE_JOKER));
+			cards[remainings++] = Card.CODE_JOKER;
+		}
+		for (int code : cards) {
+			composition.add(code);
 		}
 	}
 	/** 標準のコンストラクタ。ジョーカーを含まない全52枚で構成される。
@@ -60,9 +129,27 @@ public class Deck {
 	 * @return {@link Hand}インスタンス
 	 * @throws CardException カードが足りない場合に発生
 	 */
-	public Hand deal() throws CardException {
-		if (cards.size() < 5) throw new CardException(MessageFormat.format(ERROR_DECK_CARD_DEFICIT, 5 - cards.size()));
-		return new Hand(draw(), draw(), draw(), draw(), draw());
+	public Hand deal() throws CardException { return deal(Hand.SIZE); }
+	/**
+	 * デッキの中からランダムに{@code size}枚抜き出し、{@link Hand}インスタンスを生成して返す。
+	 * @param size 手札の枚数（{@value Hand#SIZE}枚以上）
+	 * @return {@link Hand}インスタンス
+	 * @throws CardException カードが足りない場合に発生
+	 * @throws IllegalArgumentException {@code size}が{@value Hand#SIZE}枚未満の場合に発生
+	 */
+	public Hand deal(int size) throws CardException {
+		if (size < Hand.SIZE) throw new IllegalArgumentException(MessageFormat.format(Hand.ERROR_HAND_SIZE, Hand.SIZE));
+		if (remainings < size) throw new CardException(MessageFormat.format(ERROR_DECK_CARD_DEFICIT, size - remainings));
+		long start = Metrics.start();
+		long event = Events.begin(DEAL_EVENT);
+		Card[] dealt = new Card[size];
+		for (int i = 0; i < size; i++) {
+			dealt[i] = draw();
+		}
+		Hand hand = new Hand(dealt);
+		DEAL_LATENCY.recordSince(start);
+		Events.commit(DEAL_EVENT, event, jokerCount, 0, null);
+		return hand;
 	}
 	/**
 	 * {@link Hand}インスタンスの手の中から、
@@ -73,25 +160,140 @@ public class Deck {
 	 * @throws CardException カードが足りない場合に発生
 	 */
 	public void change(Hand hand, int... indices) throws CardException {
-		if (cards.size() < indices.length) throw new CardException(MessageFormat.format(ERROR_DECK_CARD_DEFICIT, indices.length - cards.size()));
+		if (remainings < indices.length) throw new CardException(MessageFormat.format(ERROR_DECK_CARD_DEFICIT, indices.length - remainings));
 
+		long start = Metrics.start();
+		long event = Events.begin(EXCHANGE_EVENT);
 		for (int index : indices) {
-			Card discarded = hand.cards[index];
-			discardPile.add(discarded);
+			discardPile[discards++] = hand.cards[index].getCode();
 			hand.cards[index] = draw();
 		}
+		CHANGE_LATENCY.recordSince(start);
+		Events.commit(EXCHANGE_EVENT, event, jokerCount, indices.length, null);
 	}
 	/**
 	 * デッキの中に残ったカードの枚数を取得する
 	 * @return 残ったカード枚数
 	 */
-	public int getRemainings() { return cards.size(); }
+	public int getRemainings() { return remainings; }
+	/**
+	 * デッキの中に残ったカードを、変更できないリストとして取得する
+	 * @return 残ったカード
+	 */
+	public List<Card> getRemainingCards() { return remainingCards; }
+	/**
+	 * デッキの中に残ったカードの構成を取得する。
+	 * 返されるインスタンスは読み取り専用で、カードを引くたびに内容が更新される。
+	 * @return 残ったカードの構成
+	 */
+	public DeckComposition getComposition() { return composition; }
+	/**
+	 * 捨てたカードの枚数を取得する
+	 * @return 捨てたカードの枚数
+	 */
+	public int getDiscards() { return discards; }
+
+	/**
+	 * このデッキの状態を保存するためのスナップショットを作成する。
+	 * 保存と復元のたびにオブジェクトを生成しないよう、必要な大きさの配列をここで確保する。
+	 * @return 空のスナップショット
+	 */
+	public Snapshot createSnapshot() { return new Snapshot(this); }
+	/**
+	 * デッキと手札の状態をスナップショットに保存する。オブジェクトは生成しない。
+	 * @param snapshot 保存先のスナップショット
+	 * @param hand 一緒に保存する手札（保存しない場合は{@code null}）
+	 * @throws IllegalArgumentException 他のデッキのスナップショットを指定した場合に発生
+	 */
+	public void save(Snapshot snapshot, Hand hand) {
+		if (snapshot.owner != this) throw new IllegalArgumentException(ERROR_SNAPSHOT_OWNER);
+		System.arraycopy(cards, 0, snapshot.cards, 0, remainings);
+		snapshot.remainings = remainings;
+		System.arraycopy(discardPile, 0, snapshot.discardPile, 0, discards);
+		snapshot.discards = discards;
+		snapshot.composition.copyFrom(composition);
+		snapshot.handSize = (hand == null) ? 0 : hand.cards.length;
+		for (int i = 0; i < snapshot.handSize; i++) {
+			snapshot.hand[i] = hand.cards[i].getCode();
+		}
+	}
+	/**
+	 * スナップショットに保存した状態に、デッキと手札を戻す。オブジェクトは生成しない。<br />
+	 * 乱数の状態は戻さないので、復元した後に引くカードは保存する前と同じとは限らない。
+	 * @param snapshot 保存したスナップショット
+	 * @param hand 戻す手札（戻さない場合は{@code null}）
+	 * @throws IllegalArgumentException 他のデッキのスナップショットを指定した場合や、手札の枚数が違う場合に発生
+	 */
+	public void restore(Snapshot snapshot, Hand hand) {
+		if (snapshot.owner != this) throw new IllegalArgumentException(ERROR_SNAPSHOT_OWNER);
+		if (hand != null && hand.cards.length != snapshot.handSize) {
+			throw new IllegalArgumentException(MessageFormat.format(ERROR_SNAPSHOT_HAND_SIZE, snapshot.handSize, hand.cards.length));
+		}
+		System.arraycopy(snapshot.cards, 0, cards, 0, snapshot.remainings);
+		remainings = snapshot.remainings;
+		System.arraycopy(snapshot.discardPile, 0, discardPile, 0, snapshot.discards);
+		discards = snapshot.discards;
+		composition.copyFrom(snapshot.composition);
+		if (hand != null) {
+			for (int i = 0; i < snapshot.handSize; i++) {
+				hand.cards[i] = Card.ofCode(snapshot.hand[i]);
+			}
+		}
+	}
 	/**
 	 * デッキからランダムに{@link Card}インスタンスを選んで返す。
-	 * 選択された{@link Card}インスタンスは、デッキから取り除かれる。
-	 * @return
+	 * 選択された{@link Card}インスタンスは、デッキから取り除かれる（残りのカードの並び順は保たれる）。
+	 * @return 引いたカード
 	 */
 	private Card draw() {
-		return cards.remove(random.nextInt(cards.size()));
+		int index = random.nextInt(remainings);
+		int code = cards[index];
+		System.arraycopy(cards, index + 1, cards, index, --remainings - index);
+		composition.remove(code);
+		return Card.ofCode(code);
+	}
+
+	/**
+	 * デッキと手札の状態を保存するスナップショット。
+	 * {@link Deck#createSnapshot()}で作成し、{@link Deck#save(Snapshot, Hand)}と{@link Deck#restore(Snapshot, Hand)}で使い回す。
+	 * @author Qubo
+	 */
+	public static final class Snapshot {
+		private final Deck owner;
+		private final int[] cards;
+		private int remainings;
+		private final int[] discardPile;
+		private int discards;
+		private final DeckComposition composition = new DeckComposition();
+		private final int[] hand;
+		private int handSize;
+
+		private Snapshot(Deck owner) {
+			this.owner = owner;
+			this.cards = new int[owner.cards.length];
+			this.discardPile = new int[owner.cards.length];
+			this.hand = new int[owner.cards.length];
+		}
+	}
+	/**
+	 * 残ったカードの、変更できないリストとしてのビュー
+	 * @author Qubo
+	 */
+	private class RemainingCards extends AbstractList<Card> implements RandomAccess {
+		/*
+		 * (非 Javadoc)
+		 * @see java.util.AbstractList#get(int)
+		 */
+		@Override
+		public Card get(int index) {
+			if (index < 0 || index >= remainings) throw new IndexOutOfBoundsException(String.valueOf(index));
+			return Card.ofCode(cards[index]);
+		}
+		/*
+		 * (非 Javadoc)
+		 * @see java.util.AbstractCollection#size()
+		 */
+		@Override
+		public int size() { return remainings; }
 	}
 }
@@ -0,0 +1,126 @@
+package com.qubo.challenge.poker.models;
+
+/**
+ * デッキに残ったカードの構成（カードごと、数字ごと、マークごとの枚数と、ジョーカーの枚数）。<br />
+ * {@link Deck}がカードを引くたびに定数時間で更新するので、確率の計算やヒントの表示でデッキを走査する必要はない。
+ * 外部からは読み取りのみが可能で、値は常にデッキの現在の状態を表す（{@link #copy()}で得た複製は除く）。
+ * @author Qubo
+ */
+public final class DeckComposition {
+	/** ジョーカー以外のマークの数 */
+	private static final int SUIT_COUNT = 4;
+	/** 数字の種類 */
+	private static final int RANK_KINDS = 13;
+
+	/** カードコードごとの枚数 */
+	private final int[] cardCounts = new int[Card.CODE_COUNT];
+	/** 数字ごとの枚数（添字は数字そのもの） */
+	private final int[] rankCounts = new int[15];
+	/** マークごとの枚数 */
+	private final int[] suitCounts = new int[SUIT_COUNT];
+	/** 全体の枚数 */
+	private int total;
+
+	DeckComposition() {}
+
+	/**
+	 * 残ったカードの枚数を取得する
+	 * @return 枚数
+	 */
+	public int getTotal() { return total; }
+	/**
+	 * 残ったジョーカーの枚数を取得する
+	 * @return ジョーカーの枚数
+	 */
+	public int getJokers() { return cardCounts[Card.CODE_JOKER]; }
+	/**
+	 * 指定した数字のカードの残り枚数を取得する。ジョーカーは含まない。
+	 * @param number 数字（2～14）
+	 * @return 枚数
+	 */
+	public int getCount(int number) { return rankCounts[number]; }
+	/**
+	 * 指定したマークのカードの残り枚数を取得する
+	 * @param suit マーク（{@link Suit#Joker}の場合はジョーカーの枚数）
+	 * @return 枚数
+	 */
+	public int getCount(Suit suit) {
+		return (suit == Suit.Joker) ? getJokers() : suitCounts[suit.ordinal()];
+	}
+	/**
+	 * 指定したカードの残り枚数を取得する
+	 * @param suit マーク
+	 * @param number 数字（2～14。ジョーカーの場合は無視される）
+	 * @return 枚数
+	 */
+	public int getCount(Suit suit, int number) {
+		return (suit == Suit.Joker) ? getJokers() : cardCounts[suit.ordinal() * RANK_KINDS + number - 2];
+	}
+	/**
+	 * 指定したカードの残り枚数を取得する
+	 * @param card カード
+	 * @return 枚数
+	 */
+	public int getCount(Card card) { return cardCounts[card.getCode()]; }
+	/**
+	 * 現在の構成を写した、デッキの変化に追従しない構成を取得する。<br />
+	 * 別のスレッドで確率を計算する場合など、デッキの状態を固定して参照したい場合に使う。
+	 * @return 構成の複製
+	 */
+	public DeckComposition copy() {
+		DeckComposition copy = new DeckComposition();
+		copy.copyFrom(this);
+		return copy;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("total=").append(total).append(", jokers=").append(getJokers());
+		for (Suit suit : Suit.values()) {
+			if (suit != Suit.Joker) builder.append(", ").append(suit.name()).append('=').append(suitCounts[suit.ordinal()]);
+		}
+		for (int number = 2; number <= 14; number++) {
+			builder.append(", ").append(number).append('=').append(rankCounts[number]);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * カードを1枚加える
+	 * @param code カードコード
+	 */
+	void add(int code) { update(code, 1); }
+	/**
+	 * カードを1枚取り除く
+	 * @param code カードコード
+	 */
+	void remove(int code) { update(code, -1); }
+	/**
+	 * 他の構成の内容を写す
+	 * @param other 写す元の構成
+	 */
+	void copyFrom(DeckComposition other) {
+		System.arraycopy(other.cardCounts, 0, cardCounts, 0, cardCounts.length);
+		System.arraycopy(other.rankCounts, 0, rankCounts, 0, rankCounts.length);
+		System.arraycopy(other.suitCounts, 0, suitCounts, 0, suitCounts.length);
+		total = other.total;
+	}
+	/**
+	 * 枚数を増減する
+	 * @param code カードコード
+	 * @param delta 増減する枚数
+	 */
+	private void update(int code, int delta) {
+		cardCounts[code] += delta;
+		total += delta;
+		if (code != Card.CODE_JOKER) {
+			rankCounts[code % RANK_KINDS + 2] += delta;
+			suitCounts[code / RANK_KINDS] += delta;
+		}
+	}
+}
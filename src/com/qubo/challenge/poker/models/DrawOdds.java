@@ -0,0 +1,265 @@
+package com.qubo.challenge.poker.models;
+
+/**
+ * 手札の交換の仕方32通りそれぞれについて、一回の{@link Deck#change(Hand, int...)}の後に
+ * 各役になる確率を厳密に求めたもの。<br />
+ * 引きうるカードを一枚ずつ列挙するのではなく、デッキに残った数字ごとの枚数から、
+ * 引いたカードの数字の組み合わせ（重複を許す）を列挙し、その引き方の数を二項係数の積として数える。
+ * 役はマークが揃っているかどうか以外は数字とジョーカーだけで決まるので、
+ * 数字の組み合わせごとに、マークが揃う引き方と揃わない引き方を分けて{@link TypeOfHand#getTypeOfHand(Hand)}で判定する。<br />
+ * 同じカードが複数枚ある、複数組のトランプを混ぜたシューでも、カードごとの枚数から引き方を数えるので正しく求められる。
+ * @author Qubo
+ */
+public class DrawOdds {
+	/** 交換の仕方の数 */
+	public static final int PATTERN_COUNT = 32;
+	/** 二項係数の表（シューに残りうる枚数まで、一度に引きうる枚数まで） */
+	private static final long[][] BINOMIALS = binomials(52 * Deck.DECK_COUNT_MAX + Deck.JOKER_COUNT_MAX, 5);
+
+	/** 交換の仕方・役ごとの引き方の数 */
+	private final long[][] ways;
+	/** 交換の仕方ごとの、全ての引き方の数 */
+	private final long[] totals;
+
+	private DrawOdds(long[][] ways, long[] totals) {
+		this.ways = ways;
+		this.totals = totals;
+	}
+
+	/**
+	 * 手札とデッキから、交換の仕方32通り全ての確率を求める
+	 * @param hand 手札
+	 * @param deck デッキ
+	 * @return 交換の仕方ごとの確率
+	 */
+	public static DrawOdds of(Hand hand, Deck deck) { return of(hand, deck.getComposition()); }
+	/**
+	 * 手札とデッキに残ったカードの構成から、交換の仕方32通り全ての確率を求める
+	 * @param hand 手札
+	 * @param composition デッキに残ったカードの構成
+	 * @return 交換の仕方ごとの確率
+	 */
+	public static DrawOdds of(Hand hand, DeckComposition composition) {
+		int[][] counts = new int[Suit.values().length][15];
+		int[] numbers = new int[15];
+		for (Suit suit : Suit.values()) {
+			if (suit == Suit.Joker) continue;
+			for (int number = 2; number <= 14; number++) {
+				counts[suit.ordinal()][number] = composition.getCount(suit, number);
+			}
+		}
+		for (int number = 2; number <= 14; number++) {
+			numbers[number] = composition.getCount(number);
+		}
+		int jokers = composition.getJokers();
+		int remainings = composition.getTotal();
+		long[][] ways = new long[PATTERN_COUNT][TypeOfHand.values().length];
+		long[] totals = new long[PATTERN_COUNT];
+		for (int mask = 0; mask < PATTERN_COUNT; mask++) {
+			int draws = Integer.bitCount(mask);
+			if (draws > remainings) continue;
+			totals[mask] = BINOMIALS[remainings][draws];
+			new Counter(hand, mask, counts, numbers, jokers, ways[mask]).count(draws);
+		}
+		return new DrawOdds(ways, totals);
+	}
+
+	/**
+	 * 役になる引き方の数を取得する
+	 * @param mask 交換する位置のビットマスク（0は交換しない）
+	 * @param typeOfHand 役
+	 * @return 引き方の数
+	 */
+	public long getWays(int mask, TypeOfHand typeOfHand) { return ways[mask][typeOfHand.ordinal()]; }
+	/**
+	 * 全ての引き方の数を取得する
+	 * @param mask 交換する位置のビットマスク（0は交換しない）
+	 * @return 引き方の数（デッキのカードが足りず交換できない場合は0）
+	 */
+	public long getTotal(int mask) { return totals[mask]; }
+	/**
+	 * 役になる確率を取得する
+	 * @param mask 交換する位置のビットマスク（0は交換しない）
+	 * @param typeOfHand 役
+	 * @return 確率（デッキのカードが足りず交換できない場合は{@link Double#NaN}）
+	 */
+	public double getProbability(int mask, TypeOfHand typeOfHand) {
+		return (totals[mask] == 0) ? Double.NaN : (double) ways[mask][typeOfHand.ordinal()] / totals[mask];
+	}
+	/**
+	 * 役の序数ごとの確率を取得する
+	 * @param mask 交換する位置のビットマスク（0は交換しない）
+	 * @return 役の序数ごとの確率
+	 */
+	public double[] getDistribution(int mask) {
+		double[] distribution = new double[ways[mask].length];
+		for (TypeOfHand typeOfHand : TypeOfHand.values()) {
+			distribution[typeOfHand.ordinal()] = getProbability(mask, typeOfHand);
+		}
+		return distribution;
+	}
+
+	/**
+	 * 一つの交換の仕方について、引いたカードの数字の組み合わせを列挙して引き方を数えるクラス
+	 */
+	private static class Counter {
+		/** マーク・数字ごとの、デッキに残った枚数 */
+		private final int[][] counts;
+		private final int[] numbers;
+		private final int jokers;
+		private final long[] ways;
+		/** 残すカードと引いたカードを並べた手札（引いたカードの部分を書き換えて判定に使う） */
+		private final Card[] cards = new Card[5];
+		/** 交換する位置 */
+		private final int[] positions;
+		/** 残すジョーカー以外のカードのマーク（揃っていない場合は{@link Suit#Joker}、一枚も無い場合は{@code null}） */
+		private final Suit keptSuit;
+		/** 引いたジョーカー以外のカードの数字 */
+		private final int[] drawn;
+
+		Counter(Hand hand, int mask, int[][] counts, int[] numbers, int jokers, long[] ways) {
+			this.counts = counts;
+			this.numbers = numbers;
+			this.jokers = jokers;
+			this.ways = ways;
+			this.positions = new int[Integer.bitCount(mask)];
+			this.drawn = new int[positions.length];
+			Suit suit = null;
+			for (int i = 0, j = 0; i < 5; i++) {
+				if ((mask & (1 << i)) != 0) {
+					positions[j++] = i;
+				} else {
+					Card card = hand.cards[i];
+					cards[i] = card;
+					if (card.getSuit() != Suit.Joker) {
+						suit = (suit == null || suit == card.getSuit()) ? card.getSuit() : Suit.Joker;
+					}
+				}
+			}
+			this.keptSuit = suit;
+		}
+
+		/**
+		 * 引くジョーカーの枚数ごとに、残りの数字の組み合わせを列挙する
+		 * @param draws 引く枚数
+		 */
+		void count(int draws) {
+			for (int j = 0; j <= Math.min(jokers, draws); j++) {
+				enumerate(2, 0, draws - j, j, BINOMIALS[jokers][j]);
+			}
+		}
+		/**
+		 * 数字{@code number}以降から、{@code rest}枚分の数字の組み合わせを列挙する
+		 * @param number 次に調べる数字
+		 * @param depth 既に決まった、引いたジョーカー以外のカードの枚数
+		 * @param rest 残りの枚数
+		 * @param drawnJokers 引いたジョーカーの枚数
+		 * @param combinations ここまでの引き方の数
+		 */
+		private void enumerate(int number, int depth, int rest, int drawnJokers, long combinations) {
+			if (rest == 0) {
+				classify(depth, drawnJokers, combinations);
+				return;
+			}
+			if (number > 14) return;
+			enumerate(number + 1, depth, rest, drawnJokers, combinations);
+			for (int c = 1; c <= Math.min(numbers[number], rest); c++) {
+				drawn[depth + c - 1] = number;
+				enumerate(number + 1, depth + c, rest - c, drawnJokers, combinations * BINOMIALS[numbers[number]][c]);
+			}
+		}
+		/**
+		 * 数字の組み合わせが決まった手札を、マークが揃う引き方と揃わない引き方に分けて判定する
+		 * @param depth 引いたジョーカー以外のカードの枚数
+		 * @param drawnJokers 引いたジョーカーの枚数
+		 * @param combinations 引き方の数
+		 */
+		private void classify(int depth, int drawnJokers, long combinations) {
+			long flushes = 0;
+			Suit flushSuit = null;
+			if (keptSuit != Suit.Joker) {
+				for (Suit suit : Suit.values()) {
+					if (suit == Suit.Joker || (keptSuit != null && suit != keptSuit)) continue;
+					long suited = countSuited(suit, depth);
+					if (suited > 0) {
+						flushes += suited * BINOMIALS[jokers][drawnJokers];
+						flushSuit = suit;
+					}
+				}
+			}
+			if (flushes > 0) {
+				fill(depth, drawnJokers, flushSuit, flushSuit);
+				ways[EvaluationCache.getShared().getTypeOfHand(new Hand(cards[0], cards[1], cards[2], cards[3], cards[4])).ordinal()] += flushes;
+			}
+			if (combinations > flushes) {
+				// 残すカードのマークが揃っていれば、引いたカードには別のマークを、残すカードが無ければ2種類のマークを割り当てる
+				Suit first = (keptSuit == Suit.Heart) ? Suit.Spade : Suit.Heart;
+				fill(depth, drawnJokers, first, (keptSuit == null) ? Suit.Spade : first);
+				ways[EvaluationCache.getShared().getTypeOfHand(new Hand(cards[0], cards[1], cards[2], cards[3], cards[4])).ordinal()] += combinations - flushes;
+			}
+		}
+		/**
+		 * 引いたカードを手札に並べる。マークは判定のためだけの代表値である。
+		 * @param depth 引いたジョーカー以外のカードの枚数
+		 * @param drawnJokers 引いたジョーカーの枚数
+		 * @param first 最初に引いたカードのマーク
+		 * @param others 2枚目以降に引いたカードのマーク
+		 */
+		private void fill(int depth, int drawnJokers, Suit first, Suit others) {
+			for (int i = 0; i < positions.length; i++) {
+				int code = (i < depth) ? (i == 0 ? first : others).ordinal() * 13 + (drawn[i] - 2) : Card.CODE_JOKER;
+				cards[positions[i]] = codeToCard(code);
+			}
+		}
+		/**
+		 * 引いたジョーカー以外のカードが全て同じマークになる引き方の数を求める。
+		 * 引いたカードの数字は昇順に並んでいるので、同じ数字ごとにまとめて二項係数を掛ける。
+		 * @param suit マーク
+		 * @param depth 引いたジョーカー以外のカードの枚数
+		 * @return 引き方の数（1組のトランプでは、数字が重複していれば0になる）
+		 */
+		private long countSuited(Suit suit, int depth) {
+			int[] suitCounts = counts[suit.ordinal()];
+			long result = 1;
+			for (int i = 0; i < depth && result > 0; ) {
+				int number = drawn[i], same = 1;
+				while (i + same < depth && drawn[i + same] == number) {
+					same++;
+				}
+				result *= (same <= suitCounts[number]) ? BINOMIALS[suitCounts[number]][same] : 0;
+				i += same;
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * 範囲内であることが分かっているカードコードを{@link Card}インスタンスにする
+	 * @param code カードコード
+	 * @return {@link Card}インスタンス
+	 */
+	private static Card codeToCard(int code) {
+		try {
+			return Card.valueOf(code);
+		} catch (CardException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	/**
+	 * 二項係数の表を作る
+	 * @param n 最大の全体の数
+	 * @param k 最大の選ぶ数
+	 * @return 二項係数の表
+	 */
+	private static long[][] binomials(int n, int k) {
+		long[][] table = new long[n + 1][];
+		for (int i = 0; i <= n; i++) {
+			table[i] = new long[Math.min(i, k) + 1];
+			table[i][0] = 1;
+			for (int j = 1; j < table[i].length; j++) {
+				table[i][j] = table[i - 1][j - 1] + ((j < table[i - 1].length) ? table[i - 1][j] : 0);
+			}
+		}
+		return table;
+	}
+}
@@ -0,0 +1,169 @@
+package com.qubo.challenge.poker.models;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.qubo.StripedLongArray;
+
+/**
+ * {@link TypeOfHand#getTypeOfHand(Hand)}の結果を、手札のカードの組み合わせごとに覚えておくキャッシュ。<br />
+ * 手札はカードコードを整列して6ビットずつ詰めた値（{@link #packedCode(Hand)}）をキーにするので、カードの並び順には依存しない。
+ * 表は{@code long}の配列によるオープンアドレス法で、キーと値と参照ビットを一つの{@code long}に詰めて、
+ * 全ての更新をCASで行う。ロックも、キーや値のボクシングも行わない。<br />
+ * 一つのキーが入りうる位置は、ハッシュ値から始まる{@value #PROBE_WINDOW}個の範囲に限られる。
+ * 範囲が全て埋まっている場合は、範囲内でCLOCK方式（参照ビットが立っていればそれを下ろして次へ進み、
+ * 立っていないものを追い出す）で追い出す要素を選ぶ。一度埋まった位置は空に戻らないので、検索は範囲内を調べるだけで済む。
+ * @author Qubo
+ */
+public class EvaluationCache {
+	/** 一つのキーが入りうる位置の範囲 */
+	static final int PROBE_WINDOW = 8;
+	/** 標準の容量 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+	/** 値（役の序数＋1）のビットマスク */
+	private static final long VALUE_MASK = 0xFF;
+	/** 参照ビット */
+	private static final long REFERENCED = 1L << 8;
+	/** キーの位置 */
+	private static final int KEY_SHIFT = 32;
+	private static final int HIT = 0, MISS = 1, EVICTION = 2;
+	private static final TypeOfHand[] VALUES = TypeOfHand.values();
+	/** 共有のキャッシュ */
+	private static final EvaluationCache shared = new EvaluationCache(DEFAULT_CAPACITY);
+
+	private final AtomicLongArray table;
+	private final int mask;
+	private final int shift;
+	private final AtomicInteger clock = new AtomicInteger();
+	private final StripedLongArray statistics = new StripedLongArray(3);
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param capacity 容量（2のべき乗に切り上げる。{@value #PROBE_WINDOW}以上）
+	 */
+	public EvaluationCache(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, PROBE_WINDOW));
+		if (size < capacity) size <<= 1;
+		this.table = new AtomicLongArray(size);
+		this.mask = size - 1;
+		this.shift = 64 - Integer.numberOfTrailingZeros(size);
+	}
+
+	/**
+	 * 共有のキャッシュを取得する
+	 * @return 共有のキャッシュ
+	 */
+	public static EvaluationCache getShared() { return shared; }
+
+	/**
+	 * 手札の役を取得する。キャッシュに無ければ{@link TypeOfHand#getTypeOfHand(Hand)}で求めて記録する。
+	 * {@value Hand#SIZE}枚でない手札はキャッシュしない。
+	 * @param hand 手札
+	 * @return 役（役が決まらない手札の場合は{@code null}）
+	 */
+	public TypeOfHand getTypeOfHand(Hand hand) {
+		if (hand.size() != Hand.SIZE) return TypeOfHand.getTypeOfHand(hand);
+		long key = packedCode(hand);
+		int start = indexOf(key);
+		for (int i = 0; i < PROBE_WINDOW; i++) {
+			int index = (start + i) & mask;
+			long entry = table.get(index);
+			if (entry == 0) break;
+			if (entry >>> KEY_SHIFT == key) {
+				if ((entry & REFERENCED) == 0) table.compareAndSet(index, entry, entry | REFERENCED);
+				statistics.increment(HIT);
+				return VALUES[(int) (entry & VALUE_MASK) - 1];
+			}
+		}
+		statistics.increment(MISS);
+		TypeOfHand typeOfHand = TypeOfHand.getTypeOfHand(hand);
+		if (typeOfHand != null) put(key, start, typeOfHand);
+		return typeOfHand;
+	}
+
+	/**
+	 * キャッシュに当たった回数を取得する
+	 * @return 当たった回数
+	 */
+	public long getHitCount() { return statistics.get(HIT); }
+	/**
+	 * キャッシュに無かった回数を取得する
+	 * @return 無かった回数
+	 */
+	public long getMissCount() { return statistics.get(MISS); }
+	/**
+	 * 追い出した回数を取得する
+	 * @return 追い出した回数
+	 */
+	public long getEvictionCount() { return statistics.get(EVICTION); }
+	/**
+	 * キャッシュに当たった割合を取得する
+	 * @return 当たった割合（一度も問い合わせが無い場合は0）
+	 */
+	public double getHitRate() {
+		long hits = getHitCount(), total = hits + getMissCount();
+		return (total == 0) ? 0 : (double) hits / total;
+	}
+	/**
+	 * キャッシュの容量を取得する
+	 * @return 容量
+	 */
+	public int getCapacity() { return table.length(); }
+
+	/**
+	 * {@value Hand#SIZE}枚の手札のカードコードを整列し、6ビットずつ詰めた値を求める
+	 * @param hand 手札
+	 * @return 詰めたカードコード（30ビット）
+	 */
+	public static long packedCode(Hand hand) {
+		int a = hand.cards[0].getCode(), b = hand.cards[1].getCode(), c = hand.cards[2].getCode(),
+				d = hand.cards[3].getCode(), e = hand.cards[4].getCode(), t;
+		// 5要素の整列ネットワーク
+		if (a > b) { t = a; a = b; b = t; }
+		if (d > e) { t = d; d = e; e = t; }
+		if (c > e) { t = c; c = e; e = t; }
+		if (c > d) { t = c; c = d; d = t; }
+		if (b > e) { t = b; b = e; e = t; }
+		if (a > d) { t = a; a = d; d = t; }
+		if (a > c) { t = a; a = c; c = t; }
+		if (b > d) { t = b; b = d; d = t; }
+		if (b > c) { t = b; b = c; c = t; }
+		return ((long) a << 24) | (b << 18) | (c << 12) | (d << 6) | e;
+	}
+
+	/**
+	 * キーに対する範囲の先頭の位置を求める
+	 * @param key キー
+	 * @return 先頭の位置
+	 */
+	private int indexOf(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+	/**
+	 * 役を記録する。範囲内に空きが無ければ、CLOCK方式で選んだ要素を追い出す。
+	 * @param key キー
+	 * @param start 範囲の先頭の位置
+	 * @param typeOfHand 役
+	 */
+	private void put(long key, int start, TypeOfHand typeOfHand) {
+		long created = (key << KEY_SHIFT) | (typeOfHand.ordinal() + 1);
+		for (int i = 0; i < PROBE_WINDOW; i++) {
+			int index = (start + i) & mask;
+			long entry = table.get(index);
+			if (entry >>> KEY_SHIFT == key && entry != 0) return;
+			if (entry == 0 && table.compareAndSet(index, 0, created)) return;
+		}
+		int hand = clock.getAndIncrement();
+		for (int i = 0; i < PROBE_WINDOW * 2; i++) {
+			int index = (start + ((hand + i) & (PROBE_WINDOW - 1))) & mask;
+			long entry = table.get(index);
+			if ((entry & REFERENCED) != 0) {
+				table.compareAndSet(index, entry, entry & ~REFERENCED);
+			} else if (table.compareAndSet(index, entry, created)) {
+				statistics.increment(EVICTION);
+				return;
+			}
+		}
+		// 他のスレッドとの競合が続いた場合は、記録を諦める
+	}
+}
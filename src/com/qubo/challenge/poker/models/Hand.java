@@ -3,24 +3,47 @@ package com.qubo.challenge.poker.models;
 import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 
 /**
  * ポーカーの手札を表現したクラス
  * @author Qubo
  */
 public class Hand implements Iterable<Card> {
+	/** 役を構成するカードの枚数 */
+	public static final int SIZE = 5;
+	/** 手札の枚数がおかしい場合に発生する例外のメッセージ */
+	public static final String ERROR_HAND_SIZE = "手札は{0}枚以上のカードで構成してください！";
+	/** 数字の種類（2～14） */
+	private static final int RANK_KINDS = 13;
+	/** 一つのニブルで数えられる最大の枚数 */
+	private static final int RANK_MAX_COUNT = 15;
+	/** 数字ごとの枚数を詰めた値の、各ニブルの最下位ビット */
+	private static final long NIBBLE_LOW_BITS = 0x1111111111111L;
+
 	Card[] cards;
 
 	/**
 	 * 標準のコンストラクタ
-	 * @param cards 配られた5枚のカードを、配列として表現したもの
+	 * @param card1 1枚目のカード
+	 * @param card2 2枚目のカード
+	 * @param card3 3枚目のカード
+	 * @param card4 4枚目のカード
+	 * @param card5 5枚目のカード
 	 */
-	Hand(Card card1, Card card2, Card card3, Card card4, Card card5) {
+	public Hand(Card card1, Card card2, Card card3, Card card4, Card card5) {
 		this.cards = new Card[] { card1, card2, card3, card4, card5 };
 	}
+	/**
+	 * 任意の枚数のカードを指定するコンストラクタ。
+	 * {@value #SIZE}枚より多い場合、役はその中から選んだ最も強い{@value #SIZE}枚で決まる。
+	 * @param cards カード（{@value #SIZE}枚以上）
+	 * @throws IllegalArgumentException カードが{@value #SIZE}枚未満の場合に発生
+	 */
+	public Hand(Card... cards) {
+		if (cards.length < SIZE) throw new IllegalArgumentException(MessageFormat.format(ERROR_HAND_SIZE, SIZE));
+		this.cards = cards.clone();
+	}
 	/**
 	 * カードの文字列を利用したコンストラクタ
 	 * @param c1 1枚目のカードの文字列表現
@@ -40,6 +63,11 @@ public class Hand implements Iterable<Card> {
 	 * @return {@link Card}インスタンス
 	 */
 	public Card get(int index) { return cards[index]; }
+	/**
+	 * 手札の枚数を取得する
+	 * @return 手札の枚数
+	 */
+	public int size() { return cards.length; }
 
 	/*
 	 * (非 Javadoc)
@@ -47,7 +75,11 @@ public class Hand implements Iterable<Card> {
 	 */
 	@Override
 	public String toString() {
-		return MessageFormat.format("[{0}][{1}][{2}][{3}][{4}]", cards[0], cards[1], cards[2], cards[3], cards[4]);
+		StringBuilder builder = new StringBuilder();
+		for (Card card : cards) {
+			builder.append('[').append(card).append(']');
+		}
+		return builder.toString();
 	}
 	/*
 	 * (非 Javadoc)
@@ -102,21 +134,26 @@ public class Hand implements Iterable<Card> {
 	 * @return セット数
 	 */
 	public int isOfAKind(int count) {
-		int found = 0;
-		Map<Integer, Integer> kinds = new HashMap<Integer, Integer>();
+		if (count <= 0 || count > RANK_MAX_COUNT) return 0;
+		// count と一致するニブルだけが0になるので、0でないニブルを数えて差し引く
+		long diff = getRankCounts() ^ (NIBBLE_LOW_BITS * count);
+		diff |= diff >>> 2;
+		diff |= diff >>> 1;
+		return RANK_KINDS - Long.bitCount(diff & NIBBLE_LOW_BITS);
+	}
+	/**
+	 * 手札の中の数字ごとの枚数を、4ビットずつ詰めた値を取得する。<br />
+	 * 数字{@code n}（2～14）の枚数が、下から{@code (n - 2) * 4}ビット目からの4ビットに入る。
+	 * ジョーカーはカウントに加えない。
+	 * @return 数字ごとの枚数
+	 */
+	public long getRankCounts() {
+		long counts = 0;
 		for (Card card : cards) {
 			int number = card.getRawNumber();
-			if (number != Card.RAW_VALUE_JOKER) {
-				if (!kinds.containsKey(number)) {
-					kinds.put(number, 0);
-				}
-				kinds.put(number, kinds.get(number) + 1);
-			}
+			if (number != Card.RAW_VALUE_JOKER) counts += 1L << ((number - 2) << 2);
 		}
-		for (Integer value : kinds.values()) {
-			if (value == count) found++;
-		}
-		return found;
+		return counts;
 	}
 	public boolean hasNumber(int number) {
 		for (Card card : cards) {
@@ -126,27 +163,43 @@ public class Hand implements Iterable<Card> {
 		}
 		return false;
 	}
+	/**
+	 * 手札の中にある数字の集合を取得する。<br />
+	 * 数字{@code n}（2～14）があれば、下から{@code n - 2}ビット目が立つ。ジョーカーは無視される。
+	 * @return 数字の集合
+	 */
+	public int getRankMask() {
+		int mask = 0;
+		for (Card card : cards) {
+			int number = card.getRawNumber();
+			if (number != Card.RAW_VALUE_JOKER) mask |= 1 << (number - 2);
+		}
+		return mask;
+	}
+	/**
+	 * 手札で作れる最も強いストレートの、最大の数字を取得する。
+	 * A-2-3-4-5の場合は5を返す。{@value #SIZE}枚より多い場合は、その中から{@value #SIZE}枚を選んで作れるものを返す。
+	 * @return 最大の数字（ストレートを作れない場合は0）
+	 */
+	public int getStraightHighNumber() {
+		// 同じ数字が含まれている5枚の手札は、窓を埋めきれないので表の側で0になる
+		return Straights.getHighNumber(getRankMask(), getJoker());
+	}
 	/**
 	 * 手札が、指定された数字から連続した数字で構成されているかどうかを取得する
-	 * @param start シーケンスの開始数字
+	 * @param start シーケンスの開始数字（1はA-2-3-4-5を表す）
 	 * @return 手札が指定された数字から連続した数字で構成されているかどうか
 	 */
 	public boolean isSequentialFrom(int start) {
-		int jokerRemain = getJoker();
-		for (int num = start; num < start + 5; num++) {
-			if (!hasNumber(num))
-				jokerRemain--;
-			if (jokerRemain < 0)
-				return false;
-		}
-		return true;
+		if (start < 1 || start > 10) return false;
+		return Integer.bitCount(getRankMask() & Straights.windowOf(start + SIZE - 1)) + getJoker() >= SIZE;
 	}
 	/**
 	 * 手札が連続した数字で構成されているかどうかを取得する
 	 * @return 手札が連続した数字で構成されているかどうか
 	 */
 	public boolean isSequential() {
-		return isSequentialFrom(Math.min(getLowestNumber(), 10));
+		return getStraightHighNumber() != 0;
 	}
 	/**
 	 * 手札が全て同じマークであるかどうかを取得する
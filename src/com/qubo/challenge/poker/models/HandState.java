@@ -0,0 +1,362 @@
+package com.qubo.challenge.poker.models;
+
+import java.text.MessageFormat;
+
+/**
+ * カードを1枚ずつ加えながら、手札の役と強さを求めるための状態。<br />
+ * 数字ごとの枚数、2～5枚以上ある数字の集合、マークごとの数字の集合と枚数、ジョーカーの枚数だけを数値に詰めて持つので、
+ * カードの追加も状態の複製も、オブジェクトを生成せずに行える。
+ * 共通のカード（場札）を加えた状態を一度だけ作り、{@link #copyFrom(HandState)}で複製してから
+ * 各プレイヤーのカードを加えれば、共通部分の集計を繰り返さずに済む。<br />
+ * {@link #getStrength()}は、選んだ{@value Hand#SIZE}枚の役と数字から求めた全順序の強さを返す。
+ * ジョーカーは、その役で最も強くなる数字として扱う（フラッシュでは、そのマークに無い最も大きな数字とする）。
+ * インスタンスはスレッドセーフではない。
+ * @author Qubo
+ */
+public final class HandState {
+	/** 状態に加えられたカードが足りない場合に発生する例外のメッセージ */
+	public static final String ERROR_TOO_FEW_CARDS = "役を求めるには{0}枚以上のカードが必要です！";
+	/** ジョーカー以外のマークの数 */
+	private static final int SUIT_COUNT = 4;
+	/** 数字の種類 */
+	private static final int RANK_KINDS = Straights.RANK_KINDS;
+	/** 数字の集合のビットマスク */
+	private static final int RANK_MASK = (1 << RANK_KINDS) - 1;
+	/** 最も大きな数字（エース）の位置 */
+	private static final int ACE = RANK_KINDS - 1;
+	/** 強さのうち、数字の部分のビット数 */
+	private static final int TIEBREAK_BITS = Hand.SIZE * 4;
+	private static final TypeOfHand[] VALUES = TypeOfHand.values();
+
+	/** 数字ごとの枚数（4ビットずつ） */
+	private long rankCounts;
+	/** マークごとの数字の集合（13ビットずつ） */
+	private long suitMasks;
+	/** マークごとの枚数（8ビットずつ） */
+	private long suitCounts;
+	/** 数字の集合 */
+	private int rankMask;
+	/** 2枚以上ある数字の集合 */
+	private int pairs;
+	/** 3枚以上ある数字の集合 */
+	private int trips;
+	/** 4枚以上ある数字の集合 */
+	private int quads;
+	/** 5枚以上ある数字の集合 */
+	private int fives;
+	/** ジョーカーの枚数 */
+	private int jokers;
+	/** カードの枚数 */
+	private int size;
+
+	/**
+	 * カードを1枚加える
+	 * @param card カード
+	 * @return このインスタンス
+	 */
+	public HandState add(Card card) {
+		int number = card.getRawNumber();
+		if (number == Card.RAW_VALUE_JOKER) {
+			jokers++;
+			size++;
+			return this;
+		}
+		return add(card.getSuit().ordinal(), number - 2);
+	}
+	/**
+	 * カードコードで指定したカードを1枚加える
+	 * @param code カードコード
+	 * @return このインスタンス
+	 * @see Card#getCode()
+	 */
+	public HandState add(int code) {
+		if (code == Card.CODE_JOKER) {
+			jokers++;
+			size++;
+			return this;
+		}
+		return add(code / RANK_KINDS, code % RANK_KINDS);
+	}
+	/**
+	 * 手札の全てのカードを加える
+	 * @param hand 手札
+	 * @return このインスタンス
+	 */
+	public HandState addAll(Hand hand) {
+		for (Card card : hand.cards) {
+			add(card);
+		}
+		return this;
+	}
+	/**
+	 * 他の状態の内容を、このインスタンスに写す
+	 * @param other 写す元の状態
+	 * @return このインスタンス
+	 */
+	public HandState copyFrom(HandState other) {
+		this.rankCounts = other.rankCounts;
+		this.suitMasks = other.suitMasks;
+		this.suitCounts = other.suitCounts;
+		this.rankMask = other.rankMask;
+		this.pairs = other.pairs;
+		this.trips = other.trips;
+		this.quads = other.quads;
+		this.fives = other.fives;
+		this.jokers = other.jokers;
+		this.size = other.size;
+		return this;
+	}
+	/**
+	 * カードが1枚も無い状態に戻す
+	 * @return このインスタンス
+	 */
+	public HandState clear() {
+		rankCounts = suitMasks = suitCounts = 0;
+		rankMask = pairs = trips = quads = fives = jokers = size = 0;
+		return this;
+	}
+	/**
+	 * 加えたカードの枚数を取得する
+	 * @return カードの枚数
+	 */
+	public int size() { return size; }
+
+	/**
+	 * 加えたカードから選んだ{@value Hand#SIZE}枚で作れる、最も高位の役を返す
+	 * @return 役
+	 * @throws IllegalStateException カードが{@value Hand#SIZE}枚未満の場合に発生
+	 */
+	public TypeOfHand getTypeOfHand() {
+		checkSize();
+		// 最も多い数字の枚数と、二番目に多い数字の枚数（5枚で打ち切る）
+		int first = (fives != 0) ? 5 : (quads != 0) ? 4 : (trips != 0) ? 3 : (pairs != 0) ? 2 : (rankMask != 0) ? 1 : 0;
+		int second = (Integer.bitCount(fives) >= 2) ? 5 : (Integer.bitCount(quads) >= 2) ? 4 : (Integer.bitCount(trips) >= 2) ? 3
+				: (Integer.bitCount(pairs) >= 2) ? 2 : (Integer.bitCount(rankMask) >= 2) ? 1 : 0;
+		if (first + jokers >= Hand.SIZE) return TypeOfHand.FiveOfAKind;
+		int straightFlush = getStraightFlushHighNumber();
+		if (straightFlush == 14) return TypeOfHand.RoyalFlush;
+		if (straightFlush != 0) return TypeOfHand.StraightFlush;
+		if (first + jokers >= 4) return TypeOfHand.FourOfAKind;
+		if (Math.max(0, 3 - first) + Math.max(0, 2 - second) <= jokers) return TypeOfHand.FullHouse;
+		for (int suit = 0; suit < SUIT_COUNT; suit++) {
+			if (suitCount(suit) + jokers >= Hand.SIZE) return TypeOfHand.Flush;
+		}
+		if (Straights.getHighNumber(rankMask, jokers) != 0) return TypeOfHand.Straight;
+		if (first + jokers >= 3) return TypeOfHand.ThreeOfAKind;
+		if (first >= 2 && second >= 2) return TypeOfHand.TwoPair;
+		if (first + jokers >= 2) return TypeOfHand.OnePair;
+		return TypeOfHand.HighCards;
+	}
+	/**
+	 * 加えたカードから選んだ{@value Hand#SIZE}枚の強さを取得する。<br />
+	 * 値が大きいほど強く、役が同じ場合は、役を構成する数字、残りのカードの数字の順に比べた結果になる。
+	 * 上位のビットに役、下位の{@value #TIEBREAK_BITS}ビットに数字（2～14）を4ビットずつ、比べる順に詰める。
+	 * @return 強さ
+	 * @throws IllegalStateException カードが{@value Hand#SIZE}枚未満の場合に発生
+	 */
+	public int getStrength() {
+		TypeOfHand typeOfHand = getTypeOfHand();
+		int tiebreak;
+		switch (typeOfHand) {
+		case FiveOfAKind: {
+			int rank = highest(Math.max(1, Hand.SIZE - jokers), -1, -1);
+			tiebreak = pack(0, (rank < 0) ? ACE : rank, 1);
+			break;
+		}
+		case RoyalFlush:
+		case StraightFlush:
+			tiebreak = pack(0, getStraightFlushHighNumber() - 2, 1);
+			break;
+		case FourOfAKind: {
+			int quad = highest(Math.max(1, 4 - jokers), -1, -1);
+			tiebreak = kickers(pack(0, quad, 1), 1 << quad, 2, 1);
+			break;
+		}
+		case FullHouse:
+			tiebreak = getFullHouseTiebreak();
+			break;
+		case Flush:
+			tiebreak = getFlushTiebreak();
+			break;
+		case Straight:
+			tiebreak = pack(0, Straights.getHighNumber(rankMask, jokers) - 2, 1);
+			break;
+		case ThreeOfAKind: {
+			int trips = highest(Math.max(1, 3 - jokers), -1, -1);
+			tiebreak = kickers(pack(0, trips, 1), 1 << trips, 2, 2);
+			break;
+		}
+		case TwoPair: {
+			int high = highest(2, -1, -1), low = highest(2, high, -1);
+			tiebreak = kickers(pack(pack(0, high, 1), low, 2), (1 << high) | (1 << low), 3, 1);
+			break;
+		}
+		case OnePair: {
+			int pair = highest(Math.max(1, 2 - jokers), -1, -1);
+			tiebreak = kickers(pack(0, pair, 1), 1 << pair, 2, 3);
+			break;
+		}
+		default:
+			tiebreak = kickers(0, 0, 1, Hand.SIZE);
+			break;
+		}
+		return ((VALUES.length - 1 - typeOfHand.ordinal()) << TIEBREAK_BITS) | tiebreak;
+	}
+	/**
+	 * 強さから役を取り出す
+	 * @param strength {@link #getStrength()}で求めた強さ
+	 * @return 役
+	 */
+	public static TypeOfHand typeOf(int strength) {
+		return VALUES[VALUES.length - 1 - (strength >>> TIEBREAK_BITS)];
+	}
+
+	/**
+	 * カードを1枚加える
+	 * @param suit マークの序数
+	 * @param rank 数字の位置（数字 - 2）
+	 * @return このインスタンス
+	 */
+	private HandState add(int suit, int rank) {
+		rankCounts += 1L << (rank << 2);
+		int bit = 1 << rank;
+		switch (count(rank)) {
+		case 1: rankMask |= bit; break;
+		case 2: pairs |= bit; break;
+		case 3: trips |= bit; break;
+		case 4: quads |= bit; break;
+		default: fives |= bit; break;
+		}
+		suitMasks |= 1L << (suit * RANK_KINDS + rank);
+		suitCounts += 1L << (suit << 3);
+		size++;
+		return this;
+	}
+	/**
+	 * カードが足りているかどうかを調べる
+	 * @throws IllegalStateException カードが{@value Hand#SIZE}枚未満の場合に発生
+	 */
+	private void checkSize() {
+		if (size < Hand.SIZE) throw new IllegalStateException(MessageFormat.format(ERROR_TOO_FEW_CARDS, Hand.SIZE));
+	}
+	/**
+	 * マークの枚数を取得する
+	 * @param suit マークの序数
+	 * @return 枚数
+	 */
+	private int suitCount(int suit) { return (int) (suitCounts >>> (suit << 3)) & 0xFF; }
+	/**
+	 * マークの数字の集合を取得する
+	 * @param suit マークの序数
+	 * @return 数字の集合
+	 */
+	private int suitMask(int suit) { return (int) (suitMasks >>> (suit * RANK_KINDS)) & RANK_MASK; }
+	/**
+	 * 数字の枚数を取得する
+	 * @param rank 数字の位置
+	 * @return 枚数
+	 */
+	private int count(int rank) { return (int) (rankCounts >>> (rank << 2)) & 0xF; }
+	/**
+	 * 作れる最も強いストレートフラッシュの、最大の数字を取得する
+	 * @return 最大の数字（作れない場合は0）
+	 */
+	private int getStraightFlushHighNumber() {
+		int high = 0;
+		for (int suit = 0; suit < SUIT_COUNT; suit++) {
+			high = Math.max(high, Straights.getHighNumber(suitMask(suit), jokers));
+		}
+		return high;
+	}
+	/**
+	 * {@code min}枚以上ある数字のうち、最も大きなものを探す
+	 * @param min 最小の枚数
+	 * @param exclude1 除く数字の位置
+	 * @param exclude2 除く数字の位置
+	 * @return 数字の位置（無い場合は-1）
+	 */
+	private int highest(int min, int exclude1, int exclude2) {
+		int mask = atLeast(min);
+		if (exclude1 >= 0) mask &= ~(1 << exclude1);
+		if (exclude2 >= 0) mask &= ~(1 << exclude2);
+		return 31 - Integer.numberOfLeadingZeros(mask);
+	}
+	/**
+	 * {@code min}枚以上ある数字の集合を取得する
+	 * @param min 最小の枚数（1～5）
+	 * @return 数字の集合
+	 */
+	private int atLeast(int min) {
+		switch (min) {
+		case 1: return rankMask;
+		case 2: return pairs;
+		case 3: return trips;
+		case 4: return quads;
+		default: return fives;
+		}
+	}
+	/**
+	 * フルハウスの、スリーカードとペアの数字を求める
+	 * @return 詰めた数字
+	 */
+	private int getFullHouseTiebreak() {
+		for (int candidates = atLeast(Math.max(1, 3 - jokers)); candidates != 0; ) {
+			int rank = 31 - Integer.numberOfLeadingZeros(candidates);
+			candidates &= ~(1 << rank);
+			int left = jokers - Math.max(0, 3 - count(rank));
+			int pair = highest(Math.max(1, 2 - left), rank, -1);
+			if (pair >= 0) return pack(pack(0, rank, 1), pair, 2);
+		}
+		return 0;
+	}
+	/**
+	 * フラッシュを作れるマークの中で、最も強い5枚の数字を求める
+	 * @return 詰めた数字
+	 */
+	private int getFlushTiebreak() {
+		int best = 0;
+		for (int suit = 0; suit < SUIT_COUNT; suit++) {
+			if (suitCount(suit) + jokers < Hand.SIZE) continue;
+			int mask = suitMask(suit);
+			// ジョーカーは、そのマークに無い大きな数字から順に埋める
+			for (int rank = ACE, left = jokers; rank >= 0 && left > 0; rank--) {
+				if ((mask & (1 << rank)) == 0) {
+					mask |= 1 << rank;
+					left--;
+				}
+			}
+			int tiebreak = 0, n = 0;
+			for (int rank = ACE; rank >= 0 && n < Hand.SIZE; rank--) {
+				if ((mask & (1 << rank)) != 0) tiebreak = pack(tiebreak, rank, ++n);
+			}
+			best = Math.max(best, tiebreak);
+		}
+		return best;
+	}
+	/**
+	 * 役を構成する数字以外の大きな数字を、残りのカードとして詰める
+	 * @param tiebreak これまでに詰めた数字
+	 * @param used 役を構成する数字の集合
+	 * @param position 次に詰める位置（1から数える）
+	 * @param count 残りのカードの枚数
+	 * @return 詰めた数字
+	 */
+	private int kickers(int tiebreak, int used, int position, int count) {
+		for (int mask = rankMask & ~used; mask != 0 && count > 0; count--) {
+			int rank = 31 - Integer.numberOfLeadingZeros(mask);
+			mask &= ~(1 << rank);
+			tiebreak = pack(tiebreak, rank, position++);
+		}
+		return tiebreak;
+	}
+	/**
+	 * 数字を4ビットで詰める
+	 * @param tiebreak これまでに詰めた数字
+	 * @param rank 数字の位置
+	 * @param position 詰める位置（1から数える）
+	 * @return 詰めた数字
+	 */
+	private static int pack(int tiebreak, int rank, int position) {
+		return tiebreak | ((rank + 2) << ((Hand.SIZE - position) << 2));
+	}
+}
@@ -0,0 +1,59 @@
+package com.qubo.challenge.poker.models;
+
+/**
+ * 数字の集合とジョーカーの枚数から、作れる最も強いストレートを引くための表。<br />
+ * 数字の集合は、数字{@code n}（2～14）を下から{@code n - 2}ビット目に置いた13ビットの値（{@link Hand#getRankMask()}）で表す。
+ * 表は8,192通りの集合ごとに、ジョーカーが0～{@value #MAX_JOKERS}枚の場合の最も強いストレートの最大の数字を
+ * 4ビットずつ詰めて持つ。5枚の窓に足りない数字をジョーカーで埋められるかどうかを、窓との論理積のビット数で判定する。
+ * A-2-3-4-5（最大の数字は5）も含む。
+ * @author Qubo
+ */
+final class Straights {
+	/** 数字の種類（2～14） */
+	static final int RANK_KINDS = 13;
+	/** 表で区別するジョーカーの最大の枚数 */
+	static final int MAX_JOKERS = 5;
+	/** ストレートの枚数 */
+	private static final int LENGTH = 5;
+	/** エースのビット */
+	private static final int ACE = 1 << (14 - 2);
+	/** A-2-3-4-5の窓 */
+	private static final int WHEEL = ACE | 0xF;
+	/** 集合ごとの、ジョーカーの枚数ごとの最大の数字 */
+	private static final int[] TABLE = new int[1 << RANK_KINDS];
+
+	static {
+		for (int mask = 0; mask < TABLE.length; mask++) {
+			int entry = 0;
+			for (int jokers = 0; jokers <= MAX_JOKERS; jokers++) {
+				for (int high = 14; high >= LENGTH; high--) {
+					if (LENGTH - Integer.bitCount(mask & windowOf(high)) <= jokers) {
+						entry |= high << (jokers << 2);
+						break;
+					}
+				}
+			}
+			TABLE[mask] = entry;
+		}
+	}
+
+	private Straights() {}
+
+	/**
+	 * 作れる最も強いストレートの最大の数字を取得する
+	 * @param rankMask 数字の集合
+	 * @param jokers ジョーカーの枚数
+	 * @return 最大の数字（ストレートを作れない場合は0）
+	 */
+	static int getHighNumber(int rankMask, int jokers) {
+		return (TABLE[rankMask] >>> (Math.min(jokers, MAX_JOKERS) << 2)) & 0xF;
+	}
+	/**
+	 * 最大の数字が{@code high}のストレートを構成する数字の集合を取得する
+	 * @param high 最大の数字（5～14）
+	 * @return 数字の集合
+	 */
+	static int windowOf(int high) {
+		return (high == LENGTH) ? WHEEL : (0x1F << (high - 2 - (LENGTH - 1)));
+	}
+}
@@ -1,5 +1,9 @@
 package com.qubo.challenge.poker.models;
 
+import com.qubo.metrics.EventType;
+import com.qubo.metrics.Events;
+import com.qubo.metrics.LatencyRecorder;
+import com.qubo.metrics.Metrics;
 
 /**
  * ポーカーの役を表したクラス。<br />
@@ -32,14 +36,16 @@ public enum TypeOfHand {
 	RoyalFlush {
 		@Override public String getName() { return NAME_ROYAL_FLUSH; }
 		@Override public boolean isValid(Hand hand) {
-			return hand.isSameSuit() && hand.isSequentialFrom(10);
+			return hand.isSameSuit() && hand.getStraightHighNumber() == 14;
 		}
 	},
 	/** ストレートフラッシュ */
 	StraightFlush {
 		@Override public String getName() { return NAME_STRAIGHT_FLUSH; }
 		@Override public boolean isValid(Hand hand) {
-			return hand.isSameSuit() && hand.isSequential() && !hand.isSequentialFrom(10);
+			if (!hand.isSameSuit()) return false;
+			int high = hand.getStraightHighNumber();
+			return high != 0 && high != 14;
 		}
 	},
 	/** フォーカード */
@@ -143,6 +149,10 @@ public enum TypeOfHand {
 	 */
 	public abstract boolean isValid(Hand hand);
 
+	/** {@link #getTypeOfHand(Hand)}の処理時間 */
+	private static final LatencyRecorder CLASSIFY_LATENCY = Metrics.latency("hand.classify");
+	/** {@link #getTypeOfHand(Hand)}のイベント */
+	private static final EventType CLASSIFY_EVENT = Events.type("poker.classify");
 	/** ポーカーの全ての役を、強いものから順に並べた配列 */
 	public static final TypeOfHand[] ALL = {
 		FiveOfAKind, RoyalFlush, StraightFlush, FourOfAKind, FullHouse, Flush, Straight, ThreeOfAKind, TwoPair, OnePair, HighCards
@@ -150,10 +160,36 @@ public enum TypeOfHand {
 
 	/**
 	 * 手札が構成しうる役の中で、最も高位のものを返す。
+	 * 手札が{@value Hand#SIZE}枚より多い場合は、{@link #getBestTypeOfHand(Hand)}の結果を返す。
 	 * @param hand 手札
 	 * @return 役
 	 */
 	public static TypeOfHand getTypeOfHand(Hand hand) {
+		long start = Metrics.start();
+		long event = Events.begin(CLASSIFY_EVENT);
+		TypeOfHand typeOfHand = (hand.size() == Hand.SIZE) ? classify(hand) : getBestTypeOfHand(hand);
+		if (typeOfHand != null) {
+			CLASSIFY_LATENCY.recordSince(start);
+			if (event != 0) Events.commit(CLASSIFY_EVENT, event, hand.getJoker(), 0, typeOfHand);
+		}
+		return typeOfHand;
+	}
+	/**
+	 * 手札の中から選んだ{@value Hand#SIZE}枚で作れる、最も高位の役を返す。<br />
+	 * 組み合わせを列挙せず、{@link HandState}で数字ごとの枚数、マークごとの枚数と数字の集合、ジョーカーの枚数を一度に集計し、
+	 * そこから役を直接求める。{@value Hand#SIZE}枚の手札に対しては、{@link #isValid(Hand)}による判定と同じ結果になる。
+	 * @param hand 手札
+	 * @return 役
+	 */
+	public static TypeOfHand getBestTypeOfHand(Hand hand) {
+		return new HandState().addAll(hand).getTypeOfHand();
+	}
+	/**
+	 * {@link #isValid(Hand)}を強い役から順に調べ、最初に条件を満たした役を返す
+	 * @param hand 手札
+	 * @return 役（どの役の条件も満たさない場合は{@code null}）
+	 */
+	private static TypeOfHand classify(Hand hand) {
 		for (TypeOfHand typeOfHand : ALL) {
 			if (typeOfHand.isValid(hand)) return typeOfHand;
 		}
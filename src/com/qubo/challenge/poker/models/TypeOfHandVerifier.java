@@ -0,0 +1,302 @@
+package com.qubo.challenge.poker.models;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * {@link TypeOfHand#getTypeOfHand(Hand)}の判定を、ありうる全ての5枚の手札について検証するクラス。<br />
+ * ジョーカーの枚数ごとに、ジョーカー以外のカードの組み合わせを全て列挙し、
+ * ジョーカーを全てのカード（手札と重複するものも含む）に置き換えた中で最も強い役を、
+ * {@link Hand}や{@link TypeOfHand}の規則を使わない単純な方法で求めた参照値と比べる。<br />
+ * 列挙は最初のカードごとに分割して{@link ForkJoinPool}で並列に行う。
+ * 各タスクは一つの{@link Hand}インスタンスのカードを差し替えながら判定するので、列挙中にオブジェクトを生成しない。
+ * @author Qubo
+ */
+public final class TypeOfHandVerifier {
+	/** 結果に残す不一致の最大数 */
+	public static final int MISMATCH_LIMIT = 20;
+	/** ジョーカーの枚数の指定がおかしい場合に発生する例外のメッセージ */
+	public static final String ERROR_JOKER_COUNT_RANGE = "ジョーカーの数は0枚～{0}枚の間で指定してください！";
+	/** 不一致の表示形式 */
+	private static final String FORMAT_MISMATCH = "{0} 判定：{1} 参照：{2}";
+	/** ジョーカー以外のカードの枚数 */
+	private static final int CARD_COUNT = 52;
+	/** 数字の種類 */
+	private static final int RANK_KINDS = 13;
+	/** A-2-3-4-5の数字の集合 */
+	private static final int WHEEL = (1 << 12) | 0xF;
+	private static final TypeOfHand[] VALUES = TypeOfHand.values();
+	/** カードコードに対応する{@link Card}インスタンス */
+	private static final Card[] CARDS = new Card[Card.CODE_COUNT];
+
+	static {
+		try {
+			for (int code = 0; code < CARDS.length; code++) {
+				CARDS[code] = Card.valueOf(code);
+			}
+		} catch (CardException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private TypeOfHandVerifier() {}
+
+	/**
+	 * 指定した枚数のジョーカーを含む全ての手札を検証する
+	 * @param jokerCount ジョーカーの枚数
+	 * @param pool 計算に使うスレッドプール
+	 * @return 検証結果
+	 * @throws IllegalArgumentException ジョーカーの枚数指定がおかしい場合に発生
+	 */
+	public static Result verify(int jokerCount, ForkJoinPool pool) {
+		if (jokerCount < 0 || jokerCount > Deck.JOKER_COUNT_MAX) {
+			throw new IllegalArgumentException(MessageFormat.format(ERROR_JOKER_COUNT_RANGE, Deck.JOKER_COUNT_MAX));
+		}
+		return pool.invoke(new VerificationTask(jokerCount, 0, CARD_COUNT));
+	}
+
+	/**
+	 * 全ての枚数のジョーカーについて検証し、結果を表示する。不一致があれば終了コード1で終了する。
+	 * @param args コマンドライン引数（使用しない）
+	 */
+	public static void main(String[] args) {
+		ForkJoinPool pool = new ForkJoinPool();
+		boolean failed = false;
+		try {
+			for (int jokerCount = 0; jokerCount <= Deck.JOKER_COUNT_MAX; jokerCount++) {
+				long start = System.nanoTime();
+				Result result = verify(jokerCount, pool);
+				System.out.println(result);
+				System.out.println(MessageFormat.format("  {0}ms", (System.nanoTime() - start) / 1000000));
+				failed |= result.getMismatchCount() != 0;
+			}
+		} finally {
+			pool.shutdown();
+		}
+		if (failed) System.exit(1);
+	}
+
+	/**
+	 * ジョーカーを含まない5枚のカードの役を、手札の規則を使わずに求める。
+	 * 同じカードが重複していてもよい。
+	 * @param codes カードコード
+	 * @return 役の序数
+	 */
+	static int reference(int[] codes) {
+		long counts = 0;
+		int mask = 0;
+		boolean flush = true;
+		for (int code : codes) {
+			int rank = code % RANK_KINDS;
+			counts += 1L << (rank << 2);
+			mask |= 1 << rank;
+			if (code / RANK_KINDS != codes[0] / RANK_KINDS) flush = false;
+		}
+		int max = 0, pairs = 0;
+		for (int rank = 0; rank < RANK_KINDS; rank++) {
+			int count = (int) (counts >>> (rank << 2)) & 0xF;
+			max = Math.max(max, count);
+			if (count == 2) pairs++;
+		}
+		int low = Integer.numberOfTrailingZeros(mask), high = 31 - Integer.numberOfLeadingZeros(mask);
+		boolean straight = Integer.bitCount(mask) == 5 && (high - low == 4 || mask == WHEEL);
+		TypeOfHand typeOfHand;
+		if (max == 5) typeOfHand = TypeOfHand.FiveOfAKind;
+		else if (straight && flush) typeOfHand = (low == 8) ? TypeOfHand.RoyalFlush : TypeOfHand.StraightFlush;
+		else if (max == 4) typeOfHand = TypeOfHand.FourOfAKind;
+		else if (max == 3 && pairs == 1) typeOfHand = TypeOfHand.FullHouse;
+		else if (flush) typeOfHand = TypeOfHand.Flush;
+		else if (straight) typeOfHand = TypeOfHand.Straight;
+		else if (max == 3) typeOfHand = TypeOfHand.ThreeOfAKind;
+		else if (pairs == 2) typeOfHand = TypeOfHand.TwoPair;
+		else if (pairs == 1) typeOfHand = TypeOfHand.OnePair;
+		else typeOfHand = TypeOfHand.HighCards;
+		return typeOfHand.ordinal();
+	}
+
+	/**
+	 * 検証結果を表したクラス
+	 * @author Qubo
+	 */
+	public static final class Result {
+		private final int jokerCount;
+		private final long[] counts = new long[VALUES.length];
+		private long mismatchCount;
+		private final List<String> mismatches = new ArrayList<String>();
+
+		Result(int jokerCount) { this.jokerCount = jokerCount; }
+
+		/**
+		 * 検証したジョーカーの枚数を取得する
+		 * @return ジョーカーの枚数
+		 */
+		public int getJokerCount() { return jokerCount; }
+		/**
+		 * 検証した手札の数を取得する
+		 * @return 手札の数
+		 */
+		public long getHandCount() {
+			long total = 0;
+			for (long count : counts) total += count;
+			return total;
+		}
+		/**
+		 * 参照値が指定した役だった手札の数を取得する
+		 * @param typeOfHand 役
+		 * @return 手札の数
+		 */
+		public long getCount(TypeOfHand typeOfHand) { return counts[typeOfHand.ordinal()]; }
+		/**
+		 * 判定が参照値と一致しなかった手札の数を取得する
+		 * @return 不一致の数
+		 */
+		public long getMismatchCount() { return mismatchCount; }
+		/**
+		 * 判定が参照値と一致しなかった手札を、最大{@value TypeOfHandVerifier#MISMATCH_LIMIT}件取得する
+		 * @return 不一致の内容
+		 */
+		public List<String> getMismatches() { return Collections.unmodifiableList(mismatches); }
+
+		/**
+		 * 不一致を記録する
+		 * @param hand 手札
+		 * @param actual 判定
+		 * @param expected 参照値の序数
+		 */
+		void addMismatch(Hand hand, TypeOfHand actual, int expected) {
+			mismatchCount++;
+			if (mismatches.size() < MISMATCH_LIMIT) {
+				mismatches.add(MessageFormat.format(FORMAT_MISMATCH, hand, actual, VALUES[expected]));
+			}
+		}
+		/**
+		 * 他の結果を合算する
+		 * @param other 他の結果
+		 * @return このインスタンス
+		 */
+		Result merge(Result other) {
+			for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+			mismatchCount += other.mismatchCount;
+			for (String mismatch : other.mismatches) {
+				if (mismatches.size() >= MISMATCH_LIMIT) break;
+				mismatches.add(mismatch);
+			}
+			return this;
+		}
+
+		/*
+		 * (非 Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			builder.append(MessageFormat.format("ジョーカー{0}枚：{1}通り 不一致{2}件", jokerCount, getHandCount(), mismatchCount));
+			for (TypeOfHand typeOfHand : TypeOfHand.ALL) {
+				builder.append("\n  ").append(typeOfHand).append(' ').append(counts[typeOfHand.ordinal()]);
+			}
+			for (String mismatch : mismatches) {
+				builder.append("\n  ").append(mismatch);
+			}
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * 最初のカードの範囲を受け持って検証するタスク
+	 * @author Qubo
+	 */
+	private static class VerificationTask extends RecursiveTask<Result> {
+		private static final long serialVersionUID = 1L;
+		private final int jokerCount;
+		private final int from;
+		private final int to;
+
+		VerificationTask(int jokerCount, int from, int to) {
+			this.jokerCount = jokerCount;
+			this.from = from;
+			this.to = to;
+		}
+
+		/*
+		 * (非 Javadoc)
+		 * @see java.util.concurrent.RecursiveTask#compute()
+		 */
+		@Override
+		protected Result compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				VerificationTask right = new VerificationTask(jokerCount, middle, to);
+				right.fork();
+				Result left = new VerificationTask(jokerCount, from, middle).compute();
+				return left.merge(right.join());
+			}
+			Result result = new Result(jokerCount);
+			int cards = Hand.SIZE - jokerCount;
+			int[] codes = new int[Hand.SIZE];
+			int[] substituted = new int[Hand.SIZE];
+			Hand hand = new Hand(CARDS[Card.CODE_JOKER], CARDS[Card.CODE_JOKER], CARDS[Card.CODE_JOKER], CARDS[Card.CODE_JOKER], CARDS[Card.CODE_JOKER]);
+			codes[0] = from;
+			hand.cards[0] = CARDS[from];
+			enumerate(result, hand, codes, substituted, 1, from + 1, cards);
+			return result;
+		}
+		/**
+		 * 残りのカードを昇順に選んで列挙する
+		 * @param result 結果
+		 * @param hand 使い回す手札
+		 * @param codes 選んだカードコード
+		 * @param substituted ジョーカーを置き換えたカードコード
+		 * @param position 次に選ぶ位置
+		 * @param next 次に選べる最小のカードコード
+		 * @param cards ジョーカー以外のカードの枚数
+		 */
+		private void enumerate(Result result, Hand hand, int[] codes, int[] substituted, int position, int next, int cards) {
+			if (position == cards) {
+				check(result, hand, codes, substituted, cards);
+				return;
+			}
+			for (int code = next; code <= CARD_COUNT - (cards - position); code++) {
+				codes[position] = code;
+				hand.cards[position] = CARDS[code];
+				enumerate(result, hand, codes, substituted, position + 1, code + 1, cards);
+			}
+		}
+		/**
+		 * 一つの手札を検証する
+		 * @param result 結果
+		 * @param hand 手札
+		 * @param codes ジョーカー以外のカードコード
+		 * @param substituted ジョーカーを置き換えたカードコード
+		 * @param cards ジョーカー以外のカードの枚数
+		 */
+		private void check(Result result, Hand hand, int[] codes, int[] substituted, int cards) {
+			System.arraycopy(codes, 0, substituted, 0, cards);
+			int expected = substitute(substituted, cards, 0);
+			result.counts[expected]++;
+			TypeOfHand actual = TypeOfHand.getTypeOfHand(hand);
+			if (actual == null || actual.ordinal() != expected) result.addMismatch(hand, actual, expected);
+		}
+		/**
+		 * ジョーカーを全てのカードに置き換え、最も強い役を求める。
+		 * ジョーカー同士は区別しないので、置き換えるカードコードは昇順に選ぶ。
+		 * @param substituted カードコード（{@code position}以降を置き換える）
+		 * @param position 次に置き換える位置
+		 * @param min 置き換えに使う最小のカードコード
+		 * @return 最も強い役の序数
+		 */
+		private int substitute(int[] substituted, int position, int min) {
+			if (position == Hand.SIZE) return reference(substituted);
+			int best = VALUES.length;
+			for (int code = min; code < CARD_COUNT && best > 0; code++) {
+				substituted[position] = code;
+				best = Math.min(best, substitute(substituted, position + 1, code));
+			}
+			return best;
+		}
+	}
+}
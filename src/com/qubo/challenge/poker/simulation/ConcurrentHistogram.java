@@ -0,0 +1,131 @@
+package com.qubo.challenge.poker.simulation;
+
+import com.qubo.StripedLongArray;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * 多数のスレッドから同時に数えられる、役ごとのヒストグラム。<br />
+ * 役に加えて、ジョーカーの枚数と交換回数を副次的な次元として持つことができる。
+ * 値は{@link StripedLongArray}に持つので、加算は縞ごとに分散し、集計中でも{@link #snapshot()}で途中の値を読める。
+ * スレッドごとに{@link Histogram}などで数えておいて、{@link #addAll(Histogram)}でまとめて加えることもできる。
+ * @author Qubo
+ */
+public class ConcurrentHistogram {
+	private static final int TYPE_COUNT = TypeOfHand.values().length;
+
+	private final int jokerDimension;
+	private final int exchangeDimension;
+	private final StripedLongArray counts;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param maxJokers 数えるジョーカーの枚数の最大値
+	 * @param maxExchanges 数える交換回数の最大値
+	 */
+	public ConcurrentHistogram(int maxJokers, int maxExchanges) {
+		if (maxJokers < 0 || maxExchanges < 0) throw new IllegalArgumentException("次元の大きさの指定がおかしいです！");
+		this.jokerDimension = maxJokers + 1;
+		this.exchangeDimension = maxExchanges + 1;
+		this.counts = new StripedLongArray(TYPE_COUNT * jokerDimension * exchangeDimension);
+	}
+	/** 役だけを数えるコンストラクタ */
+	public ConcurrentHistogram() { this(0, 0); }
+
+	/**
+	 * 役の出現を一回数える
+	 * @param typeOfHand 役
+	 */
+	public void add(TypeOfHand typeOfHand) { counts.increment(index(typeOfHand, 0, 0)); }
+	/**
+	 * 役の出現を、ジョーカーの枚数と交換回数ごとに一回数える
+	 * @param typeOfHand 役
+	 * @param jokers ジョーカーの枚数
+	 * @param exchanges 交換回数
+	 */
+	public void add(TypeOfHand typeOfHand, int jokers, int exchanges) { counts.increment(index(typeOfHand, jokers, exchanges)); }
+	/**
+	 * スレッドごとに数えておいたヒストグラムを、ジョーカー0枚・交換0回の値としてまとめて加える
+	 * @param histogram ヒストグラム
+	 */
+	public void addAll(Histogram histogram) {
+		long[] deltas = new long[counts.length()];
+		for (TypeOfHand typeOfHand : TypeOfHand.values()) {
+			deltas[index(typeOfHand, 0, 0)] = histogram.getCount(typeOfHand);
+		}
+		counts.addAll(deltas);
+	}
+	/**
+	 * 現在の値を取得する。集計中に呼び出してもよい。
+	 * @return 現在の値
+	 */
+	public Snapshot snapshot() { return new Snapshot(counts.snapshot()); }
+
+	/**
+	 * 各次元の値から、配列上の位置を求める
+	 * @param typeOfHand 役
+	 * @param jokers ジョーカーの枚数
+	 * @param exchanges 交換回数
+	 * @return 配列上の位置
+	 */
+	private int index(TypeOfHand typeOfHand, int jokers, int exchanges) {
+		if (jokers < 0 || jokers >= jokerDimension || exchanges < 0 || exchanges >= exchangeDimension) {
+			throw new IllegalArgumentException("ジョーカーの枚数か交換回数が範囲外です！");
+		}
+		return (typeOfHand.ordinal() * jokerDimension + jokers) * exchangeDimension + exchanges;
+	}
+
+	/**
+	 * ある時点での{@link ConcurrentHistogram}の値
+	 */
+	public class Snapshot {
+		private final long[] values;
+
+		private Snapshot(long[] values) {
+			this.values = values;
+		}
+
+		/**
+		 * ジョーカーの枚数と交換回数ごとの、役の出現数を取得する
+		 * @param typeOfHand 役
+		 * @param jokers ジョーカーの枚数
+		 * @param exchanges 交換回数
+		 * @return 出現数
+		 */
+		public long getCount(TypeOfHand typeOfHand, int jokers, int exchanges) { return values[index(typeOfHand, jokers, exchanges)]; }
+		/**
+		 * 全てのジョーカーの枚数と交換回数を合わせた、役の出現数を取得する
+		 * @param typeOfHand 役
+		 * @return 出現数
+		 */
+		public long getCount(TypeOfHand typeOfHand) {
+			long sum = 0;
+			int from = typeOfHand.ordinal() * jokerDimension * exchangeDimension;
+			for (int i = from; i < from + jokerDimension * exchangeDimension; i++) {
+				sum += values[i];
+			}
+			return sum;
+		}
+		/**
+		 * 全ての出現数の合計を取得する
+		 * @return 出現数の合計
+		 */
+		public long getTotal() {
+			long sum = 0;
+			for (long value : values) {
+				sum += value;
+			}
+			return sum;
+		}
+		/**
+		 * 副次的な次元を合わせて、{@link Histogram}に変換する
+		 * @return ヒストグラム
+		 */
+		public Histogram toHistogram() {
+			Histogram histogram = new Histogram();
+			for (TypeOfHand typeOfHand : TypeOfHand.values()) {
+				histogram.add(typeOfHand, getCount(typeOfHand));
+			}
+			return histogram;
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.qubo.challenge.poker.simulation;
+
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.Hand;
+
+/**
+ * 手札のどのカードを交換するかを決める戦略を表したインタフェース。<br />
+ * {@link Tournament}からは複数のスレッドで同時に呼び出されるので、実装は状態を持たないか、スレッドセーフにすること。
+ * @author Qubo
+ */
+public interface DrawPolicy {
+	/**
+	 * 戦略の名前を取得する
+	 * @return 戦略の名前
+	 */
+	String getName();
+	/**
+	 * 交換するカードの位置を決める。
+	 * 空の配列を返した場合は、残りの交換を行わずに勝負する。
+	 * @param hand 現在の手札（変更しないこと）
+	 * @param deck カードを引くデッキ（変更しないこと）
+	 * @param remainingChanges 今回を含めた、残りの交換回数
+	 * @return 交換するカードの位置を昇順に並べた配列
+	 */
+	int[] choose(Hand hand, Deck deck, int remainingChanges);
+}
@@ -0,0 +1,396 @@
+package com.qubo.challenge.poker.simulation;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.DeckComposition;
+import com.qubo.challenge.poker.models.EvaluationCache;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.Suit;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * 残りの交換回数とデッキの中身を考慮して、配当の期待値が最大になる交換の仕方を厳密に求めるクラス。<br />
+ * 状態（手札、デッキに残ったカード、残りの交換回数）の価値は、交換しない場合の配当と、
+ * 交換の仕方31通りそれぞれについて引きうる全ての組み合わせで平均した次の状態の価値のうち、最大のものである。
+ * マークを入れ替えただけの状態は同じ価値を持つので、マークの並びを正規化した状態をキーにして価値をキャッシュする。
+ * キャッシュの大きさには上限があり、上限に達した後は新しい状態を記録しない。<br />
+ * 独立した部分木（交換の仕方や最初に引くカードごとの分岐）は{@link ForkJoinPool}で並列に計算する。<br />
+ * 結果は近似ではなく厳密な値だが、計算量は引きうる組み合わせの数に比例して急激に増える。
+ * 配られた直後の手札（デッキに47枚）で残り1回なら数秒程度だが、残り2回以上を全て厳密に解くのは現実的でなく、
+ * デッキの残りが少ない状態や、残り回数の少ない状態で使うことを想定している。<br />
+ * デッキに残ったカードは、カードごとに有るか無いかのビットマスクで表すので、1組のトランプのデッキだけを扱える。
+ * @author Qubo
+ */
+public class DrawSolver {
+	/** 標準のキャッシュの上限 */
+	public static final int DEFAULT_CACHE_LIMIT = 1 << 20;
+	/** 複数組のトランプを混ぜたシューを与えた場合に発生する例外のメッセージ */
+	public static final String ERROR_DECK_COUNT = "厳密な解は1組のトランプのデッキでしか求められません（{0}組が指定されました）！";
+	/** マークの並べ替え方の全て */
+	private static final int[][] PERMUTATIONS = permutations();
+	/** 1マーク分のビットマスク */
+	private static final long SUIT_MASK = (1L << 13) - 1;
+
+	private final PayoutTable payoutTable;
+	private final ForkJoinPool pool;
+	private final int cacheLimit;
+	private final ConcurrentMap<State, Double> cache = new ConcurrentHashMap<State, Double>();
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param payoutTable 配当
+	 * @param pool 計算に使うスレッドプール
+	 * @param cacheLimit キャッシュする状態の最大数
+	 */
+	public DrawSolver(PayoutTable payoutTable, ForkJoinPool pool, int cacheLimit) {
+		this.payoutTable = payoutTable;
+		this.pool = pool;
+		this.cacheLimit = cacheLimit;
+	}
+	/** 標準の配当と、利用できる全てのプロセッサを使うコンストラクタ */
+	public DrawSolver() { this(PayoutTable.DEFAULT, new ForkJoinPool(), DEFAULT_CACHE_LIMIT); }
+
+	/**
+	 * キャッシュされている状態の数を取得する
+	 * @return キャッシュされている状態の数
+	 */
+	public int getCacheSize() { return cache.size(); }
+
+	/**
+	 * 手札とデッキの状態から、交換の仕方ごとの価値を求める
+	 * @param hand 手札
+	 * @param deck デッキ
+	 * @param remainingChanges 今回を含めた、残りの交換回数
+	 * @return 交換の仕方ごとの価値
+	 * @throws IllegalArgumentException デッキが複数組のトランプを混ぜたシューである場合に発生
+	 */
+	public Decision solve(Hand hand, Deck deck, int remainingChanges) {
+		if (deck.getDeckCount() > 1) throw new IllegalArgumentException(MessageFormat.format(ERROR_DECK_COUNT, deck.getDeckCount()));
+		int[] codes = new int[5];
+		for (int i = 0; i < 5; i++) {
+			codes[i] = hand.get(i).getCode();
+		}
+		DeckComposition composition = deck.getComposition();
+		long deckMask = 0;
+		int deckJokers = composition.getJokers();
+		for (Suit suit : Suit.values()) {
+			if (suit == Suit.Joker) continue;
+			for (int number = 2; number <= 14; number++) {
+				if (composition.getCount(suit, number) > 0) deckMask |= 1L << (suit.ordinal() * 13 + number - 2);
+			}
+		}
+		double[] values = new double[32];
+		values[0] = payout(codes);
+		if (remainingChanges > 0) {
+			int[] deckCodes = toCodes(deckMask, deckJokers);
+			List<ExpectationTask> tasks = new ArrayList<ExpectationTask>();
+			for (int mask = 1; mask < 32; mask++) {
+				int draws = Integer.bitCount(mask);
+				values[mask] = Double.NaN;
+				if (draws <= deckCodes.length) {
+					tasks.add(new ExpectationTask(codes, mask, deckCodes, deckMask, deckJokers, remainingChanges, 0, deckCodes.length - draws + 1));
+				}
+			}
+			for (ExpectationTask task : tasks) {
+				pool.execute(task);
+			}
+			for (ExpectationTask task : tasks) {
+				values[task.mask] = task.join() / combinations(deckCodes.length, Integer.bitCount(task.mask));
+			}
+		}
+		return new Decision(values);
+	}
+
+	/**
+	 * 状態の価値を求める
+	 * @param hand 手札のカードコード
+	 * @param deckMask デッキに残ったジョーカー以外のカードのビットマスク
+	 * @param deckJokers デッキに残ったジョーカーの枚数
+	 * @param remaining 残りの交換回数
+	 * @return 状態の価値
+	 */
+	private double value(int[] hand, long deckMask, int deckJokers, int remaining) {
+		double best = payout(hand);
+		if (remaining == 0) return best;
+		State key = State.canonicalOf(hand, deckMask, deckJokers, remaining);
+		Double cached = cache.get(key);
+		if (cached != null) return cached;
+
+		int[] deckCodes = toCodes(deckMask, deckJokers);
+		for (int mask = 1; mask < 32; mask++) {
+			int draws = Integer.bitCount(mask);
+			if (draws > deckCodes.length) continue;
+			double sum = new ExpectationTask(hand, mask, deckCodes, deckMask, deckJokers, remaining, 0, deckCodes.length - draws + 1).compute();
+			best = Math.max(best, sum / combinations(deckCodes.length, draws));
+		}
+		if (cache.size() < cacheLimit) {
+			cache.putIfAbsent(key, best);
+		}
+		return best;
+	}
+	/**
+	 * 手札の配当を求める
+	 * @param hand 手札のカードコード
+	 * @return 配当
+	 */
+	private int payout(int[] hand) {
+		try {
+			Hand h = new Hand(Card.valueOf(hand[0]), Card.valueOf(hand[1]), Card.valueOf(hand[2]), Card.valueOf(hand[3]), Card.valueOf(hand[4]));
+			return payoutTable.getPayout(EvaluationCache.getShared().getTypeOfHand(h));
+		} catch (CardException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 一つの交換の仕方について、最初に引くカードの位置が{@code from}以上{@code to}未満である組み合わせの、
+	 * 次の状態の価値の合計を求めるタスク。範囲が広く、部分木が大きい場合は半分に分けて並列に計算する。
+	 */
+	private class ExpectationTask extends RecursiveTask<Double> {
+		private static final long serialVersionUID = 1L;
+		private final int[] hand;
+		private final int mask;
+		private final int[] deckCodes;
+		private final long deckMask;
+		private final int deckJokers;
+		private final int remaining;
+		private final int from;
+		private final int to;
+
+		ExpectationTask(int[] hand, int mask, int[] deckCodes, long deckMask, int deckJokers, int remaining, int from, int to) {
+			this.hand = hand;
+			this.mask = mask;
+			this.deckCodes = deckCodes;
+			this.deckMask = deckMask;
+			this.deckJokers = deckJokers;
+			this.remaining = remaining;
+			this.from = from;
+			this.to = to;
+		}
+
+		/*
+		 * (非 Javadoc)
+		 * @see java.util.concurrent.RecursiveTask#compute()
+		 */
+		@Override
+		protected Double compute() {
+			if (to - from > 1 && inForkJoinPool() && (remaining > 1 || Integer.bitCount(mask) >= 3)) {
+				int middle = (from + to) >>> 1;
+				ExpectationTask right = new ExpectationTask(hand, mask, deckCodes, deckMask, deckJokers, remaining, middle, to);
+				right.fork();
+				double left = new ExpectationTask(hand, mask, deckCodes, deckMask, deckJokers, remaining, from, middle).compute();
+				return left + right.join();
+			}
+			int[] positions = new int[Integer.bitCount(mask)];
+			for (int i = 0, j = 0; i < 5; i++) {
+				if ((mask & (1 << i)) != 0) positions[j++] = i;
+			}
+			double sum = 0;
+			for (int first = from; first < to; first++) {
+				int[] next = hand.clone();
+				next[positions[0]] = deckCodes[first];
+				sum += enumerate(next, positions, 1, first + 1, remove(deckMask, deckCodes[first]), deckJokers - (deckCodes[first] == Card.CODE_JOKER ? 1 : 0));
+			}
+			return sum;
+		}
+		/**
+		 * 残りの位置に引くカードの組み合わせを全て列挙し、次の状態の価値の合計を求める
+		 * @param next 次の手札（列挙の途中で書き換える）
+		 * @param positions 交換する位置
+		 * @param depth 次に埋める位置の番号
+		 * @param start 次に引くカードの最小の位置
+		 * @param mask 現在のデッキのビットマスク
+		 * @param jokers 現在のデッキのジョーカーの枚数
+		 * @return 価値の合計
+		 */
+		private double enumerate(int[] next, int[] positions, int depth, int start, long mask, int jokers) {
+			if (depth == positions.length) return value(next, mask, jokers, remaining - 1);
+			double sum = 0;
+			int last = deckCodes.length - (positions.length - depth);
+			for (int i = start; i <= last; i++) {
+				int code = deckCodes[i];
+				next[positions[depth]] = code;
+				sum += enumerate(next, positions, depth + 1, i + 1, remove(mask, code), jokers - (code == Card.CODE_JOKER ? 1 : 0));
+			}
+			return sum;
+		}
+	}
+
+	/**
+	 * 交換の仕方ごとの価値を表したクラス
+	 */
+	public static class Decision {
+		private final double[] values;
+		private final int bestMask;
+
+		Decision(double[] values) {
+			this.values = values;
+			int best = 0;
+			for (int mask = 1; mask < values.length; mask++) {
+				if (values[mask] > values[best]) best = mask;
+			}
+			this.bestMask = best;
+		}
+
+		/**
+		 * 交換の仕方ごとの価値を取得する
+		 * @param mask 交換する位置のビットマスク（0は交換しない）
+		 * @return 価値（デッキのカードが足りず交換できない場合は{@link Double#NaN}）
+		 */
+		public double getValue(int mask) { return values[mask]; }
+		/**
+		 * 最も価値の高い交換の仕方を取得する。価値が同じ場合は、マスクの値が小さいものを選ぶ。
+		 * @return 交換する位置のビットマスク
+		 */
+		public int getBestMask() { return bestMask; }
+		/**
+		 * 最も高い価値を取得する
+		 * @return 価値
+		 */
+		public double getBestValue() { return values[bestMask]; }
+		/**
+		 * 最も価値の高い交換の仕方を、交換するカードの位置の配列として取得する
+		 * @return 交換するカードの位置
+		 */
+		public int[] getBestIndices() {
+			boolean[] discards = new boolean[5];
+			for (int i = 0; i < 5; i++) {
+				discards[i] = (bestMask & (1 << i)) != 0;
+			}
+			return StandardPolicy.toIndices(discards);
+		}
+	}
+
+	/**
+	 * キャッシュのキーとなる、マークの並びを正規化した状態
+	 */
+	private static final class State {
+		/** 整列した手札のカードコード（6ビットずつ）、デッキのジョーカーの枚数、残りの交換回数 */
+		private final long hand;
+		/** デッキに残ったジョーカー以外のカードのビットマスク */
+		private final long deck;
+
+		private State(long hand, long deck) {
+			this.hand = hand;
+			this.deck = deck;
+		}
+
+		/**
+		 * マークの並べ替え方の中で、キーが最小になるものを選んで状態を作る
+		 * @param codes 手札のカードコード
+		 * @param deckMask デッキのビットマスク
+		 * @param deckJokers デッキのジョーカーの枚数
+		 * @param remaining 残りの交換回数
+		 * @return 正規化した状態
+		 */
+		static State canonicalOf(int[] codes, long deckMask, int deckJokers, int remaining) {
+			long bestHand = Long.MAX_VALUE, bestDeck = Long.MAX_VALUE;
+			int[] mapped = new int[5];
+			for (int[] permutation : PERMUTATIONS) {
+				for (int i = 0; i < 5; i++) {
+					int code = codes[i];
+					mapped[i] = (code == Card.CODE_JOKER) ? code : permutation[code / 13] * 13 + code % 13;
+				}
+				Arrays.sort(mapped);
+				long hand = 0;
+				for (int code : mapped) {
+					hand = (hand << 6) | code;
+				}
+				if (hand > bestHand) continue;
+				long deck = 0;
+				for (int suit = 0; suit < 4; suit++) {
+					deck |= ((deckMask >>> (suit * 13)) & SUIT_MASK) << (permutation[suit] * 13);
+				}
+				if (hand < bestHand || deck < bestDeck) {
+					bestHand = hand;
+					bestDeck = deck;
+				}
+			}
+			return new State((bestHand << 8) | (deckJokers << 6) | remaining, bestDeck);
+		}
+
+		/*
+		 * (非 Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			long h = hand * 0x9E3779B97F4A7C15L ^ deck;
+			return (int) (h ^ (h >>> 32));
+		}
+		/*
+		 * (非 Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof State)) return false;
+			State other = (State) obj;
+			return hand == other.hand && deck == other.deck;
+		}
+	}
+
+	/**
+	 * デッキのビットマスクからカードを取り除く
+	 * @param mask デッキのビットマスク
+	 * @param code 取り除くカードのコード
+	 * @return 取り除いた後のビットマスク
+	 */
+	private static long remove(long mask, int code) {
+		return (code == Card.CODE_JOKER) ? mask : mask & ~(1L << code);
+	}
+	/**
+	 * デッキのビットマスクとジョーカーの枚数を、カードコードの配列にする
+	 * @param mask デッキのビットマスク
+	 * @param jokers ジョーカーの枚数
+	 * @return カードコードの配列
+	 */
+	private static int[] toCodes(long mask, int jokers) {
+		int[] codes = new int[Long.bitCount(mask) + jokers];
+		int i = 0;
+		for (long rest = mask; rest != 0; rest &= rest - 1) {
+			codes[i++] = Long.numberOfTrailingZeros(rest);
+		}
+		while (i < codes.length) {
+			codes[i++] = Card.CODE_JOKER;
+		}
+		return codes;
+	}
+	/**
+	 * 組み合わせの数を求める
+	 * @param n 全体の数
+	 * @param k 選ぶ数
+	 * @return 組み合わせの数
+	 */
+	private static double combinations(int n, int k) {
+		double result = 1;
+		for (int i = 0; i < k; i++) {
+			result = result * (n - i) / (i + 1);
+		}
+		return result;
+	}
+	/**
+	 * 4つのマークの並べ替え方を全て列挙する
+	 * @return 並べ替え方の配列
+	 */
+	private static int[][] permutations() {
+		List<int[]> result = new ArrayList<int[]>();
+		for (int a = 0; a < 4; a++)
+			for (int b = 0; b < 4; b++)
+				for (int c = 0; c < 4; c++)
+					for (int d = 0; d < 4; d++)
+						if (a != b && a != c && a != d && b != c && b != d && c != d)
+							result.add(new int[] { a, b, c, d });
+		return result.toArray(new int[result.size()][]);
+	}
+}
@@ -0,0 +1,110 @@
+package com.qubo.challenge.poker.simulation;
+
+import java.util.List;
+import java.util.Random;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * 交換の仕方32通りそれぞれについて、交換後の配当の期待値を見積もり、最も期待値の高いものを選ぶ戦略。<br />
+ * 期待値は、デッキに残ったカードから無作為に引いた結果を{@code samples}回試して求める。
+ * 乱数のシードは手札から決めるので、同じ手札とデッキに対しては常に同じ選択をする。
+ * 残りの交換回数は考慮せず、今回の交換が最後であるものとして見積もる。
+ * @author Qubo
+ */
+public class ExpectedValuePolicy implements DrawPolicy {
+	/** 戦略の名前 */
+	public static final String NAME = "期待値最大";
+	/** 標準の試行回数 */
+	public static final int DEFAULT_SAMPLES = 200;
+
+	private final PayoutTable payoutTable;
+	private final int samples;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param payoutTable 期待値の計算に使う配当
+	 * @param samples 交換の仕方ごとの試行回数
+	 */
+	public ExpectedValuePolicy(PayoutTable payoutTable, int samples) {
+		this.payoutTable = payoutTable;
+		this.samples = samples;
+	}
+	/** 標準の配当と試行回数を使うコンストラクタ */
+	public ExpectedValuePolicy() { this(PayoutTable.DEFAULT, DEFAULT_SAMPLES); }
+
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.challenge.poker.simulation.DrawPolicy#getName()
+	 */
+	@Override
+	public String getName() { return NAME; }
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.challenge.poker.simulation.DrawPolicy#choose(com.qubo.challenge.poker.models.Hand, com.qubo.challenge.poker.models.Deck, int)
+	 */
+	@Override
+	public int[] choose(Hand hand, Deck deck, int remainingChanges) {
+		List<Card> remainings = deck.getRemainingCards();
+		Card[] pool = remainings.toArray(new Card[remainings.size()]);
+		Random random = new Random(seedOf(hand));
+		int bestMask = 0;
+		double bestValue = payoutTable.getPayout(TypeOfHand.getTypeOfHand(hand));
+		for (int mask = 1; mask < 32; mask++) {
+			if (Integer.bitCount(mask) > pool.length) continue;
+			double value = estimate(hand, mask, pool, random);
+			if (value > bestValue) {
+				bestValue = value;
+				bestMask = mask;
+			}
+		}
+		boolean[] discards = new boolean[5];
+		for (int i = 0; i < 5; i++) {
+			discards[i] = (bestMask & (1 << i)) != 0;
+		}
+		return StandardPolicy.toIndices(discards);
+	}
+	/**
+	 * {@code mask}で指定した位置のカードを交換した場合の、配当の期待値を見積もる
+	 * @param hand 手札
+	 * @param mask 交換する位置のビットマスク
+	 * @param pool デッキに残ったカード（順番は入れ替わる）
+	 * @param random 乱数
+	 * @return 配当の期待値の見積もり
+	 */
+	private double estimate(Hand hand, int mask, Card[] pool, Random random) {
+		Card[] cards = new Card[5];
+		long total = 0;
+		for (int s = 0; s < samples; s++) {
+			int drawn = 0;
+			for (int i = 0; i < 5; i++) {
+				if ((mask & (1 << i)) != 0) {
+					int j = drawn + random.nextInt(pool.length - drawn);
+					Card card = pool[j];
+					pool[j] = pool[drawn];
+					pool[drawn++] = card;
+					cards[i] = card;
+				} else {
+					cards[i] = hand.get(i);
+				}
+			}
+			total += payoutTable.getPayout(TypeOfHand.getTypeOfHand(new Hand(cards[0], cards[1], cards[2], cards[3], cards[4])));
+		}
+		return (double) total / samples;
+	}
+	/**
+	 * 手札から乱数のシードを決める
+	 * @param hand 手札
+	 * @return シード
+	 */
+	private static long seedOf(Hand hand) {
+		long seed = 0;
+		for (Card card : hand) {
+			seed = seed * Card.CODE_COUNT + card.getCode();
+		}
+		return seed;
+	}
+}
@@ -0,0 +1,110 @@
+package com.qubo.challenge.poker.simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * 役ごとの出現数を数える、単純なヒストグラム。<br />
+ * 同じ種類のヒストグラム同士は{@link #merge(Histogram)}で足し合わせることができ、
+ * {@link #writeTo(DataOutput)}と{@link #readFrom(DataInput)}でプロセス間を受け渡しできる。
+ * スレッドセーフではない。
+ * @author Qubo
+ */
+public class Histogram {
+	private final long[] counts = new long[TypeOfHand.values().length];
+
+	/**
+	 * 役の出現を一回数える
+	 * @param typeOfHand 役
+	 */
+	public void add(TypeOfHand typeOfHand) { counts[typeOfHand.ordinal()]++; }
+	/**
+	 * 役の出現をまとめて数える
+	 * @param typeOfHand 役
+	 * @param count 出現数
+	 */
+	public void add(TypeOfHand typeOfHand, long count) { counts[typeOfHand.ordinal()] += count; }
+	/**
+	 * 他のヒストグラムの値をこのインスタンスに加える
+	 * @param other 他のヒストグラム
+	 */
+	public void merge(Histogram other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+	}
+	/**
+	 * 役の出現数を取得する
+	 * @param typeOfHand 役
+	 * @return 出現数
+	 */
+	public long getCount(TypeOfHand typeOfHand) { return counts[typeOfHand.ordinal()]; }
+	/**
+	 * 全ての役の出現数の合計を取得する
+	 * @return 出現数の合計
+	 */
+	public long getTotal() {
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * ヒストグラムを書き出す
+	 * @param out 出力先
+	 * @throws IOException 書き込みに失敗した場合に発生
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(counts.length);
+		for (long count : counts) {
+			out.writeLong(count);
+		}
+	}
+	/**
+	 * {@link #writeTo(DataOutput)}で書き出したヒストグラムを読み込む
+	 * @param in 入力元
+	 * @return ヒストグラム
+	 * @throws IOException 読み込みに失敗した場合、役の数が合わない場合に発生
+	 */
+	public static Histogram readFrom(DataInput in) throws IOException {
+		Histogram histogram = new Histogram();
+		if (in.readInt() != histogram.counts.length) throw new IOException("ヒストグラムの役の数が合いません！");
+		for (int i = 0; i < histogram.counts.length; i++) {
+			histogram.counts[i] = in.readLong();
+		}
+		return histogram;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return (obj instanceof Histogram) && Arrays.equals(counts, ((Histogram) obj).counts);
+	}
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() { return Arrays.hashCode(counts); }
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (TypeOfHand typeOfHand : TypeOfHand.ALL) {
+			builder.append(typeOfHand.getName()).append(": ").append(getCount(typeOfHand)).append(String.format("%n"));
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,40 @@
+package com.qubo.challenge.poker.simulation;
+
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.Hand;
+
+/**
+ * {@link DrawSolver}で求めた、配当の期待値が最大になる交換の仕方を選ぶ戦略。
+ * 計算量が大きいので、デッキの残りが少ない場合や残りの交換回数が少ない場合に使うこと。
+ * また、1組のトランプのデッキでしか使えない。
+ * @author Qubo
+ */
+public class OptimalPolicy implements DrawPolicy {
+	/** 戦略の名前 */
+	public static final String NAME = "最適";
+
+	private final DrawSolver solver;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param solver 交換の仕方を求めるのに使うソルバー
+	 */
+	public OptimalPolicy(DrawSolver solver) {
+		this.solver = solver;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.challenge.poker.simulation.DrawPolicy#getName()
+	 */
+	@Override
+	public String getName() { return NAME; }
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.challenge.poker.simulation.DrawPolicy#choose(com.qubo.challenge.poker.models.Hand, com.qubo.challenge.poker.models.Deck, int)
+	 */
+	@Override
+	public int[] choose(Hand hand, Deck deck, int remainingChanges) {
+		return solver.solve(hand, deck, remainingChanges).getBestIndices();
+	}
+}
@@ -0,0 +1,33 @@
+package com.qubo.challenge.poker.simulation;
+
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * 役ごとの配当を表したクラス。戦略の良し悪しを一つの数値で比べるために使う。
+ * @author Qubo
+ */
+public class PayoutTable {
+	/** 配当の数が役の数と合わない場合に発生する例外のメッセージ */
+	public static final String ERROR_PAYOUT_COUNT = "配当は役の数だけ指定してください！";
+	/** 一般的なビデオポーカーに近い、標準の配当 */
+	public static final PayoutTable DEFAULT = new PayoutTable(500, 250, 50, 25, 9, 6, 4, 3, 2, 1, 0);
+
+	private final int[] payouts;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param payouts 役ごとの配当を、{@link TypeOfHand#ALL}と同じく強い順に並べたもの
+	 * @throws IllegalArgumentException 配当の数が役の数と合わない場合に発生
+	 */
+	public PayoutTable(int... payouts) {
+		if (payouts.length != TypeOfHand.ALL.length) throw new IllegalArgumentException(ERROR_PAYOUT_COUNT);
+		this.payouts = payouts.clone();
+	}
+
+	/**
+	 * 役に対する配当を取得する
+	 * @param typeOfHand 役
+	 * @return 配当
+	 */
+	public int getPayout(TypeOfHand typeOfHand) { return payouts[typeOfHand.ordinal()]; }
+}
@@ -0,0 +1,303 @@
+package com.qubo.challenge.poker.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ShardJob}のシャードを、ソケットで接続してきた{@link ShardWorker}に割り当て、結果を集めるクラス。<br />
+ * ワーカーとの接続は、同じマシンの中だけで使うことを想定してループバックアドレスで待ち受ける。
+ * 結果を返す前に接続が切れたシャードは未処理に戻して、他のワーカーに割り当て直す。
+ * 結果はシャード単位でまとめて受け取り、一度受け取ったシャードの結果は二度と加えないので、二重に数えることは無い。
+ * <p>
+ * プロトコル：接続すると、コーディネーターは{@link #MAGIC}と{@link ShardJob}を送る。
+ * その後、{@link #COMMAND_ASSIGN}とシャード番号を送り、ワーカーはシャード番号と{@link Histogram}を返す。
+ * 全てのシャードが終わると、{@link #COMMAND_SHUTDOWN}を送って接続を閉じる。
+ * </p>
+ * @author Qubo
+ */
+public class ShardCoordinator implements Closeable {
+	/** プロトコルの開始を表す値 */
+	static final int MAGIC = 0x51505348;
+	/** シャードの割り当てを表すコマンド */
+	static final byte COMMAND_ASSIGN = 1;
+	/** 終了を表すコマンド */
+	static final byte COMMAND_SHUTDOWN = 2;
+	/** プロトコルがおかしい場合に発生する例外のメッセージ */
+	static final String ERROR_PROTOCOL = "シャードのプロトコルがおかしいです！";
+	/** 結果が揃う前に待ち時間が過ぎた場合に発生する例外のメッセージ */
+	static final String ERROR_TIMEOUT = "シャードの結果が揃う前に時間切れになりました！";
+	/** 結果が揃う前にワーカーのプロセスが全て終了した場合に発生する例外のメッセージ */
+	static final String ERROR_WORKERS_EXITED = "全てのワーカーが終了しましたが、{0}個のシャードの結果が揃っていません！";
+	/** 割り当てるシャードを待つ間隔（ミリ秒） */
+	private static final long POLL_INTERVAL = 100;
+	/** ワーカーのプロセスが終了していないか確かめる間隔（ミリ秒） */
+	private static final long WATCH_INTERVAL = 500;
+	/** {@link #main(String[])}で、ワーカーのプロセスが全て終了した場合に起動し直す回数 */
+	private static final int MAX_RELAUNCHES = 3;
+
+	private final ShardJob job;
+	private final ServerSocket serverSocket;
+	private final BlockingQueue<Integer> pending = new LinkedBlockingQueue<Integer>();
+	private final boolean[] completed;
+	private final Histogram result = new Histogram();
+	private final CountDownLatch remaining;
+	private final AtomicInteger requeued = new AtomicInteger();
+	private final List<Socket> connections = new ArrayList<Socket>();
+	private Thread acceptor;
+
+	/**
+	 * 標準のコンストラクタ。ループバックアドレスで待ち受けを始める。
+	 * @param job シミュレーションの内容
+	 * @param port 待ち受けるポート番号（0なら空いているポート）
+	 * @throws IOException 待ち受けに失敗した場合に発生
+	 */
+	public ShardCoordinator(ShardJob job, int port) throws IOException {
+		this.job = job;
+		this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		this.completed = new boolean[job.getShardCount()];
+		this.remaining = new CountDownLatch(completed.length);
+		for (int shard = 0; shard < completed.length; shard++) {
+			pending.add(shard);
+		}
+	}
+
+	/**
+	 * 待ち受けているポート番号を取得する
+	 * @return ポート番号
+	 */
+	public int getPort() { return serverSocket.getLocalPort(); }
+	/**
+	 * 接続が切れて、割り当て直したシャードの数を取得する
+	 * @return 割り当て直したシャードの数
+	 */
+	public int getRequeuedCount() { return requeued.get(); }
+
+	/** ワーカーからの接続の受け付けを始める */
+	public synchronized void start() {
+		if (acceptor != null) return;
+		acceptor = new Thread(new Runnable() {
+			@Override public void run() {
+				while (!serverSocket.isClosed()) {
+					try {
+						final Socket socket = serverSocket.accept();
+						synchronized (connections) {
+							connections.add(socket);
+						}
+						Thread handler = new Thread(new Runnable() {
+							@Override public void run() { serve(socket); }
+						}, "shard-handler");
+						handler.setDaemon(true);
+						handler.start();
+					} catch (IOException e) {
+						// 待ち受けを閉じた場合は終了する
+					}
+				}
+			}
+		}, "shard-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+	/**
+	 * ワーカーを別のJVMとして起動する。ワーカーはこのJVMと同じクラスパスで起動し、標準出力と標準エラー出力を引き継ぐ。
+	 * @param count 起動するワーカーの数
+	 * @return 起動したプロセス
+	 * @throws IOException 起動に失敗した場合に発生
+	 */
+	public List<Process> launchWorkers(int count) throws IOException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		List<Process> processes = new ArrayList<Process>();
+		for (int i = 0; i < count; i++) {
+			processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ShardWorker.class.getName(),
+					InetAddress.getLoopbackAddress().getHostAddress(), String.valueOf(getPort())).inheritIO().start());
+		}
+		return processes;
+	}
+	/**
+	 * 全てのシャードの結果が揃うまで待ち、合計を取得する
+	 * @return 全てのシャードの結果の合計
+	 * @throws InterruptedException 待っている間に割り込まれた場合に発生
+	 */
+	public Histogram await() throws InterruptedException {
+		remaining.await();
+		return getResult();
+	}
+	/**
+	 * 全てのシャードの結果が揃うまで、指定した時間だけ待ち、合計を取得する
+	 * @param timeout 最大の待ち時間
+	 * @param unit {@code timeout}の単位
+	 * @return 全てのシャードの結果の合計
+	 * @throws InterruptedException 待っている間に割り込まれた場合に発生
+	 * @throws TimeoutException 結果が揃う前に待ち時間が過ぎた場合に発生
+	 */
+	public Histogram await(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+		if (!remaining.await(timeout, unit)) throw new TimeoutException(ERROR_TIMEOUT);
+		return getResult();
+	}
+	/**
+	 * {@link #launchWorkers(int)}で起動したワーカーを見張りながら、全てのシャードの結果が揃うまで待ち、合計を取得する。<br />
+	 * 結果が揃う前にワーカーのプロセスが全て終了した場合は、同じ数のワーカーを起動し直す。
+	 * 起動し直したプロセスは{@code workers}に加える。
+	 * @param workers 見張るワーカーのプロセス
+	 * @param relaunches ワーカーを起動し直してよい回数
+	 * @return 全てのシャードの結果の合計
+	 * @throws InterruptedException 待っている間に割り込まれた場合に発生
+	 * @throws IOException ワーカーの起動に失敗した場合に発生
+	 * @throws IllegalStateException 起動し直してよい回数を超えて、ワーカーのプロセスが全て終了した場合に発生
+	 */
+	public Histogram await(List<Process> workers, int relaunches) throws InterruptedException, IOException {
+		int count = workers.size();
+		List<Process> running = new ArrayList<Process>(workers);
+		while (true) {
+			try {
+				return await(WATCH_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// ワーカーが生きているか確かめて、待ち続ける
+			}
+			if (isAnyAlive(running) || remaining.getCount() == 0) continue;
+			if (relaunches-- <= 0) throw new IllegalStateException(MessageFormat.format(ERROR_WORKERS_EXITED, remaining.getCount()));
+			running = launchWorkers(count);
+			workers.addAll(running);
+		}
+	}
+	/*
+	 * (非 Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		synchronized (connections) {
+			for (Socket socket : connections) {
+				socket.close();
+			}
+		}
+	}
+
+	/**
+	 * これまでに受け取った結果の合計を写して取得する
+	 * @return 結果の合計
+	 */
+	private Histogram getResult() {
+		synchronized (result) {
+			Histogram copy = new Histogram();
+			copy.merge(result);
+			return copy;
+		}
+	}
+	/**
+	 * 終了していないプロセスがあるかどうかを取得する
+	 * @param processes プロセス
+	 * @return 終了していないプロセスがあるかどうか
+	 */
+	private static boolean isAnyAlive(List<Process> processes) {
+		for (Process process : processes) {
+			try {
+				process.exitValue();
+			} catch (IllegalThreadStateException e) {
+				return true;
+			}
+		}
+		return false;
+	}
+	/**
+	 * 一つのワーカーとの接続を処理する
+	 * @param socket ワーカーとのソケット
+	 */
+	private void serve(Socket socket) {
+		Integer shard = null;
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeInt(MAGIC);
+			job.writeTo(out);
+			out.flush();
+			while (true) {
+				while (shard == null) {
+					if (remaining.getCount() == 0) {
+						out.writeByte(COMMAND_SHUTDOWN);
+						out.flush();
+						return;
+					}
+					shard = pending.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				}
+				out.writeByte(COMMAND_ASSIGN);
+				out.writeInt(shard);
+				out.flush();
+				if (in.readInt() != shard) throw new IOException(ERROR_PROTOCOL);
+				complete(shard, Histogram.readFrom(in));
+				shard = null;
+			}
+		} catch (IOException e) {
+			// ワーカーが落ちた場合は、処理中のシャードを未処理に戻す
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			if (shard != null) {
+				requeued.incrementAndGet();
+				pending.add(shard);
+			}
+			try {
+				socket.close();
+			} catch (IOException e) { }
+		}
+	}
+	/**
+	 * シャードの結果を加える。既に結果を受け取ったシャードであれば無視する。
+	 * @param shard シャード番号
+	 * @param histogram シャードの結果
+	 */
+	private void complete(int shard, Histogram histogram) {
+		synchronized (result) {
+			if (completed[shard]) return;
+			completed[shard] = true;
+			result.merge(histogram);
+		}
+		remaining.countDown();
+	}
+
+	/**
+	 * コーディネーターを起動し、ワーカーを別のJVMとして起動してシミュレーションを行う。
+	 * 結果が揃う前にワーカーが全て終了した場合は、{@value #MAX_RELAUNCHES}回まで起動し直す。<br />
+	 * 引数：ワーカー数 ラウンド数 シャードの大きさ ジョーカーの枚数 交換回数 戦略の識別子 シード
+	 * @param args コマンドライン引数
+	 * @throws Exception シミュレーションに失敗した場合に発生
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 7) {
+			System.err.println("引数：ワーカー数 ラウンド数 シャードの大きさ ジョーカーの枚数 交換回数 戦略の識別子 シード");
+			return;
+		}
+		ShardJob job = new ShardJob(Integer.parseInt(args[3]), Integer.parseInt(args[4]), args[5], Long.parseLong(args[6]),
+				Long.parseLong(args[1]), Integer.parseInt(args[2]));
+		ShardCoordinator coordinator = new ShardCoordinator(job, 0);
+		try {
+			coordinator.start();
+			List<Process> workers = coordinator.launchWorkers(Integer.parseInt(args[0]));
+			Histogram histogram = coordinator.await(workers, MAX_RELAUNCHES);
+			for (Process worker : workers) {
+				worker.waitFor();
+			}
+			System.out.print(histogram);
+			System.out.println("割り当て直したシャード: " + coordinator.getRequeuedCount());
+		} finally {
+			coordinator.close();
+		}
+	}
+}
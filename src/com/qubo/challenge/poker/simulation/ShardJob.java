@@ -0,0 +1,141 @@
+package com.qubo.challenge.poker.simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.metrics.Events;
+
+/**
+ * 複数のプロセスで分担するシミュレーションの内容を表したクラス。<br />
+ * 全体のラウンドを{@code shardSize}ずつのシャードに分け、シャード番号からラウンドの範囲が決まる。
+ * 各ラウンドのシードは最初のシードとラウンド番号だけから決まるので、
+ * どのワーカーがどの順番でシャードを処理しても、結果は同じになる。
+ * @author Qubo
+ */
+public class ShardJob {
+	/** 期待値最大の戦略を表す識別子 */
+	public static final String POLICY_EXPECTED_VALUE = "ExpectedValue";
+
+	private final int jokerCount;
+	private final int changeCount;
+	private final String policyName;
+	private final long seed;
+	private final long rounds;
+	private final int shardSize;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param jokerCount ジョーカーの枚数
+	 * @param changeCount 交換できる回数
+	 * @param policyName 戦略の識別子（{@link StandardPolicy}の定数名か、{@link #POLICY_EXPECTED_VALUE}）
+	 * @param seed 最初のシード
+	 * @param rounds 全体のラウンド数
+	 * @param shardSize 一つのシャードのラウンド数
+	 * @throws IllegalArgumentException 引数がおかしい場合に発生
+	 */
+	public ShardJob(int jokerCount, int changeCount, String policyName, long seed, long rounds, int shardSize) {
+		if (jokerCount < 0 || jokerCount > Deck.JOKER_COUNT_MAX) throw new IllegalArgumentException(Deck.ERROR_JOKER_COUNT_RANGE);
+		if (changeCount < 0) throw new IllegalArgumentException(Tournament.ERROR_CHANGE_COUNT_RANGE);
+		if (rounds < 0 || shardSize <= 0) throw new IllegalArgumentException("ラウンド数とシャードの大きさの指定がおかしいです！");
+		createPolicy(policyName);
+		this.jokerCount = jokerCount;
+		this.changeCount = changeCount;
+		this.policyName = policyName;
+		this.seed = seed;
+		this.rounds = rounds;
+		this.shardSize = shardSize;
+	}
+
+	/**
+	 * ジョーカーの枚数を取得する
+	 * @return ジョーカーの枚数
+	 */
+	public int getJokerCount() { return jokerCount; }
+	/**
+	 * 交換できる回数を取得する
+	 * @return 交換できる回数
+	 */
+	public int getChangeCount() { return changeCount; }
+	/**
+	 * 戦略の識別子を取得する
+	 * @return 戦略の識別子
+	 */
+	public String getPolicyName() { return policyName; }
+	/**
+	 * 全体のラウンド数を取得する
+	 * @return ラウンド数
+	 */
+	public long getRounds() { return rounds; }
+	/**
+	 * シャードの数を取得する
+	 * @return シャードの数
+	 */
+	public int getShardCount() { return (int) ((rounds + shardSize - 1) / shardSize); }
+
+	/**
+	 * 一つのシャードのシミュレーションを行う
+	 * @param shard シャード番号
+	 * @param policy 戦略（{@link #createPolicy()}で作ったもの）
+	 * @return シャードの結果
+	 */
+	public Histogram simulate(int shard, DrawPolicy policy) {
+		Histogram histogram = new Histogram();
+		long end = Math.min(rounds, (shard + 1) * (long) shardSize);
+		long event = Events.begin(Tournament.BATCH_EVENT);
+		try {
+			for (long round = shard * (long) shardSize; round < end; round++) {
+				histogram.add(Tournament.play(policy, new Deck(jokerCount, new Random(Tournament.seedOf(seed, round))), changeCount));
+			}
+		} catch (CardException e) {
+			throw new IllegalStateException(e);
+		}
+		Events.commit(Tournament.BATCH_EVENT, event, jokerCount, changeCount, policyName, histogram.getTotal());
+		return histogram;
+	}
+	/**
+	 * 戦略のインスタンスを作る
+	 * @return 戦略
+	 */
+	public DrawPolicy createPolicy() { return createPolicy(policyName); }
+	/**
+	 * 識別子から戦略のインスタンスを作る
+	 * @param policyName 戦略の識別子
+	 * @return 戦略
+	 * @throws IllegalArgumentException 識別子に対応する戦略が無い場合に発生
+	 */
+	private static DrawPolicy createPolicy(String policyName) {
+		if (POLICY_EXPECTED_VALUE.equals(policyName)) return new ExpectedValuePolicy();
+		return StandardPolicy.valueOf(policyName);
+	}
+
+	/**
+	 * 内容を書き出す
+	 * @param out 出力先
+	 * @throws IOException 書き込みに失敗した場合に発生
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(jokerCount);
+		out.writeInt(changeCount);
+		out.writeUTF(policyName);
+		out.writeLong(seed);
+		out.writeLong(rounds);
+		out.writeInt(shardSize);
+	}
+	/**
+	 * {@link #writeTo(DataOutput)}で書き出した内容を読み込む
+	 * @param in 入力元
+	 * @return シミュレーションの内容
+	 * @throws IOException 読み込みに失敗した場合、内容がおかしい場合に発生
+	 */
+	public static ShardJob readFrom(DataInput in) throws IOException {
+		try {
+			return new ShardJob(in.readInt(), in.readInt(), in.readUTF(), in.readLong(), in.readLong(), in.readInt());
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.qubo.challenge.poker.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * {@link ShardCoordinator}に接続し、割り当てられたシャードのシミュレーションを行って結果を返すクラス。
+ * @author Qubo
+ */
+public class ShardWorker {
+	private ShardWorker() { }
+
+	/**
+	 * コーディネーターに接続し、終了を指示されるまでシャードを処理する
+	 * @param host コーディネーターのホスト
+	 * @param port コーディネーターのポート番号
+	 * @return 処理したシャードの数
+	 * @throws IOException 通信に失敗した場合に発生
+	 */
+	public static int run(String host, int port) throws IOException {
+		Socket socket = new Socket(host, port);
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			if (in.readInt() != ShardCoordinator.MAGIC) throw new IOException(ShardCoordinator.ERROR_PROTOCOL);
+			ShardJob job = ShardJob.readFrom(in);
+			DrawPolicy policy = job.createPolicy();
+			int processed = 0;
+			while (true) {
+				byte command = in.readByte();
+				if (command == ShardCoordinator.COMMAND_SHUTDOWN) return processed;
+				if (command != ShardCoordinator.COMMAND_ASSIGN) throw new IOException(ShardCoordinator.ERROR_PROTOCOL);
+				int shard = in.readInt();
+				Histogram histogram = job.simulate(shard, policy);
+				out.writeInt(shard);
+				histogram.writeTo(out);
+				out.flush();
+				processed++;
+			}
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * ワーカーとして起動する。<br />
+	 * 引数：コーディネーターのホスト ポート番号
+	 * @param args コマンドライン引数
+	 * @throws IOException 通信に失敗した場合に発生
+	 */
+	public static void main(String[] args) throws IOException {
+		run(args[0], Integer.parseInt(args[1]));
+	}
+}
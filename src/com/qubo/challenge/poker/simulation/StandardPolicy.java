@@ -0,0 +1,123 @@
+package com.qubo.challenge.poker.simulation;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.Suit;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * 手札だけを見て交換するカードを決める、単純な戦略を定義した列挙型。
+ * どの戦略も、ストレート以上の役が既にできている場合は交換しない。
+ * @author Qubo
+ */
+public enum StandardPolicy implements DrawPolicy {
+	/** 一切交換しない */
+	StandPat {
+		@Override public String getName() { return NAME_STAND_PAT; }
+		@Override public int[] choose(Hand hand, Deck deck, int remainingChanges) { return NONE; }
+	},
+	/** 同じ数字の組とジョーカーを残し、残りを全て交換する */
+	KeepPairs {
+		@Override public String getName() { return NAME_KEEP_PAIRS; }
+		@Override public int[] choose(Hand hand, Deck deck, int remainingChanges) {
+			if (isMadeHand(hand)) return NONE;
+			return keepPairs(hand, NO_HIGH_CARD);
+		}
+	},
+	/** 同じマークが3枚以上（ジョーカーを含む）あればフラッシュを狙い、そうでなければ{@link #KeepPairs}と同じく交換する */
+	ChaseFlush {
+		@Override public String getName() { return NAME_CHASE_FLUSH; }
+		@Override public int[] choose(Hand hand, Deck deck, int remainingChanges) {
+			if (isMadeHand(hand)) return NONE;
+			int[] suits = new int[Suit.values().length];
+			Suit best = null;
+			for (Card card : hand) {
+				Suit suit = card.getSuit();
+				if (suit != Suit.Joker && (++suits[suit.ordinal()] > (best == null ? 0 : suits[best.ordinal()]))) {
+					best = suit;
+				}
+			}
+			if (best == null || suits[best.ordinal()] + hand.getJoker() < 3) return keepPairs(hand, NO_HIGH_CARD);
+			boolean[] discards = new boolean[5];
+			for (int i = 0; i < 5; i++) {
+				Suit suit = hand.get(i).getSuit();
+				discards[i] = (suit != Suit.Joker && suit != best);
+			}
+			return toIndices(discards);
+		}
+	},
+	/** 同じ数字の組とジョーカーに加え、絵札とエースも残す */
+	HoldJokers {
+		@Override public String getName() { return NAME_HOLD_JOKERS; }
+		@Override public int[] choose(Hand hand, Deck deck, int remainingChanges) {
+			if (isMadeHand(hand)) return NONE;
+			return keepPairs(hand, HIGH_CARD_NUMBER);
+		}
+	},
+	;
+	/** 一切交換しない戦略の名前 */
+	public static final String NAME_STAND_PAT = "交換しない";
+	/** 組を残す戦略の名前 */
+	public static final String NAME_KEEP_PAIRS = "組を残す";
+	/** フラッシュを狙う戦略の名前 */
+	public static final String NAME_CHASE_FLUSH = "フラッシュ狙い";
+	/** ジョーカーと絵札を残す戦略の名前 */
+	public static final String NAME_HOLD_JOKERS = "ジョーカーと絵札を残す";
+	/** 交換しない場合に返す配列 */
+	private static final int[] NONE = new int[0];
+	/** {@link #HoldJokers}が残す、最も小さい数字（ジャック） */
+	private static final int HIGH_CARD_NUMBER = 11;
+	/** 組になっていないカードを一枚も残さない場合に指定する数字 */
+	private static final int NO_HIGH_CARD = 15;
+
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Enum#toString()
+	 */
+	@Override
+	public String toString() { return getName(); }
+
+	/**
+	 * ストレート以上の役が既にできているかどうかを取得する
+	 * @param hand 手札
+	 * @return ストレート以上の役ができているかどうか
+	 */
+	private static boolean isMadeHand(Hand hand) {
+		return TypeOfHand.getTypeOfHand(hand).ordinal() <= TypeOfHand.Straight.ordinal();
+	}
+	/**
+	 * ジョーカーと同じ数字の組、及び{@code keepFrom}以上の数字のカードを残し、残りの位置を返す
+	 * @param hand 手札
+	 * @param keepFrom 組になっていなくても残す最小の数字
+	 * @return 交換するカードの位置
+	 */
+	private static int[] keepPairs(Hand hand, int keepFrom) {
+		int[] numbers = new int[15];
+		for (Card card : hand) {
+			if (card.getSuit() != Suit.Joker) numbers[card.getRawNumber()]++;
+		}
+		boolean[] discards = new boolean[5];
+		for (int i = 0; i < 5; i++) {
+			Card card = hand.get(i);
+			discards[i] = card.getSuit() != Suit.Joker && numbers[card.getRawNumber()] < 2 && card.getRawNumber() < keepFrom;
+		}
+		return toIndices(discards);
+	}
+	/**
+	 * 交換するかどうかのフラグを、位置の配列に変換する
+	 * @param discards 位置ごとの交換するかどうかのフラグ
+	 * @return 交換するカードの位置
+	 */
+	static int[] toIndices(boolean[] discards) {
+		int count = 0;
+		for (boolean discard : discards) {
+			if (discard) count++;
+		}
+		int[] indices = new int[count];
+		for (int i = 0, j = 0; i < discards.length; i++) {
+			if (discards[i]) indices[j++] = i;
+		}
+		return indices;
+	}
+}
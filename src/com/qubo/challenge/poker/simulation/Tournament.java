@@ -0,0 +1,153 @@
+package com.qubo.challenge.poker.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.TypeOfHand;
+import com.qubo.metrics.EventType;
+import com.qubo.metrics.Events;
+
+/**
+ * 複数の交換の戦略を、同じシードのデッキで対戦させるクラス。<br />
+ * 各ラウンドでは、全ての戦略に同じシードの{@link Deck}を与えるので、配られる手札と交換で引くカードの並びは戦略間で共通になる
+ * （共通乱数法）。そのため、最初に指定した戦略（基準）との差は、戦略ごとに独立に試行した場合よりずっと小さな誤差で求まる。
+ * ラウンドは一定数ずつまとめて、複数のスレッドで並列に処理する。
+ * @author Qubo
+ */
+public class Tournament {
+	/** 戦略が指定されていない場合に発生する例外のメッセージ */
+	public static final String ERROR_NO_POLICY = "戦略を一つ以上指定してください！";
+	/** 交換回数の指定がおかしい場合に発生する例外のメッセージ */
+	public static final String ERROR_CHANGE_COUNT_RANGE = "交換回数には0以上の値を指定してください！";
+	/** 一つのスレッドがまとめて処理するラウンド数 */
+	static final int CHUNK_SIZE = 1024;
+	/** まとめて処理したラウンドのイベント */
+	static final EventType BATCH_EVENT = Events.type("poker.simulation.batch");
+	/** ラウンド番号からシードを作るための定数 */
+	private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+	private final int jokerCount;
+	private final int changeCount;
+	private final PayoutTable payoutTable;
+	private final DrawPolicy[] policies;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param jokerCount ジョーカーの枚数
+	 * @param changeCount 交換できる回数
+	 * @param payoutTable 配当
+	 * @param policies 対戦させる戦略（最初のものが基準になる）
+	 * @throws IllegalArgumentException ジョーカーの枚数や交換回数がおかしい場合、戦略が指定されていない場合に発生
+	 */
+	public Tournament(int jokerCount, int changeCount, PayoutTable payoutTable, List<? extends DrawPolicy> policies) {
+		if (jokerCount < 0 || jokerCount > Deck.JOKER_COUNT_MAX) throw new IllegalArgumentException(Deck.ERROR_JOKER_COUNT_RANGE);
+		if (changeCount < 0) throw new IllegalArgumentException(ERROR_CHANGE_COUNT_RANGE);
+		if (policies.isEmpty()) throw new IllegalArgumentException(ERROR_NO_POLICY);
+		this.jokerCount = jokerCount;
+		this.changeCount = changeCount;
+		this.payoutTable = payoutTable;
+		this.policies = policies.toArray(new DrawPolicy[policies.size()]);
+	}
+	/**
+	 * 標準の配当を使うコンストラクタ
+	 * @param jokerCount ジョーカーの枚数
+	 * @param changeCount 交換できる回数
+	 * @param policies 対戦させる戦略（最初のものが基準になる）
+	 */
+	public Tournament(int jokerCount, int changeCount, DrawPolicy... policies) {
+		this(jokerCount, changeCount, PayoutTable.DEFAULT, Arrays.asList(policies));
+	}
+
+	/**
+	 * 対戦を行う。同じ引数で呼び出せば、スレッド数に関わらず同じ結果になる。
+	 * @param seed 最初のシード
+	 * @param rounds ラウンド数
+	 * @param threads 使用するスレッド数
+	 * @return 対戦結果
+	 */
+	public TournamentResult run(final long seed, final int rounds, int threads) {
+		final AtomicInteger nextChunk = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<TournamentResult>> futures = new ArrayList<Future<TournamentResult>>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(new Callable<TournamentResult>() {
+					@Override public TournamentResult call() throws CardException {
+						TournamentResult partial = new TournamentResult(policies);
+						int chunk;
+						while ((chunk = nextChunk.getAndIncrement()) * (long) CHUNK_SIZE < rounds) {
+							int end = (int) Math.min(rounds, (chunk + 1) * (long) CHUNK_SIZE);
+							long event = Events.begin(BATCH_EVENT);
+							for (int round = chunk * CHUNK_SIZE; round < end; round++) {
+								playRound(seedOf(seed, round), partial);
+							}
+							Events.commit(BATCH_EVENT, event, jokerCount, changeCount, null, end - chunk * CHUNK_SIZE);
+						}
+						return partial;
+					}
+				}));
+			}
+			TournamentResult result = new TournamentResult(policies);
+			for (Future<TournamentResult> future : futures) {
+				result.merge(future.get());
+			}
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * 一つのシードで、全ての戦略を対戦させる
+	 * @param seed シード
+	 * @param result 結果の追加先
+	 * @throws CardException デッキの生成に失敗した場合に発生
+	 */
+	private void playRound(long seed, TournamentResult result) throws CardException {
+		TypeOfHand[] typeOfHands = new TypeOfHand[policies.length];
+		for (int p = 0; p < policies.length; p++) {
+			typeOfHands[p] = play(policies[p], new Deck(jokerCount, new Random(seed)), changeCount);
+		}
+		result.add(typeOfHands, payoutTable);
+	}
+	/**
+	 * 最初のシードとラウンド番号から、そのラウンドのシードを求める
+	 * @param seed 最初のシード
+	 * @param round ラウンド番号
+	 * @return ラウンドのシード
+	 */
+	static long seedOf(long seed, long round) { return seed + round * SEED_INCREMENT; }
+	/**
+	 * 一つの戦略で、配られてから勝負するまでを行う
+	 * @param policy 戦略
+	 * @param deck デッキ
+	 * @param changeCount 交換できる回数
+	 * @return 最終的な役
+	 * @throws CardException カードが足りない場合に発生
+	 */
+	static TypeOfHand play(DrawPolicy policy, Deck deck, int changeCount) throws CardException {
+		Hand hand = deck.deal();
+		for (int remaining = changeCount; remaining > 0; remaining--) {
+			int[] indices = policy.choose(hand, deck, remaining);
+			if (indices.length == 0 || indices.length > deck.getRemainings()) break;
+			deck.change(hand, indices);
+		}
+		return TypeOfHand.getTypeOfHand(hand);
+	}
+}
@@ -0,0 +1,212 @@
+package com.qubo.challenge.poker.simulation;
+
+import java.util.Locale;
+
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * {@link Tournament}の対戦結果を表したクラス。<br />
+ * 戦略ごとの役の出現数と配当に加えて、基準（最初の戦略）とのラウンドごとの差を集計している。
+ * 同じラウンドの結果同士の差（対応のある差）を使うので、標準誤差は独立に試行した場合の値
+ * （{@link #getUnpairedStandardError(int, TypeOfHand)}）よりも小さくなる。
+ * @author Qubo
+ */
+public class TournamentResult {
+	private final DrawPolicy[] policies;
+	private long rounds;
+	/** 戦略・役ごとの出現数 */
+	private final long[][] counts;
+	/** 戦略・役ごとの、基準との差の二乗和（差は-1, 0, 1のいずれかなので、差が0でなかった回数に等しい） */
+	private final long[][] squaredDeltas;
+	/** 戦略ごとの配当の合計 */
+	private final long[] payouts;
+	/** 戦略ごとの配当の二乗和 */
+	private final long[] squaredPayouts;
+	/** 戦略ごとの、基準との配当の差の二乗和 */
+	private final long[] squaredPayoutDeltas;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param policies 対戦させた戦略
+	 */
+	TournamentResult(DrawPolicy[] policies) {
+		int types = TypeOfHand.values().length;
+		this.policies = policies;
+		this.counts = new long[policies.length][types];
+		this.squaredDeltas = new long[policies.length][types];
+		this.payouts = new long[policies.length];
+		this.squaredPayouts = new long[policies.length];
+		this.squaredPayoutDeltas = new long[policies.length];
+	}
+
+	/**
+	 * 1ラウンド分の結果を追加する
+	 * @param typeOfHands 戦略ごとの最終的な役
+	 * @param payoutTable 配当
+	 */
+	void add(TypeOfHand[] typeOfHands, PayoutTable payoutTable) {
+		rounds++;
+		int base = typeOfHands[0].ordinal();
+		long basePayout = payoutTable.getPayout(typeOfHands[0]);
+		for (int p = 0; p < policies.length; p++) {
+			int type = typeOfHands[p].ordinal();
+			long payout = payoutTable.getPayout(typeOfHands[p]);
+			counts[p][type]++;
+			if (type != base) {
+				squaredDeltas[p][type]++;
+				squaredDeltas[p][base]++;
+			}
+			payouts[p] += payout;
+			squaredPayouts[p] += payout * payout;
+			squaredPayoutDeltas[p] += (payout - basePayout) * (payout - basePayout);
+		}
+	}
+	/**
+	 * 他の集計結果をこのインスタンスに加える
+	 * @param other 他の集計結果
+	 */
+	void merge(TournamentResult other) {
+		rounds += other.rounds;
+		for (int p = 0; p < policies.length; p++) {
+			for (int t = 0; t < counts[p].length; t++) {
+				counts[p][t] += other.counts[p][t];
+				squaredDeltas[p][t] += other.squaredDeltas[p][t];
+			}
+			payouts[p] += other.payouts[p];
+			squaredPayouts[p] += other.squaredPayouts[p];
+			squaredPayoutDeltas[p] += other.squaredPayoutDeltas[p];
+		}
+	}
+
+	/**
+	 * ラウンド数を取得する
+	 * @return ラウンド数
+	 */
+	public long getRounds() { return rounds; }
+	/**
+	 * 戦略の数を取得する
+	 * @return 戦略の数
+	 */
+	public int getPolicyCount() { return policies.length; }
+	/**
+	 * 戦略を取得する
+	 * @param policy 戦略の番号
+	 * @return 戦略
+	 */
+	public DrawPolicy getPolicy(int policy) { return policies[policy]; }
+	/**
+	 * 役の出現数を取得する
+	 * @param policy 戦略の番号
+	 * @param typeOfHand 役
+	 * @return 出現数
+	 */
+	public long getCount(int policy, TypeOfHand typeOfHand) { return counts[policy][typeOfHand.ordinal()]; }
+	/**
+	 * 役の出現率を取得する
+	 * @param policy 戦略の番号
+	 * @param typeOfHand 役
+	 * @return 出現率
+	 */
+	public double getRate(int policy, TypeOfHand typeOfHand) { return (double) getCount(policy, typeOfHand) / rounds; }
+	/**
+	 * 役の出現率の、基準との差を取得する
+	 * @param policy 戦略の番号
+	 * @param typeOfHand 役
+	 * @return 出現率の差
+	 */
+	public double getDelta(int policy, TypeOfHand typeOfHand) { return getRate(policy, typeOfHand) - getRate(0, typeOfHand); }
+	/**
+	 * 役の出現率の、基準との差の標準誤差を、ラウンドごとの対応のある差から求める
+	 * @param policy 戦略の番号
+	 * @param typeOfHand 役
+	 * @return 標準誤差
+	 */
+	public double getStandardError(int policy, TypeOfHand typeOfHand) {
+		return standardError(getDelta(policy, typeOfHand), squaredDeltas[policy][typeOfHand.ordinal()]);
+	}
+	/**
+	 * 役の出現率の、基準との差の標準誤差を、戦略ごとに独立に試行したものとして求める。
+	 * {@link #getStandardError(int, TypeOfHand)}と比べることで、共通乱数による分散の削減の効果が分かる。
+	 * @param policy 戦略の番号
+	 * @param typeOfHand 役
+	 * @return 標準誤差
+	 */
+	public double getUnpairedStandardError(int policy, TypeOfHand typeOfHand) {
+		double rate = getRate(policy, typeOfHand), baseRate = getRate(0, typeOfHand);
+		return Math.sqrt((rate * (1 - rate) + baseRate * (1 - baseRate)) / rounds);
+	}
+	/**
+	 * 1ラウンドあたりの配当の平均を取得する
+	 * @param policy 戦略の番号
+	 * @return 配当の平均
+	 */
+	public double getMeanPayout(int policy) { return (double) payouts[policy] / rounds; }
+	/**
+	 * 1ラウンドあたりの配当の、基準との差を取得する
+	 * @param policy 戦略の番号
+	 * @return 配当の差
+	 */
+	public double getPayoutDelta(int policy) { return getMeanPayout(policy) - getMeanPayout(0); }
+	/**
+	 * 1ラウンドあたりの配当の、基準との差の標準誤差を、ラウンドごとの対応のある差から求める
+	 * @param policy 戦略の番号
+	 * @return 標準誤差
+	 */
+	public double getPayoutStandardError(int policy) { return standardError(getPayoutDelta(policy), squaredPayoutDeltas[policy]); }
+	/**
+	 * 1ラウンドあたりの配当の、基準との差の標準誤差を、戦略ごとに独立に試行したものとして求める
+	 * @param policy 戦略の番号
+	 * @return 標準誤差
+	 */
+	public double getUnpairedPayoutStandardError(int policy) {
+		return Math.sqrt((variance(policy) + variance(0)) / rounds);
+	}
+
+	/**
+	 * 平均と二乗和から、平均の標準誤差を求める
+	 * @param mean 平均
+	 * @param squaredSum 二乗和
+	 * @return 標準誤差
+	 */
+	private double standardError(double mean, double squaredSum) {
+		if (rounds < 2) return Double.NaN;
+		double variance = (squaredSum - rounds * mean * mean) / (rounds - 1);
+		return Math.sqrt(Math.max(variance, 0) / rounds);
+	}
+	/**
+	 * 配当の不偏分散を求める
+	 * @param policy 戦略の番号
+	 * @return 配当の分散
+	 */
+	private double variance(int policy) {
+		if (rounds < 2) return Double.NaN;
+		double mean = getMeanPayout(policy);
+		return Math.max((squaredPayouts[policy] - rounds * mean * mean) / (rounds - 1), 0);
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(String.format(Locale.ROOT, "%d ラウンド、基準: %s%n", rounds, policies[0].getName()));
+		for (int p = 0; p < policies.length; p++) {
+			builder.append(String.format(Locale.ROOT, "[%s] 平均配当 %.4f", policies[p].getName(), getMeanPayout(p)));
+			if (p > 0) {
+				builder.append(String.format(Locale.ROOT, "（差 %+.4f ± %.4f、独立試行なら ± %.4f）",
+						getPayoutDelta(p), getPayoutStandardError(p), getUnpairedPayoutStandardError(p)));
+			}
+			builder.append(String.format("%n"));
+			for (TypeOfHand typeOfHand : TypeOfHand.ALL) {
+				builder.append(String.format(Locale.ROOT, "  %s %.5f", typeOfHand.getName(), getRate(p, typeOfHand)));
+				if (p > 0) {
+					builder.append(String.format(Locale.ROOT, "（差 %+.5f ± %.5f）", getDelta(p, typeOfHand), getStandardError(p, typeOfHand)));
+				}
+				builder.append(String.format("%n"));
+			}
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,2 @@
+/** 交換の戦略同士を同じ条件で対戦させ、結果を比較するためのパッケージ */
+package com.qubo.challenge.poker.simulation;
@@ -0,0 +1,58 @@
+package com.qubo.metrics;
+
+import com.qubo.StripedLongArray;
+
+/**
+ * 回数を数える計測値。計測が無効な場合は何もしない。
+ * @author Qubo
+ */
+public class Counter implements Metric {
+	private final String name;
+	private final StripedLongArray count = new StripedLongArray(1);
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param name 計測値の名前
+	 */
+	Counter(String name) {
+		this.name = name;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.metrics.Metric#getName()
+	 */
+	@Override
+	public String getName() { return name; }
+	/** 回数を1増やす */
+	public void increment() { add(1); }
+	/**
+	 * 回数を増やす
+	 * @param delta 増やす回数
+	 */
+	public void add(long delta) {
+		if (Metrics.isEnabled()) count.add(0, delta);
+	}
+	/**
+	 * 現在の回数を取得する
+	 * @return 回数
+	 */
+	public long get() { return count.get(0); }
+
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.metrics.Metric#appendText(java.lang.StringBuilder)
+	 */
+	@Override
+	public void appendText(StringBuilder out) {
+		out.append(name).append(".count ").append(get()).append('\n');
+	}
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.metrics.Metric#appendJson(java.lang.StringBuilder)
+	 */
+	@Override
+	public void appendJson(StringBuilder out) {
+		out.append("{\"type\":\"counter\",\"count\":").append(get()).append('}');
+	}
+}
@@ -0,0 +1,78 @@
+package com.qubo.metrics;
+
+/**
+ * 記録されたイベントを表したクラス。値は全て不変である。
+ * @author Qubo
+ */
+public final class Event {
+	private final EventType type;
+	private final long start;
+	private final long duration;
+	private final String threadName;
+	private final int jokerCount;
+	private final int exchangeCount;
+	private final Object result;
+	private final long count;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param type イベントの種類
+	 * @param start 開始時刻（{@link System#nanoTime()}の値）
+	 * @param duration 処理時間（ナノ秒）
+	 * @param jokerCount ジョーカーの枚数
+	 * @param exchangeCount 交換した枚数または回数
+	 * @param result 処理の結果（役など。無い場合は{@code null}）
+	 * @param count 処理した件数（一括処理の場合）
+	 */
+	Event(EventType type, long start, long duration, int jokerCount, int exchangeCount, Object result, long count) {
+		this.type = type;
+		this.start = start;
+		this.duration = duration;
+		this.threadName = Thread.currentThread().getName();
+		this.jokerCount = jokerCount;
+		this.exchangeCount = exchangeCount;
+		this.result = result;
+		this.count = count;
+	}
+
+	/**
+	 * イベントの種類を取得する
+	 * @return イベントの種類
+	 */
+	public EventType getType() { return type; }
+	/**
+	 * 開始時刻を取得する
+	 * @return 開始時刻（{@link System#nanoTime()}の値）
+	 */
+	public long getStart() { return start; }
+	/**
+	 * 処理時間を取得する
+	 * @return 処理時間（ナノ秒）
+	 */
+	public long getDuration() { return duration; }
+	/**
+	 * イベントが発生したスレッドの名前を取得する
+	 * @return スレッドの名前
+	 */
+	public String getThreadName() { return threadName; }
+	/**
+	 * ジョーカーの枚数を取得する
+	 * @return ジョーカーの枚数
+	 */
+	public int getJokerCount() { return jokerCount; }
+	/**
+	 * 交換した枚数または回数を取得する
+	 * @return 交換した枚数または回数
+	 */
+	public int getExchangeCount() { return exchangeCount; }
+	/**
+	 * 処理の結果を取得する
+	 * @return 処理の結果（無い場合は{@code null}）
+	 */
+	public Object getResult() { return result; }
+	/**
+	 * 処理した件数を取得する
+	 * @return 処理した件数
+	 */
+	public long getCount() { return count; }
+}
@@ -0,0 +1,40 @@
+package com.qubo.metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * イベントを一行ずつテキストで書き出す{@link EventSink}。<br />
+ * 各行の先頭にはJVMの起動からの経過時間（秒）を付けるので、
+ * {@code -XX:+PrintGCTimeStamps}などで出力したGCやセーフポイントのログと時刻を突き合わせることができる。
+ * @author Qubo
+ */
+public class EventLog implements EventSink {
+	/** {@link System#nanoTime()}の値から、JVMの起動からの経過時間を求めるための差分 */
+	private static final long UPTIME_ORIGIN = System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1000000L;
+
+	private final PrintStream out;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param out 出力先
+	 */
+	public EventLog(PrintStream out) {
+		this.out = out;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.metrics.EventSink#accept(com.qubo.metrics.Event)
+	 */
+	@Override
+	public void accept(Event event) {
+		String line = String.format(Locale.ROOT, "%.6f: %s duration_ns=%d thread=%s jokers=%d exchanges=%d result=%s count=%d",
+				(event.getStart() - UPTIME_ORIGIN) / 1e9, event.getType().getName(), event.getDuration(), event.getThreadName(),
+				event.getJokerCount(), event.getExchangeCount(), event.getResult(), event.getCount());
+		synchronized (out) {
+			out.println(line);
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package com.qubo.metrics;
+
+/**
+ * 記録されたイベントの出力先を表したインタフェース。
+ * 複数のスレッドから同時に呼ばれるので、実装はスレッドセーフにすること。
+ * @author Qubo
+ */
+public interface EventSink {
+	/**
+	 * イベントを受け取る
+	 * @param event イベント
+	 */
+	void accept(Event event);
+}
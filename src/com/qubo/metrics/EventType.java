@@ -0,0 +1,97 @@
+package com.qubo.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Events}で記録するイベントの種類と、その記録条件を表したクラス。<br />
+ * 処理時間が閾値以上のイベントと、サンプリング周期ごとに一回のイベントだけを記録する。
+ * インスタンスは{@link Events#type(String)}で取得する。
+ * @author Qubo
+ */
+public final class EventType {
+	/** 標準の閾値（1ミリ秒） */
+	public static final long DEFAULT_THRESHOLD = 1000000L;
+
+	private final String name;
+	private volatile boolean enabled = true;
+	private volatile long threshold = DEFAULT_THRESHOLD;
+	private volatile int samplingPeriod = 0;
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param name イベントの名前
+	 */
+	EventType(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * イベントの名前を取得する
+	 * @return イベントの名前
+	 */
+	public String getName() { return name; }
+	/**
+	 * このイベントを記録するかどうかを取得する
+	 * @return 記録するかどうか
+	 */
+	public boolean isEnabled() { return enabled; }
+	/**
+	 * このイベントを記録するかどうかを設定する
+	 * @param enabled 記録するかどうか
+	 * @return このインスタンス
+	 */
+	public EventType setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		return this;
+	}
+	/**
+	 * 必ず記録する処理時間の閾値を取得する
+	 * @return 閾値（ナノ秒）
+	 */
+	public long getThreshold() { return threshold; }
+	/**
+	 * 必ず記録する処理時間の閾値を設定する。0にすると全てのイベントを記録する。
+	 * @param threshold 閾値（ナノ秒）
+	 * @return このインスタンス
+	 */
+	public EventType setThreshold(long threshold) {
+		this.threshold = threshold;
+		return this;
+	}
+	/**
+	 * 閾値未満のイベントを記録する周期を取得する
+	 * @return 周期（0ならサンプリングしない）
+	 */
+	public int getSamplingPeriod() { return samplingPeriod; }
+	/**
+	 * 閾値未満のイベントを、{@code samplingPeriod}回に一回記録するように設定する
+	 * @param samplingPeriod 周期（0ならサンプリングしない）
+	 * @return このインスタンス
+	 */
+	public EventType setSamplingPeriod(int samplingPeriod) {
+		this.samplingPeriod = samplingPeriod;
+		return this;
+	}
+
+	/**
+	 * 処理時間から、イベントを記録するかどうかを決める。
+	 * サンプリングの回数は、閾値未満のイベントだけを数える。
+	 * @param duration 処理時間（ナノ秒）
+	 * @return 記録するかどうか
+	 */
+	boolean shouldRecord(long duration) {
+		if (duration >= threshold) {
+			return true;
+		}
+		int period = samplingPeriod;
+		return period > 0 && sequence.getAndIncrement() % period == 0;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() { return name; }
+}
@@ -0,0 +1,87 @@
+package com.qubo.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 処理の区切り（配る、交換する、役を判定する、など）ごとのイベントを記録するクラス。<br />
+ * Java Flight Recorderのカスタムイベントと同じく、開始時に{@link #begin(EventType)}を、終了時に{@code commit}を呼ぶ。
+ * 処理時間が{@link EventType#getThreshold()}以上のものと、サンプリング周期ごとのものだけが{@link EventSink}に渡される。
+ * 出力先が設定されていない場合、計測箇所のコストは{@code volatile}な値を一度読むことだけである。
+ * <pre>
+ * private static final EventType DEAL = Events.type("poker.deal");
+ * ...
+ * long start = Events.begin(DEAL);
+ * // 計測する処理
+ * Events.commit(DEAL, start, jokerCount, 0, null);
+ * </pre>
+ * @author Qubo
+ */
+public final class Events {
+	private static volatile EventSink sink = null;
+	private static final ConcurrentMap<String, EventType> types = new ConcurrentHashMap<String, EventType>();
+
+	private Events() { }
+
+	/**
+	 * イベントの種類を取得する。同じ名前であれば同じインスタンスを返す。
+	 * @param name イベントの名前
+	 * @return イベントの種類
+	 */
+	public static EventType type(String name) {
+		EventType type = types.get(name);
+		if (type == null) {
+			EventType created = new EventType(name);
+			type = types.putIfAbsent(name, created);
+			if (type == null) type = created;
+		}
+		return type;
+	}
+	/**
+	 * イベントの出力先を設定する
+	 * @param sink 出力先（{@code null}なら記録しない）
+	 */
+	public static void setSink(EventSink sink) { Events.sink = sink; }
+	/**
+	 * イベントの出力先を取得する
+	 * @return 出力先（記録しない場合は{@code null}）
+	 */
+	public static EventSink getSink() { return sink; }
+
+	/**
+	 * イベントの計測を開始する
+	 * @param type イベントの種類
+	 * @return 開始時刻（記録しない場合は0）
+	 */
+	public static long begin(EventType type) {
+		return (sink != null && type.isEnabled()) ? System.nanoTime() : 0L;
+	}
+	/**
+	 * イベントを終了し、記録条件を満たしていれば出力先に渡す
+	 * @param type イベントの種類
+	 * @param start {@link #begin(EventType)}で取得した開始時刻（0なら何もしない）
+	 * @param jokerCount ジョーカーの枚数
+	 * @param exchangeCount 交換した枚数または回数
+	 * @param result 処理の結果（無い場合は{@code null}）
+	 */
+	public static void commit(EventType type, long start, int jokerCount, int exchangeCount, Object result) {
+		commit(type, start, jokerCount, exchangeCount, result, 1);
+	}
+	/**
+	 * 一括処理のイベントを終了し、記録条件を満たしていれば出力先に渡す
+	 * @param type イベントの種類
+	 * @param start {@link #begin(EventType)}で取得した開始時刻（0なら何もしない）
+	 * @param jokerCount ジョーカーの枚数
+	 * @param exchangeCount 交換回数
+	 * @param result 処理の結果（無い場合は{@code null}）
+	 * @param count 処理した件数
+	 */
+	public static void commit(EventType type, long start, int jokerCount, int exchangeCount, Object result, long count) {
+		if (start == 0) return;
+		long duration = System.nanoTime() - start;
+		EventSink current = sink;
+		if (current != null && type.shouldRecord(duration)) {
+			current.accept(new Event(type, start, duration, jokerCount, exchangeCount, result, count));
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package com.qubo.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.qubo.StripedLongArray;
+
+/**
+ * 処理時間（ナノ秒）の分布を記録する計測値。<br />
+ * HdrHistogramと同じく、値の大きさの桁（2のべき）ごとに{@value #SUB_BUCKETS}個の等間隔なバケットを持つ、
+ * 対数と線形を組み合わせたバケットで数えるので、どの大きさの値でも相対誤差は1/{@value #SUB_BUCKETS}以内に収まる。
+ * 記録はバケットへの加算だけで、ロックも割り当ても行わない。計測が無効な場合は何もしない。
+ * @author Qubo
+ */
+public class LatencyRecorder implements Metric {
+	/** 一つの桁あたりのバケット数を表すビット数 */
+	private static final int SUB_BITS = 4;
+	/** 一つの桁あたりのバケット数 */
+	static final int SUB_BUCKETS = 1 << SUB_BITS;
+	/** バケットの総数（{@code long}の全ての正の値を表せる数） */
+	static final int BUCKET_COUNT = (64 - SUB_BITS) * SUB_BUCKETS;
+	/** バケットの縞の数 */
+	private static final int STRIPES = 4;
+	/** 出力するパーセンタイル */
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+	private final String name;
+	private final StripedLongArray buckets = new StripedLongArray(BUCKET_COUNT, STRIPES);
+	private final StripedLongArray total = new StripedLongArray(1, STRIPES);
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param name 計測値の名前
+	 */
+	LatencyRecorder(String name) {
+		this.name = name;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.metrics.Metric#getName()
+	 */
+	@Override
+	public String getName() { return name; }
+	/**
+	 * {@link Metrics#start()}で取得した開始時刻からの経過時間を記録する。
+	 * 開始時刻が0（計測が無効だった）の場合は何もしない。
+	 * @param start 開始時刻
+	 */
+	public void recordSince(long start) {
+		if (start != 0) record(System.nanoTime() - start);
+	}
+	/**
+	 * 処理時間を記録する
+	 * @param nanos 処理時間（ナノ秒）
+	 */
+	public void record(long nanos) {
+		if (!Metrics.isEnabled()) return;
+		long value = Math.max(nanos, 0);
+		buckets.increment(bucketOf(value));
+		total.add(0, value);
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value)) { }
+	}
+
+	/**
+	 * 記録した回数を取得する
+	 * @return 記録した回数
+	 */
+	public long getCount() {
+		long count = 0;
+		for (long bucket : buckets.snapshot()) {
+			count += bucket;
+		}
+		return count;
+	}
+	/**
+	 * 最大の処理時間を取得する
+	 * @return 最大の処理時間（ナノ秒）
+	 */
+	public long getMax() { return max.get(); }
+	/**
+	 * 処理時間のパーセンタイルを取得する。値は、該当するバケットの上限である。
+	 * @param percentile パーセンタイル（0～100）
+	 * @return 処理時間（ナノ秒。記録が無い場合は0）
+	 */
+	public long getPercentile(double percentile) { return percentile(buckets.snapshot(), percentile); }
+
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.metrics.Metric#appendText(java.lang.StringBuilder)
+	 */
+	@Override
+	public void appendText(StringBuilder out) {
+		long[] snapshot = buckets.snapshot();
+		long count = count(snapshot);
+		out.append(name).append(".count ").append(count).append('\n');
+		out.append(name).append(".mean_ns ").append(count == 0 ? 0 : total.get(0) / count).append('\n');
+		for (double p : PERCENTILES) {
+			out.append(name).append(".p").append(label(p)).append("_ns ").append(percentile(snapshot, p)).append('\n');
+		}
+		out.append(name).append(".max_ns ").append(getMax()).append('\n');
+	}
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.metrics.Metric#appendJson(java.lang.StringBuilder)
+	 */
+	@Override
+	public void appendJson(StringBuilder out) {
+		long[] snapshot = buckets.snapshot();
+		long count = count(snapshot);
+		out.append("{\"type\":\"latency\",\"count\":").append(count);
+		out.append(",\"mean_ns\":").append(count == 0 ? 0 : total.get(0) / count);
+		for (double p : PERCENTILES) {
+			out.append(",\"p").append(label(p)).append("_ns\":").append(percentile(snapshot, p));
+		}
+		out.append(",\"max_ns\":").append(getMax()).append('}');
+	}
+
+	/**
+	 * 値が入るバケットの番号を求める
+	 * @param value 値（0以上）
+	 * @return バケットの番号
+	 */
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+	/**
+	 * バケットに入る最小の値を求める
+	 * @param bucket バケットの番号
+	 * @return 最小の値
+	 */
+	static long lowerBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+	}
+	/**
+	 * バケットの値からパーセンタイルを求める
+	 * @param snapshot バケットの値
+	 * @param percentile パーセンタイル
+	 * @return 該当するバケットの上限
+	 */
+	private static long percentile(long[] snapshot, double percentile) {
+		long count = count(snapshot);
+		if (count == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) return (i + 1 < BUCKET_COUNT) ? lowerBoundOf(i + 1) - 1 : Long.MAX_VALUE;
+		}
+		return Long.MAX_VALUE;
+	}
+	/**
+	 * バケットの値の合計を求める
+	 * @param snapshot バケットの値
+	 * @return 合計
+	 */
+	private static long count(long[] snapshot) {
+		long count = 0;
+		for (long bucket : snapshot) {
+			count += bucket;
+		}
+		return count;
+	}
+	/**
+	 * パーセンタイルを名前に使える文字列にする（99.9は999）
+	 * @param percentile パーセンタイル
+	 * @return 文字列
+	 */
+	private static String label(double percentile) {
+		return (percentile == Math.floor(percentile)) ? String.valueOf((long) percentile) : String.valueOf(percentile).replace(".", "");
+	}
+}
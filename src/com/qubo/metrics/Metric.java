@@ -0,0 +1,23 @@
+package com.qubo.metrics;
+
+/**
+ * {@link Metrics}に登録される計測値を表したインタフェース
+ * @author Qubo
+ */
+public interface Metric {
+	/**
+	 * 計測値の名前を取得する
+	 * @return 計測値の名前
+	 */
+	String getName();
+	/**
+	 * 現在の値を、一行に一つの「名前 値」形式で追記する
+	 * @param out 出力先
+	 */
+	void appendText(StringBuilder out);
+	/**
+	 * 現在の値を、JSONのオブジェクトとして追記する
+	 * @param out 出力先
+	 */
+	void appendJson(StringBuilder out);
+}
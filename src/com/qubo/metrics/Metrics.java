@@ -0,0 +1,209 @@
+package com.qubo.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 計測値を登録し、まとめて出力するクラス。<br />
+ * 計測はシステムプロパティ{@value #PROPERTY_ENABLED}が{@code true}の場合か、
+ * {@link #setEnabled(boolean)}で有効にした場合だけ行う。
+ * 無効な場合、計測箇所のコストは{@code volatile}な値を一度読むことだけである。<br />
+ * 計測箇所では、次のように使う：
+ * <pre>
+ * private static final LatencyRecorder LATENCY = Metrics.latency("deck.deal");
+ * ...
+ * long start = Metrics.start();
+ * // 計測する処理
+ * LATENCY.recordSince(start);
+ * </pre>
+ * @author Qubo
+ */
+public final class Metrics {
+	/** 計測を有効にするシステムプロパティ */
+	public static final String PROPERTY_ENABLED = "com.qubo.metrics.enabled";
+	/** 同じ名前で種類の違う計測値を登録しようとした場合に発生する例外のメッセージ */
+	public static final String ERROR_TYPE_MISMATCH = "計測値[{0}]は既に別の種類で登録されています！";
+	/** テキスト形式を公開するパス */
+	public static final String PATH_TEXT = "/metrics";
+	/** JSON形式を公開するパス */
+	public static final String PATH_JSON = "/metrics.json";
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static volatile boolean enabled = Boolean.getBoolean(PROPERTY_ENABLED);
+	private static final ConcurrentMap<String, Metric> registry = new ConcurrentHashMap<String, Metric>();
+
+	private Metrics() { }
+
+	/**
+	 * 計測が有効かどうかを取得する
+	 * @return 計測が有効かどうか
+	 */
+	public static boolean isEnabled() { return enabled; }
+	/**
+	 * 計測を有効・無効にする
+	 * @param enabled 計測を有効にするかどうか
+	 */
+	public static void setEnabled(boolean enabled) { Metrics.enabled = enabled; }
+	/**
+	 * 処理時間の計測を開始する
+	 * @return 開始時刻（計測が無効な場合は0）
+	 */
+	public static long start() { return enabled ? System.nanoTime() : 0L; }
+
+	/**
+	 * 回数を数える計測値を取得する。同じ名前であれば同じインスタンスを返す。
+	 * @param name 計測値の名前
+	 * @return 計測値
+	 */
+	public static Counter counter(String name) {
+		Metric metric = registry.get(name);
+		if (metric == null) metric = register(new Counter(name));
+		return cast(metric, Counter.class);
+	}
+	/**
+	 * 処理時間を記録する計測値を取得する。同じ名前であれば同じインスタンスを返す。
+	 * @param name 計測値の名前
+	 * @return 計測値
+	 */
+	public static LatencyRecorder latency(String name) {
+		Metric metric = registry.get(name);
+		if (metric == null) metric = register(new LatencyRecorder(name));
+		return cast(metric, LatencyRecorder.class);
+	}
+	/**
+	 * 単位時間あたりの回数を計測する計測値を取得する。同じ名前であれば同じインスタンスを返す。
+	 * @param name 計測値の名前
+	 * @return 計測値
+	 */
+	public static RateMeter rate(String name) {
+		Metric metric = registry.get(name);
+		if (metric == null) metric = register(new RateMeter(name));
+		return cast(metric, RateMeter.class);
+	}
+
+	/**
+	 * 全ての計測値の現在の値を、一行に一つの「名前 値」形式で取得する
+	 * @return テキスト形式の計測値
+	 */
+	public static String toText() {
+		StringBuilder out = new StringBuilder();
+		for (Metric metric : sorted().values()) {
+			metric.appendText(out);
+		}
+		return out.toString();
+	}
+	/**
+	 * 全ての計測値の現在の値を、名前をキーにしたJSONのオブジェクトとして取得する
+	 * @return JSON形式の計測値
+	 */
+	public static String toJson() {
+		StringBuilder out = new StringBuilder("{");
+		for (Metric metric : sorted().values()) {
+			if (out.length() > 1) out.append(',');
+			out.append('"').append(metric.getName()).append("\":");
+			metric.appendJson(out);
+		}
+		return out.append('}').toString();
+	}
+	/**
+	 * 全ての計測値の現在の値をファイルに書き出す。
+	 * 読み手が書きかけのファイルを読まないように、一時ファイルに書いてから置き換える。
+	 * @param file 出力先のファイル
+	 * @param json JSON形式で書き出すかどうか（{@code false}ならテキスト形式）
+	 * @throws IOException 書き込みに失敗した場合に発生
+	 */
+	public static void writeTo(File file, boolean json) throws IOException {
+		File temporary = new File(file.getPath() + ".tmp");
+		OutputStream out = new FileOutputStream(temporary);
+		try {
+			out.write((json ? toJson() : toText()).getBytes(UTF8));
+		} finally {
+			out.close();
+		}
+		if (!temporary.renameTo(file)) {
+			if (!file.delete() || !temporary.renameTo(file)) throw new IOException(file.getPath());
+		}
+	}
+	/**
+	 * ループバックアドレスで、計測値を公開するHTTPサーバーを起動する。
+	 * {@value #PATH_TEXT}でテキスト形式、{@value #PATH_JSON}でJSON形式の値を返す。
+	 * @param port 待ち受けるポート番号（0なら空いているポート）
+	 * @return 起動したサーバー（終了する場合は{@link HttpServer#stop(int)}を呼ぶこと）
+	 * @throws IOException 起動に失敗した場合に発生
+	 */
+	public static HttpServer startServer(int port) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext(PATH_TEXT, new SnapshotHandler(false));
+		server.createContext(PATH_JSON, new SnapshotHandler(true));
+		server.start();
+		return server;
+	}
+
+	/**
+	 * 計測値を登録する。既に同じ名前の計測値がある場合は、そちらを返す。
+	 * @param metric 計測値
+	 * @return 登録されている計測値
+	 */
+	private static Metric register(Metric metric) {
+		Metric existing = registry.putIfAbsent(metric.getName(), metric);
+		return (existing != null) ? existing : metric;
+	}
+	/**
+	 * 計測値の種類を確かめて変換する
+	 * @param metric 計測値
+	 * @param type 種類
+	 * @return 変換した計測値
+	 * @throws IllegalArgumentException 種類が違う場合に発生
+	 */
+	private static <M extends Metric> M cast(Metric metric, Class<M> type) {
+		if (!type.isInstance(metric)) throw new IllegalArgumentException(MessageFormat.format(ERROR_TYPE_MISMATCH, metric.getName()));
+		return type.cast(metric);
+	}
+	/**
+	 * 名前順に並べた計測値を取得する
+	 * @return 名前順の計測値
+	 */
+	private static Map<String, Metric> sorted() { return new TreeMap<String, Metric>(registry); }
+
+	/**
+	 * 計測値の現在の値を返すHTTPハンドラ
+	 */
+	private static class SnapshotHandler implements HttpHandler {
+		private final boolean json;
+
+		SnapshotHandler(boolean json) {
+			this.json = json;
+		}
+
+		/*
+		 * (非 Javadoc)
+		 * @see com.sun.net.httpserver.HttpHandler#handle(com.sun.net.httpserver.HttpExchange)
+		 */
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			byte[] body = (json ? toJson() : toText()).getBytes(UTF8);
+			exchange.getResponseHeaders().set("Content-Type", json ? "application/json; charset=UTF-8" : "text/plain; charset=UTF-8");
+			exchange.sendResponseHeaders(200, body.length);
+			OutputStream out = exchange.getResponseBody();
+			try {
+				out.write(body);
+			} finally {
+				out.close();
+			}
+		}
+	}
+}
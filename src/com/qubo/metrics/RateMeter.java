@@ -0,0 +1,115 @@
+package com.qubo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 単位時間あたりの発生回数を計測する計測値。<br />
+ * 直近{@value #WINDOW}秒を1秒ごとの枠に分けて数え、起動してからの平均と、直近の平均を求める。
+ * 計測が無効な場合は何もしない。
+ * @author Qubo
+ */
+public class RateMeter implements Metric {
+	/** 直近の平均を求める秒数 */
+	static final int WINDOW = 60;
+	/** 1秒のナノ秒数 */
+	private static final long SECOND = 1000000000L;
+
+	private final String name;
+	private final Counter total;
+	private final long created = System.nanoTime();
+	/** 枠ごとの回数 */
+	private final AtomicLongArray counts = new AtomicLongArray(WINDOW);
+	/** 枠ごとの、数えている秒 */
+	private final AtomicLongArray seconds = new AtomicLongArray(WINDOW);
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param name 計測値の名前
+	 */
+	RateMeter(String name) {
+		this.name = name;
+		this.total = new Counter(name);
+		for (int i = 0; i < WINDOW; i++) {
+			seconds.set(i, -1);
+		}
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.metrics.Metric#getName()
+	 */
+	@Override
+	public String getName() { return name; }
+	/** 発生を一回記録する */
+	public void mark() {
+		if (!Metrics.isEnabled()) return;
+		total.increment();
+		long second = (System.nanoTime() - created) / SECOND;
+		int slot = (int) (second % WINDOW);
+		if (seconds.get(slot) != second) {
+			synchronized (this) {
+				if (seconds.get(slot) != second) {
+					counts.set(slot, 0);
+					seconds.set(slot, second);
+				}
+			}
+		}
+		counts.incrementAndGet(slot);
+	}
+	/**
+	 * 記録した回数を取得する
+	 * @return 記録した回数
+	 */
+	public long getCount() { return total.get(); }
+	/**
+	 * 起動してからの、1秒あたりの平均回数を取得する
+	 * @return 1秒あたりの回数
+	 */
+	public double getMeanRate() {
+		double elapsed = (double) (System.nanoTime() - created) / SECOND;
+		return (elapsed > 0) ? getCount() / elapsed : 0;
+	}
+	/**
+	 * 直近{@value #WINDOW}秒間（起動して間もない場合は起動してから）の、1秒あたりの平均回数を取得する
+	 * @return 1秒あたりの回数
+	 */
+	public double getRecentRate() {
+		long now = (System.nanoTime() - created) / SECOND;
+		long sum = 0;
+		for (int i = 0; i < WINDOW; i++) {
+			long second = seconds.get(i);
+			if (second > now - WINDOW && second <= now) sum += counts.get(i);
+		}
+		double elapsed = Math.min(WINDOW, (double) (System.nanoTime() - created) / SECOND);
+		return (elapsed > 0) ? sum / elapsed : 0;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.metrics.Metric#appendText(java.lang.StringBuilder)
+	 */
+	@Override
+	public void appendText(StringBuilder out) {
+		out.append(name).append(".count ").append(getCount()).append('\n');
+		out.append(name).append(".mean_rate ").append(format(getMeanRate())).append('\n');
+		out.append(name).append(".recent_rate ").append(format(getRecentRate())).append('\n');
+	}
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.metrics.Metric#appendJson(java.lang.StringBuilder)
+	 */
+	@Override
+	public void appendJson(StringBuilder out) {
+		out.append("{\"type\":\"rate\",\"count\":").append(getCount());
+		out.append(",\"mean_rate\":").append(format(getMeanRate()));
+		out.append(",\"recent_rate\":").append(format(getRecentRate())).append('}');
+	}
+	/**
+	 * 回数を小数点以下3桁の文字列にする
+	 * @param rate 回数
+	 * @return 文字列
+	 */
+	private static String format(double rate) {
+		return String.valueOf(Math.round(rate * 1000) / 1000.0);
+	}
+}
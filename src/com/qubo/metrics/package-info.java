@@ -0,0 +1,2 @@
+/** 処理回数や処理時間、処理ごとのイベントを計測し、外部に公開するためのパッケージ */
+package com.qubo.metrics;
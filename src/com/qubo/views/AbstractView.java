@@ -1,8 +1,13 @@
 package com.qubo.views;
 
-import java.text.MessageFormat;
+import java.io.PrintStream;
 
+import com.qubo.InputSource;
+import com.qubo.MessageTemplate;
 import com.qubo.Utils;
+import com.qubo.metrics.LatencyRecorder;
+import com.qubo.metrics.Metrics;
+import com.qubo.metrics.RateMeter;
 
 /**
  * ほとんどのビューの基礎となる抽象クラス。構造的に以下の機能を実装する。
@@ -25,6 +30,12 @@ public abstract class AbstractView<T> implements View {
 	public static final String THINE_SEPARATOR	= "┠─────────────────────────────────────┨";
 	/** 枠線レイアウトの幅 */
 	public static final int LAYOUT_WIDTH = 72;
+	/** 画面の表示にかかった時間 */
+	private static final LatencyRecorder RENDER_LATENCY = Metrics.latency("view.render");
+	/** ユーザー入力を待った時間 */
+	private static final LatencyRecorder INPUT_LATENCY = Metrics.latency("view.input");
+	/** 画面を表示した頻度 */
+	private static final RateMeter VIEW_RATE = Metrics.rate("view.views");
 
 	/**
 	 * 標準のコンストラクタ
@@ -35,41 +46,64 @@ public abstract class AbstractView<T> implements View {
 	}
 
 	private final String name;
+	/** 表示する文字列を組み立てるためのバッファ */
+	private final StringBuilder buffer = new StringBuilder(LAYOUT_WIDTH * 2);
 	@Override
 	public final String getName() { return name; }
 
 	@Override
 	public final View view() {
+		VIEW_RATE.mark();
+		long start = Metrics.start();
 		// render header
 		printHead();
-		printLine("■" + name);
+		printLine("■{0}", name);
 		printSeparator();
 
 		renderBody();
 
 		// render footer
 		printTail();
+		RENDER_LATENCY.recordSince(start);
 
+		start = Metrics.start();
 		T input = requestUserInput();
+		INPUT_LATENCY.recordSince(start);
 
 		return view(input);
 	}
 
-	/** ビューの内容をレンダリングする。 */
+	/**
+	 * ビューの内容をレンダリングする。
+	 * {@link ViewSession}上では、入力が足りずに中断されるたびに実行し直されるので、表示以外の状態を変える場合は一度だけ行うこと。
+	 */
 	protected abstract void renderBody();
 	/**
-	 * ユーザー入力を求め、{@code T}型で返す
+	 * ユーザー入力を求め、{@code T}型で返す。
+	 * {@link ViewSession}上では、{@link #renderBody()}と同じく実行し直されることがある。
 	 * @return {@code T}型のインスタンス
 	 */
 	protected abstract T requestUserInput();
 	/**
-	 * ユーザー入力に基づいて結果を表示し、次に表示するビューを取得する
+	 * ユーザー入力に基づいて結果を表示し、次に表示するビューを取得する。
+	 * 入力が揃った後に一度だけ呼ばれるので、状態を変える処理はここで行う。
 	 * @param input ユーザー入力
 	 * @return ビュー
 	 */
 	protected abstract View view(T input);
 
 
+	/**
+	 * ユーザー入力の入力元を取得する
+	 * @return 現在の{@link Terminal}の入力元
+	 */
+	protected InputSource getInput() { return Terminal.current().getInput(); }
+	/**
+	 * 表示の出力先を取得する
+	 * @return 現在の{@link Terminal}の出力先
+	 */
+	protected PrintStream getOut() { return Terminal.current().getOut(); }
+
 	/** 枠線レイアウトのヘッダ部分を表示する */
 	protected void printHead() { print(HEAD); }
 	/** 枠線レイアウトのフッタ部分を表示する */
@@ -84,16 +118,31 @@ public abstract class AbstractView<T> implements View {
 	 * @param objects フォーマットの引数
 	 */
 	protected void printLine(String pattern, Object...objects) {
-		String message = MessageFormat.format(pattern, objects);
-		message = Utils.rpad(message, LAYOUT_WIDTH);
-		System.out.println("┃ " + message + " ┃");
+		buffer.setLength(0);
+		String message = MessageTemplate.compile(pattern).format(buffer, objects).toString();
+		buffer.setLength(0);
+		buffer.append("┃ ").append(Utils.rpad(message, LAYOUT_WIDTH)).append(" ┃");
+		getOut().println(buffer);
 	}
+	/**
+	 * 枠線レイアウト内に、既に組み立てた行をそのまま表示する。
+	 * フォーマットの解析も幅の計算もしないので、毎回同じ形の行を表示する場合は{@link #toFramedLine(String)}で事前に組み立てておくとよい。
+	 * @param line 枠線を含めて組み立てた行
+	 */
+	protected void printFramedLine(CharSequence line) { getOut().println(line); }
+	/**
+	 * 文字列を、枠線レイアウト内に表示する行に組み立てる
+	 * @param text 文字列
+	 * @return 両端に枠線を付け、幅を揃えた行
+	 */
+	public static String toFramedLine(String text) { return "┃ " + Utils.rpad(text, LAYOUT_WIDTH) + " ┃"; }
 	/**
 	 * 文字列を表示する
 	 * @param pattern 文字列フォーマット
 	 * @param objects フォーマットの引数
 	 */
 	protected void print(String pattern, Object...objects) {
-		System.out.println(MessageFormat.format(pattern, objects));
+		buffer.setLength(0);
+		getOut().println(MessageTemplate.compile(pattern).format(buffer, objects));
 	}
 }
@@ -37,6 +37,6 @@ public abstract class AbstractYesNoView extends AbstractView<Boolean> {
 	}
 
 	@Override
-	protected final Boolean requestUserInput() { return Utils.promptChar(YESNO, YES) == YES; }
+	protected final Boolean requestUserInput() { return Utils.promptChar(getInput(), getOut(), YESNO, YES) == YES; }
 
 }
\ No newline at end of file
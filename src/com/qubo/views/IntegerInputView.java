@@ -36,7 +36,7 @@ public abstract class IntegerInputView extends AbstractView<Integer> {
 
 	@Override
 	protected final Integer requestUserInput() {
-		return Utils.promptInteger(min, max);
+		return Utils.promptInteger(getInput(), getOut(), min, max);
 	}
 
 	@Override
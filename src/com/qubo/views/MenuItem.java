@@ -1,7 +1,6 @@
 package com.qubo.views;
 
-import java.text.MessageFormat;
-
+import com.qubo.MessageTemplate;
 import com.qubo.Utils;
 
 /**
@@ -61,6 +60,6 @@ public class MenuItem {
 
 	@Override
 	public String toString() {
-		return MessageFormat.format("{0} {1}", Utils.lpad(accessCharacter + ":", 4), name);
+		return MessageTemplate.format("{0} {1}", Utils.lpad(accessCharacter + ":", 4), name);
 	}
 }
@@ -1,13 +1,19 @@
 package com.qubo.views;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.qubo.MessageTemplate;
 import com.qubo.Utils;
 
 /**
  * 画面遷移用のビュー。
  * ユーザーに1文字入力を求めて、その文字に対応したメニュー項目のビューに遷移する。
+ * 表示したメニュー項目のビューが{@link PreparedView}であれば、入力を待つ間に遷移先の準備を始める。<br />
+ * 表示中のページについて、アクセス文字からメニュー項目を引く索引と、表示する行を組み立てておく。
+ * そのため、メニュー項目がどれだけ多くても、一回の入力と表示にかかる手間はページ内の項目数で決まる。
+ * 索引は、メニュー項目を変更した場合とページを移動した場合に作り直す。
  * @author Qubo
  */
 public class MenuView extends AbstractView<MenuItem> {
@@ -18,9 +24,26 @@ public class MenuView extends AbstractView<MenuItem> {
 	/** 複数ページになった場合に、次のページに遷移するためのメニュー項目 */
 	private final MenuItem nextPage = new MenuItem('>', "次のページ", this);
 
+	/** 索引を引く文字の範囲（ASCII） */
+	private static final int INDEX_SIZE = 128;
+
 	private final List<MenuItem> menuItems;
 	private int page;
 	private MenuItem defaultMenuItem;
+	/** 表示中のページの、アクセス文字（小文字）からメニュー項目への索引（{@code null}の場合は作り直す） */
+	private MenuItem[] index;
+	/** 表示中のページの、索引に入らない文字をアクセス文字とするメニュー項目 */
+	private MenuItem[] others;
+	/** 表示中のページのメニュー項目 */
+	private MenuItem[] pageItems;
+	/** 表示中のページのメニュー項目の行 */
+	private String[] itemRows;
+	/** 表示中のページの、ページ移動の行 */
+	private String[] pagingRows;
+	/** デフォルトのメニュー項目の行 */
+	private String defaultRow;
+	/** 索引を作ったときの{@link #MAX_RECORDS} */
+	private int indexedMaxRecords;
 
 	/**
 	 * 標準のコンストラクタ
@@ -37,6 +60,7 @@ public class MenuView extends AbstractView<MenuItem> {
 	 */
 	public void addMenuItem(MenuItem menuItem) {
 		menuItems.add(menuItem);
+		index = null;
 	}
 	/**
 	 * 与えられた引数からメニュー項目を生成して追加する
@@ -61,6 +85,7 @@ public class MenuView extends AbstractView<MenuItem> {
 	 */
 	public void setDefaultMenuItem(MenuItem defaultMenuItem) {
 		this.defaultMenuItem = defaultMenuItem;
+		index = null;
 	}
 	/**
 	 * 与えられた引数からメニュー項目を生成して、デフォルトのメニュー項目として設定する。
@@ -73,81 +98,134 @@ public class MenuView extends AbstractView<MenuItem> {
 
 	@Override
 	protected final void renderBody() {
+		buildIndex();
 		printLine("メニューを選択してください。");
 		printLine("何も入力せずEnterキーを押すと、[{0}]になります。", defaultMenuItem.getView().getName());
 		printThinSeparator();
 
-		for (int i = page * MAX_RECORDS; i < Math.min(menuItems.size(), (page + 1) * MAX_RECORDS); i++) {
-			MenuItem menuItem = menuItems.get(i);
-			if (menuItems.size() > MAX_RECORDS) {
-				char accessCharacter = (char) ((i - page * MAX_RECORDS) + '0');
-				menuItem.setAccessCharacter(accessCharacter);
-			}
-			printLine(menuItem.toString());
+		for (int i = 0; i < pageItems.length; i++) {
+			printFramedLine(itemRows[i]);
+			if (pageItems[i].getView() instanceof PreparedView)
+				((PreparedView) pageItems[i].getView()).prepare();
 		}
 
-		if (menuItems.size() > MAX_RECORDS) {
+		if (pagingRows.length > 0) {
 			printThinSeparator();
-			if (hasPreviousPage()) {
-				printLine(previousPage.toString());
+			for (String row : pagingRows) {
+				printFramedLine(row);
 			}
-			if (hasNextPage()) {
-				printLine(nextPage.toString());
-			}
-			printLine("    現在{0}/{1}ページ目を表示しています", page + 1, getPageTotal());
 		}
 		printThinSeparator();
-		printLine(defaultMenuItem.toString());
+		printFramedLine(defaultRow);
 	}
 
 	@Override
 	protected final MenuItem requestUserInput() {
-		char[] accessCharacters = getAccessCharacters();
-		char selected = Utils.promptChar(accessCharacters, defaultMenuItem.getAccessCharacter());
-		for (int i = page * MAX_RECORDS; i < Math.min(menuItems.size(), (page + 1) * MAX_RECORDS); i++) {
-			MenuItem menuItem = menuItems.get(i);
-			if (selected == menuItem.getAccessCharacter()) {
-				return menuItem;
+		buildIndex();
+		try {
+			while (true) {
+				String line = Utils.toHalfWidth(Utils.readLine(getInput()));
+				MenuItem selected = null;
+				if (line.length() == 0) {
+					selected = defaultMenuItem;
+				} else if (line.length() == 1) {
+					selected = find(line.charAt(0));
+				}
+				if (selected == previousPage) {
+					movePage(-1);
+				} else if (selected == nextPage) {
+					movePage(1);
+				}
+				if (selected != null) {
+					return selected;
+				}
+				getOut().println(Utils.ERROR_INVALID_CHARACTER);
 			}
+		} catch (IOException e) {
+			throw new IllegalStateException(Utils.ERROR_INPUT, e);
 		}
+	}
 
-		if (selected == '<') {
-			page--;
-			return previousPage;
-		} else if (selected == '>') {
-			page++;
-			return nextPage;
-		} else if (selected == defaultMenuItem.getAccessCharacter()) {
-			return defaultMenuItem;
+	/**
+	 * 表示中のページの索引から、アクセス文字に対応するメニュー項目を探す。大文字と小文字は区別しない。
+	 * @param accessCharacter アクセス文字
+	 * @return メニュー項目（対応するものが無い場合は{@code null}）
+	 */
+	private MenuItem find(char accessCharacter) {
+		char key = Character.toLowerCase(accessCharacter);
+		if (key < INDEX_SIZE) {
+			return index[key];
+		}
+		for (MenuItem menuItem : others) {
+			if (Character.toLowerCase(menuItem.getAccessCharacter()) == key) return menuItem;
 		}
-
 		return null;
 	}
-
 	/**
-	 * 有効なアクセス文字を配列として取得する
-	 * @return 有効なアクセス文字
+	 * ページを移動して、索引を作り直させる
+	 * @param delta 移動するページ数
 	 */
-	private char[] getAccessCharacters() {
-		List<Character> list = new ArrayList<Character>();
-		for (int i = page * MAX_RECORDS; i < Math.min(menuItems.size(), (page + 1) * MAX_RECORDS); i++) {
+	private void movePage(int delta) {
+		page += delta;
+		index = null;
+	}
+	/**
+	 * 表示中のページの索引と行を、必要であれば作り直す。
+	 * 同じアクセス文字を持つメニュー項目がある場合は、ページ内の項目、前のページ、次のページ、デフォルトの順に優先する。
+	 */
+	private void buildIndex() {
+		if (index != null && indexedMaxRecords == MAX_RECORDS) return;
+		indexedMaxRecords = MAX_RECORDS;
+		int from = Math.min(page * MAX_RECORDS, menuItems.size());
+		int to = Math.min(menuItems.size(), (page + 1) * MAX_RECORDS);
+		boolean paging = menuItems.size() > MAX_RECORDS;
+
+		MenuItem[] newIndex = new MenuItem[INDEX_SIZE];
+		List<MenuItem> newOthers = new ArrayList<MenuItem>();
+		pageItems = new MenuItem[to - from];
+		itemRows = new String[pageItems.length];
+		for (int i = from; i < to; i++) {
 			MenuItem menuItem = menuItems.get(i);
-			list.add(menuItem.getAccessCharacter());
-		}
-		if (hasNextPage()) {
-			list.add(nextPage.getAccessCharacter());
-		}
-		if (hasPreviousPage()) {
-			list.add(previousPage.getAccessCharacter());
+			if (paging) {
+				menuItem.setAccessCharacter((char) ((i - from) + '0'));
+			}
+			pageItems[i - from] = menuItem;
+			itemRows[i - from] = toFramedLine(menuItem.toString());
+			register(newIndex, newOthers, menuItem);
 		}
-		list.add(defaultMenuItem.getAccessCharacter());
 
-		char[] accessCharacters = new char[list.size()];
-		for (int i = 0; i < list.size(); i++) {
-			accessCharacters[i] = list.get(i);
+		List<String> rows = new ArrayList<String>();
+		if (paging) {
+			if (hasPreviousPage()) {
+				rows.add(toFramedLine(previousPage.toString()));
+				register(newIndex, newOthers, previousPage);
+			}
+			if (hasNextPage()) {
+				rows.add(toFramedLine(nextPage.toString()));
+				register(newIndex, newOthers, nextPage);
+			}
+			rows.add(toFramedLine(MessageTemplate.format("    現在{0}/{1}ページ目を表示しています", page + 1, getPageTotal())));
 		}
+		defaultRow = toFramedLine(defaultMenuItem.toString());
+		register(newIndex, newOthers, defaultMenuItem);
 
-		return accessCharacters;
+		pagingRows = rows.toArray(new String[rows.size()]);
+		others = newOthers.toArray(new MenuItem[newOthers.size()]);
+		index = newIndex;
+	}
+	/**
+	 * メニュー項目を索引に登録する。既に同じアクセス文字が登録されている場合は何もしない。
+	 * @param index ASCIIの索引
+	 * @param others 索引に入らない文字をアクセス文字とするメニュー項目
+	 * @param menuItem メニュー項目
+	 */
+	private static void register(MenuItem[] index, List<MenuItem> others, MenuItem menuItem) {
+		char key = Character.toLowerCase(menuItem.getAccessCharacter());
+		if (key >= INDEX_SIZE) {
+			others.add(menuItem);
+		} else if (index[key] == null) {
+			index[key] = menuItem;
+		}
 	}
 	/**
 	 * メニュービューが前のページを持つかどうかを取得する
@@ -163,7 +241,7 @@ public class MenuView extends AbstractView<MenuItem> {
 	 * メニュービューの総ページ数を取得する
 	 * @return メニュービューの総ページ数
 	 */
-	private double getPageTotal() { return Math.ceil((float)menuItems.size() / MAX_RECORDS); }
+	private int getPageTotal() { return (menuItems.size() + MAX_RECORDS - 1) / MAX_RECORDS; }
 
 	@Override
 	protected View view(MenuItem input) {
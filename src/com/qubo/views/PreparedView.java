@@ -0,0 +1,105 @@
+package com.qubo.views;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.qubo.DaemonThreadFactory;
+
+/**
+ * 遷移先のビューを、選択される前に別のスレッドで生成しておく{@link View}。<br />
+ * {@link #prepare()}で生成を開始しておけば、ユーザーが入力している間に生成が進むので、
+ * {@link #view()}はほとんど待たずに遷移先のビューを返せる。準備されていない場合は、その場で生成する。<br />
+ * {@link MenuView}は表示のたびに、メニュー項目の{@link PreparedView}の準備をやり直す。
+ * そのため、設定を変更してメニューに戻った後でも、遷移先は最新の設定で生成される。
+ * 準備したまま選ばれなかったビューは捨てられるので、遷移先のビューは表示されるまで重い処理を始めないことが望ましい。
+ * @author Qubo
+ */
+public class PreparedView implements View {
+	/** 遷移先のビューを生成する、全ての{@link PreparedView}で共有するスレッド */
+	private static final ExecutorService SHARED_EXECUTOR = Executors.newSingleThreadExecutor(new DaemonThreadFactory("view-prepare"));
+
+	/**
+	 * 遷移先のビューを生成するためのインタフェース。
+	 * 別のスレッドで呼ばれるので、生成の際には表示や入力を行わないこと。
+	 * @author Qubo
+	 */
+	public interface Factory {
+		/**
+		 * 遷移先のビューを生成する
+		 * @return 遷移先のビュー
+		 */
+		View create();
+	}
+
+	private final String name;
+	private final Factory factory;
+	private final ExecutorService executor;
+	/** 準備中または準備済みの遷移先（準備していない場合は{@code null}） */
+	private Future<View> prepared;
+
+	/**
+	 * 共有のスレッドで遷移先を生成するコンストラクタ
+	 * @param name ビュー名
+	 * @param factory 遷移先のビューの生成元
+	 */
+	public PreparedView(String name, Factory factory) {
+		this(name, factory, SHARED_EXECUTOR);
+	}
+	/**
+	 * 標準のコンストラクタ
+	 * @param name ビュー名
+	 * @param factory 遷移先のビューの生成元
+	 * @param executor 遷移先を生成するスレッド
+	 */
+	public PreparedView(String name, Factory factory, ExecutorService executor) {
+		this.name = name;
+		this.factory = factory;
+		this.executor = executor;
+	}
+
+	/*
+	 * (非 Javadoc)
+	 * @see com.qubo.views.View#getName()
+	 */
+	@Override
+	public String getName() { return name; }
+
+	/**
+	 * 遷移先のビューの生成を開始する。既に準備したビューは破棄する。
+	 */
+	public synchronized void prepare() {
+		if (prepared != null)
+			prepared.cancel(false);
+		prepared = executor.submit(new Callable<View>() {
+			@Override public View call() { return factory.create(); }
+		});
+	}
+
+	/**
+	 * 準備しておいた遷移先のビューを取得する。生成中であれば完了を待ち、準備していなければその場で生成する。
+	 * 一度取得したビューは再び返さないので、次に遷移する前には再度{@link #prepare()}が必要である。
+	 * @return 遷移先のビュー
+	 * @see com.qubo.views.View#view()
+	 */
+	@Override
+	public View view() {
+		Future<View> future;
+		synchronized (this) {
+			future = prepared;
+			prepared = null;
+		}
+		if (future == null || future.isCancelled())
+			return factory.create();
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return factory.create();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.qubo.views;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 記録済みのキー入力（スクリプト）を、実際のビューに流し込んで再生するクラス。<br />
+ * スクリプトごとに{@link ViewFactory}から新しいビューを生成し、
+ * 専用の{@link Terminal}を割り当てて{@link ViewApplication#start(View, Terminal)}を実行する。
+ * そのため、複数のスクリプトを並列に再生しても入出力が混ざることはない。<br />
+ * ただし、ビューがスタティックな設定（例えばゲームの設定値）を共有している場合、その値はセッション間で共有される。
+ * @author Qubo
+ */
+public class ReplayDriver {
+	/** 出力のエンコーディング */
+	private static final String ENCODING = "UTF-8";
+
+	/**
+	 * 再生ごとに起動ビューを生成するためのインタフェース
+	 * @author Qubo
+	 */
+	public interface ViewFactory {
+		/**
+		 * 起動ビューを生成する
+		 * @return 起動ビュー
+		 */
+		View create();
+	}
+
+	private final ViewFactory factory;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param factory 起動ビューの生成元
+	 */
+	public ReplayDriver(ViewFactory factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * スクリプトを現在のスレッドで再生する
+	 * @param script 改行区切りの入力
+	 * @return 再生結果
+	 */
+	public ReplayResult replay(String script) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrintStream out;
+		try {
+			out = new PrintStream(bytes, false, ENCODING);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		Terminal terminal = new Terminal(new ScriptInputSource(script, out), out);
+
+		ReplayResult.Status status = ReplayResult.Status.Completed;
+		Throwable error = null;
+		long start = System.nanoTime();
+		try {
+			ViewApplication.start(factory.create(), terminal);
+		} catch (RuntimeException e) {
+			if (e.getCause() instanceof EOFException) {
+				status = ReplayResult.Status.InputExhausted;
+			} else {
+				status = ReplayResult.Status.Failed;
+				error = e;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+
+		out.flush();
+		try {
+			return new ReplayResult(script, bytes.toString(ENCODING), status, error, elapsed);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	/**
+	 * 複数のスクリプトを並列に再生する
+	 * @param scripts 改行区切りの入力のリスト
+	 * @param threads 再生に使うスレッド数
+	 * @return 再生結果のリスト（{@code scripts}と同じ順序）
+	 * @throws InterruptedException 再生の完了を待っている間に割り込まれた場合に発生
+	 */
+	public List<ReplayResult> replayAll(List<String> scripts, int threads) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<ReplayResult>> futures = new ArrayList<Future<ReplayResult>>(scripts.size());
+			for (final String script : scripts) {
+				futures.add(executor.submit(new Callable<ReplayResult>() {
+					@Override public ReplayResult call() { return replay(script); }
+				}));
+			}
+			List<ReplayResult> results = new ArrayList<ReplayResult>(scripts.size());
+			for (Future<ReplayResult> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.qubo.views;
+
+/**
+ * {@link ReplayDriver}でスクリプトを再生した結果を表したクラス
+ * @author Qubo
+ */
+public class ReplayResult {
+	/** 再生の終わり方 */
+	public enum Status {
+		/** ビューが{@code null}を返して、アプリケーションが終了した */
+		Completed,
+		/** アプリケーションが終了する前に、スクリプトを読み終えた */
+		InputExhausted,
+		/** 再生中に例外が発生した */
+		Failed,
+	}
+
+	private final String script;
+	private final String transcript;
+	private final Status status;
+	private final Throwable error;
+	private final long elapsedNanos;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param script 再生したスクリプト
+	 * @param transcript 再生中の出力
+	 * @param status 再生の終わり方
+	 * @param error 再生中に発生した例外（発生しなかった場合は{@code null}）
+	 * @param elapsedNanos 再生にかかった時間（ナノ秒）
+	 */
+	public ReplayResult(String script, String transcript, Status status, Throwable error, long elapsedNanos) {
+		this.script = script;
+		this.transcript = transcript;
+		this.status = status;
+		this.error = error;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * 再生したスクリプトを取得する
+	 * @return 再生したスクリプト
+	 */
+	public String getScript() { return script; }
+	/**
+	 * 再生中の出力を取得する。入力した行も、入力した位置に含まれる。
+	 * @return 再生中の出力
+	 */
+	public String getTranscript() { return transcript; }
+	/**
+	 * 再生の終わり方を取得する
+	 * @return 再生の終わり方
+	 */
+	public Status getStatus() { return status; }
+	/**
+	 * 再生中に発生した例外を取得する
+	 * @return 再生中に発生した例外（発生しなかった場合は{@code null}）
+	 */
+	public Throwable getError() { return error; }
+	/**
+	 * 再生にかかった時間を取得する
+	 * @return 再生にかかった時間（ナノ秒）
+	 */
+	public long getElapsedNanos() { return elapsedNanos; }
+}
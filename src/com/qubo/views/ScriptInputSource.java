@@ -0,0 +1,54 @@
+package com.qubo.views;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+import com.qubo.InputSource;
+
+/**
+ * 記録済みの入力（スクリプト）を一行ずつ返す入力元。
+ * スクリプトを読み終えると入力の終端に達する。
+ * @author Qubo
+ */
+public class ScriptInputSource implements InputSource {
+	private final List<String> lines;
+	private final PrintStream echo;
+	private int position;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param lines 入力する行のリスト
+	 * @param echo 読み込んだ行を書き出す出力先（{@code null}の場合は書き出さない）
+	 */
+	public ScriptInputSource(List<String> lines, PrintStream echo) {
+		this.lines = lines;
+		this.echo = echo;
+		this.position = 0;
+	}
+	/**
+	 * 改行区切りの文字列をスクリプトとして利用するコンストラクタ
+	 * @param script 改行区切りの入力
+	 * @param echo 読み込んだ行を書き出す出力先（{@code null}の場合は書き出さない）
+	 */
+	public ScriptInputSource(String script, PrintStream echo) {
+		this(Arrays.asList(script.split("\r?\n", -1)), echo);
+	}
+
+	@Override
+	public String readLine() {
+		if (position >= lines.size()) {
+			return null;
+		}
+		String line = lines.get(position++);
+		if (echo != null) {
+			echo.println(line);
+		}
+		return line;
+	}
+	/**
+	 * まだ読み込まれていない行数を取得する
+	 * @return 残りの行数
+	 */
+	public int getRemainings() { return lines.size() - position; }
+}
@@ -0,0 +1,41 @@
+package com.qubo.views;
+
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.qubo.DaemonThreadFactory;
+
+/**
+ * 多数の{@link ViewSession}を、少数のスレッドで並行に動かすクラス。<br />
+ * {@link ViewApplication#start(View, Terminal)}はセッションごとにスレッドを一つ占有し、入力を待つ間もスレッドを手放さない。
+ * このクラスのセッションは入力が届いたときだけスレッドを使うので、スレッド数を超えるセッションを同時に開いておける。
+ * @author Qubo
+ */
+public class SessionMultiplexer {
+	private final ExecutorService executor;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param threads 画面遷移を進めるスレッド数
+	 */
+	public SessionMultiplexer(int threads) {
+		this.executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("view-session"));
+	}
+
+	/**
+	 * 新しいセッションを開始する。起動ビューは、入力を待たずにすぐ表示される。
+	 * @param entryView 起動ビュー（セッションごとに生成したもの）
+	 * @param out 出力先
+	 * @return セッション
+	 */
+	public ViewSession open(View entryView, OutputStream out) {
+		ViewSession session = new ViewSession(entryView, out, executor);
+		session.schedule();
+		return session;
+	}
+	/**
+	 * スレッドを終了する。実行中の画面遷移は最後まで進めるが、以降はどのセッションにも入力を与えられない。
+	 */
+	public void shutdown() { executor.shutdown(); }
+}
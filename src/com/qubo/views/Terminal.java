@@ -0,0 +1,71 @@
+package com.qubo.views;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+import com.qubo.InputSource;
+import com.qubo.Utils;
+
+/**
+ * ビューが利用する入出力の組を表したクラス。<br />
+ * ビューは{@link #current()}で取得した入出力を使って表示と入力を行う。
+ * 入出力はスレッドごとに設定できるので、複数のセッションを並列に動かしても互いの入出力が混ざることはない。
+ * 何も設定されていないスレッドでは、{@link Utils#getStandardInput()}と{@link System#out}を使う。
+ * @author Qubo
+ */
+public class Terminal {
+	/** 標準の入力元を、その時点の設定に従って読み込む入力元 */
+	private static final InputSource STANDARD_INPUT = new InputSource() {
+		@Override public String readLine() throws IOException { return Utils.getStandardInput().readLine(); }
+	};
+	/** 標準入出力を使う{@link Terminal} */
+	private static final Terminal STANDARD = new Terminal(STANDARD_INPUT, null);
+	/** スレッドごとに設定された{@link Terminal} */
+	private static final ThreadLocal<Terminal> current = new ThreadLocal<Terminal>() {
+		@Override protected Terminal initialValue() { return STANDARD; }
+	};
+
+	private final InputSource input;
+	private final PrintStream out;
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param input 入力元
+	 * @param out 出力先（{@code null}の場合は、その時点の{@link System#out}）
+	 */
+	public Terminal(InputSource input, PrintStream out) {
+		this.input = input;
+		this.out = out;
+	}
+
+	/**
+	 * 入力元を取得する
+	 * @return 入力元
+	 */
+	public InputSource getInput() { return input; }
+	/**
+	 * 出力先を取得する
+	 * @return 出力先
+	 */
+	public PrintStream getOut() { return (out != null) ? out : System.out; }
+
+	/**
+	 * 現在のスレッドに設定された{@link Terminal}を取得する
+	 * @return 現在のスレッドの{@link Terminal}
+	 */
+	public static Terminal current() { return current.get(); }
+	/**
+	 * 現在のスレッドに{@link Terminal}を設定する
+	 * @param terminal 設定する{@link Terminal}（{@code null}の場合は標準入出力に戻す）
+	 * @return それまで設定されていた{@link Terminal}
+	 */
+	public static Terminal bind(Terminal terminal) {
+		Terminal previous = current.get();
+		if (terminal == null) {
+			current.remove();
+		} else {
+			current.set(terminal);
+		}
+		return previous;
+	}
+}
@@ -11,7 +11,11 @@ public interface View {
 	 */
 	String getName();
 	/**
-	 * 次のビューを取得する
+	 * 次のビューを取得する。<br />
+	 * {@link ViewSession}上で動かす場合、入力が足りなくなるとこの処理は途中で中断され、
+	 * 次の入力が届いたときに、既に読んだ入力を同じ順序で与えて最初から実行し直される。
+	 * そのため、最後の入力を読み終えるまでの処理は、何度実行し直しても結果が変わらない（冪等な）ものでなければならない。
+	 * 入力を読み終えた後の処理は、一度しか実行されない。
 	 * @return 次のビュー
 	 */
 	View view();
@@ -18,7 +18,21 @@ public abstract class ViewApplication {
 		while (view != null) {
 			view = view.view();
 			if (view != null)
-				System.out.println();
+				Terminal.current().getOut().println();
+		}
+	}
+	/**
+	 * 指定した{@link Terminal}を入出力として、{@link #start(View)}を実行する。
+	 * 実行中は現在のスレッドに{@code terminal}が設定され、終了後に元の設定に戻る。
+	 * @param entryView 起動ビュー
+	 * @param terminal 入出力
+	 */
+	public static void start(View entryView, Terminal terminal) {
+		Terminal previous = Terminal.bind(terminal);
+		try {
+			start(entryView);
+		} finally {
+			Terminal.bind(previous);
 		}
 	}
 }
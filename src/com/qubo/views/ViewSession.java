@@ -0,0 +1,197 @@
+package com.qubo.views;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.qubo.InputSource;
+
+/**
+ * {@link SessionMultiplexer}上で動く、一人分のビューの遷移。<br />
+ * 入力は{@link #offer(String)}で外から与える。入力が届いたときだけ共有のスレッドで画面遷移を進め、
+ * 入力を待つ間はスレッドを占有しない。そのため、少ないスレッドで多数のセッションを動かせる。<br />
+ * 入力が足りなくなった場合、その画面の処理（{@link View#view()}）を中断し、次の入力が届いたときに最初からやり直す。
+ * やり直しでは、既に読んだ入力を同じ順序で与え、既に表示した部分の出力は捨てる。
+ * したがってビューは、入力を読み終えるまでに再実行されて困る処理をしてはならない（{@link View#view()}を参照）。
+ * {@link AbstractView}であれば、状態を変える処理を{@link AbstractView#view(Object)}で行えばよい。<br />
+ * ビューのインスタンスはセッションごとに生成すること。出力はUTF-8で書き出す。
+ * @author Qubo
+ */
+public class ViewSession {
+	/** 出力のエンコーディング */
+	private static final String ENCODING = "UTF-8";
+	/** 入力が足りず、画面の処理を中断することを表す例外 */
+	private static final RuntimeException INPUT_PENDING = new RuntimeException() {
+		private static final long serialVersionUID = 1L;
+		@Override public synchronized Throwable fillInStackTrace() { return this; }
+	};
+
+	private final Executor executor;
+	private final PrintStream out;
+	private final Terminal terminal;
+	/** 届いたがまだ読まれていない入力 */
+	private final Queue<String> pending = new ArrayDeque<String>();
+	/** 現在の画面で読んだ入力（やり直しの際に同じ順序で与える） */
+	private final List<String> stepLines = new ArrayList<String>();
+	/** 入力の終端に達したかどうか */
+	private boolean closed;
+	/** 画面遷移を進める処理を実行待ちまたは実行中かどうか */
+	private boolean scheduled;
+	/** 現在の画面で、直前までの出力を表示済みの入力の数 */
+	private int shownReads;
+	/** 現在の試行で読んだ入力の数 */
+	private int reads;
+	/** 表示済みの出力を捨てている最中かどうか */
+	private boolean suppressed;
+	/** 現在のビュー */
+	private View view;
+	/** セッションが終了した原因の例外（正常に終了した場合は{@code null}） */
+	private volatile RuntimeException error;
+	private final CountDownLatch finished = new CountDownLatch(1);
+
+	/** 現在の画面の入力を与える入力元 */
+	private final InputSource input = new InputSource() {
+		@Override
+		public String readLine() {
+			int n = reads;
+			if (n >= shownReads)
+				shownReads = n + 1;
+			String line;
+			if (n < stepLines.size()) {
+				line = stepLines.get(n);
+			} else {
+				synchronized (ViewSession.this) {
+					line = pending.poll();
+					if (line == null) {
+						if (closed) return null;
+						throw INPUT_PENDING;
+					}
+				}
+				stepLines.add(line);
+			}
+			reads = n + 1;
+			suppressed = reads < shownReads;
+			return line;
+		}
+	};
+	/** 画面遷移を進める処理 */
+	private final Runnable runner = new Runnable() {
+		@Override public void run() { advance(); }
+	};
+
+	/**
+	 * 標準のコンストラクタ
+	 * @param entryView 起動ビュー
+	 * @param out 出力先
+	 * @param executor 画面遷移を進めるスレッド
+	 */
+	ViewSession(View entryView, final OutputStream out, Executor executor) {
+		this.view = entryView;
+		this.executor = executor;
+		OutputStream filter = new OutputStream() {
+			@Override public void write(int b) throws IOException { if (!suppressed) out.write(b); }
+			@Override public void write(byte[] b, int off, int len) throws IOException { if (!suppressed) out.write(b, off, len); }
+			@Override public void flush() throws IOException { out.flush(); }
+		};
+		try {
+			this.out = new PrintStream(filter, false, ENCODING);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		this.terminal = new Terminal(input, this.out);
+	}
+
+	/**
+	 * 入力を一行与える
+	 * @param line 入力する一行（改行文字は含まない）
+	 */
+	public synchronized void offer(String line) {
+		if (closed) throw new IllegalStateException("入力の終端に達したセッションには入力できません！");
+		pending.add(line);
+		schedule();
+	}
+	/**
+	 * 入力の終端に達したことを伝える。以降、入力を待っているビューは入力の終端に達した例外で終了する。
+	 */
+	public synchronized void close() {
+		closed = true;
+		schedule();
+	}
+	/**
+	 * セッションが終了したかどうかを取得する
+	 * @return 終了したかどうか
+	 */
+	public boolean isFinished() { return finished.getCount() == 0; }
+	/**
+	 * セッションが終了するまで待つ
+	 * @param timeout 最大の待ち時間
+	 * @param unit {@code timeout}の単位
+	 * @return 終了したかどうか
+	 * @throws InterruptedException 待っている間に割り込まれた場合に発生
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException { return finished.await(timeout, unit); }
+	/**
+	 * セッションが終了した原因の例外を取得する。
+	 * 入力の終端に達して終了した場合は、{@link java.io.EOFException}を原因とする{@link IllegalStateException}となる。
+	 * @return 例外（正常に終了した場合と、終了していない場合は{@code null}）
+	 */
+	public RuntimeException getError() { return error; }
+
+	/**
+	 * 画面遷移を進める処理を、まだであれば実行待ちにする
+	 */
+	synchronized void schedule() {
+		if (scheduled || isFinished()) return;
+		scheduled = true;
+		executor.execute(runner);
+	}
+	/**
+	 * 入力が足りなくなるか、セッションが終了するまで画面遷移を進める
+	 */
+	private void advance() {
+		Terminal previous = Terminal.bind(terminal);
+		try {
+			while (view != null) {
+				reads = 0;
+				suppressed = shownReads > 0;
+				View next;
+				try {
+					next = view.view();
+				} catch (RuntimeException e) {
+					if (e != INPUT_PENDING) throw e;
+					out.flush();
+					synchronized (this) {
+						if (pending.isEmpty() && !closed) {
+							scheduled = false;
+							return;
+						}
+					}
+					continue;
+				}
+				stepLines.clear();
+				shownReads = 0;
+				suppressed = false;
+				view = next;
+				if (view != null)
+					out.println();
+				out.flush();
+			}
+			finished.countDown();
+		} catch (RuntimeException e) {
+			suppressed = false;
+			out.flush();
+			error = e;
+			finished.countDown();
+		} finally {
+			Terminal.bind(previous);
+		}
+	}
+}
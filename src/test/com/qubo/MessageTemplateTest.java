@@ -0,0 +1,60 @@
+package test.com.qubo;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.text.MessageFormat;
+
+import org.junit.Test;
+
+import com.qubo.MessageTemplate;
+
+/**
+ * {@link MessageTemplate}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class MessageTemplateTest {
+	/** {@link MessageTemplate#format(Object...)}のテスト */
+	@Test
+	public void testFormat() {
+		doTestFormat("┃{0}┃┃{1}┃┃{2}┃┃{3}┃┃{4}┃", "Ｈ", "Ｓ", "Ｄ", "Ｃ", "　");
+		doTestFormat("{0}を{1}に設定しました。", "交換回数", 3);
+		doTestFormat("{1}と{0}と{1}", "a", "b");
+		doTestFormat("引数なし");
+		doTestFormat("{0}~{1}の範囲で数値を入力してください！", 0, 20);
+		doTestFormat("大きな数値: {0}", 1234567);
+		doTestFormat("小数: {0}", 3.14159);
+		doTestFormat("足りない引数: {0} {1} {2}", "a");
+		doTestFormat("nullの引数: {0}", (Object) null);
+		doTestFormat("クォート: ''{0}'' '{1}' 'It''s'", "a", "b");
+		doTestFormat("閉じ括弧だけ: }{0}", "a");
+		doTestFormat("書式指定: {0,number,#.##}", 3.14159);
+		doTestFormat("選択: {0,choice,0#なし|1#一枚|1<{0}枚}", 2);
+	}
+	/**
+	 * {@link #testFormat()}用の内部メソッド
+	 * @param pattern 文字列フォーマット
+	 * @param arguments フォーマットの引数
+	 */
+	private void doTestFormat(String pattern, Object... arguments) {
+		String expected = MessageFormat.format(pattern, arguments);
+		assertThat(MessageTemplate.format(pattern, arguments), is(expected));
+		assertThat(MessageTemplate.compile(pattern).format(new StringBuilder("前置き"), arguments).toString(), is("前置き" + expected));
+	}
+
+	/** {@link MessageTemplate#compile(String)}のテスト */
+	@Test
+	public void testCompile() {
+		MessageTemplate template = MessageTemplate.compile("┃{0}┃");
+		assertTrue(template == MessageTemplate.compile("┃{0}┃"));
+		assertTrue(MessageTemplate.compile("引数なし") != MessageTemplate.compile("引数なし"));
+		assertThat(MessageTemplate.compile("'引数なし'").format(new StringBuilder(), new Object[0]).toString(), is("引数なし"));
+		try {
+			MessageTemplate.compile("閉じていない{0");
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package test.com.qubo;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.qubo.StripedLongArray;
+
+/**
+ * {@link StripedLongArray}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class StripedLongArrayTest {
+	/** {@link StripedLongArray#add(int, long)}のテスト */
+	@Test
+	public void testAdd() throws InterruptedException {
+		final StripedLongArray array = new StripedLongArray(5, 3);
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(new Runnable() {
+				@Override public void run() {
+					for (int i = 0; i < 10000; i++) {
+						array.increment(i % 5);
+					}
+					array.addAll(new long[] { 0, 0, 0, 0, 7 });
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		long[] snapshot = array.snapshot();
+		for (int i = 0; i < 5; i++) {
+			long expected = 8 * 2000 + (i == 4 ? 8 * 7 : 0);
+			assertThat(array.get(i), is(expected));
+			assertThat(snapshot[i], is(expected));
+		}
+		try {
+			array.add(5, 1);
+			fail();
+		} catch (ArrayIndexOutOfBoundsException e) {
+		}
+	}
+}
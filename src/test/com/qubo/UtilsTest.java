@@ -4,9 +4,17 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
 
 import org.junit.Test;
 
+import com.qubo.InputSource;
+import com.qubo.StreamInputSource;
 import com.qubo.Utils;
 
 /**
@@ -54,6 +62,49 @@ public class UtilsTest {
 	private void doTestToFullWidth(char input, char exp) {
 		char result = Utils.toFullWidth(input);
 		assertThat(result, is(exp));
+		assertThat(Utils.toHalfWidth(result), is(input));
+	}
+	/** {@link Utils#toFullWidth(char)}と{@link Utils#toHalfWidth(char)}が、全ての文字で互いに逆変換になっているかのテスト */
+	@Test
+	public void testToHalfWidth() {
+		for (char c = 0; c < 128; c++) {
+			assertThat(Utils.toHalfWidth(Utils.toFullWidth(c)), is(c));
+		}
+		for (char c = 0; c < Character.MAX_VALUE; c++) {
+			char half = Utils.toHalfWidth(c);
+			if (half != c) {
+				assertThat(Utils.toFullWidth(half), is(c));
+			}
+		}
+		doTestToHalfWidth('＂', '＂'); // 全角に変換しない文字は戻さない
+		doTestToHalfWidth('～', '～');
+		doTestToHalfWidth('あ', 'あ');
+	}
+	/**
+	 * {@link #testToHalfWidth()}用の内部メソッド
+	 * @param input 入力値
+	 * @param exp 予想値
+	 */
+	private void doTestToHalfWidth(char input, char exp) {
+		assertThat(Utils.toHalfWidth(input), is(exp));
+	}
+	/** 文字列をまとめて変換する{@link Utils#toFullWidth(String)}と{@link Utils#toHalfWidth(String)}のテスト */
+	@Test
+	public void testConvertString() {
+		assertThat(Utils.toFullWidth("H10 ja+"), is("Ｈ１０　ｊａ＋"));
+		assertThat(Utils.toFullWidth("全角とA"), is("全角とＡ"));
+		assertThat(Utils.toFullWidth(""), is(""));
+		assertThat(Utils.toHalfWidth("Ｈ１０　ｊａ＋"), is("H10 ja+"));
+		assertThat(Utils.toHalfWidth("全角とＡ"), is("全角とA"));
+		String text = "変換なし";
+		assertTrue(Utils.toHalfWidth(text) == text);
+
+		StringBuilder buffer = new StringBuilder("前置き");
+		char[] chars = "xyz123".toCharArray();
+		assertThat(Utils.toFullWidth(chars, 1, 3, buffer).toString(), is("前置きｙｚ１"));
+		buffer.setLength(0);
+		assertThat(Utils.toFullWidth("ab", buffer).toString(), is("ａｂ"));
+		assertThat(Utils.toHalfWidth("ｃｄ", buffer).toString(), is("ａｂcd"));
 	}
 
 	/** {@link Utils#rpad(String, int)}のテスト */
@@ -95,4 +146,45 @@ public class UtilsTest {
 		assertFalse(Utils.isBlank("　　　　")); // 全角非対応！
 	}
 
+	/** 一つの入力元を、複数のプロンプトで順番に読み込むテスト */
+	@Test
+	public void testPromptSharedInput() {
+		InputSource input = new StreamInputSource(new ByteArrayInputStream("x\ny\n\n25\n7\nabc\n\n".getBytes()));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrintStream out = new PrintStream(bytes);
+		char[] yesNo = { 'y', 'n' };
+
+		assertThat(Utils.promptChar(input, out, yesNo, 'n'), is('y'));
+		assertThat(Utils.promptChar(input, out, yesNo, 'n'), is('n'));
+		assertThat(Utils.promptInteger(input, out, 0, 20), is(7));
+		assertThat(Utils.promptInteger(input, out, 0, 20), is((Integer) null));
+		assertThat(bytes.toString().split("\r?\n").length, is(3));
+		try {
+			Utils.promptInteger(input, out, 0, 20);
+			fail();
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), is(Utils.ERROR_INPUT));
+		}
+	}
+	/** 全角で入力された場合のプロンプトのテスト */
+	@Test
+	public void testPromptFullWidth() {
+		InputSource input = new StreamInputSource(new StringReader("Ｙ\n１５\n"));
+		PrintStream out = new PrintStream(new ByteArrayOutputStream());
+		assertThat(Utils.promptChar(input, out, new char[] { 'y', 'n' }, 'n'), is('y'));
+		assertThat(Utils.promptInteger(input, out, 0, 20), is(15));
+	}
+	/** {@link Utils#setStandardInput(InputSource)}のテスト */
+	@Test
+	public void testSetStandardInput() {
+		InputSource original = Utils.getStandardInput();
+		try {
+			Utils.setStandardInput(new StreamInputSource(new ByteArrayInputStream("3\nn\n".getBytes())));
+			assertThat(Utils.promptInteger(0, 5), is(3));
+			assertThat(Utils.promptChar(new char[] { 'y', 'n' }, 'y'), is('n'));
+		} finally {
+			Utils.setStandardInput(original);
+		}
+	}
+
 }
@@ -0,0 +1,213 @@
+package test.com.qubo.challenge.poker.analytics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.analytics.Column;
+import com.qubo.challenge.poker.analytics.ColumnStore;
+import com.qubo.challenge.poker.analytics.ColumnStoreWriter;
+import com.qubo.challenge.poker.analytics.HandHistoryQueries;
+import com.qubo.challenge.poker.analytics.ScanResult;
+import com.qubo.challenge.poker.history.HandHistory;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * {@link ColumnStore}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class ColumnStoreTest {
+	/** 列指向ストアでの集計結果が、元のレコードを直接数えた結果と一致することのテスト */
+	@Test
+	public void testScan() throws IOException {
+		File directory = createTempDirectory();
+		List<HandHistory> histories = new ArrayList<HandHistory>();
+		Random random = new Random(0);
+		// ジョーカーの枚数ごとにまとめて書き込み、ブロックの読み飛ばしが起きるようにする
+		for (int jokerCount = 0; jokerCount <= 2; jokerCount++) {
+			for (int i = 0; i < 1000; i++) {
+				histories.add(playRound(random, jokerCount, i % 3));
+			}
+		}
+		ColumnStoreWriter writer = new ColumnStoreWriter(directory, 100);
+		for (HandHistory history : histories) {
+			writer.append(history);
+		}
+		writer.close();
+
+		ColumnStore store = new ColumnStore(directory);
+		try {
+			assertThat(store.getRowCount(), is(3000L));
+			assertThat(store.getBlockCount(), is(30));
+
+			for (int threads = 1; threads <= 4; threads *= 2) {
+				ScanResult result = store.scan().where(Column.JokerCount, 1).groupBy(Column.ChangeCount, Column.FinalType).count(threads);
+				assertThat(result.getSkippedBlocks(), is(20));
+				for (int changeCount = 0; changeCount < 3; changeCount++) {
+					for (TypeOfHand typeOfHand : TypeOfHand.values()) {
+						long expected = 0;
+						for (HandHistory history : histories) {
+							if (history.getJokerCount() == 1 && history.getChangeCount() == changeCount && history.getTypeOfHand() == typeOfHand) {
+								expected++;
+							}
+						}
+						assertThat(result.getCount(changeCount, typeOfHand.ordinal()), is(expected));
+					}
+				}
+				assertThat(result.getTotal(), is(1000L));
+			}
+
+			long[] distribution = HandHistoryQueries.getTypeOfHandDistribution(store, 2, 1, 2);
+			long total = 0;
+			for (long count : distribution) total += count;
+			assertThat(total, is(333L));
+
+			double[] rates = HandHistoryQueries.getImprovementRates(store, 2);
+			long improved = 0, discarded = 0;
+			for (HandHistory history : histories) {
+				if (history.getDiscardCount() == 2) {
+					discarded++;
+					if (history.getTypeOfHand().ordinal() < TypeOfHand.getTypeOfHand(history.getInitialHand()).ordinal()) improved++;
+				}
+			}
+			assertTrue(discarded > 0);
+			assertThat(rates[2], is((double) improved / discarded));
+		} finally {
+			store.close();
+			for (File file : directory.listFiles()) file.delete();
+			directory.delete();
+		}
+	}
+	/** ブロックの書き込みが途中で中断され、列によってブロック数が異なるストアを開いて追記するテスト */
+	@Test
+	public void testTornBlocks() throws IOException {
+		File directory = createTempDirectory();
+		List<HandHistory> histories = new ArrayList<HandHistory>();
+		Random random = new Random(1);
+		Column[] columns = Column.values();
+		try {
+			ColumnStoreWriter writer = new ColumnStoreWriter(directory, 100);
+			for (int i = 0; i < 1000; i++) {
+				HandHistory history = playRound(random, i % 3, i % 2);
+				histories.add(history);
+				writer.append(history);
+			}
+			writer.close();
+			long[] committed = getFileSizes(directory);
+			writer = new ColumnStoreWriter(directory, 100);
+			for (int i = 0; i < 100; i++) {
+				writer.append(playRound(random, 2, 1));
+			}
+			writer.close();
+			long[] torn = getFileSizes(directory);
+
+			// 最後のブロックを、先頭の列には書き終え、次の列には途中まで書き、残りの列には書かなかった状態にする
+			for (Column column : columns) {
+				int c = column.ordinal();
+				long length = (c < 2) ? torn[c] : (c == 2) ? torn[c] - 3 : committed[c];
+				RandomAccessFile raf = new RandomAccessFile(new File(directory, column.name() + ".col"), "rw");
+				raf.setLength(length);
+				raf.close();
+			}
+			doTestCounts(directory, histories, 10);
+
+			// 追記する前に、揃っていないブロックは切り詰められる
+			writer = new ColumnStoreWriter(directory, 100);
+			for (int i = 0; i < 50; i++) {
+				HandHistory history = playRound(random, 1, 2);
+				histories.add(history);
+				writer.append(history);
+			}
+			writer.close();
+			doTestCounts(directory, histories, 11);
+		} finally {
+			for (File file : directory.listFiles()) file.delete();
+			directory.delete();
+		}
+	}
+
+	/**
+	 * ストアの行数とブロック数、およびジョーカーの枚数ごとの行数が、元のレコードと一致することを確かめる
+	 * @param directory ストアのディレクトリ
+	 * @param histories 元のレコード
+	 * @param blockCount ブロック数
+	 * @throws IOException ストアを読み込めなかった場合に発生
+	 */
+	private static void doTestCounts(File directory, List<HandHistory> histories, int blockCount) throws IOException {
+		ColumnStore store = new ColumnStore(directory);
+		try {
+			assertThat(store.getRowCount(), is((long) histories.size()));
+			assertThat(store.getBlockCount(), is(blockCount));
+			ScanResult result = store.scan().groupBy(Column.JokerCount).count(2);
+			for (int jokerCount = 0; jokerCount <= 2; jokerCount++) {
+				long expected = 0;
+				for (HandHistory history : histories) {
+					if (history.getJokerCount() == jokerCount) expected++;
+				}
+				assertThat(result.getCount(jokerCount), is(expected));
+			}
+		} finally {
+			store.close();
+		}
+	}
+	/**
+	 * ストアの各列のファイルのサイズを取得する
+	 * @param directory ストアのディレクトリ
+	 * @return 列の序数ごとのファイルのサイズ
+	 */
+	private static long[] getFileSizes(File directory) {
+		Column[] columns = Column.values();
+		long[] sizes = new long[columns.length];
+		for (Column column : columns) {
+			sizes[column.ordinal()] = new File(directory, column.name() + ".col").length();
+		}
+		return sizes;
+	}
+	/**
+	 * テスト用に一ゲームを行い、その経過を記録する
+	 * @param random 交換位置を決めるための乱数
+	 * @param jokerCount ジョーカーの枚数
+	 * @param changeCount 交換回数
+	 * @return 一ゲームの経過
+	 */
+	private static HandHistory playRound(Random random, int jokerCount, int changeCount) {
+		try {
+			Deck deck = new Deck(jokerCount);
+			Hand hand = deck.deal();
+			HandHistory.Recorder recorder = new HandHistory.Recorder(jokerCount, changeCount, hand);
+			for (int i = 0; i < changeCount; i++) {
+				int[] change = (random.nextBoolean()) ? new int[] { 0, 3 } : new int[] { random.nextInt(5) };
+				deck.change(hand, change);
+				recorder.exchange(hand, change);
+			}
+			return recorder.finish(TypeOfHand.getTypeOfHand(hand));
+		} catch (CardException e) {
+			fail(e.getMessage());
+			return null;
+		}
+	}
+	/**
+	 * 空の一時ディレクトリを作成する
+	 * @return 一時ディレクトリ
+	 * @throws IOException ディレクトリを作成できなかった場合に発生
+	 */
+	private static File createTempDirectory() throws IOException {
+		File directory = File.createTempFile("column-store", "");
+		directory.delete();
+		directory.mkdirs();
+		return directory;
+	}
+}
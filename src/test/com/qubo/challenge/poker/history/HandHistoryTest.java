@@ -0,0 +1,278 @@
+package test.com.qubo.challenge.poker.history;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.history.HandHistory;
+import com.qubo.challenge.poker.history.HandHistoryReader;
+import com.qubo.challenge.poker.history.HandHistoryWriter;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * {@link HandHistoryWriter}と{@link HandHistoryReader}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class HandHistoryTest {
+	/** 書き込んだレコードを、そのまま読み込めることのテスト */
+	@Test
+	public void testWriteAndRead() throws IOException {
+		File file = createTempFile();
+		List<HandHistory> expected = new ArrayList<HandHistory>();
+		HandHistoryWriter writer = new HandHistoryWriter(file, 256);
+		for (int i = 0; i < 1000; i++) {
+			HandHistory history = playRound(new Random(i), i % 3, i % 4);
+			expected.add(history);
+			writer.append(history);
+			if (i % 100 == 0) writer.sync();
+		}
+		writer.close();
+		// 追記モードで開き直しても、ヘッダは書き込まれない
+		writer = new HandHistoryWriter(file);
+		HandHistory history = playRound(new Random(-1), 2, 20);
+		expected.add(history);
+		writer.append(history);
+		writer.close();
+
+		assertThat(readAll(file), is(expected));
+		file.delete();
+	}
+	/** {@link HandHistory}の内容が、ゲームの経過と一致することのテスト */
+	@Test
+	public void testRecorder() throws CardException {
+		Deck deck = new Deck(1);
+		Hand hand = deck.deal();
+		HandHistory.Recorder recorder = new HandHistory.Recorder(1, 3, hand);
+		String initial = hand.toString();
+		deck.change(hand, 0, 3);
+		recorder.exchange(hand, 0, 3);
+		deck.change(hand, 4, 1, 2);
+		recorder.exchange(hand, 4, 1, 2);
+		HandHistory history = recorder.finish(TypeOfHand.getTypeOfHand(hand));
+
+		assertThat(history.getInitialHand().toString(), is(initial));
+		assertThat(history.getFinalHand().toString(), is(hand.toString()));
+		assertThat(history.getExchangeCount(), is(2));
+		assertThat(history.getExchangeMask(0), is(0x09));
+		assertThat(history.getExchangeMask(1), is(0x16));
+		assertThat(history.getDiscardCount(), is(5));
+		assertThat(history.getDrawnCards(1)[2], is(hand.get(4)));
+		assertThat(history.getTypeOfHand(), is(TypeOfHand.getTypeOfHand(hand)));
+	}
+	/** 最後のレコードが途中で切れたファイルを読み込むテスト */
+	@Test
+	public void testTruncatedFile() throws IOException {
+		File file = createTempFile();
+		HandHistoryWriter writer = new HandHistoryWriter(file);
+		for (int i = 0; i < 10; i++) {
+			writer.append(playRound(new Random(i), 0, 1));
+		}
+		writer.close();
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(raf.length() - 3);
+		raf.close();
+
+		assertThat(readAll(file).size(), is(9));
+		file.delete();
+	}
+	/** 最後のレコードが途中で切れたファイルに追記するテスト */
+	@Test
+	public void testAppendAfterTruncatedRecord() throws IOException {
+		File file = createTempFile();
+		List<HandHistory> expected = new ArrayList<HandHistory>();
+		HandHistoryWriter writer = new HandHistoryWriter(file);
+		for (int i = 0; i < 10; i++) {
+			HandHistory history = playRound(new Random(i), 1, 2);
+			expected.add(history);
+			writer.append(history);
+		}
+		writer.close();
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(raf.length() - 3);
+		raf.close();
+
+		// 途中で切れたレコードは切り詰められ、追記したレコードがその後に続く
+		expected.remove(expected.size() - 1);
+		writer = new HandHistoryWriter(file);
+		HandHistory history = playRound(new Random(-1), 2, 3);
+		expected.add(history);
+		writer.append(history);
+		writer.close();
+		assertThat(readAll(file), is(expected));
+
+		// ファイルヘッダが途中で切れている場合は、ヘッダから書き直す
+		raf = new RandomAccessFile(file, "rw");
+		raf.setLength(2);
+		raf.close();
+		writer = new HandHistoryWriter(file);
+		writer.append(history);
+		writer.close();
+		assertThat(readAll(file).size(), is(1));
+		file.delete();
+	}
+	/** レコードを追記せずに閉じたファイルを読み込むテスト */
+	@Test
+	public void testEmptyFile() throws IOException {
+		File file = createTempFile();
+		new HandHistoryWriter(file).close();
+		assertThat(readAll(file).size(), is(0));
+
+		// 空のファイルにも追記できる
+		HandHistoryWriter writer = new HandHistoryWriter(file);
+		writer.append(playRound(new Random(0), 0, 1));
+		writer.close();
+		assertThat(readAll(file).size(), is(1));
+		file.delete();
+	}
+	/** 他のスレッドが追記している間に閉じても、追記に成功したレコードが失われないことのテスト */
+	@Test
+	public void testCloseWhileAppending() throws Exception {
+		final File file = createTempFile();
+		final HandHistoryWriter writer = new HandHistoryWriter(file, 256);
+		final int threads = 4;
+		final long[] succeeded = new long[threads];
+		List<Thread> workers = new ArrayList<Thread>();
+		for (int t = 0; t < threads; t++) {
+			final int index = t;
+			Thread worker = new Thread() {
+				@Override public void run() {
+					Random random = new Random(index);
+					try {
+						while (true) {
+							writer.append(playRound(random, 0, 1));
+							succeeded[index]++;
+						}
+					} catch (IOException e) {
+						// 閉じられた
+					}
+				}
+			};
+			workers.add(worker);
+			worker.start();
+		}
+		Thread.sleep(50);
+		writer.close();
+		long total = 0;
+		for (int t = 0; t < threads; t++) {
+			workers.get(t).join();
+			total += succeeded[t];
+		}
+		assertThat((long) readAll(file).size(), is(total));
+		file.delete();
+	}
+	/** 複数のスレッドから同時に書き込むテスト */
+	@Test
+	public void testConcurrentAppend() throws Exception {
+		final File file = createTempFile();
+		final HandHistoryWriter writer = new HandHistoryWriter(file, 512);
+		final int threads = 8, rounds = 500;
+		List<Thread> workers = new ArrayList<Thread>();
+		final List<Throwable> errors = new ArrayList<Throwable>();
+		for (int t = 0; t < threads; t++) {
+			final int seed = t;
+			Thread worker = new Thread() {
+				@Override public void run() {
+					try {
+						Random random = new Random(seed);
+						for (int i = 0; i < rounds; i++) {
+							writer.append(playRound(random, seed % 3, 2));
+							if (i % 50 == 0) writer.sync();
+						}
+					} catch (Throwable e) {
+						synchronized (errors) { errors.add(e); }
+					}
+				}
+			};
+			workers.add(worker);
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		writer.close();
+		assertThat(errors.size(), is(0));
+
+		Set<Integer> jokerCounts = new HashSet<Integer>();
+		List<HandHistory> histories = readAll(file);
+		for (HandHistory history : histories) {
+			assertNotNull(history.getTypeOfHand());
+			jokerCounts.add(history.getJokerCount());
+		}
+		assertThat(histories.size(), is(threads * rounds));
+		assertThat(jokerCounts.size(), is(3));
+		file.delete();
+	}
+
+	/**
+	 * テスト用に一ゲームを行い、その経過を記録する
+	 * @param random 交換位置を決めるための乱数
+	 * @param jokerCount ジョーカーの枚数
+	 * @param changeCount 交換回数
+	 * @return 一ゲームの経過
+	 */
+	static HandHistory playRound(Random random, int jokerCount, int changeCount) {
+		try {
+			Deck deck = new Deck(jokerCount);
+			Hand hand = deck.deal();
+			HandHistory.Recorder recorder = new HandHistory.Recorder(jokerCount, changeCount, hand);
+			for (int i = 0; i < changeCount && deck.getRemainings() >= 5; i++) {
+				List<Integer> indices = new ArrayList<Integer>();
+				for (int position = 0; position < 5; position++) {
+					if (random.nextBoolean()) indices.add(position);
+				}
+				int[] change = new int[indices.size()];
+				for (int j = 0; j < change.length; j++) change[j] = indices.get(j);
+				deck.change(hand, change);
+				recorder.exchange(hand, change);
+			}
+			return recorder.finish(TypeOfHand.getTypeOfHand(hand));
+		} catch (CardException e) {
+			fail(e.getMessage());
+			return null;
+		}
+	}
+	/**
+	 * ファイルから全てのレコードを読み込む
+	 * @param file ファイル
+	 * @return 読み込んだレコード
+	 * @throws IOException 読み込みに失敗した場合に発生
+	 */
+	static List<HandHistory> readAll(File file) throws IOException {
+		List<HandHistory> histories = new ArrayList<HandHistory>();
+		HandHistoryReader reader = new HandHistoryReader(file);
+		try {
+			for (HandHistory history = reader.next(); history != null; history = reader.next()) {
+				histories.add(history);
+			}
+		} finally {
+			reader.close();
+		}
+		return histories;
+	}
+	/**
+	 * 空の一時ファイルを作成する
+	 * @return 一時ファイル
+	 * @throws IOException ファイルを作成できなかった場合に発生
+	 */
+	static File createTempFile() throws IOException {
+		File file = File.createTempFile("hand-history", ".bin");
+		file.delete();
+		file.deleteOnExit();
+		return file;
+	}
+}
@@ -0,0 +1,2 @@
+/** パッケージ{@link com.qubo.challenge.poker.history}用テストを定義したパッケージ */
+package test.com.qubo.challenge.poker.history;
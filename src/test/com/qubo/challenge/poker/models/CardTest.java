@@ -49,6 +49,37 @@ public class CardTest {
 		}
 	}
 
+	/** {@link Card#getCode()}および{@link Card#valueOf(int)}のテスト */
+	@Test
+	public void testCode() {
+		doTestCode("H2", 0);
+		doTestCode("HA", 12);
+		doTestCode("S2", 13);
+		doTestCode("D10", 34);
+		doTestCode("CA", 51);
+		doTestCode("  ", Card.CODE_JOKER);
+		try {
+			Card.valueOf(Card.CODE_COUNT);
+			fail();
+		} catch (CardException e) {
+			assertThat(e.getMessage(), is(MessageFormat.format(Card.ERROR_CODE_OUT_OF_RANGE, Card.CODE_COUNT)));
+		}
+	}
+	/**
+	 * {@link #testCode()}用の内部メソッド
+	 * @param format カードの文字列表現
+	 * @param code 予想されるカードコード
+	 */
+	private void doTestCode(String format, int code) {
+		try {
+			Card card = Card.parse(format);
+			assertThat(card.getCode(), is(code));
+			assertThat(Card.valueOf(code), is(card));
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+
 	/** {@link Card#parse(String)}のテスト */
 	@Test
 	public void testParse() {
@@ -0,0 +1,87 @@
+package test.com.qubo.challenge.poker.models;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.DeckComposition;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.Suit;
+
+/**
+ * {@link DeckComposition}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class DeckCompositionTest {
+	/** 作成直後のデッキの構成のテスト */
+	@Test
+	public void testInitial() {
+		try {
+			DeckComposition composition = new Deck(3, 2).getComposition();
+			assertThat(composition.getTotal(), is(52 * 3 + 2));
+			assertThat(composition.getJokers(), is(2));
+			assertThat(composition.getCount(Suit.Joker), is(2));
+			assertThat(composition.getCount(Suit.Heart), is(13 * 3));
+			assertThat(composition.getCount(14), is(4 * 3));
+			assertThat(composition.getCount(Suit.Spade, 10), is(3));
+			assertThat(composition.getCount(Card.parse("D2")), is(3));
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+	/** 配布・交換・復元の後も、構成が残ったカードを数え直した結果と一致することのテスト */
+	@Test
+	public void testUpdate() {
+		Random random = new Random(5);
+		try {
+			for (int n = 0; n < 20; n++) {
+				Deck deck = new Deck(1 + random.nextInt(2), random.nextInt(3), random);
+				Hand hand = deck.deal();
+				Deck.Snapshot snapshot = deck.createSnapshot();
+				deck.save(snapshot, hand);
+				doTestMatches(deck);
+				for (int i = 0; i < 5 && deck.getRemainings() >= 5; i++) {
+					deck.change(hand, 0, 2, 4);
+					doTestMatches(deck);
+					deck.deal();
+					doTestMatches(deck);
+				}
+				deck.restore(snapshot, hand);
+				doTestMatches(deck);
+			}
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+	/**
+	 * 構成が残ったカードを数え直した結果と一致することを確かめる
+	 * @param deck デッキ
+	 */
+	private void doTestMatches(Deck deck) {
+		DeckComposition composition = deck.getComposition();
+		int[] cards = new int[Card.CODE_COUNT], ranks = new int[15], suits = new int[Suit.values().length];
+		for (Card card : deck.getRemainingCards()) {
+			cards[card.getCode()]++;
+			suits[card.getSuit().ordinal()]++;
+			if (card.getSuit() != Suit.Joker) ranks[card.getRawNumber()]++;
+		}
+		assertThat(composition.getTotal(), is(deck.getRemainings()));
+		assertThat(composition.getJokers(), is(cards[Card.CODE_JOKER]));
+		for (Suit suit : Suit.values()) {
+			assertThat(composition.getCount(suit), is(suits[suit.ordinal()]));
+		}
+		for (int number = 2; number <= 14; number++) {
+			assertThat(composition.getCount(number), is(ranks[number]));
+		}
+		for (Card card : deck.getRemainingCards()) {
+			assertThat(composition.getCount(card), is(cards[card.getCode()]));
+		}
+	}
+}
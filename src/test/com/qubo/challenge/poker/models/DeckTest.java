@@ -11,6 +11,7 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -217,12 +218,18 @@ public class DeckTest {
 		for (Card card : hand) {
 			list.add(card);
 		}
+		int remainings = deck.getRemainings();
+		int discards = deck.getDiscards();
 		try {
 			deck.change(hand, indices);
 		} catch (CardException e) {
 			fail(e.getMessage());
 		}
+		assertThat(deck.getRemainings(), is(remainings - indices.length));
+		assertThat(deck.getDiscards(), is(discards + indices.length));
 		for (int i : indices) {
+			// ジョーカーは全て同じインスタンスなので、ジョーカー同士の交換は上の枚数の変化で確かめる
+			if (hand.get(i).getSuit() == Suit.Joker && list.get(i).getSuit() == Suit.Joker) continue;
 			assertNotSame(hand.get(i), list.get(i));
 		}
 		for (int i = 0; i < 5; i++) {
@@ -315,4 +322,117 @@ public class DeckTest {
 			fail(e.getMessage());
 		}
 	}
+
+	/** {@link Deck#Deck(int, Random)}のテスト */
+	@Test
+	public void testSeededDeck() {
+		try {
+			Deck deck1 = new Deck(1, new Random(42));
+			Deck deck2 = new Deck(1, new Random(42));
+			Hand hand1 = deck1.deal();
+			Hand hand2 = deck2.deal();
+			for (int i = 0; i < 5; i++) {
+				assertThat(hand1.get(i), is(hand2.get(i)));
+			}
+			// 交換するカードが違っても、引かれるカードの順番は同じ
+			deck1.change(hand1, 0, 1);
+			deck2.change(hand2, 3, 4);
+			assertThat(hand1.get(0), is(hand2.get(3)));
+			assertThat(hand1.get(1), is(hand2.get(4)));
+			deck1.change(hand1, 2);
+			deck2.change(hand2, 0);
+			assertThat(hand1.get(2), is(hand2.get(0)));
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/** {@link Deck#save(Deck.Snapshot, Hand)}と{@link Deck#restore(Deck.Snapshot, Hand)}のテスト */
+	@Test
+	public void testSnapshot() {
+		try {
+			Deck deck = new Deck(2, new Random(7));
+			Hand hand = deck.deal();
+			deck.change(hand, 0, 2);
+			Deck.Snapshot snapshot = deck.createSnapshot();
+			deck.save(snapshot, hand);
+			List<Card> remainings = new ArrayList<Card>(deck.getRemainingCards());
+			String handString = hand.toString();
+			int discards = deck.getDiscards();
+			for (int i = 0; i < 100; i++) {
+				deck.change(hand, 1, 3, 4);
+				deck.change(hand, 0, 1, 2, 3, 4);
+				deck.deal();
+				assertThat(deck.getRemainings(), is(remainings.size() - 13));
+				deck.restore(snapshot, hand);
+				assertThat(deck.getRemainingCards(), is(remainings));
+				assertThat(hand.toString(), is(handString));
+				assertThat(deck.getDiscards(), is(discards));
+			}
+			// 手札を保存しなかった場合は、デッキだけを戻す
+			deck.save(snapshot, null);
+			deck.change(hand, 0);
+			deck.restore(snapshot, null);
+			assertThat(deck.getRemainingCards(), is(remainings));
+			try {
+				deck.restore(snapshot, hand);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertThat(e.getMessage(), is(MessageFormat.format(Deck.ERROR_SNAPSHOT_HAND_SIZE, 0, 5)));
+			}
+			try {
+				new Deck().restore(snapshot, null);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertThat(e.getMessage(), is(Deck.ERROR_SNAPSHOT_OWNER));
+			}
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+	/** {@link Deck#Deck(int, int, Random)}と{@link Deck#deal(int)}のテスト */
+	@Test
+	public void testShoe() {
+		try {
+			for (int deckCount = 1; deckCount <= Deck.DECK_COUNT_MAX; deckCount++) {
+				Deck deck = new Deck(deckCount, deckCount % 3, new Random(deckCount));
+				assertThat(deck.getDeckCount(), is(deckCount));
+				assertThat(deck.getRemainings(), is(52 * deckCount + deckCount % 3));
+				int aces = 0;
+				for (Card card : deck.getRemainingCards()) {
+					if (card.getSuit() == Suit.Spade && card.getRawNumber() == 14) aces++;
+				}
+				assertThat(aces, is(deckCount));
+				Hand hand = deck.deal(7);
+				assertThat(hand.size(), is(7));
+				assertThat(deck.getRemainings(), is(52 * deckCount + deckCount % 3 - 7));
+			}
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+		doFailTestShoe(0, 0, Deck.ERROR_DECK_COUNT_RANGE);
+		doFailTestShoe(Deck.DECK_COUNT_MAX + 1, 0, Deck.ERROR_DECK_COUNT_RANGE);
+		doFailTestShoe(2, Deck.JOKER_COUNT_MAX + 1, Deck.ERROR_JOKER_COUNT_RANGE);
+		try {
+			new Deck(2, 0).deal(Hand.SIZE - 1);
+			fail();
+		} catch (CardException e) {
+			fail(e.getMessage());
+		} catch (IllegalArgumentException e) {
+		}
+	}
+	/**
+	 * {@link #testShoe()}用の内部メソッド
+	 * @param deckCount トランプの組数
+	 * @param jokerCount ジョーカーの枚数
+	 * @param message 予想される例外のメッセージ
+	 */
+	private void doFailTestShoe(int deckCount, int jokerCount, String message) {
+		try {
+			new Deck(deckCount, jokerCount);
+			fail();
+		} catch (CardException e) {
+			assertThat(e.getMessage(), is(message));
+		}
+	}
 }
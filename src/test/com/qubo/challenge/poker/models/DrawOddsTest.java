@@ -0,0 +1,118 @@
+package test.com.qubo.challenge.poker.models;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.DrawOdds;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * {@link DrawOdds}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class DrawOddsTest {
+	/** {@link DrawOdds#of(Hand, Deck)}のテスト。残りの少ないデッキで、全ての交換の仕方を総当たりと比べる */
+	@Test
+	public void testOfSmallDeck() {
+		for (long seed = 0; seed < 30; seed++) {
+			try {
+				Deck deck = new Deck((int) (seed % 3), new Random(seed));
+				Hand hand = deck.deal();
+				while (deck.getRemainings() >= 18) {
+					hand = deck.deal();
+				}
+				doTestOf(hand, deck, 5);
+			} catch (CardException e) {
+				fail(e.getMessage());
+			}
+		}
+	}
+	/** {@link DrawOdds#of(Hand, Deck)}のテスト。配られた直後のデッキで、3枚までの交換を総当たりと比べる */
+	@Test
+	public void testOfFullDeck() {
+		for (long seed = 0; seed < 6; seed++) {
+			try {
+				Deck deck = new Deck((int) (seed % 3), new Random(seed));
+				doTestOf(deck.deal(), deck, 3);
+			} catch (CardException e) {
+				fail(e.getMessage());
+			}
+		}
+	}
+	/** {@link DrawOdds#of(Hand, Deck)}のテスト。同じカードが複数枚ある複数組のシューで、総当たりと比べる */
+	@Test
+	public void testOfShoe() {
+		for (long seed = 0; seed < 6; seed++) {
+			try {
+				Deck deck = new Deck(2 + (int) (seed % 2), (int) (seed % 3), new Random(seed));
+				doTestOf(deck.deal(), deck, 2);
+				Hand hand = deck.deal();
+				while (deck.getRemainings() >= 18) {
+					hand = deck.deal();
+				}
+				doTestOf(hand, deck, 5);
+			} catch (CardException e) {
+				fail(e.getMessage());
+			}
+		}
+	}
+	/**
+	 * 総当たりで求めた引き方の数と比べる
+	 * @param hand 手札
+	 * @param deck デッキ
+	 * @param maxDraws 比べる交換の仕方の最大枚数
+	 */
+	private void doTestOf(Hand hand, Deck deck, int maxDraws) {
+		DrawOdds odds = DrawOdds.of(hand, deck);
+		for (int mask = 0; mask < DrawOdds.PATTERN_COUNT; mask++) {
+			if (Integer.bitCount(mask) > maxDraws) continue;
+			long[] expected = new long[TypeOfHand.values().length];
+			Card[] cards = new Card[5];
+			for (int i = 0; i < 5; i++) {
+				cards[i] = hand.get(i);
+			}
+			enumerate(cards, mask, 0, deck.getRemainingCards(), 0, expected);
+			long total = 0;
+			for (TypeOfHand typeOfHand : TypeOfHand.values()) {
+				assertThat(hand + " " + mask + " " + typeOfHand, odds.getWays(mask, typeOfHand), is(expected[typeOfHand.ordinal()]));
+				total += expected[typeOfHand.ordinal()];
+			}
+			assertThat(odds.getTotal(mask), is(total));
+		}
+	}
+	/**
+	 * {@link #doTestOf(Hand, Deck, int)}用の内部メソッド
+	 * @param cards 手札（書き換えられる）
+	 * @param mask 交換する位置のビットマスク
+	 * @param position 次に調べる位置
+	 * @param deck デッキに残ったカード
+	 * @param start 次に引くカードの最小の位置
+	 * @param counts 役の序数ごとの引き方の数
+	 */
+	private void enumerate(Card[] cards, int mask, int position, List<Card> deck, int start, long[] counts) {
+		if (position == 5) {
+			counts[TypeOfHand.getTypeOfHand(new Hand(cards[0], cards[1], cards[2], cards[3], cards[4])).ordinal()]++;
+			return;
+		}
+		if ((mask & (1 << position)) == 0) {
+			enumerate(cards, mask, position + 1, deck, start, counts);
+			return;
+		}
+		Card original = cards[position];
+		for (int i = start; i < deck.size(); i++) {
+			cards[position] = deck.get(i);
+			enumerate(cards, mask, position + 1, deck, i + 1, counts);
+		}
+		cards[position] = original;
+	}
+}
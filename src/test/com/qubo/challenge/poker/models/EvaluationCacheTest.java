@@ -0,0 +1,114 @@
+package test.com.qubo.challenge.poker.models;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.EvaluationCache;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * {@link EvaluationCache}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class EvaluationCacheTest {
+	/** {@link EvaluationCache#getTypeOfHand(Hand)}のテスト。二度目は当たり、結果は直接求めたものと一致する */
+	@Test
+	public void testGetTypeOfHand() {
+		EvaluationCache cache = new EvaluationCache(1024);
+		List<Hand> hands = createHands(100, 1);
+		for (Hand hand : hands) {
+			assertThat(cache.getTypeOfHand(hand), is(TypeOfHand.getTypeOfHand(hand)));
+		}
+		long misses = cache.getMissCount();
+		for (Hand hand : hands) {
+			assertThat(cache.getTypeOfHand(hand), is(TypeOfHand.getTypeOfHand(hand)));
+		}
+		assertThat(cache.getMissCount(), is(misses));
+		assertThat(cache.getHitCount() + cache.getMissCount(), is(200L));
+		assertTrue(cache.getHitCount() >= 100);
+	}
+	/** {@link EvaluationCache#packedCode(Hand)}のテスト。カードの並び順に依存しない */
+	@Test
+	public void testPackedCode() {
+		try {
+			Hand hand = new Hand("H2", "SA", "  ", "C9", "D5");
+			long expected = (0L << 24) | (25L << 18) | (29L << 12) | (46L << 6) | Card.CODE_JOKER;
+			assertThat(EvaluationCache.packedCode(hand), is(expected));
+			assertThat(EvaluationCache.packedCode(new Hand("  ", "D5", "C9", "SA", "H2")), is(expected));
+			assertThat(EvaluationCache.packedCode(new Hand("C9", "  ", "H2", "D5", "SA")), is(expected));
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+	/** 容量を超えた場合に追い出しが起き、それでも結果が正しいことのテスト */
+	@Test
+	public void testEviction() {
+		EvaluationCache cache = new EvaluationCache(16);
+		assertThat(cache.getCapacity(), is(16));
+		for (Hand hand : createHands(500, 2)) {
+			assertThat(cache.getTypeOfHand(hand), is(TypeOfHand.getTypeOfHand(hand)));
+		}
+		assertTrue(cache.getEvictionCount() > 0);
+		assertTrue(cache.getEvictionCount() <= cache.getMissCount());
+	}
+	/** 複数のスレッドから同時に使った場合のテスト */
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		final EvaluationCache cache = new EvaluationCache(64);
+		final List<Hand> hands = createHands(200, 3);
+		final AtomicInteger errors = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			final int offset = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int n = 0; n < 20; n++) {
+						for (int j = 0; j < hands.size(); j++) {
+							Hand hand = hands.get((j + offset * 17) % hands.size());
+							if (cache.getTypeOfHand(hand) != TypeOfHand.getTypeOfHand(hand)) errors.incrementAndGet();
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(errors.get(), is(0));
+		assertThat(cache.getHitCount() + cache.getMissCount(), is(4L * 20 * 200));
+	}
+
+	/**
+	 * シードを固定したデッキから手札を作成する
+	 * @param count 手札の数
+	 * @param seed シード
+	 * @return 手札のリスト
+	 */
+	private static List<Hand> createHands(int count, long seed) {
+		List<Hand> hands = new ArrayList<Hand>();
+		Random random = new Random(seed);
+		try {
+			while (hands.size() < count) {
+				hands.add(new Deck(random.nextInt(3), random).deal());
+			}
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+		return hands;
+	}
+}
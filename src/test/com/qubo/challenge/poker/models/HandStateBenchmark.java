@@ -0,0 +1,148 @@
+package test.com.qubo.challenge.poker.models;
+
+import java.util.Locale;
+import java.util.Random;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.HandState;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * 7枚の手札の評価速度を測るベンチマーク。<br />
+ * 場札5枚と各プレイヤーの2枚から成るホールデム形式の配り方で、次の3つを比べる。
+ * <ul>
+ * <li>場札の状態を一度だけ作り、プレイヤーごとに複製して2枚を加える（{@link HandState#copyFrom(HandState)}）</li>
+ * <li>プレイヤーごとに7枚を最初から加える</li>
+ * <li>21通りの5枚の組み合わせを{@link Hand}として作り、{@link TypeOfHand#getTypeOfHand(Hand)}で評価する</li>
+ * </ul>
+ * 引数：配る回数（省略時は2,000,000）
+ * @author Qubo
+ */
+public class HandStateBenchmark {
+	/** プレイヤーの数 */
+	private static final int PLAYERS = 9;
+	/** 事前に作っておく配り方の数 */
+	private static final int DEALS = 4096;
+	/** 1回の配り方で使うカードの枚数 */
+	private static final int CARDS = 5 + PLAYERS * 2;
+
+	/**
+	 * ベンチマークを実行する
+	 * @param args コマンドライン引数
+	 */
+	public static void main(String[] args) {
+		int deals = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+		int[] codes = createDeals(new Random(0));
+		System.out.println("method\tMevals/s");
+		for (int round = 0; round < 2; round++) {
+			report("Incremental", deals, incremental(codes, deals / 10), codes, 0);
+			report("Scratch", deals, scratch(codes, deals / 10), codes, 1);
+			report("Subsets", deals / 20, subsets(codes, deals / 200), codes, 2);
+		}
+	}
+	/**
+	 * 一つの方法を測定して表示する
+	 * @param name 方法の名前
+	 * @param deals 配る回数
+	 * @param warmup ウォームアップの結果（最適化で処理が消されないようにするためのもの）
+	 * @param codes 配り方
+	 * @param method 方法の番号
+	 */
+	private static void report(String name, int deals, long warmup, int[] codes, int method) {
+		long begin = System.nanoTime();
+		long sink = (method == 0) ? incremental(codes, deals) : (method == 1) ? scratch(codes, deals) : subsets(codes, deals);
+		long elapsed = System.nanoTime() - begin;
+		System.out.println(String.format(Locale.ROOT, "%s\t%.1f\t(%d)", name, (double) deals * PLAYERS / elapsed * 1000, sink + warmup));
+	}
+	/**
+	 * 場札の状態を複製して評価する
+	 * @param codes 配り方
+	 * @param deals 配る回数
+	 * @return 強さの合計
+	 */
+	private static long incremental(int[] codes, int deals) {
+		HandState board = new HandState(), player = new HandState();
+		long sum = 0;
+		for (int i = 0; i < deals; i++) {
+			int base = (i & (DEALS - 1)) * CARDS;
+			board.clear();
+			for (int j = 0; j < 5; j++) board.add(codes[base + j]);
+			for (int p = 0, c = base + 5; p < PLAYERS; p++, c += 2) {
+				sum += player.copyFrom(board).add(codes[c]).add(codes[c + 1]).getStrength();
+			}
+		}
+		return sum;
+	}
+	/**
+	 * プレイヤーごとに7枚を最初から加えて評価する
+	 * @param codes 配り方
+	 * @param deals 配る回数
+	 * @return 強さの合計
+	 */
+	private static long scratch(int[] codes, int deals) {
+		HandState player = new HandState();
+		long sum = 0;
+		for (int i = 0; i < deals; i++) {
+			int base = (i & (DEALS - 1)) * CARDS;
+			for (int p = 0, c = base + 5; p < PLAYERS; p++, c += 2) {
+				player.clear();
+				for (int j = 0; j < 5; j++) player.add(codes[base + j]);
+				sum += player.add(codes[c]).add(codes[c + 1]).getStrength();
+			}
+		}
+		return sum;
+	}
+	/**
+	 * 21通りの5枚の組み合わせを{@link Hand}として評価する
+	 * @param codes 配り方
+	 * @param deals 配る回数
+	 * @return 役の序数の合計
+	 */
+	private static long subsets(int[] codes, int deals) {
+		Card[] seven = new Card[7];
+		long sum = 0;
+		try {
+			for (int i = 0; i < deals; i++) {
+				int base = (i & (DEALS - 1)) * CARDS;
+				for (int j = 0; j < 5; j++) seven[j] = Card.valueOf(codes[base + j]);
+				for (int p = 0, c = base + 5; p < PLAYERS; p++, c += 2) {
+					seven[5] = Card.valueOf(codes[c]);
+					seven[6] = Card.valueOf(codes[c + 1]);
+					int best = TypeOfHand.ALL.length;
+					for (int mask = 0; mask < (1 << 7); mask++) {
+						if (Integer.bitCount(mask) != 5) continue;
+						Card[] five = new Card[5];
+						for (int j = 0, n = 0; j < 7; j++) {
+							if ((mask & (1 << j)) != 0) five[n++] = seven[j];
+						}
+						best = Math.min(best, TypeOfHand.getTypeOfHand(new Hand(five)).ordinal());
+					}
+					sum += best;
+				}
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		return sum;
+	}
+	/**
+	 * ジョーカーを含まないデッキから、配り方を作る
+	 * @param random 乱数
+	 * @return 配り方ごとに{@value #CARDS}枚のカードコードを並べた配列
+	 */
+	private static int[] createDeals(Random random) {
+		int[] codes = new int[DEALS * CARDS];
+		int[] deck = new int[52];
+		for (int d = 0; d < DEALS; d++) {
+			for (int i = 0; i < deck.length; i++) deck[i] = i;
+			for (int i = 0; i < CARDS; i++) {
+				int j = i + random.nextInt(deck.length - i), t = deck[i];
+				deck[i] = deck[j];
+				deck[j] = t;
+				codes[d * CARDS + i] = deck[i];
+			}
+		}
+		return codes;
+	}
+}
@@ -0,0 +1,195 @@
+package test.com.qubo.challenge.poker.models;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.HandState;
+import com.qubo.challenge.poker.models.TypeOfHand;
+
+/**
+ * {@link HandState}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class HandStateTest {
+	/** {@link HandState#copyFrom(HandState)}のテスト。共通のカードを加えた状態から続けても、最初から加えた場合と同じになる */
+	@Test
+	public void testCopyFrom() {
+		Random random = new Random(0);
+		HandState board = new HandState(), player = new HandState(), scratch = new HandState();
+		for (int i = 0; i < 1000; i++) {
+			int[] codes = shuffledCodes(random, random.nextInt(3));
+			board.clear();
+			for (int j = 0; j < 5; j++) board.add(codes[j]);
+			for (int seat = 0; seat < 4; seat++) {
+				player.copyFrom(board).add(codes[5 + seat * 2]).add(codes[6 + seat * 2]);
+				scratch.clear().add(codes[5 + seat * 2]).add(codes[6 + seat * 2]);
+				for (int j = 0; j < 5; j++) scratch.add(codes[j]);
+				assertThat(player.size(), is(7));
+				assertThat(player.getStrength(), is(scratch.getStrength()));
+			}
+			assertThat(board.size(), is(5));
+		}
+	}
+	/** {@link HandState#getTypeOfHand()}のテスト。{@link TypeOfHand#getTypeOfHand(Hand)}と一致する */
+	@Test
+	public void testGetTypeOfHand() {
+		Random random = new Random(1);
+		try {
+			for (int i = 0; i < 5000; i++) {
+				Hand hand = new Deck(random.nextInt(3), random).deal(5 + random.nextInt(3));
+				HandState state = new HandState().addAll(hand);
+				assertThat(hand.toString(), state.getTypeOfHand(), is(TypeOfHand.getTypeOfHand(hand)));
+				assertThat(HandState.typeOf(state.getStrength()), is(state.getTypeOfHand()));
+			}
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+		try {
+			new HandState().add(0).add(1).add(2).add(3).getStrength();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+	}
+	/** {@link HandState#getStrength()}のテスト。ジョーカー無しの7枚で、21通りの5枚の組み合わせを別の方法で評価した最大値と比べる */
+	@Test
+	public void testGetStrengthSevenCards() {
+		Random random = new Random(2);
+		int[] five = new int[5];
+		for (int i = 0; i < 5000; i++) {
+			int[] codes = shuffledCodes(random, 0);
+			HandState state = new HandState();
+			for (int j = 0; j < 7; j++) state.add(codes[j]);
+			int best = 0;
+			for (int mask = 0; mask < (1 << 7); mask++) {
+				if (Integer.bitCount(mask) != 5) continue;
+				for (int j = 0, n = 0; j < 7; j++) {
+					if ((mask & (1 << j)) != 0) five[n++] = codes[j];
+				}
+				best = Math.max(best, reference(five));
+			}
+			assertThat(Arrays.toString(Arrays.copyOf(codes, 7)), state.getStrength(), is(best));
+		}
+	}
+	/** {@link HandState#getStrength()}のテスト。ジョーカーを含む5枚で、ジョーカーを手札に無い全てのカードに置き換えた最大値と比べる */
+	@Test
+	public void testGetStrengthWithJokers() {
+		Random random = new Random(3);
+		int[] five = new int[5];
+		for (int i = 0; i < 300; i++) {
+			int jokers = 1 + i % 2;
+			int[] codes = shuffledCodes(random, 0);
+			HandState state = new HandState();
+			for (int j = 0; j < 5 - jokers; j++) state.add(codes[j]);
+			for (int j = 0; j < jokers; j++) state.add(Card.CODE_JOKER);
+			if (state.getTypeOfHand() == TypeOfHand.FiveOfAKind) continue;
+			int best = 0;
+			System.arraycopy(codes, 0, five, 0, 5 - jokers);
+			for (int a = 5 - jokers; a < 52; a++) {
+				five[5 - jokers] = codes[a];
+				if (jokers == 1) {
+					best = Math.max(best, reference(five));
+					continue;
+				}
+				for (int b = a + 1; b < 52; b++) {
+					five[4] = codes[b];
+					best = Math.max(best, reference(five));
+				}
+			}
+			assertThat(Arrays.toString(Arrays.copyOf(codes, 5 - jokers)), state.getStrength(), is(best));
+		}
+	}
+	/** {@link HandState#getStrength()}の大小関係のテスト */
+	@Test
+	public void testStrengthOrder() {
+		try {
+			assertTrue(strengthOf("HA", "SA", "D9", "C5", "H3") > strengthOf("HK", "SK", "DQ", "CJ", "H9"));
+			assertTrue(strengthOf("HA", "SA", "D9", "C5", "H3") > strengthOf("DA", "CA", "S8", "C7", "H6"));
+			assertTrue(strengthOf("H6", "S2", "D3", "C4", "H5") > strengthOf("HA", "S2", "D3", "C4", "H5"));
+			assertTrue(strengthOf("HA", "S2", "D3", "C4", "H5") > strengthOf("HA", "SA", "DA", "CK", "HQ"));
+			assertTrue(strengthOf("HA", "  ", "HQ", "H9", "H3") > strengthOf("HA", "HK", "HJ", "H9", "H3"));
+			assertTrue(strengthOf("HK", "SK", "  ", "C5", "H5") > strengthOf("HQ", "SQ", "DQ", "CA", "HA"));
+			assertThat(strengthOf("HA", "SK", "DQ", "CJ", "H9"), is(strengthOf("DA", "CK", "SQ", "HJ", "D9")));
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * 5枚の手札の強さを求める
+	 * @return 強さ
+	 * @throws CardException 文字列のフォーマットがおかしい場合に発生
+	 */
+	private static int strengthOf(String c1, String c2, String c3, String c4, String c5) throws CardException {
+		return new HandState().addAll(new Hand(c1, c2, c3, c4, c5)).getStrength();
+	}
+	/**
+	 * ジョーカーを除く52枚のカードコードを並べ替え、先頭にジョーカーを置いた配列を作る
+	 * @param random 乱数
+	 * @param jokers ジョーカーの枚数
+	 * @return カードコードの配列
+	 */
+	private static int[] shuffledCodes(Random random, int jokers) {
+		int[] codes = new int[52];
+		for (int i = 0; i < codes.length; i++) codes[i] = i;
+		for (int i = codes.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1), t = codes[i];
+			codes[i] = codes[j];
+			codes[j] = t;
+		}
+		for (int i = 0; i < jokers; i++) codes[i * 3] = Card.CODE_JOKER;
+		return codes;
+	}
+	/**
+	 * ジョーカーを含まない5枚を、枚数の多い順・数字の大きい順に並べる古典的な方法で評価する
+	 * @param codes カードコード
+	 * @return {@link HandState#getStrength()}と同じ形式の強さ
+	 */
+	private static int reference(int[] codes) {
+		int[] counts = new int[13];
+		boolean flush = true;
+		for (int code : codes) {
+			counts[code % 13]++;
+			if (code / 13 != codes[0] / 13) flush = false;
+		}
+		int tiebreak = 0, distinct = 0, maxCount = 0, pairs = 0, low = 13, high = -1;
+		for (int count = 4; count >= 1; count--) {
+			for (int rank = 12; rank >= 0; rank--) {
+				if (counts[rank] != count) continue;
+				tiebreak |= (rank + 2) << ((4 - distinct) * 4);
+				distinct++;
+				maxCount = Math.max(maxCount, count);
+				if (count == 2) pairs++;
+				low = Math.min(low, rank);
+				high = Math.max(high, rank);
+			}
+		}
+		int straightHigh = 0;
+		if (distinct == 5) {
+			if (high - low == 4) straightHigh = high + 2;
+			else if (counts[12] == 1 && counts[0] == 1 && counts[1] == 1 && counts[2] == 1 && counts[3] == 1) straightHigh = 5;
+		}
+		TypeOfHand typeOfHand;
+		if (maxCount == 4) typeOfHand = TypeOfHand.FourOfAKind;
+		else if (maxCount == 3) typeOfHand = (pairs == 1) ? TypeOfHand.FullHouse : TypeOfHand.ThreeOfAKind;
+		else if (pairs == 2) typeOfHand = TypeOfHand.TwoPair;
+		else if (pairs == 1) typeOfHand = TypeOfHand.OnePair;
+		else if (flush && straightHigh == 14) typeOfHand = TypeOfHand.RoyalFlush;
+		else if (flush && straightHigh != 0) typeOfHand = TypeOfHand.StraightFlush;
+		else if (flush) typeOfHand = TypeOfHand.Flush;
+		else if (straightHigh != 0) typeOfHand = TypeOfHand.Straight;
+		else typeOfHand = TypeOfHand.HighCards;
+		if (straightHigh != 0 && typeOfHand != TypeOfHand.Flush) tiebreak = straightHigh << 16;
+		return ((TypeOfHand.ALL.length - 1 - typeOfHand.ordinal()) << 20) | tiebreak;
+	}
+}
@@ -47,6 +47,25 @@ public class HandTest {
 			assertThat(e.getMessage(), is(message));
 		}
 	}
+	/** {@link Hand#Hand(Card...)}のテスト */
+	@Test
+	public void testHandCards() {
+		try {
+			Hand hand = new Hand(Card.parse("H2"), Card.parse("D9"), Card.parse("S10"), Card.parse("SJ"), Card.parse("CA"), Card.parse("  "), Card.parse("C3"));
+			assertThat(hand.size(), is(7));
+			assertThat(hand.get(6), is(Card.parse("C3")));
+			assertThat(hand.toString(), is("[H2][D9][S10][SJ][CA][  ][C3]"));
+			assertThat(hand.getJoker(), is(1));
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+		try {
+			new Hand(new Card[Hand.SIZE - 1]);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), is(MessageFormat.format(Hand.ERROR_HAND_SIZE, Hand.SIZE)));
+		}
+	}
 	/** {@link Hand#get(int)}のテスト */
 	@Test
 	public void testGet() {
@@ -163,6 +182,7 @@ public class HandTest {
 		doTestIsSequential(Hands.straightFlush2, true);
 		doTestIsSequential(Hands.straightFlush3, true);
 		doTestIsSequential(Hands.straightFlush4, true);
+		doTestIsSequential(Hands.straightFlush5, true);
 		doTestIsSequential(Hands.fourOfAKind1, false);
 		doTestIsSequential(Hands.fourOfAKind2, false);
 		doTestIsSequential(Hands.fourOfAKind3, false);
@@ -179,6 +199,7 @@ public class HandTest {
 		doTestIsSequential(Hands.straight2, true);
 		doTestIsSequential(Hands.straight3, true);
 		doTestIsSequential(Hands.straight4, true);
+		doTestIsSequential(Hands.straight5, true);
 		doTestIsSequential(Hands.threeOfAKind1, false);
 		doTestIsSequential(Hands.threeOfAKind2, false);
 		doTestIsSequential(Hands.threeOfAKind3, false);
@@ -261,6 +282,15 @@ public class HandTest {
 		}
 	}
 
+	/** {@link Hand#getRankCounts()}のテスト */
+	@Test
+	public void testGetRankCounts() {
+		assertThat(Hands.fiveOfAKind1.getRankCounts(), is(4L << 16));
+		assertThat(Hands.fullHouse2.getRankCounts(), is((3L << 48) | (2L << 4)));
+		assertThat(Hands.straight1.getRankCounts(), is(0x11111L));
+		assertThat(Hands.royalFlush1.getRankCounts(), is(0x1111100000000L));
+	}
+
 	/** {@link Hand#isSequentialFrom(int)}のテスト */
 	@Test
 	public void testIsSequentialFrom() {
@@ -321,6 +351,27 @@ public class HandTest {
 		}
 	}
 
+	/** {@link Hand#getStraightHighNumber()}のテスト */
+	@Test
+	public void testGetStraightHighNumber() {
+		assertThat(Hands.royalFlush1.getStraightHighNumber(), is(14));
+		assertThat(Hands.royalFlush4.getStraightHighNumber(), is(14));
+		assertThat(Hands.straightFlush1.getStraightHighNumber(), is(7));
+		assertThat(Hands.straightFlush3.getStraightHighNumber(), is(8));
+		assertThat(Hands.straightFlush4.getStraightHighNumber(), is(12));
+		assertThat(Hands.straight3.getStraightHighNumber(), is(6));
+		assertThat(Hands.straight4.getStraightHighNumber(), is(12));
+		assertThat(Hands.straight5.getStraightHighNumber(), is(5));
+		assertThat(Hands.straightFlush5.getStraightHighNumber(), is(5));
+		assertThat(Hands.fiveOfAKind2.getStraightHighNumber(), is(0));
+		assertThat(Hands.threeOfAKind4.getStraightHighNumber(), is(0));
+		assertThat(Hands.highCards3.getStraightHighNumber(), is(0));
+		assertTrue(Hands.straight5.isSequentialFrom(1));
+		assertFalse(Hands.straight5.isSequentialFrom(2));
+		assertTrue(Hands.straightFlush5.isSequentialFrom(1));
+		assertFalse(Hands.straight1.isSequentialFrom(1));
+	}
+
 	/** {@link Hand#hasNumber(int)}のテスト */
 	@Test
 	public void testHasNumber() {
@@ -52,6 +52,9 @@ public abstract class Hands {
 	public static Hand onePair3 = instantiateSafely("S7", "HK","CQ", "  ", "S2");
 	public static Hand onePair4 = instantiateSafely("HA", "SK","  ", "C8", "HJ");
 
+	public static Hand straightFlush5 = instantiateSafely("C2", "CA","  ", "C4", "C5");
+	public static Hand straight5 = instantiateSafely("HA", "S2","C3", "D4", "H5");
+
 	private static Hand instantiateSafely(String c1, String c2, String c3, String c4, String c5) {
 		try {
 			return new Hand(c1, c2, c3, c4, c5);
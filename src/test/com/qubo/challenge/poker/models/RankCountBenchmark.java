@@ -0,0 +1,113 @@
+package test.com.qubo.challenge.poker.models;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.Hand;
+
+/**
+ * {@link Hand#isOfAKind(int)}の、{@link HashMap}で数える以前の実装と、
+ * ニブルに詰めて数える現在の実装の、処理時間と割り当てたメモリ量を比べるベンチマーク。<br />
+ * メモリ量は{@code com.sun.management.ThreadMXBean}で、測定しているスレッドが割り当てたバイト数を取得する。
+ * 引数：繰り返し回数（省略時は2,000,000）
+ * @author Qubo
+ */
+public class RankCountBenchmark {
+	/** 測定に使う手札の数 */
+	private static final int HAND_COUNT = 1024;
+
+	/** 測定する方法 */
+	private enum Method {
+		/** {@link HashMap}で数える以前の実装 */
+		HashMap {
+			@Override
+			int isOfAKind(Hand hand, int count) {
+				int found = 0;
+				Map<Integer, Integer> kinds = new HashMap<Integer, Integer>();
+				for (Card card : hand) {
+					int number = card.getRawNumber();
+					if (number != Card.RAW_VALUE_JOKER) {
+						if (!kinds.containsKey(number)) {
+							kinds.put(number, 0);
+						}
+						kinds.put(number, kinds.get(number) + 1);
+					}
+				}
+				for (Integer value : kinds.values()) {
+					if (value == count) found++;
+				}
+				return found;
+			}
+		},
+		/** ニブルに詰めて数える現在の実装 */
+		Packed {
+			@Override
+			int isOfAKind(Hand hand, int count) { return hand.isOfAKind(count); }
+		},
+		;
+		abstract int isOfAKind(Hand hand, int count);
+	}
+
+	/**
+	 * ベンチマークを実行する
+	 * @param args コマンドライン引数
+	 * @throws CardException カードの生成に失敗した場合に発生
+	 */
+	public static void main(String[] args) throws CardException {
+		int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+		List<Hand> hands = new ArrayList<Hand>();
+		Random random = new Random(0);
+		while (hands.size() < HAND_COUNT) {
+			hands.add(new Deck(random.nextInt(3), random).deal());
+		}
+		Hand[] array = hands.toArray(new Hand[HAND_COUNT]);
+		System.out.println("method\tns/hand\tbytes/hand");
+		for (Method method : Method.values()) {
+			run(method, array, iterations / 4);
+			long threadId = Thread.currentThread().getId();
+			long bytes = allocatedBytes(threadId);
+			long begin = System.nanoTime();
+			long sink = run(method, array, iterations);
+			long elapsed = System.nanoTime() - begin;
+			bytes = allocatedBytes(threadId) - bytes;
+			System.out.println(String.format(Locale.ROOT, "%s\t%.1f\t%.1f\t(%d)", method, (double) elapsed / iterations, (double) bytes / iterations, sink));
+		}
+	}
+	/**
+	 * 一つの方法で、手札ごとに1～4枚の組の数を全て求める
+	 * @param method 方法
+	 * @param hands 手札
+	 * @param iterations 繰り返し回数
+	 * @return 結果の合計（最適化で処理が消されないようにするためのもの）
+	 */
+	private static long run(Method method, Hand[] hands, int iterations) {
+		long sum = 0;
+		for (int i = 0; i < iterations; i++) {
+			Hand hand = hands[i & (HAND_COUNT - 1)];
+			for (int count = 1; count <= 4; count++) {
+				sum += method.isOfAKind(hand, count);
+			}
+		}
+		return sum;
+	}
+	/**
+	 * スレッドが割り当てたバイト数を取得する
+	 * @param threadId スレッドID
+	 * @return 割り当てたバイト数（取得できない場合は-1）
+	 */
+	private static long allocatedBytes(long threadId) {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(threadId);
+		}
+		return -1;
+	}
+}
@@ -5,11 +5,16 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.text.MessageFormat;
+import java.util.Random;
 
 import org.junit.Test;
 
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
 import com.qubo.challenge.poker.models.Hand;
 import com.qubo.challenge.poker.models.TypeOfHand;
 
@@ -114,6 +119,7 @@ public class TypeOfHandTest {
 		doTestGetTypeOfHand(Hands.straightFlush2, StraightFlush);
 		doTestGetTypeOfHand(Hands.straightFlush3, StraightFlush);
 		doTestGetTypeOfHand(Hands.straightFlush4, StraightFlush);
+		doTestGetTypeOfHand(Hands.straightFlush5, StraightFlush);
 		doTestGetTypeOfHand(Hands.fourOfAKind1, FourOfAKind);
 		doTestGetTypeOfHand(Hands.fourOfAKind2, FourOfAKind);
 		doTestGetTypeOfHand(Hands.fourOfAKind3, FourOfAKind);
@@ -130,6 +136,7 @@ public class TypeOfHandTest {
 		doTestGetTypeOfHand(Hands.straight2, Straight);
 		doTestGetTypeOfHand(Hands.straight3, Straight);
 		doTestGetTypeOfHand(Hands.straight4, Straight);
+		doTestGetTypeOfHand(Hands.straight5, Straight);
 		doTestGetTypeOfHand(Hands.threeOfAKind1, ThreeOfAKind);
 		doTestGetTypeOfHand(Hands.threeOfAKind2, ThreeOfAKind);
 		doTestGetTypeOfHand(Hands.threeOfAKind3, ThreeOfAKind);
@@ -145,6 +152,64 @@ public class TypeOfHandTest {
 		doTestGetTypeOfHand(Hands.highCards3, HighCards);
 		doTestGetTypeOfHand(Hands.highCards4, HighCards);
 	}
+	/** {@link TypeOfHand#getBestTypeOfHand(Hand)}のテスト。5枚の手札では{@link TypeOfHand#isValid(Hand)}による判定と一致する */
+	@Test
+	public void testGetBestTypeOfHandFiveCards() {
+		for (Hand hand : new Hand[] {
+				Hands.fiveOfAKind1, Hands.fiveOfAKind2, Hands.royalFlush1, Hands.royalFlush2, Hands.royalFlush3, Hands.royalFlush4,
+				Hands.straightFlush1, Hands.straightFlush2, Hands.straightFlush3, Hands.straightFlush4, Hands.straightFlush5,
+				Hands.fourOfAKind1, Hands.fourOfAKind2, Hands.fourOfAKind3, Hands.fourOfAKind4,
+				Hands.fullHouse1, Hands.fullHouse2, Hands.fullHouse3, Hands.fullHouse4,
+				Hands.flush1, Hands.flush2, Hands.flush3, Hands.flush4,
+				Hands.straight1, Hands.straight2, Hands.straight3, Hands.straight4, Hands.straight5,
+				Hands.threeOfAKind1, Hands.threeOfAKind2, Hands.threeOfAKind3, Hands.threeOfAKind4,
+				Hands.twoPair1, Hands.twoPair2, Hands.onePair1, Hands.onePair2, Hands.onePair3, Hands.onePair4,
+				Hands.highCards1, Hands.highCards2, Hands.highCards3, Hands.highCards4 }) {
+			assertThat(hand.toString(), TypeOfHand.getBestTypeOfHand(hand), is(TypeOfHand.getTypeOfHand(hand)));
+		}
+		Random random = new Random(0);
+		try {
+			for (int i = 0; i < 20000; i++) {
+				Hand hand = new Deck(1 + random.nextInt(Deck.DECK_COUNT_MAX), random.nextInt(3), random).deal();
+				assertThat(hand.toString(), TypeOfHand.getBestTypeOfHand(hand), is(TypeOfHand.getTypeOfHand(hand)));
+			}
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+	/** {@link TypeOfHand#getBestTypeOfHand(Hand)}のテスト。7枚の手札で、21通りの5枚の組み合わせの総当たりと比べる */
+	@Test
+	public void testGetBestTypeOfHandSevenCards() {
+		Random random = new Random(1);
+		try {
+			for (int i = 0; i < 5000; i++) {
+				Hand hand = new Deck(1 + random.nextInt(Deck.DECK_COUNT_MAX), random.nextInt(3), random).deal(7);
+				assertThat(hand.toString(), TypeOfHand.getTypeOfHand(hand), is(bruteForce(hand)));
+			}
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+	/**
+	 * 手札から選んだ5枚の組み合わせを全て調べ、最も強い役を求める
+	 * @param hand 手札
+	 * @return 最も強い役
+	 */
+	private static TypeOfHand bruteForce(Hand hand) {
+		TypeOfHand best = null;
+		int size = hand.size();
+		for (int mask = 0; mask < (1 << size); mask++) {
+			if (Integer.bitCount(mask) != Hand.SIZE) continue;
+			Card[] cards = new Card[Hand.SIZE];
+			int n = 0;
+			for (int i = 0; i < size; i++) {
+				if ((mask & (1 << i)) != 0) cards[n++] = hand.get(i);
+			}
+			TypeOfHand typeOfHand = TypeOfHand.getTypeOfHand(new Hand(cards));
+			if (best == null || typeOfHand.ordinal() < best.ordinal()) best = typeOfHand;
+		}
+		return best;
+	}
 	/**
 	 * {@link #testGetTypeOfHand()}用の内部メソッド
 	 * @param hand 手札
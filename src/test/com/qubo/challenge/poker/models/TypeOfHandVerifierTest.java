@@ -0,0 +1,57 @@
+package test.com.qubo.challenge.poker.models;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.models.TypeOfHand;
+import com.qubo.challenge.poker.models.TypeOfHandVerifier;
+import com.qubo.challenge.poker.models.TypeOfHandVerifier.Result;
+
+/**
+ * {@link TypeOfHandVerifier}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class TypeOfHandVerifierTest {
+	/** ジョーカー無しの全ての手札の役の数（強い順） */
+	private static final long[] STANDARD_COUNTS = { 0, 4, 36, 624, 3744, 5108, 10200, 54912, 123552, 1098240, 1302540 };
+
+	/** {@link TypeOfHandVerifier#verify(int, ForkJoinPool)}のテスト。全ての手札で参照値と一致する */
+	@Test
+	public void testVerify() {
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			long[] handCounts = { 2598960, 270725, 22100 };
+			for (int jokerCount = 0; jokerCount < handCounts.length; jokerCount++) {
+				Result result = TypeOfHandVerifier.verify(jokerCount, pool);
+				assertThat(result.toString(), result.getMismatchCount(), is(0L));
+				assertThat(result.getMismatches().isEmpty(), is(true));
+				assertThat(result.getJokerCount(), is(jokerCount));
+				assertThat(result.getHandCount(), is(handCounts[jokerCount]));
+				if (jokerCount == 0) {
+					for (int i = 0; i < TypeOfHand.ALL.length; i++) {
+						assertThat(result.getCount(TypeOfHand.ALL[i]), is(STANDARD_COUNTS[i]));
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+	/** ジョーカーの枚数指定がおかしい場合のテスト */
+	@Test
+	public void testVerifyJokerCountRange() {
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			TypeOfHandVerifier.verify(3, pool);
+			fail();
+		} catch (IllegalArgumentException e) {
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
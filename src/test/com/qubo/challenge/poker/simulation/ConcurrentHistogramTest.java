@@ -0,0 +1,43 @@
+package test.com.qubo.challenge.poker.simulation;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.models.TypeOfHand;
+import com.qubo.challenge.poker.simulation.ConcurrentHistogram;
+import com.qubo.challenge.poker.simulation.Histogram;
+
+/**
+ * {@link ConcurrentHistogram}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class ConcurrentHistogramTest {
+	/** {@link ConcurrentHistogram#snapshot()}のテスト */
+	@Test
+	public void testSnapshot() {
+		ConcurrentHistogram histogram = new ConcurrentHistogram(2, 3);
+		histogram.add(TypeOfHand.OnePair, 1, 2);
+		histogram.add(TypeOfHand.OnePair, 1, 2);
+		histogram.add(TypeOfHand.OnePair, 0, 3);
+		histogram.add(TypeOfHand.FiveOfAKind, 2, 0);
+		Histogram local = new Histogram();
+		local.add(TypeOfHand.HighCards, 5);
+		histogram.addAll(local);
+
+		ConcurrentHistogram.Snapshot snapshot = histogram.snapshot();
+		assertThat(snapshot.getCount(TypeOfHand.OnePair, 1, 2), is(2L));
+		assertThat(snapshot.getCount(TypeOfHand.OnePair), is(3L));
+		assertThat(snapshot.getCount(TypeOfHand.FiveOfAKind, 2, 0), is(1L));
+		assertThat(snapshot.getCount(TypeOfHand.HighCards, 0, 0), is(5L));
+		assertThat(snapshot.getTotal(), is(9L));
+		assertThat(snapshot.toHistogram().getCount(TypeOfHand.OnePair), is(3L));
+		try {
+			histogram.add(TypeOfHand.OnePair, 3, 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
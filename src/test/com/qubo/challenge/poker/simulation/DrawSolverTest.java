@@ -0,0 +1,126 @@
+package test.com.qubo.challenge.poker.simulation;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.models.Card;
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.TypeOfHand;
+import com.qubo.challenge.poker.simulation.DrawSolver;
+import com.qubo.challenge.poker.simulation.PayoutTable;
+
+/**
+ * {@link DrawSolver}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class DrawSolverTest {
+	/** {@link DrawSolver#solve(Hand, Deck, int)}のテスト */
+	@Test
+	public void testSolve() {
+		doTestSolve(0, 1L);
+		doTestSolve(1, 2L);
+		doTestSolve(2, 3L);
+	}
+	/** 複数組のシューを与えた場合の{@link DrawSolver#solve(Hand, Deck, int)}のテスト */
+	@Test
+	public void testSolveShoe() {
+		DrawSolver solver = new DrawSolver(PayoutTable.DEFAULT, new ForkJoinPool(1), 1000);
+		try {
+			Deck deck = new Deck(2, 0, new Random(0));
+			solver.solve(deck.deal(), deck, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), is(MessageFormat.format(DrawSolver.ERROR_DECK_COUNT, 2)));
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+	/**
+	 * {@link #testSolve()}用の内部メソッド。
+	 * 残りの少ないデッキで、残り1回の価値を総当たりで求めた値と比べる。
+	 * @param jokerCount ジョーカーの枚数
+	 * @param seed デッキのシード
+	 */
+	private void doTestSolve(int jokerCount, long seed) {
+		try {
+			Deck deck = new Deck(jokerCount, new Random(seed));
+			Hand hand = deck.deal();
+			while (deck.getRemainings() >= 10) {
+				hand = deck.deal();
+			}
+			while (deck.getRemainings() > 5) {
+				deck.change(hand, 0);
+			}
+			DrawSolver solver = new DrawSolver(PayoutTable.DEFAULT, new ForkJoinPool(2), 100000);
+			DrawSolver.Decision none = solver.solve(hand, deck, 0);
+			DrawSolver.Decision once = solver.solve(hand, deck, 1);
+			double payout = PayoutTable.DEFAULT.getPayout(TypeOfHand.getTypeOfHand(hand));
+			assertThat(none.getBestMask(), is(0));
+			assertEquals(payout, none.getBestValue(), 0);
+			assertEquals(payout, once.getValue(0), 0);
+			for (int mask = 1; mask < 32; mask++) {
+				assertEquals(bruteForce(hand, deck.getRemainingCards(), mask), once.getValue(mask), 1e-9);
+			}
+			DrawSolver.Decision twice = solver.solve(hand, deck, 2);
+			assertTrue(twice.getBestValue() >= once.getBestValue() - 1e-9);
+			assertTrue(solver.getCacheSize() > 0);
+			assertEquals(twice.getBestValue(), solver.solve(hand, deck, 2).getBestValue(), 1e-9);
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+	/**
+	 * 全ての引き方を試して、配当の期待値を求める
+	 * @param hand 手札
+	 * @param deck デッキに残ったカード
+	 * @param mask 交換する位置のビットマスク
+	 * @return 配当の期待値
+	 */
+	private double bruteForce(Hand hand, List<Card> deck, int mask) {
+		Card[] cards = new Card[5];
+		for (int i = 0; i < 5; i++) {
+			cards[i] = hand.get(i);
+		}
+		long[] result = new long[2];
+		enumerate(cards, mask, 0, deck, 0, result);
+		return (double) result[0] / result[1];
+	}
+	/**
+	 * {@link #bruteForce(Hand, List, int)}用の内部メソッド
+	 * @param cards 手札（書き換えられる）
+	 * @param mask 交換する位置のビットマスク
+	 * @param position 次に調べる位置
+	 * @param deck デッキに残ったカード
+	 * @param start 次に引くカードの最小の位置
+	 * @param result 配当の合計と組み合わせの数
+	 */
+	private void enumerate(Card[] cards, int mask, int position, List<Card> deck, int start, long[] result) {
+		if (position == 5) {
+			result[0] += PayoutTable.DEFAULT.getPayout(TypeOfHand.getTypeOfHand(new Hand(cards[0], cards[1], cards[2], cards[3], cards[4])));
+			result[1]++;
+			return;
+		}
+		if ((mask & (1 << position)) == 0) {
+			enumerate(cards, mask, position + 1, deck, start, result);
+			return;
+		}
+		Card original = cards[position];
+		for (int i = start; i < deck.size(); i++) {
+			cards[position] = deck.get(i);
+			enumerate(cards, mask, position + 1, deck, i + 1, result);
+		}
+		cards[position] = original;
+	}
+}
@@ -0,0 +1,118 @@
+package test.com.qubo.challenge.poker.simulation;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.qubo.challenge.poker.models.TypeOfHand;
+import com.qubo.challenge.poker.simulation.ConcurrentHistogram;
+
+/**
+ * 共有のヒストグラムへの加算が、スレッド数に対してどれだけ伸びるかを測るベンチマーク。<br />
+ * {@link AtomicLongArray}を共有する方法、{@code synchronized}で守った配列を共有する方法、
+ * {@link ConcurrentHistogram}を使う方法を、1～64スレッドで比べる。
+ * 引数：スレッドあたりの加算回数（省略時は2,000,000）
+ * @author Qubo
+ */
+public class HistogramBenchmark {
+	/** 役の一覧 */
+	private static final TypeOfHand[] VALUES = TypeOfHand.values();
+	/** 役の数 */
+	private static final int TYPES = VALUES.length;
+
+	/** 測定する方法 */
+	private enum Method {
+		/** {@link AtomicLongArray}を共有する */
+		Atomic {
+			private AtomicLongArray counts;
+			@Override void reset() { counts = new AtomicLongArray(TYPES); }
+			@Override void add(int type) { counts.incrementAndGet(type); }
+			@Override long total() {
+				long sum = 0;
+				for (int i = 0; i < TYPES; i++) sum += counts.get(i);
+				return sum;
+			}
+		},
+		/** {@code synchronized}で守った配列を共有する */
+		Synchronized {
+			private long[] counts;
+			@Override void reset() { counts = new long[TYPES]; }
+			@Override synchronized void add(int type) { counts[type]++; }
+			@Override synchronized long total() {
+				long sum = 0;
+				for (long count : counts) sum += count;
+				return sum;
+			}
+		},
+		/** {@link ConcurrentHistogram}を共有する */
+		Striped {
+			private ConcurrentHistogram histogram;
+			@Override void reset() { histogram = new ConcurrentHistogram(); }
+			@Override void add(int type) { histogram.add(VALUES[type]); }
+			@Override long total() { return histogram.snapshot().getTotal(); }
+		},
+		;
+		abstract void reset();
+		abstract void add(int type);
+		abstract long total();
+	}
+
+	/**
+	 * ベンチマークを実行する
+	 * @param args コマンドライン引数
+	 * @throws InterruptedException 割り込まれた場合に発生
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		final int operations = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+		System.out.println("threads\t" + Method.Atomic + "\t" + Method.Synchronized + "\t" + Method.Striped + "\t(Mops/s)");
+		for (int threads = 1; threads <= 64; threads *= 2) {
+			StringBuilder line = new StringBuilder().append(threads);
+			for (Method method : Method.values()) {
+				run(method, threads, operations / 4);
+				line.append('\t').append(String.format(Locale.ROOT, "%.1f", run(method, threads, operations)));
+			}
+			System.out.println(line);
+		}
+	}
+	/**
+	 * 一つの方法で測定する
+	 * @param method 方法
+	 * @param threads スレッド数
+	 * @param operations スレッドあたりの加算回数
+	 * @return 1秒あたりの加算回数（百万回単位）
+	 * @throws InterruptedException 割り込まれた場合に発生
+	 */
+	private static double run(final Method method, int threads, final int operations) throws InterruptedException {
+		method.reset();
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final int seed = t;
+			workers[t] = new Thread(new Runnable() {
+				@Override public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					int x = seed * 0x9E3779B9 + 1;
+					for (int i = 0; i < operations; i++) {
+						x ^= x << 13;
+						x ^= x >>> 17;
+						x ^= x << 5;
+						method.add((x >>> 1) % TYPES);
+					}
+				}
+			});
+			workers[t].start();
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+		if (method.total() != (long) threads * operations) throw new IllegalStateException(method + " lost updates");
+		return (double) threads * operations / elapsed * 1000;
+	}
+}
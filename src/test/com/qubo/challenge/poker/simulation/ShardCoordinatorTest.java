@@ -0,0 +1,184 @@
+package test.com.qubo.challenge.poker.simulation;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.simulation.DrawPolicy;
+import com.qubo.challenge.poker.simulation.Histogram;
+import com.qubo.challenge.poker.simulation.ShardCoordinator;
+import com.qubo.challenge.poker.simulation.ShardJob;
+import com.qubo.challenge.poker.simulation.ShardWorker;
+
+/**
+ * {@link ShardCoordinator}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class ShardCoordinatorTest {
+	/** テストに使うシミュレーションの内容 */
+	private static final ShardJob JOB = new ShardJob(1, 2, "KeepPairs", 7L, 2500, 300);
+
+	/** {@link ShardJob#simulate(int, DrawPolicy)}のテスト */
+	@Test
+	public void testSimulate() {
+		Histogram histogram = expected();
+		assertThat(JOB.getShardCount(), is(9));
+		assertThat(histogram.getTotal(), is(2500L));
+		assertThat(JOB.simulate(3, JOB.createPolicy()), is(JOB.simulate(3, JOB.createPolicy())));
+	}
+
+	/** スレッドとして動かしたワーカーによる{@link ShardCoordinator#await()}のテスト */
+	@Test
+	public void testAwait() throws Exception {
+		final ShardCoordinator coordinator = new ShardCoordinator(JOB, 0);
+		try {
+			coordinator.start();
+			List<Thread> workers = new ArrayList<Thread>();
+			for (int i = 0; i < 3; i++) {
+				workers.add(startWorker(coordinator.getPort()));
+			}
+			assertThat(coordinator.await(), is(expected()));
+			for (Thread worker : workers) {
+				worker.join();
+			}
+			assertThat(coordinator.getRequeuedCount(), is(0));
+		} finally {
+			coordinator.close();
+		}
+	}
+
+	/** 途中で落ちたワーカーがいる場合の{@link ShardCoordinator#await()}のテスト */
+	@Test
+	public void testAwaitWithCrashedWorker() throws Exception {
+		ShardCoordinator coordinator = new ShardCoordinator(JOB, 0);
+		try {
+			coordinator.start();
+			// シャードを受け取った直後に接続を切るワーカー
+			Socket crashed = new Socket(InetAddress.getLoopbackAddress(), coordinator.getPort());
+			DataInputStream in = new DataInputStream(crashed.getInputStream());
+			in.readInt();
+			ShardJob.readFrom(in);
+			in.readByte();
+			in.readInt();
+			crashed.close();
+
+			Thread worker = startWorker(coordinator.getPort());
+			assertThat(coordinator.await(), is(expected()));
+			worker.join();
+			assertThat(coordinator.getRequeuedCount(), is(1));
+		} finally {
+			coordinator.close();
+		}
+	}
+
+	/** 別のJVMとして起動したワーカーによる{@link ShardCoordinator#await()}のテスト */
+	@Test
+	public void testLaunchWorkers() throws Exception {
+		ShardCoordinator coordinator = new ShardCoordinator(JOB, 0);
+		try {
+			coordinator.start();
+			List<Process> workers = coordinator.launchWorkers(2);
+			assertThat(coordinator.await(), is(expected()));
+			for (Process worker : workers) {
+				assertThat(worker.waitFor(), is(0));
+			}
+		} finally {
+			coordinator.close();
+		}
+	}
+
+	/** ワーカーがいない場合の{@link ShardCoordinator#await(long, TimeUnit)}のテスト */
+	@Test
+	public void testAwaitTimeout() throws Exception {
+		ShardCoordinator coordinator = new ShardCoordinator(JOB, 0);
+		try {
+			coordinator.start();
+			coordinator.await(100, TimeUnit.MILLISECONDS);
+			fail();
+		} catch (TimeoutException e) {
+			// 結果が揃う前に時間切れになる
+		} finally {
+			coordinator.close();
+		}
+	}
+
+	/** ワーカーのプロセスが全て終了した場合の{@link ShardCoordinator#await(List, int)}のテスト */
+	@Test
+	public void testAwaitRelaunch() throws Exception {
+		ShardCoordinator coordinator = new ShardCoordinator(JOB, 0);
+		try {
+			coordinator.start();
+			// 接続せずに終了するワーカーの代わり
+			List<Process> workers = new ArrayList<Process>();
+			workers.add(startExitedProcess());
+			workers.get(0).waitFor();
+			try {
+				coordinator.await(workers, 0);
+				fail();
+			} catch (IllegalStateException e) {
+				// 起動し直せないので失敗する
+			}
+			assertThat(workers.size(), is(1));
+
+			// 起動し直したワーカーで結果が揃う
+			assertThat(coordinator.await(workers, 1), is(expected()));
+			assertThat(workers.size(), is(2));
+			assertThat(workers.get(1).waitFor(), is(0));
+		} finally {
+			coordinator.close();
+		}
+	}
+
+	/**
+	 * 何もせずに終了するJVMを起動する
+	 * @return 起動したプロセス
+	 * @throws Exception 起動に失敗した場合に発生
+	 */
+	private static Process startExitedProcess() throws Exception {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		return new ProcessBuilder(java, "-version").redirectErrorStream(true).start();
+	}
+	/**
+	 * 全てのシャードを一つのスレッドで処理した結果を求める
+	 * @return 全てのシャードの結果の合計
+	 */
+	private Histogram expected() {
+		Histogram histogram = new Histogram();
+		DrawPolicy policy = JOB.createPolicy();
+		for (int shard = 0; shard < JOB.getShardCount(); shard++) {
+			histogram.merge(JOB.simulate(shard, policy));
+		}
+		assertTrue(histogram.getTotal() == JOB.getRounds());
+		return histogram;
+	}
+	/**
+	 * ワーカーをスレッドとして起動する
+	 * @param port コーディネーターのポート番号
+	 * @return ワーカーのスレッド
+	 */
+	private Thread startWorker(final int port) {
+		Thread thread = new Thread(new Runnable() {
+			@Override public void run() {
+				try {
+					ShardWorker.run(InetAddress.getLoopbackAddress().getHostAddress(), port);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+		thread.start();
+		return thread;
+	}
+}
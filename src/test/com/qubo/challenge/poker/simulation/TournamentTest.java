@@ -0,0 +1,99 @@
+package test.com.qubo.challenge.poker.simulation;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Hand;
+import com.qubo.challenge.poker.models.TypeOfHand;
+import com.qubo.challenge.poker.simulation.DrawPolicy;
+import com.qubo.challenge.poker.simulation.ExpectedValuePolicy;
+import com.qubo.challenge.poker.simulation.PayoutTable;
+import com.qubo.challenge.poker.simulation.StandardPolicy;
+import com.qubo.challenge.poker.simulation.Tournament;
+import com.qubo.challenge.poker.simulation.TournamentResult;
+
+/**
+ * {@link Tournament}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class TournamentTest {
+	/** {@link StandardPolicy#choose(Hand, com.qubo.challenge.poker.models.Deck, int)}のテスト */
+	@Test
+	public void testStandardPolicy() {
+		try {
+			doTestChoose(StandardPolicy.StandPat, new Hand("H2", "S5", "D9", "CJ", "HA"));
+			doTestChoose(StandardPolicy.KeepPairs, new Hand("H2", "S5", "D9", "CJ", "HA"), 0, 1, 2, 3, 4);
+			doTestChoose(StandardPolicy.KeepPairs, new Hand("H2", "S2", "D9", "CJ", "HA"), 2, 3, 4);
+			doTestChoose(StandardPolicy.KeepPairs, new Hand("H2", "S3", "D4", "C5", "H6"));
+			doTestChoose(StandardPolicy.ChaseFlush, new Hand("H2", "H5", "H9", "CJ", "SA"), 3, 4);
+			doTestChoose(StandardPolicy.ChaseFlush, new Hand("H2", "H5", "D9", "C9", "SA"), 0, 1, 4);
+			doTestChoose(StandardPolicy.HoldJokers, new Hand("H2", "S5", "D9", "CJ", "HA"), 0, 1, 2);
+		} catch (CardException e) {
+			fail(e.getMessage());
+		}
+	}
+	/**
+	 * {@link #testStandardPolicy()}用の内部メソッド
+	 * @param policy 戦略
+	 * @param hand 手札
+	 * @param expected 交換されるはずのカードの位置
+	 */
+	private void doTestChoose(DrawPolicy policy, Hand hand, int... expected) {
+		int[] actual = policy.choose(hand, null, 1);
+		assertThat(actual.length, is(expected.length));
+		for (int i = 0; i < expected.length; i++) {
+			assertThat(actual[i], is(expected[i]));
+		}
+	}
+
+	/** {@link Tournament#run(long, int, int)}のテスト */
+	@Test
+	public void testRun() {
+		Tournament tournament = new Tournament(1, 2, StandardPolicy.KeepPairs, StandardPolicy.KeepPairs, StandardPolicy.StandPat, StandardPolicy.HoldJokers);
+		TournamentResult single = tournament.run(12345L, 3000, 1);
+		TournamentResult parallel = tournament.run(12345L, 3000, 4);
+		assertThat(single.getRounds(), is(3000L));
+		for (int p = 0; p < single.getPolicyCount(); p++) {
+			long total = 0;
+			for (TypeOfHand typeOfHand : TypeOfHand.ALL) {
+				assertThat(parallel.getCount(p, typeOfHand), is(single.getCount(p, typeOfHand)));
+				total += single.getCount(p, typeOfHand);
+			}
+			assertThat(total, is(3000L));
+		}
+		// 同じ戦略同士なら、共通乱数によって差は完全に0になる
+		for (TypeOfHand typeOfHand : TypeOfHand.ALL) {
+			assertThat(single.getDelta(1, typeOfHand), is(0.0));
+			assertThat(single.getStandardError(1, typeOfHand), is(0.0));
+		}
+		assertThat(single.getPayoutStandardError(1), is(0.0));
+		// 交換しない戦略は配られた手札のまま
+		assertTrue(single.getMeanPayout(2) < single.getMeanPayout(0));
+		assertTrue(single.getPayoutStandardError(2) < single.getUnpairedPayoutStandardError(2));
+	}
+
+	/** {@link ExpectedValuePolicy}のテスト */
+	@Test
+	public void testExpectedValuePolicy() {
+		Tournament tournament = new Tournament(0, 1, StandardPolicy.StandPat, new ExpectedValuePolicy(PayoutTable.DEFAULT, 50));
+		TournamentResult result = tournament.run(1L, 200, 2);
+		assertTrue(result.getPayoutDelta(1) > 0);
+	}
+
+	/** {@link PayoutTable}のテスト */
+	@Test
+	public void testPayoutTable() {
+		assertThat(PayoutTable.DEFAULT.getPayout(TypeOfHand.HighCards), is(0));
+		assertThat(PayoutTable.DEFAULT.getPayout(TypeOfHand.RoyalFlush), is(250));
+		try {
+			new PayoutTable(1, 2, 3);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
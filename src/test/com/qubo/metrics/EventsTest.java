@@ -0,0 +1,95 @@
+package test.com.qubo.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.models.CardException;
+import com.qubo.challenge.poker.models.Deck;
+import com.qubo.metrics.Event;
+import com.qubo.metrics.EventSink;
+import com.qubo.metrics.EventType;
+import com.qubo.metrics.Events;
+
+/**
+ * {@link Events}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class EventsTest {
+	/** イベントを溜めておく{@link EventSink} */
+	private static class Collector implements EventSink {
+		final List<Event> events = new ArrayList<Event>();
+		@Override public synchronized void accept(Event event) { events.add(event); }
+	}
+
+	/** {@link Events#commit(EventType, long, int, int, Object)}のテスト */
+	@Test
+	public void testCommit() {
+		EventType type = Events.type("test.event");
+		assertSame(type, Events.type("test.event"));
+		assertThat(Events.begin(type), is(0L));
+
+		Collector collector = new Collector();
+		Events.setSink(collector);
+		try {
+			// 閾値を超えないイベントは、サンプリング周期ごとに一回だけ記録される
+			type.setThreshold(Long.MAX_VALUE).setSamplingPeriod(3);
+			for (int i = 0; i < 9; i++) {
+				Events.commit(type, Events.begin(type), 1, 2, "結果");
+			}
+			assertThat(collector.events.size(), is(3));
+			Event event = collector.events.get(0);
+			assertSame(event.getType(), type);
+			assertThat(event.getJokerCount(), is(1));
+			assertThat(event.getExchangeCount(), is(2));
+			assertThat(event.getResult(), is((Object) "結果"));
+
+			// 閾値が0なら全て記録される
+			type.setThreshold(0).setSamplingPeriod(0);
+			Events.commit(type, Events.begin(type), 0, 0, null);
+			assertThat(collector.events.size(), is(4));
+
+			// 無効にした種類は記録されない
+			type.setEnabled(false);
+			Events.commit(type, Events.begin(type), 0, 0, null);
+			assertThat(collector.events.size(), is(4));
+		} finally {
+			Events.setSink(null);
+			type.setEnabled(true);
+		}
+	}
+
+	/** {@link Deck}のイベントのテスト */
+	@Test
+	public void testDeckEvents() {
+		Collector collector = new Collector();
+		Events.type("poker.deal").setThreshold(0);
+		Events.type("poker.exchange").setThreshold(0);
+		Events.setSink(collector);
+		try {
+			Deck deck = new Deck(2);
+			deck.change(deck.deal(), 0, 3);
+		} catch (CardException e) {
+			fail(e.getMessage());
+		} finally {
+			Events.setSink(null);
+			Events.type("poker.deal").setThreshold(EventType.DEFAULT_THRESHOLD);
+			Events.type("poker.exchange").setThreshold(EventType.DEFAULT_THRESHOLD);
+		}
+		List<Event> events = new ArrayList<Event>();
+		for (Event event : collector.events) {
+			if (event.getType().getName().startsWith("poker.deal") || event.getType().getName().startsWith("poker.exchange")) events.add(event);
+		}
+		assertThat(events.size(), is(2));
+		assertThat(events.get(0).getType().getName(), is("poker.deal"));
+		assertThat(events.get(0).getJokerCount(), is(2));
+		assertThat(events.get(1).getType().getName(), is("poker.exchange"));
+		assertThat(events.get(1).getExchangeCount(), is(2));
+	}
+}
@@ -0,0 +1,138 @@
+package test.com.qubo.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+
+import org.junit.Test;
+
+import com.qubo.metrics.Counter;
+import com.qubo.metrics.LatencyRecorder;
+import com.qubo.metrics.Metrics;
+import com.qubo.metrics.RateMeter;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * {@link Metrics}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class MetricsTest {
+	/** 計測が無効な場合のテスト */
+	@Test
+	public void testDisabled() {
+		Metrics.setEnabled(false);
+		Counter counter = Metrics.counter("test.disabled");
+		counter.increment();
+		assertThat(counter.get(), is(0L));
+		assertThat(Metrics.start(), is(0L));
+		LatencyRecorder latency = Metrics.latency("test.disabled.latency");
+		latency.recordSince(Metrics.start());
+		latency.record(100);
+		assertThat(latency.getCount(), is(0L));
+	}
+
+	/** {@link Counter}、{@link LatencyRecorder}、{@link RateMeter}のテスト */
+	@Test
+	public void testRecord() {
+		Metrics.setEnabled(true);
+		try {
+			Counter counter = Metrics.counter("test.counter");
+			assertSame(counter, Metrics.counter("test.counter"));
+			counter.increment();
+			counter.add(4);
+			assertThat(counter.get(), is(5L));
+
+			LatencyRecorder latency = Metrics.latency("test.latency");
+			for (long nanos = 1; nanos <= 1000; nanos++) {
+				latency.record(nanos);
+			}
+			assertThat(latency.getCount(), is(1000L));
+			assertThat(latency.getMax(), is(1000L));
+			assertRelativelyNear(latency.getPercentile(50), 500);
+			assertRelativelyNear(latency.getPercentile(99), 990);
+			assertThat(latency.getPercentile(100) >= 1000, is(true));
+
+			RateMeter rate = Metrics.rate("test.rate");
+			rate.mark();
+			rate.mark();
+			assertThat(rate.getCount(), is(2L));
+			assertTrue(rate.getRecentRate() > 0);
+
+			try {
+				Metrics.latency("test.counter");
+				fail();
+			} catch (IllegalArgumentException e) {
+			}
+		} finally {
+			Metrics.setEnabled(false);
+		}
+	}
+	/**
+	 * パーセンタイルが、バケットの幅（1/16）以内に収まっていることを確かめる
+	 * @param actual 取得した値
+	 * @param expected 正確な値
+	 */
+	private void assertRelativelyNear(long actual, long expected) {
+		assertTrue(actual + " / " + expected, actual >= expected && actual <= expected + expected / 16 + 1);
+	}
+
+	/** {@link Metrics#toText()}、{@link Metrics#toJson()}、{@link Metrics#writeTo(File, boolean)}のテスト */
+	@Test
+	public void testExport() throws IOException {
+		Metrics.setEnabled(true);
+		try {
+			Metrics.counter("test.export").add(3);
+			assertTrue(Metrics.toText().contains("test.export.count 3\n"));
+			assertTrue(Metrics.toJson().contains("\"test.export\":{\"type\":\"counter\",\"count\":3}"));
+			assertTrue(Metrics.toJson().startsWith("{") && Metrics.toJson().endsWith("}"));
+
+			File file = File.createTempFile("metrics", ".json");
+			try {
+				Metrics.writeTo(file, true);
+				assertTrue(read(new FileInputStream(file)).contains("\"test.export\":{\"type\":\"counter\",\"count\":3}"));
+			} finally {
+				file.delete();
+			}
+
+			HttpServer server = Metrics.startServer(0);
+			try {
+				URL url = new URL("http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort() + Metrics.PATH_TEXT);
+				assertTrue(read(url.openStream()).contains("test.export.count 3"));
+			} finally {
+				server.stop(0);
+			}
+		} finally {
+			Metrics.setEnabled(false);
+		}
+	}
+	/**
+	 * 入力を全て文字列として読み込む
+	 * @param in 入力
+	 * @return 文字列
+	 * @throws IOException 読み込みに失敗した場合に発生
+	 */
+	private String read(InputStream in) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+		try {
+			StringBuilder builder = new StringBuilder();
+			char[] buffer = new char[1024];
+			int length;
+			while ((length = reader.read(buffer)) >= 0) {
+				builder.append(buffer, 0, length);
+			}
+			return builder.toString();
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,2 @@
+/** パッケージ{@link com.qubo.metrics}用テストを定義したパッケージ */
+package test.com.qubo.metrics;
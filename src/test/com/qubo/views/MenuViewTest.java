@@ -0,0 +1,208 @@
+package test.com.qubo.views;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.qubo.Utils;
+import com.qubo.views.MenuView;
+import com.qubo.views.ReplayDriver;
+import com.qubo.views.ReplayResult;
+import com.qubo.views.View;
+
+/**
+ * {@link MenuView}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class MenuViewTest {
+	/** 選択されると何も表示せずに終了する{@link View} */
+	private static class NamedView implements View {
+		private final String name;
+		NamedView(String name) { this.name = name; }
+		@Override public String getName() { return name; }
+		@Override public View view() { return null; }
+	}
+	/** 選択されると処理を一つ行い、メニューに戻る{@link View} */
+	private abstract static class ActionView implements View {
+		private final String name;
+		private final View menu;
+		ActionView(String name, View menu) {
+			this.name = name;
+			this.menu = menu;
+		}
+		@Override public String getName() { return name; }
+		@Override public View view() {
+			run();
+			return menu;
+		}
+		/** 選択された際の処理 */
+		abstract void run();
+	}
+
+	/** ページの移動と、ページ内の項目の選択のテスト */
+	@Test
+	public void testPaging() {
+		int maxRecords = MenuView.MAX_RECORDS;
+		MenuView.MAX_RECORDS = 3;
+		try {
+			// 7項目を3ページに分けて表示し、アクセス文字はページ内の番号になる
+			String transcript = doTestReplay(new ReplayDriver.ViewFactory() {
+				@Override public View create() { return createMenu(7, 'q'); }
+			}, ">\n>\n0\n");
+			doTestOrder(transcript,
+					"0: 項目a", "2: 項目c", ">: 次のページ", "現在1/3ページ目を表示しています",
+					"[次のページ]を選択しました。", "<: 前のページ", ">: 次のページ", "現在2/3ページ目を表示しています",
+					"[次のページ]を選択しました。", "0: 項目g", "現在3/3ページ目を表示しています",
+					"[項目g]を選択しました。");
+			doTestOrder(doTestReplay(new ReplayDriver.ViewFactory() {
+				@Override public View create() { return createMenu(7, 'q'); }
+			}, ">\n<\n<\n2\n"),
+					"現在2/3ページ目を表示しています", "[前のページ]を選択しました。", "現在1/3ページ目を表示しています",
+					Utils.ERROR_INVALID_CHARACTER, "[項目c]を選択しました。");
+		} finally {
+			MenuView.MAX_RECORDS = maxRecords;
+		}
+	}
+	/** 大文字・小文字や全角・半角を区別せずに選択するテスト */
+	@Test
+	public void testDispatch() {
+		ReplayDriver driver = new ReplayDriver(new ReplayDriver.ViewFactory() {
+			@Override public View create() {
+				MenuView menu = createMenu(3, 'q');
+				menu.addMenuItem('X', new NamedView("項目X"));
+				return menu;
+			}
+		});
+		assertTrue(driver.replay("A\n").getTranscript().contains("[項目a]を選択しました。"));
+		assertTrue(driver.replay("ｂ\n").getTranscript().contains("[項目b]を選択しました。"));
+		assertTrue(driver.replay("Ｃ\n").getTranscript().contains("[項目c]を選択しました。"));
+		assertTrue(driver.replay("x\n").getTranscript().contains("[項目X]を選択しました。"));
+		assertTrue(driver.replay("Q\n").getTranscript().contains("[終了]を選択しました。"));
+		assertTrue(driver.replay("\n").getTranscript().contains("[終了]を選択しました。"));
+		// 存在しない文字や、2文字以上の入力は受け付けない
+		doTestOrder(doTestReplay(driver, "z\nab\nｘ\n"),
+				Utils.ERROR_INVALID_CHARACTER, Utils.ERROR_INVALID_CHARACTER, "[項目X]を選択しました。");
+	}
+	/** 同じアクセス文字を持つメニュー項目の優先順位のテスト */
+	@Test
+	public void testPriority() {
+		// ページ内の項目は、デフォルトより優先する
+		doTestOrder(doTestReplay(new ReplayDriver.ViewFactory() {
+			@Override public View create() { return createMenu(3, 'b'); }
+		}, "b\n"), "[項目b]を選択しました。");
+		int maxRecords = MenuView.MAX_RECORDS;
+		MenuView.MAX_RECORDS = 2;
+		try {
+			// 次のページはデフォルトより、ページ内の項目（番号）はデフォルトより優先する
+			doTestOrder(doTestReplay(new ReplayDriver.ViewFactory() {
+				@Override public View create() { return createMenu(3, '>'); }
+			}, ">\n>\n\n"), "[次のページ]を選択しました。", "現在2/2ページ目を表示しています", "[終了]を選択しました。");
+			doTestOrder(doTestReplay(new ReplayDriver.ViewFactory() {
+				@Override public View create() { return createMenu(3, '0'); }
+			}, "0\n"), "[項目a]を選択しました。");
+			// 前のページは、デフォルトより優先する
+			doTestOrder(doTestReplay(new ReplayDriver.ViewFactory() {
+				@Override public View create() { return createMenu(3, '<'); }
+			}, ">\n<\n0\n"), "[次のページ]を選択しました。", "[前のページ]を選択しました。", "現在1/2ページ目を表示しています",
+					"[項目a]を選択しました。");
+		} finally {
+			MenuView.MAX_RECORDS = maxRecords;
+		}
+	}
+	/** メニュー項目や表示件数を変更した後に、索引が作り直されることのテスト */
+	@Test
+	public void testRebuild() {
+		int maxRecords = MenuView.MAX_RECORDS;
+		try {
+			String transcript = doTestReplay(new ReplayDriver.ViewFactory() {
+				@Override public View create() {
+					final MenuView menu = createMenu(2, 'q');
+					menu.addMenuItem('n', new ActionView("項目の追加", menu) {
+						@Override void run() { menu.addMenuItem('z', new NamedView("追加した項目")); }
+					});
+					return menu;
+				}
+			}, "z\nn\nz\n");
+			doTestOrder(transcript, Utils.ERROR_INVALID_CHARACTER, "[項目の追加]を選択しました。", "z: 追加した項目",
+					"[追加した項目]を選択しました。");
+
+			doTestOrder(doTestReplay(new ReplayDriver.ViewFactory() {
+				@Override public View create() {
+					final MenuView menu = createMenu(2, 'q');
+					menu.addMenuItem('d', new ActionView("デフォルトの変更", menu) {
+						@Override void run() { menu.setDefaultMenuItem('e', new NamedView("新しいデフォルト")); }
+					});
+					return menu;
+				}
+			}, "e\nd\nq\ne\n"), Utils.ERROR_INVALID_CHARACTER, "[デフォルトの変更]を選択しました。",
+					"何も入力せずEnterキーを押すと、[新しいデフォルト]になります。", Utils.ERROR_INVALID_CHARACTER,
+					"[新しいデフォルト]を選択しました。");
+
+			MenuView.MAX_RECORDS = 10;
+			doTestOrder(doTestReplay(new ReplayDriver.ViewFactory() {
+				@Override public View create() {
+					final MenuView menu = createMenu(2, 'q');
+					menu.addMenuItem('m', new ActionView("表示件数の変更", menu) {
+						@Override void run() { MenuView.MAX_RECORDS = 2; }
+					});
+					return menu;
+				}
+			}, ">\nm\n>\n0\nq\n"), Utils.ERROR_INVALID_CHARACTER, "[表示件数の変更]を選択しました。",
+					"現在1/2ページ目を表示しています", "[次のページ]を選択しました。", "0: 表示件数の変更",
+					"[表示件数の変更]を選択しました。", "[終了]を選択しました。");
+		} finally {
+			MenuView.MAX_RECORDS = maxRecords;
+		}
+	}
+
+	/**
+	 * アクセス文字が'a'から始まる項目を持つメニューを生成する
+	 * @param items 項目の数
+	 * @param defaultCharacter デフォルトのメニュー項目のアクセス文字
+	 * @return メニュー
+	 */
+	private static MenuView createMenu(int items, char defaultCharacter) {
+		MenuView menu = new MenuView("テストメニュー");
+		for (int i = 0; i < items; i++) {
+			char accessCharacter = (char) ('a' + i);
+			menu.addMenuItem(accessCharacter, new NamedView("項目" + accessCharacter));
+		}
+		menu.setDefaultMenuItem(defaultCharacter, new NamedView("終了"));
+		return menu;
+	}
+	/**
+	 * スクリプトを再生し、アプリケーションが終了したことを確かめる
+	 * @param factory メニューの生成元
+	 * @param script 改行区切りの入力
+	 * @return 出力
+	 */
+	private static String doTestReplay(ReplayDriver.ViewFactory factory, String script) {
+		return doTestReplay(new ReplayDriver(factory), script);
+	}
+	/**
+	 * スクリプトを再生し、アプリケーションが終了したことを確かめる
+	 * @param driver 再生に使う{@link ReplayDriver}
+	 * @param script 改行区切りの入力
+	 * @return 出力
+	 */
+	private static String doTestReplay(ReplayDriver driver, String script) {
+		ReplayResult result = driver.replay(script);
+		assertThat(result.getTranscript(), result.getStatus(), is(ReplayResult.Status.Completed));
+		return result.getTranscript();
+	}
+	/**
+	 * 出力に、与えた断片がこの順序で含まれることを確かめる
+	 * @param transcript 出力
+	 * @param fragments 断片
+	 */
+	private static void doTestOrder(String transcript, String... fragments) {
+		int from = 0;
+		for (String fragment : fragments) {
+			int found = transcript.indexOf(fragment, from);
+			assertTrue(fragment + " が見つかりません：\n" + transcript, found >= 0);
+			from = found + fragment.length();
+		}
+	}
+}
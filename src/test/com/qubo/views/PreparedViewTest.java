@@ -0,0 +1,80 @@
+package test.com.qubo.views;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.qubo.views.PreparedView;
+import com.qubo.views.View;
+
+/**
+ * {@link PreparedView}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class PreparedViewTest {
+	/** 生成した回数とスレッドを記録する{@link PreparedView.Factory} */
+	private static class CountingFactory implements PreparedView.Factory {
+		final AtomicInteger created = new AtomicInteger();
+		volatile Thread lastThread;
+		@Override public View create() {
+			created.incrementAndGet();
+			lastThread = Thread.currentThread();
+			return new NamedView("遷移先" + created.get());
+		}
+	}
+	/** 名前だけを持つ{@link View} */
+	private static class NamedView implements View {
+		private final String name;
+		NamedView(String name) { this.name = name; }
+		@Override public String getName() { return name; }
+		@Override public View view() { return null; }
+	}
+
+	/** {@link PreparedView#prepare()}で準備したビューを取得するテスト */
+	@Test
+	public void testPrepare() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CountingFactory factory = new CountingFactory();
+			PreparedView prepared = new PreparedView("準備", factory, executor);
+			assertThat(prepared.getName(), is("準備"));
+			prepared.prepare();
+			View view = prepared.view();
+			assertThat(view.getName(), is("遷移先1"));
+			assertThat(factory.created.get(), is(1));
+			assertNotSame(Thread.currentThread(), factory.lastThread);
+
+			// 一度取得したビューは再び返さず、準備していなければその場で生成する
+			View next = prepared.view();
+			assertThat(next.getName(), is("遷移先2"));
+			assertSame(Thread.currentThread(), factory.lastThread);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	/** 準備をやり直した場合に、最後に準備したビューを取得するテスト */
+	@Test
+	public void testPrepareAgain() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CountingFactory factory = new CountingFactory();
+			PreparedView prepared = new PreparedView("準備", factory, executor);
+			prepared.prepare();
+			prepared.prepare();
+			prepared.prepare();
+			View view = prepared.view();
+			// 取り消しが間に合わなかった分は生成されるが、取得するのは最後に準備したビュー
+			assertThat(view.getName(), is("遷移先" + factory.created.get()));
+			assertNotSame(Thread.currentThread(), factory.lastThread);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
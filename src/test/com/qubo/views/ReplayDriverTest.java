@@ -0,0 +1,138 @@
+package test.com.qubo.views;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.Configuration;
+import com.qubo.challenge.poker.ConsoleGame;
+import com.qubo.views.ReplayDriver;
+import com.qubo.views.ReplayResult;
+import com.qubo.views.View;
+
+/**
+ * {@link ReplayDriver}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class ReplayDriverTest {
+	/** メインメニューを生成する{@link ReplayDriver.ViewFactory} */
+	private static final ReplayDriver.ViewFactory MENU = new ReplayDriver.ViewFactory() {
+		@Override public View create() { return new ConsoleGame().buildMenu(); }
+	};
+
+	/** {@link ReplayDriver#replay(String)}のテスト（メニュー、設定値の変更、ゲーム、終了） */
+	@Test
+	public void testReplay() {
+		int jokerCount = Configuration.jokerCount;
+		int changeCount = Configuration.changeCount;
+		Configuration.jokerCount = Configuration.DEFAULT_JOKERCOUNT;
+		Configuration.changeCount = Configuration.DEFAULT_CHANGECOUNT;
+		try {
+			// ジョーカーを2枚にし、交換せずに役を確定させてメニューに戻り、終了する
+			ReplayResult result = new ReplayDriver(MENU).replay("j\n2\ng\n\n\nq\ny\n");
+			assertThat(result.getStatus(), is(ReplayResult.Status.Completed));
+			assertThat(Configuration.jokerCount, is(2));
+
+			String transcript = result.getTranscript();
+			doTestOrder(transcript,
+						"メニューを選択してください。",
+						"[ジョーカーの枚数の変更]を選択しました。",
+						"ジョーカーの枚数の値を入力して下さい(0～2)。",
+						"現在の値は0です。",
+						"ジョーカーの枚数を2に設定しました。",
+						"[ゲーム開始]を選択しました。",
+						"初期手札は次のとおりです。",
+						"あと1回カードを交換できます。",
+						"Enterキーを押すとメニューに戻ります",
+						"メニューを選択してください。",
+						"[終了]を選択しました。",
+						"本当に終了しますか？");
+		} finally {
+			Configuration.jokerCount = jokerCount;
+			Configuration.changeCount = changeCount;
+		}
+	}
+	/** {@link ReplayDriver#replay(String)}のテスト（入力の誤りと交換） */
+	@Test
+	public void testReplayExchange() {
+		int jokerCount = Configuration.jokerCount;
+		int changeCount = Configuration.changeCount;
+		Configuration.jokerCount = Configuration.DEFAULT_JOKERCOUNT;
+		Configuration.changeCount = Configuration.DEFAULT_CHANGECOUNT;
+		try {
+			// 範囲外の値と存在しないメニューを入力した後、5枚とも交換する
+			ReplayResult result = new ReplayDriver(MENU).replay("j\n3\n1\nx\ng\n12345\n\nq\ny\n");
+			assertThat(result.getStatus(), is(ReplayResult.Status.Completed));
+			assertThat(Configuration.jokerCount, is(1));
+
+			doTestOrder(result.getTranscript(),
+						"ジョーカーの枚数を1に設定しました。",
+						"メニューを選択してください。",
+						"[ゲーム開始]を選択しました。",
+						"1枚目、2枚目、3枚目、4枚目、5枚目を交換しました。",
+						"Enterキーを押すとメニューに戻ります",
+						"[終了]を選択しました。");
+		} finally {
+			Configuration.jokerCount = jokerCount;
+			Configuration.changeCount = changeCount;
+		}
+	}
+	/** {@link ReplayDriver#replay(String)}のテスト（終了する前にスクリプトを読み終えた場合） */
+	@Test
+	public void testReplayInputExhausted() {
+		int jokerCount = Configuration.jokerCount;
+		int changeCount = Configuration.changeCount;
+		Configuration.jokerCount = Configuration.DEFAULT_JOKERCOUNT;
+		Configuration.changeCount = Configuration.DEFAULT_CHANGECOUNT;
+		try {
+			ReplayResult result = new ReplayDriver(MENU).replay("g\n");
+			assertThat(result.getStatus(), is(ReplayResult.Status.InputExhausted));
+			doTestOrder(result.getTranscript(), "[ゲーム開始]を選択しました。", "初期手札は次のとおりです。");
+		} finally {
+			Configuration.jokerCount = jokerCount;
+			Configuration.changeCount = changeCount;
+		}
+	}
+	/** {@link ReplayDriver#replayAll(List, int)}のテスト */
+	@Test
+	public void testReplayAll() throws InterruptedException {
+		int jokerCount = Configuration.jokerCount;
+		int changeCount = Configuration.changeCount;
+		Configuration.jokerCount = Configuration.DEFAULT_JOKERCOUNT;
+		Configuration.changeCount = Configuration.DEFAULT_CHANGECOUNT;
+		try {
+			List<String> scripts = Arrays.asList("q\ny\n", "g\n\n\nq\ny\n", "q\nn\n");
+			List<ReplayResult> results = new ReplayDriver(MENU).replayAll(scripts, 2);
+			assertThat(results.size(), is(scripts.size()));
+			assertThat(results.get(0).getStatus(), is(ReplayResult.Status.Completed));
+			assertThat(results.get(1).getStatus(), is(ReplayResult.Status.Completed));
+			assertThat(results.get(2).getStatus(), is(ReplayResult.Status.InputExhausted));
+			for (int i = 0; i < scripts.size(); i++) {
+				assertThat(results.get(i).getScript(), is(scripts.get(i)));
+			}
+			doTestOrder(results.get(1).getTranscript(), "[ゲーム開始]を選択しました。", "初期手札は次のとおりです。", "[終了]を選択しました。");
+		} finally {
+			Configuration.jokerCount = jokerCount;
+			Configuration.changeCount = changeCount;
+		}
+	}
+
+	/**
+	 * 出力に、与えた断片がこの順序で含まれることを確かめる
+	 * @param transcript 出力
+	 * @param fragments 断片
+	 */
+	private static void doTestOrder(String transcript, String... fragments) {
+		int from = 0;
+		for (String fragment : fragments) {
+			int found = transcript.indexOf(fragment, from);
+			assertTrue(fragment + " が見つかりません：\n" + transcript, found >= 0);
+			from = found + fragment.length();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package test.com.qubo.views;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.qubo.challenge.poker.Configuration;
+import com.qubo.challenge.poker.ConsoleGame;
+import com.qubo.views.SessionMultiplexer;
+import com.qubo.views.ViewSession;
+
+/**
+ * {@link ViewSession}と{@link SessionMultiplexer}用のテストを定義したクラス
+ * @author Qubo
+ */
+public class ViewSessionTest {
+	/** 出力を待つ最大の時間（ミリ秒） */
+	private static final long TIMEOUT = 10000;
+
+	/** メインメニューからゲームを一回遊んで終了するテスト。入力は一行ずつ、前の画面の表示を待ってから与える */
+	@Test
+	public void testMenuAndGame() throws Exception {
+		int jokerCount = Configuration.jokerCount;
+		int changeCount = Configuration.changeCount;
+		Configuration.jokerCount = Configuration.DEFAULT_JOKERCOUNT;
+		Configuration.changeCount = Configuration.DEFAULT_CHANGECOUNT;
+		SessionMultiplexer multiplexer = new SessionMultiplexer(1);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ViewSession session = multiplexer.open(new ConsoleGame().buildMenu(), out);
+			awaitOutput(out, "メニューを選択してください。", 1);
+			session.offer("g");
+			awaitOutput(out, "あと1回カードを交換できます。", 1);
+			session.offer("");
+			awaitOutput(out, "Enterキーを押すとメニューに戻ります", 1);
+			session.offer("");
+			awaitOutput(out, "メニューを選択してください。", 2);
+			session.offer("q");
+			awaitOutput(out, "本当に終了しますか？", 1);
+			assertTrue(!session.isFinished());
+			session.offer("y");
+			assertTrue(session.await(TIMEOUT, TimeUnit.MILLISECONDS));
+			assertNull(session.getError());
+
+			// 入力を待って中断した画面をやり直しても、表示済みの部分は繰り返し出力されない
+			String transcript = toString(out);
+			assertThat(count(transcript, "メニューを選択してください。"), is(2));
+			assertThat(count(transcript, "[ゲーム開始]を選択しました。"), is(1));
+			assertThat(count(transcript, "初期手札は次のとおりです。"), is(1));
+			assertThat(count(transcript, "[終了]を選択しました。"), is(1));
+		} finally {
+			multiplexer.shutdown();
+			Configuration.jokerCount = jokerCount;
+			Configuration.changeCount = changeCount;
+		}
+	}
+	/** スレッド数より多くのセッションを同時に開いておき、入力をまとめて与えるテスト */
+	@Test
+	public void testManySessions() throws Exception {
+		SessionMultiplexer multiplexer = new SessionMultiplexer(2);
+		try {
+			List<ViewSession> sessions = new ArrayList<ViewSession>();
+			List<ByteArrayOutputStream> outputs = new ArrayList<ByteArrayOutputStream>();
+			for (int i = 0; i < 20; i++) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				outputs.add(out);
+				sessions.add(multiplexer.open(new ConsoleGame().buildMenu(), out));
+			}
+			// 全てのセッションが入力を待っている間も、スレッドは占有されない
+			for (ByteArrayOutputStream out : outputs) {
+				awaitOutput(out, "メニューを選択してください。", 1);
+			}
+			for (ViewSession session : sessions) {
+				session.offer("x");
+				session.offer("q");
+				session.offer("y");
+			}
+			for (int i = 0; i < sessions.size(); i++) {
+				assertTrue(sessions.get(i).await(TIMEOUT, TimeUnit.MILLISECONDS));
+				assertNull(sessions.get(i).getError());
+				assertThat(count(toString(outputs.get(i)), "[終了]を選択しました。"), is(1));
+			}
+		} finally {
+			multiplexer.shutdown();
+		}
+	}
+	/** {@link ViewSession#close()}のテスト */
+	@Test
+	public void testClose() throws Exception {
+		SessionMultiplexer multiplexer = new SessionMultiplexer(1);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ViewSession session = multiplexer.open(new ConsoleGame().buildMenu(), out);
+			session.offer("q");
+			session.close();
+			assertTrue(session.await(TIMEOUT, TimeUnit.MILLISECONDS));
+			assertTrue(session.getError() instanceof IllegalStateException);
+			assertTrue(session.getError().getCause() instanceof EOFException);
+			assertThat(count(toString(out), "本当に終了しますか？"), is(1));
+			try {
+				session.offer("y");
+				fail();
+			} catch (IllegalStateException e) {
+				// 入力の終端に達したセッションには入力できない
+			}
+		} finally {
+			multiplexer.shutdown();
+		}
+	}
+
+	/**
+	 * 出力に断片が指定した回数以上現れるまで待つ
+	 * @param out 出力
+	 * @param fragment 断片
+	 * @param times 回数
+	 * @throws Exception 待っている間に割り込まれた場合に発生
+	 */
+	private static void awaitOutput(ByteArrayOutputStream out, String fragment, int times) throws Exception {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (count(toString(out), fragment) < times) {
+			if (System.currentTimeMillis() > deadline) fail(fragment + " が出力されません：\n" + toString(out));
+			Thread.sleep(10);
+		}
+	}
+	/**
+	 * 文字列に断片が現れる回数を数える
+	 * @param text 文字列
+	 * @param fragment 断片
+	 * @return 回数
+	 */
+	private static int count(String text, String fragment) {
+		int count = 0;
+		for (int i = text.indexOf(fragment); i >= 0; i = text.indexOf(fragment, i + fragment.length())) {
+			count++;
+		}
+		return count;
+	}
+	/**
+	 * 出力をUTF-8の文字列として取得する
+	 * @param out 出力
+	 * @return 文字列
+	 * @throws UnsupportedEncodingException UTF-8が使えない場合に発生
+	 */
+	private static String toString(ByteArrayOutputStream out) throws UnsupportedEncodingException {
+		return out.toString("UTF-8");
+	}
+}
@@ -0,0 +1,2 @@
+/** パッケージ{@link com.qubo.views}用テストを定義したパッケージ */
+package test.com.qubo.views;